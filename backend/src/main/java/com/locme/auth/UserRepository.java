@@ -7,6 +7,8 @@ import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
+    // Appelée par le filtre JWT à chaque requête, volontairement hors cache : un compte modifié ou
+    // supprimé sur une autre instance doit l'être aussitôt ici
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
     java.util.List<User> findByRole(Role role);
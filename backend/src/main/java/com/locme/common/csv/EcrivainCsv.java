@@ -0,0 +1,79 @@
+package com.locme.common.csv;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Écriture CSV (RFC 4180) enregistrement par enregistrement, sans rien garder en mémoire au-delà du
+ * tampon du Writer. Les nombres, dates et énumérations sont écrits tels quels ; le texte est mis
+ * entre guillemets si besoin et neutralisé lorsqu'un tableur pourrait l'interpréter comme une formule.
+ */
+public class EcrivainCsv implements Flushable, Closeable {
+
+    private final Writer writer;
+    private final char separateur;
+
+    public EcrivainCsv(Writer writer, char separateur) {
+        this.writer = writer;
+        this.separateur = separateur;
+    }
+
+    /**
+     * CSV à télécharger, écrit en UTF-8 directement dans le flux de sortie. La marque d'ordre des
+     * octets permet aux tableurs d'ouvrir le fichier sans mal interpréter les accents.
+     */
+    public static EcrivainCsv pourTelechargement(OutputStream sortie) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(sortie, StandardCharsets.UTF_8));
+        writer.write('\uFEFF');
+        return new EcrivainCsv(writer, ',');
+    }
+
+    public void ecrire(Object... valeurs) throws IOException {
+        for (int i = 0; i < valeurs.length; i++) {
+            if (i > 0) {
+                writer.write(separateur);
+            }
+            writer.write(formater(valeurs[i]));
+        }
+        writer.write("\r\n");
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    private String formater(Object valeur) {
+        if (valeur == null) {
+            return "";
+        }
+        if (valeur instanceof BigDecimal decimal) {
+            return decimal.toPlainString();
+        }
+        if (!(valeur instanceof CharSequence)) {
+            return valeur.toString();
+        }
+        String texte = valeur.toString();
+        // Injection de formule : "=", "+", "-", "@" en tête seraient évalués à l'ouverture dans un tableur
+        if (!texte.isEmpty() && "=+-@\t\r".indexOf(texte.charAt(0)) >= 0) {
+            texte = "'" + texte;
+        }
+        if (texte.indexOf(separateur) >= 0 || texte.indexOf('"') >= 0
+                || texte.indexOf('\n') >= 0 || texte.indexOf('\r') >= 0) {
+            return '"' + texte.replace("\"", "\"\"") + '"';
+        }
+        return texte;
+    }
+}
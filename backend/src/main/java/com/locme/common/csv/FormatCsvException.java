@@ -0,0 +1,18 @@
+package com.locme.common.csv;
+
+/**
+ * Flux CSV mal formé : la lecture ne peut pas reprendre au-delà de l'enregistrement fautif.
+ */
+public class FormatCsvException extends RuntimeException {
+
+    private final long ligne;
+
+    public FormatCsvException(String message, long ligne) {
+        super(message);
+        this.ligne = ligne;
+    }
+
+    public long getLigne() {
+        return ligne;
+    }
+}
@@ -0,0 +1,131 @@
+package com.locme.common.csv;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lecture CSV (RFC 4180) enregistrement par enregistrement : seul l'enregistrement courant est en
+ * mémoire, quelle que soit la taille du flux. Gère les champs entre guillemets (séparateurs, sauts de
+ * ligne et guillemets doublés inclus), les fins de ligne CRLF ou LF et ignore les lignes vides.
+ */
+public class LecteurCsv implements Closeable {
+
+    public static final int LONGUEUR_MAX_CHAMP = 65_536;
+    public static final int NOMBRE_MAX_CHAMPS = 1_024;
+
+    private final BufferedReader reader;
+    private final char separateur;
+    private long ligneCourante = 1;
+    private long ligneEnregistrement;
+    private boolean premier = true;
+    private boolean termine;
+
+    public LecteurCsv(Reader reader, char separateur) {
+        this.reader = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+        this.separateur = separateur;
+    }
+
+    /**
+     * Retourne les champs de l'enregistrement suivant, ou null à la fin du flux.
+     *
+     * @throws FormatCsvException si un guillemet n'est pas fermé ou si un enregistrement dépasse les limites de taille
+     */
+    public List<String> lire() throws IOException {
+        if (termine) {
+            return null;
+        }
+        List<String> champs = new ArrayList<>();
+        StringBuilder champ = new StringBuilder();
+        boolean entreGuillemets = false;
+        boolean champEntame = false;
+        ligneEnregistrement = ligneCourante;
+        while (true) {
+            int c = reader.read();
+            if (premier) {
+                premier = false;
+                // Marque d'ordre des octets laissée par certains tableurs
+                if (c == '\uFEFF') {
+                    c = reader.read();
+                }
+            }
+            if (c == -1) {
+                termine = true;
+                if (entreGuillemets) {
+                    throw new FormatCsvException("Guillemet non fermé", ligneEnregistrement);
+                }
+                if (champs.isEmpty() && !champEntame) {
+                    return null;
+                }
+                champs.add(champ.toString());
+                return champs;
+            }
+            char caractere = (char) c;
+            if (entreGuillemets) {
+                if (caractere == '"') {
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        ajouter(champ, '"');
+                    } else {
+                        reader.reset();
+                        entreGuillemets = false;
+                    }
+                } else {
+                    if (caractere == '\n') {
+                        ligneCourante++;
+                    }
+                    ajouter(champ, caractere);
+                }
+            } else if (caractere == '"' && champ.isEmpty()) {
+                entreGuillemets = true;
+                champEntame = true;
+            } else if (caractere == separateur) {
+                if (champs.size() >= NOMBRE_MAX_CHAMPS) {
+                    throw new FormatCsvException("Plus de " + NOMBRE_MAX_CHAMPS + " champs", ligneEnregistrement);
+                }
+                champs.add(champ.toString());
+                champ.setLength(0);
+                champEntame = true;
+            } else if (caractere == '\r' || caractere == '\n') {
+                if (caractere == '\r') {
+                    reader.mark(1);
+                    if (reader.read() != '\n') {
+                        reader.reset();
+                    }
+                }
+                ligneCourante++;
+                if (champs.isEmpty() && !champEntame) {
+                    ligneEnregistrement = ligneCourante;
+                    continue;
+                }
+                champs.add(champ.toString());
+                return champs;
+            } else {
+                ajouter(champ, caractere);
+                champEntame = true;
+            }
+        }
+    }
+
+    /**
+     * Numéro de la ligne (à partir de 1) où commence le dernier enregistrement lu.
+     */
+    public long getLigne() {
+        return ligneEnregistrement;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private void ajouter(StringBuilder champ, char caractere) {
+        if (champ.length() >= LONGUEUR_MAX_CHAMP) {
+            throw new FormatCsvException("Champ de plus de " + LONGUEUR_MAX_CHAMP + " caractères", ligneEnregistrement);
+        }
+        champ.append(caractere);
+    }
+}
@@ -0,0 +1,27 @@
+package com.locme.common.retry;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Rejoue la méthode annotée lorsqu'elle échoue sur un conflit de verrouillage optimiste.
+ * L'aspect s'exécute avant @Transactional : chaque tentative ouvre une nouvelle transaction
+ * et relit donc l'état courant. La méthode doit être rejouable sans effet de bord externe.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RetryOnConflict {
+
+    /** Nombre total de tentatives, première exécution comprise. */
+    int maxAttempts() default 3;
+
+    /** Attente de base avant la première reprise, doublée à chaque nouvel échec. */
+    long backoffMs() default 20;
+
+    /** Plafond de l'attente entre deux tentatives. */
+    long maxBackoffMs() default 200;
+}
@@ -0,0 +1,84 @@
+package com.locme.common.retry;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Applique {@link RetryOnConflict}. Placé en tête de chaîne (avant le proxy transactionnel) pour que
+ * chaque reprise s'exécute dans une transaction neuve. Les conflits sont comptés par méthode dans
+ * "locme.conflits.optimistes" (issue = reprise, resolu, epuise) afin de repérer les points chauds.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RetryOnConflictAspect {
+
+    private static final Logger log = LoggerFactory.getLogger(RetryOnConflictAspect.class);
+
+    static final String METRIQUE = "locme.conflits.optimistes";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Around("@annotation(com.locme.common.retry.RetryOnConflict)")
+    public Object rejouer(ProceedingJoinPoint joinPoint) throws Throwable {
+        // Dans une transaction englobante, la reprise ne servirait à rien : elle est marquée rollback-only
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+
+        Method methodeCible = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        RetryOnConflict retryOnConflict = AnnotationUtils.findAnnotation(methodeCible, RetryOnConflict.class);
+        String methode = joinPoint.getSignature().getDeclaringType().getSimpleName()
+                + "." + joinPoint.getSignature().getName();
+        int maxTentatives = Math.max(1, retryOnConflict.maxAttempts());
+        for (int tentative = 1; ; tentative++) {
+            try {
+                Object resultat = joinPoint.proceed();
+                if (tentative > 1) {
+                    compteur(methode, "resolu").increment();
+                }
+                return resultat;
+            } catch (OptimisticLockingFailureException e) {
+                if (tentative >= maxTentatives) {
+                    compteur(methode, "epuise").increment();
+                    log.warn("Conflit de concurrence persistant sur {} après {} tentatives", methode, tentative);
+                    throw e;
+                }
+                compteur(methode, "reprise").increment();
+                log.debug("Conflit de concurrence sur {}, tentative {}/{}", methode, tentative, maxTentatives);
+                Thread.sleep(delai(retryOnConflict, tentative));
+            }
+        }
+    }
+
+    // Backoff exponentiel plafonné avec gigue complète, pour désynchroniser les appels concurrents
+    static long delai(RetryOnConflict config, int tentative) {
+        long plafond = Math.min(config.maxBackoffMs(), config.backoffMs() << Math.min(tentative - 1, 20));
+        return plafond <= 0 ? 0 : ThreadLocalRandom.current().nextLong(plafond + 1);
+    }
+
+    private Counter compteur(String methode, String issue) {
+        return Counter.builder(METRIQUE)
+                .description("Conflits de verrouillage optimiste rencontrés par les méthodes @RetryOnConflict")
+                .tag("methode", methode)
+                .tag("issue", issue)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,40 @@
+package com.locme.config;
+
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.ehcache.xml.XmlConfiguration;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.CacheException;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+
+import javax.cache.CacheManager;
+import javax.cache.spi.CachingProvider;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Cache de second niveau sur JCache (Ehcache), régions décrites par hibernate.javax.cache.uri
+ * (ehcache.xml). Le fournisseur JCache partage un CacheManager par URI dans toute la JVM : deux
+ * contextes branchés sur des bases différentes (tests) se renverraient leurs entités. Chaque
+ * SessionFactory construit donc le sien, sous un nom unique, et le ferme à l'arrêt.
+ */
+public class JCacheRegionFactoryIsolee extends JCacheRegionFactory {
+
+    @Override
+    protected CacheManager resolveCacheManager(SessionFactoryOptions settings, Map<String, Object> properties) {
+        CachingProvider provider = getCachingProvider(properties);
+        if (properties.get(ConfigSettings.CACHE_MANAGER) != null || properties.get(ConfigSettings.CONFIG_URI) == null
+                || !(provider instanceof EhcacheCachingProvider ehcache)) {
+            return super.resolveCacheManager(settings, properties);
+        }
+        URI configuration = getUri(settings, properties);
+        try {
+            XmlConfiguration regions = new XmlConfiguration(configuration.toURL(), getClassLoader(provider));
+            return ehcache.getCacheManager(URI.create("urn:locme:cache:" + UUID.randomUUID()), regions);
+        } catch (MalformedURLException | IllegalArgumentException e) {
+            throw new CacheException("Configuration du cache illisible : " + configuration, e);
+        }
+    }
+}
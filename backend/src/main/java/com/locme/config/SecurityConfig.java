@@ -5,6 +5,7 @@ import com.locme.auth.JwtAuthenticationFilter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
@@ -67,6 +68,10 @@ public class SecurityConfig {
                     .requestMatchers("/api/voitures/disponibles").permitAll()
                     .requestMatchers("/api/voitures").permitAll()
                     .requestMatchers("/api/voitures/{id}").permitAll()
+                    .requestMatchers(HttpMethod.GET, "/api/voitures/trending").permitAll()
+                    .requestMatchers(HttpMethod.GET, "/api/voitures/{id}/quote").permitAll()
+                    .requestMatchers(HttpMethod.POST, "/api/voitures/quotes").permitAll()
+                    .requestMatchers(HttpMethod.POST, "/api/payments/webhook").permitAll()
                     .requestMatchers("/api/images/**").permitAll()
                     .requestMatchers("/swagger-ui/**").permitAll()
                     .requestMatchers("/api-docs/**").permitAll()
@@ -0,0 +1,38 @@
+package com.locme.config.replica;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Utilisateurs ayant validé une écriture récemment : leurs lectures restent sur la base principale
+ * le temps que la réplique rattrape. La fenêtre doit donc dépasser le retard toléré
+ * (locme.datasource.replica.max-lag-ms). Mémoire propre à chaque instance.
+ */
+public class EcrituresRecentes {
+
+    @Value("${locme.datasource.replica.read-your-writes-ms:5000}")
+    private long dureeMs = 5000;
+
+    private final Map<String, Long> echeances = new ConcurrentHashMap<>();
+
+    public void marquer(String utilisateur) {
+        echeances.put(utilisateur, System.currentTimeMillis() + dureeMs);
+    }
+
+    public boolean contient(String utilisateur) {
+        if (utilisateur == null) {
+            return false;
+        }
+        Long echeance = echeances.get(utilisateur);
+        return echeance != null && echeance > System.currentTimeMillis();
+    }
+
+    @Scheduled(fixedDelayString = "${locme.datasource.replica.purge-interval-ms:60000}")
+    public void purger() {
+        long maintenant = System.currentTimeMillis();
+        echeances.values().removeIf(echeance -> echeance <= maintenant);
+    }
+}
@@ -0,0 +1,80 @@
+package com.locme.config.replica;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Retard de réplication mesuré périodiquement sur la réplique. Elle ne reçoit des lectures que si la
+ * dernière mesure a réussi et reste sous le retard toléré ; au démarrage, elle attend la première.
+ */
+public class EtatReplica {
+
+    private static final Logger log = LoggerFactory.getLogger(EtatReplica.class);
+
+    // Retard nul si tout le WAL reçu est rejoué (une base principale inactive ne produit plus de
+    // transactions, l'ancienneté du dernier rejeu ne mesure alors rien) ; NULL si rien n'a été rejoué
+    static final String REQUETE_RETARD = "SELECT CASE WHEN NOT pg_is_in_recovery() THEN 0 "
+            + "WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+            + "ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000 END";
+
+    private final DataSource replica;
+
+    @Value("${locme.datasource.replica.max-lag-ms:2000}")
+    private long retardMaxMs = 2000;
+
+    private volatile boolean disponible;
+    private volatile Long retardMs;
+
+    public EtatReplica(DataSource replica) {
+        this.replica = replica;
+    }
+
+    @Scheduled(fixedDelayString = "${locme.datasource.replica.check-interval-ms:1000}")
+    public void verifier() {
+        Long retard;
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(REQUETE_RETARD)) {
+            resultSet.next();
+            double valeur = resultSet.getDouble(1);
+            retard = resultSet.wasNull() ? null : Math.round(valeur);
+        } catch (SQLException e) {
+            signalerEchec(e);
+            return;
+        }
+        retardMs = retard;
+        boolean accepte = retard != null && retard <= retardMaxMs;
+        if (accepte != disponible) {
+            if (accepte) {
+                log.info("Réplique disponible pour les lectures (retard {} ms)", retard);
+            } else {
+                log.warn("Réplique écartée : retard {} ms au-delà de {} ms", retard, retardMaxMs);
+            }
+        }
+        disponible = accepte;
+    }
+
+    void signalerEchec(SQLException e) {
+        if (disponible) {
+            log.warn("Réplique injoignable, lectures redirigées vers la base principale", e);
+        }
+        disponible = false;
+        retardMs = null;
+    }
+
+    public boolean isDisponible() {
+        return disponible;
+    }
+
+    public Long getRetardMs() {
+        return retardMs;
+    }
+}
@@ -0,0 +1,67 @@
+package com.locme.config.replica;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Deux pools, base principale (spring.datasource) et réplique (locme.datasource.replica), derrière
+ * un seul DataSource qui choisit la cible transaction par transaction. Sans réplique configurée,
+ * l'auto-configuration Spring Boot reste en place avec sa source unique.
+ */
+@Configuration
+@ConditionalOnProperty(name = "locme.datasource.replica.enabled", havingValue = "true")
+public class ReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaireDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConfigurationProperties("locme.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties,
+                                              @Value("${locme.datasource.replica.url}") String url) {
+        // Mêmes identifiants et pilote que la principale, sauf surcharge dans locme.datasource.replica.hikari
+        HikariDataSource replica = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(url)
+                .username(properties.determineUsername())
+                .password(properties.determinePassword())
+                .build();
+        replica.setPoolName("replica");
+        replica.setReadOnly(true);
+        return replica;
+    }
+
+    @Bean
+    public EtatReplica etatReplica(@Qualifier("replicaDataSource") DataSource replicaDataSource) {
+        return new EtatReplica(replicaDataSource);
+    }
+
+    @Bean
+    public EcrituresRecentes ecrituresRecentes() {
+        return new EcrituresRecentes();
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaireDataSource") DataSource primaireDataSource,
+                                 @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                 EtatReplica etatReplica, EcrituresRecentes ecrituresRecentes) {
+        return new LazyConnectionDataSourceProxy(
+                new RoutageDataSource(primaireDataSource, replicaDataSource, etatReplica, ecrituresRecentes));
+    }
+}
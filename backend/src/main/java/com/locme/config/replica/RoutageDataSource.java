@@ -0,0 +1,91 @@
+package com.locme.config.replica;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * Envoie les transactions en lecture seule ({@code @Transactional(readOnly = true)}) vers la
+ * réplique et tout le reste vers la base principale. La réplique est écartée tant qu'elle est
+ * en retard ou injoignable, et pour l'utilisateur qui vient d'écrire afin qu'il relise ses
+ * propres modifications.
+ *
+ * Doit être enveloppée dans un LazyConnectionDataSourceProxy : la connexion n'est alors choisie
+ * qu'à la première requête, une fois le caractère lecture seule de la transaction connu.
+ */
+public class RoutageDataSource extends AbstractRoutingDataSource {
+
+    enum Cible { PRIMAIRE, REPLICA }
+
+    private final DataSource primaire;
+    private final DataSource replica;
+    private final EtatReplica etatReplica;
+    private final EcrituresRecentes ecrituresRecentes;
+
+    public RoutageDataSource(DataSource primaire, DataSource replica, EtatReplica etatReplica,
+                             EcrituresRecentes ecrituresRecentes) {
+        this.primaire = primaire;
+        this.replica = replica;
+        this.etatReplica = etatReplica;
+        this.ecrituresRecentes = ecrituresRecentes;
+        setTargetDataSources(Map.of(Cible.PRIMAIRE, primaire, Cible.REPLICA, replica));
+        setDefaultTargetDataSource(primaire);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String utilisateur = utilisateurCourant();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            suivreEcriture(utilisateur);
+            return Cible.PRIMAIRE;
+        }
+        if (!etatReplica.isDisponible() || ecrituresRecentes.contient(utilisateur)) {
+            return Cible.PRIMAIRE;
+        }
+        return Cible.REPLICA;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (determineCurrentLookupKey() != Cible.REPLICA) {
+            return primaire.getConnection();
+        }
+        try {
+            return replica.getConnection();
+        } catch (SQLException e) {
+            // La lecture se fait sur la principale ; la réplique revient à la prochaine vérification réussie
+            etatReplica.signalerEchec(e);
+            return primaire.getConnection();
+        }
+    }
+
+    private void suivreEcriture(String utilisateur) {
+        if (utilisateur == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                ecrituresRecentes.marquer(utilisateur);
+            }
+        });
+    }
+
+    private String utilisateurCourant() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
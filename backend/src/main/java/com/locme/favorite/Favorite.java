@@ -10,11 +10,14 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "favorites", uniqueConstraints = {
     @UniqueConstraint(columnNames = {"user_id", "voiture_id"})
+}, indexes = {
+    @Index(name = "idx_favorites_user_created", columnList = "user_id, created_at, id")
 })
 public class Favorite {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "favorites_seq")
+    @SequenceGenerator(name = "favorites_seq", sequenceName = "favorites_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -0,0 +1,146 @@
+package com.locme.favorite;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+
+/**
+ * Favoris de chaque utilisateur gardés en mémoire sous forme de tableau trié d'identifiants de voitures
+ * (recherche dichotomique, remplacé à chaque modification), pour les vérifications de /check. La base
+ * reste la référence : FavoriteService y décide chaque bascule, puis reporte ici le résultat validé.
+ *
+ * Le cache est local à l'instance : une bascule faite ailleurs n'y apparaît qu'au rechargement, au plus
+ * tard après cache-ttl-minutes.
+ */
+@Component
+public class FavoriteCache {
+
+    private static final int MAX_RECHARGEMENTS = 3;
+
+    @Autowired
+    private FavoriteRepository favoriteRepository;
+
+    @Value("${locme.favorites.cache-ttl-minutes:10}")
+    private long ttlMinutes = 10;
+
+    @Value("${locme.favorites.max-users:50000}")
+    private int maxUtilisateurs = 50_000;
+
+    private final Map<Long, Ensemble> ensembles = new ConcurrentHashMap<>();
+    // Incrémenté avant chaque modification : un chargement qui en chevauche une est relu
+    private final AtomicLong modifications = new AtomicLong();
+
+    public boolean contient(Long userId, Long voitureId) {
+        return ensemble(userId).contient(voitureId);
+    }
+
+    public Map<Long, Boolean> contient(Long userId, List<Long> voitureIds) {
+        Ensemble ensemble = ensemble(userId);
+        Map<Long, Boolean> resultat = new LinkedHashMap<>();
+        for (Long voitureId : voitureIds) {
+            resultat.put(voitureId, ensemble.contient(voitureId));
+        }
+        return resultat;
+    }
+
+    /** Reporte un favori ajouté et validé en base. */
+    public void ajouter(Long userId, Long voitureId) {
+        modifier(userId, ensemble -> ensemble.avec(voitureId));
+    }
+
+    /** Reporte un favori retiré et validé en base. */
+    public void retirer(Long userId, Long voitureId) {
+        modifier(userId, ensemble -> ensemble.sans(voitureId));
+    }
+
+    /** Retire une voiture supprimée de tous les ensembles chargés. */
+    public void retirerVoiture(Long voitureId) {
+        modifications.incrementAndGet();
+        ensembles.replaceAll((userId, ensemble) -> ensemble.sans(voitureId));
+    }
+
+    @Scheduled(fixedDelayString = "${locme.favorites.purge-interval-ms:60000}")
+    public void purger() {
+        long limite = System.currentTimeMillis() - ttlMinutes * 60_000;
+        ensembles.values().removeIf(ensemble -> ensemble.chargeLe < limite);
+    }
+
+    // Seul un ensemble déjà chargé est mis à jour : sinon la prochaine lecture le chargera depuis la base
+    private void modifier(Long userId, UnaryOperator<Ensemble> modification) {
+        modifications.incrementAndGet();
+        ensembles.computeIfPresent(userId, (id, existant) -> modification.apply(existant));
+    }
+
+    private Ensemble ensemble(Long userId) {
+        Ensemble ensemble = ensembles.get(userId);
+        if (ensemble != null && ensemble.chargeLe >= System.currentTimeMillis() - ttlMinutes * 60_000) {
+            return ensemble;
+        }
+        for (int essai = 1; ; essai++) {
+            long avant = modifications.get();
+            Ensemble charge = new Ensemble(favoriteRepository.findVoitureIdsByUserId(userId).stream()
+                    .mapToLong(Long::longValue).sorted().distinct().toArray(), System.currentTimeMillis());
+            if (ensembles.size() >= maxUtilisateurs && !ensembles.containsKey(userId)) {
+                return charge;
+            }
+            // Le compteur est vérifié sous le verrou de l'entrée : une modification comptée après cette
+            // vérification passe ensuite par computeIfPresent et s'applique à l'ensemble installé
+            Ensemble installe = ensembles.compute(userId, (id, existant) ->
+                    modifications.get() == avant ? charge : existant);
+            if (installe == charge) {
+                return charge;
+            }
+            // Une bascule validée pendant la lecture a pu lui échapper : relire, ou servir sans conserver
+            if (essai == MAX_RECHARGEMENTS) {
+                return charge;
+            }
+        }
+    }
+
+    private static final class Ensemble {
+        private final long[] ids;
+        private final long chargeLe;
+
+        private Ensemble(long[] ids, long chargeLe) {
+            this.ids = ids;
+            this.chargeLe = chargeLe;
+        }
+
+        boolean contient(long voitureId) {
+            return Arrays.binarySearch(ids, voitureId) >= 0;
+        }
+
+        Ensemble avec(long voitureId) {
+            int position = Arrays.binarySearch(ids, voitureId);
+            if (position >= 0) {
+                return this;
+            }
+            int insertion = -position - 1;
+            long[] copie = new long[ids.length + 1];
+            System.arraycopy(ids, 0, copie, 0, insertion);
+            copie[insertion] = voitureId;
+            System.arraycopy(ids, insertion, copie, insertion + 1, ids.length - insertion);
+            return new Ensemble(copie, chargeLe);
+        }
+
+        Ensemble sans(long voitureId) {
+            int position = Arrays.binarySearch(ids, voitureId);
+            if (position < 0) {
+                return this;
+            }
+            long[] copie = new long[ids.length - 1];
+            System.arraycopy(ids, 0, copie, 0, position);
+            System.arraycopy(ids, position + 1, copie, position, ids.length - position - 1);
+            return new Ensemble(copie, chargeLe);
+        }
+    }
+}
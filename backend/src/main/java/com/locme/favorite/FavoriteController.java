@@ -4,12 +4,15 @@ import com.locme.auth.AuthService;
 import com.locme.auth.User;
 import com.locme.common.ApiResponse;
 import com.locme.common.exceptions.ResourceNotFoundException;
+import com.locme.favorite.dto.FavoriteDto;
+import com.locme.favorite.dto.FavoritePageDto;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/favorites")
@@ -24,10 +27,10 @@ public class FavoriteController {
 
     @PostMapping("/toggle/{voitureId}")
     @PreAuthorize("hasRole('CLIENT') or hasRole('ADMIN')")
-    public ResponseEntity<ApiResponse<Favorite>> toggleFavorite(@PathVariable Long voitureId) {
+    public ResponseEntity<ApiResponse<FavoriteDto>> toggleFavorite(@PathVariable Long voitureId) {
         try {
             User currentUser = authService.getCurrentUser();
-            Favorite favorite = favoriteService.toggleFavorite(voitureId, currentUser);
+            FavoriteDto favorite = favoriteService.toggleFavorite(voitureId, currentUser);
             
             if (favorite != null) {
                 return ResponseEntity.ok(ApiResponse.success("Ajouté aux favoris", favorite));
@@ -43,7 +46,10 @@ public class FavoriteController {
 
     @GetMapping("/user/{id}")
     @PreAuthorize("hasRole('CLIENT') or hasRole('ADMIN')")
-    public ResponseEntity<ApiResponse<List<Favorite>>> getUserFavorites(@PathVariable Long id) {
+    public ResponseEntity<ApiResponse<FavoritePageDto>> getUserFavorites(
+            @PathVariable Long id,
+            @RequestParam(required = false) String curseur,
+            @RequestParam(required = false) Integer taille) {
         try {
             User currentUser = authService.getCurrentUser();
             
@@ -52,7 +58,7 @@ public class FavoriteController {
                 return ResponseEntity.status(403).body(ApiResponse.error("Accès non autorisé"));
             }
             
-            List<Favorite> favorites = favoriteService.getUserFavorites(currentUser);
+            FavoritePageDto favorites = favoriteService.getUserFavorites(id, curseur, taille);
             return ResponseEntity.ok(ApiResponse.success(favorites));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
@@ -73,6 +79,18 @@ public class FavoriteController {
         }
     }
 
+    @PostMapping("/check")
+    @PreAuthorize("hasRole('CLIENT') or hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Map<Long, Boolean>>> areFavorites(@RequestBody List<Long> voitureIds) {
+        try {
+            User currentUser = authService.getCurrentUser();
+            Map<Long, Boolean> favoris = favoriteService.areFavorites(voitureIds, currentUser);
+            return ResponseEntity.ok(ApiResponse.success(favoris));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
     @DeleteMapping("/{voitureId}")
     @PreAuthorize("hasRole('CLIENT') or hasRole('ADMIN')")
     public ResponseEntity<ApiResponse<Void>> removeFavorite(@PathVariable Long voitureId) {
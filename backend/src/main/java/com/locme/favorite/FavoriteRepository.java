@@ -1,10 +1,18 @@
 package com.locme.favorite;
 
 import com.locme.auth.User;
+import com.locme.favorite.dto.FavoriteDto;
 import com.locme.voiture.Voiture;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,4 +23,36 @@ public interface FavoriteRepository extends JpaRepository<Favorite, Long> {
     List<Favorite> findByVoiture(Voiture voiture);
     boolean existsByUserAndVoiture(User user, Voiture voiture);
     void deleteByUserAndVoiture(User user, Voiture voiture);
+
+    // Variantes par identifiants : requêtes sur l'index unique (user_id, voiture_id), sans chargement d'entité.
+    // Les favoris d'une voiture supprimée restent en base jusqu'à la purge mais ne sont plus rapportés.
+    @Query("SELECT v.id FROM Favorite f JOIN f.voiture v WHERE f.user.id = :userId AND v.deletedAt IS NULL")
+    List<Long> findVoitureIdsByUserId(@Param("userId") Long userId);
+
+    // Bascules de FavoriteService : un seul DELETE conditionnel, servi par le même index
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM Favorite f WHERE f.user.id = :userId AND f.voiture.id = :voitureId")
+    int deleteByUserIdAndVoitureId(@Param("userId") Long userId, @Param("voitureId") Long voitureId);
+
+    // Pages de favoris triées du plus récent au plus ancien, voiture jointe dans la même requête ;
+    // les voitures supprimées n'y figurent plus. La page suivante reprend après le dernier couple
+    // (createdAt, id) lu, sans OFFSET.
+    @Query("SELECT new com.locme.favorite.dto.FavoriteDto(f.id, v.id, v.marque, v.modele, v.prixParJour, " +
+           "v.imageUrl, v.disponible, f.createdAt) FROM Favorite f JOIN f.voiture v " +
+           "WHERE f.user.id = :userId AND v.deletedAt IS NULL ORDER BY f.createdAt DESC, f.id DESC")
+    List<FavoriteDto> findPremierePage(@Param("userId") Long userId, Pageable limite);
+
+    @Query("SELECT new com.locme.favorite.dto.FavoriteDto(f.id, v.id, v.marque, v.modele, v.prixParJour, " +
+           "v.imageUrl, v.disponible, f.createdAt) FROM Favorite f JOIN f.voiture v " +
+           "WHERE f.user.id = :userId AND v.deletedAt IS NULL " +
+           "AND (f.createdAt < :createdAt OR (f.createdAt = :createdAt AND f.id < :id)) " +
+           "ORDER BY f.createdAt DESC, f.id DESC")
+    List<FavoriteDto> findPageApres(@Param("userId") Long userId, @Param("createdAt") LocalDateTime createdAt,
+                                    @Param("id") Long id, Pageable limite);
+
+    // PurgeVoituresService, avant la suppression définitive des voitures
+    @Modifying
+    @Query("DELETE FROM Favorite f WHERE f.voiture.id IN :voitureIds")
+    int deleteByVoitureIdIn(@Param("voitureIds") Collection<Long> voitureIds);
 }
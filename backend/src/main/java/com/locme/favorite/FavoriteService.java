@@ -3,13 +3,24 @@ package com.locme.favorite;
 import com.locme.auth.User;
 import com.locme.common.exceptions.BusinessException;
 import com.locme.common.exceptions.ResourceNotFoundException;
-import com.locme.voiture.Voiture;
+import com.locme.favorite.dto.FavoriteDto;
+import com.locme.favorite.dto.FavoritePageDto;
 import com.locme.voiture.VoitureRepository;
+import com.locme.voiture.popularite.PopulariteService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 
 @Service
 public class FavoriteService {
@@ -20,38 +31,124 @@ public class FavoriteService {
     @Autowired
     private VoitureRepository voitureRepository;
 
-    public Favorite toggleFavorite(Long voitureId, User user) {
-        Voiture voiture = voitureRepository.findById(voitureId)
-                .orElseThrow(() -> new ResourceNotFoundException("Voiture non trouvée"));
+    @Autowired
+    private FavoriteCache favoriteCache;
+
+    @Autowired
+    private PopulariteService populariteService;
+
+    @Value("${locme.favorites.page-size:20}")
+    private int taillePageDefaut = 20;
 
-        Optional<Favorite> existingFavorite = favoriteRepository.findByUserAndVoiture(user, voiture);
-        
-        if (existingFavorite.isPresent()) {
-            // Remove from favorites
-            favoriteRepository.delete(existingFavorite.get());
+    @Value("${locme.favorites.max-page-size:100}")
+    private int taillePageMax = 100;
+
+    @Value("${locme.favorites.max-check:500}")
+    private int maxVerifications = 500;
+
+    // Décidée en base, chaque requête validant sa propre transaction : DELETE conditionnel, puis INSERT
+    // si aucune ligne n'a été retirée. Le cache ne reçoit que le résultat validé.
+    public FavoriteDto toggleFavorite(Long voitureId, User user) {
+        if (favoriteRepository.deleteByUserIdAndVoitureId(user.getId(), voitureId) > 0) {
+            favoriteCache.retirer(user.getId(), voitureId);
             return null;
-        } else {
-            // Add to favorites
-            Favorite favorite = new Favorite(user, voiture);
-            return favoriteRepository.save(favorite);
         }
+        verifierVoiture(voitureId);
+
+        // La voiture n'est référencée que par son identifiant ; le résumé de la voiture n'est pas renvoyé
+        FavoriteDto favori = new FavoriteDto();
+        favori.setVoitureId(voitureId);
+        try {
+            Favorite favorite = favoriteRepository.saveAndFlush(
+                    new Favorite(user, voitureRepository.getReferenceById(voitureId)));
+            favori.setId(favorite.getId());
+            favori.setCreatedAt(favorite.getCreatedAt());
+            populariteService.enregistrerFavori(voitureId);
+        } catch (DataIntegrityViolationException e) {
+            // Bascule concurrente du même utilisateur : son INSERT l'a emporté, la voiture est en favori
+            favori.setCreatedAt(LocalDateTime.now());
+        }
+        favoriteCache.ajouter(user.getId(), voitureId);
+        return favori;
     }
 
-    public List<Favorite> getUserFavorites(User user) {
-        return favoriteRepository.findByUser(user);
+    public FavoritePageDto getUserFavorites(Long userId, String curseur, Integer taille) {
+        int limite = taille == null ? taillePageDefaut : Math.max(1, Math.min(taille, taillePageMax));
+
+        // Une ligne de plus que demandé indique s'il existe une page suivante, sans requête de comptage
+        Pageable page = PageRequest.of(0, limite + 1);
+        List<FavoriteDto> favoris;
+        if (curseur == null || curseur.isBlank()) {
+            favoris = favoriteRepository.findPremierePage(userId, page);
+        } else {
+            Curseur position = Curseur.decoder(curseur);
+            favoris = favoriteRepository.findPageApres(userId, position.createdAt, position.id, page);
+        }
+
+        if (favoris.size() <= limite) {
+            return new FavoritePageDto(favoris, null);
+        }
+        List<FavoriteDto> contenu = new ArrayList<>(favoris.subList(0, limite));
+        FavoriteDto dernier = contenu.get(limite - 1);
+        return new FavoritePageDto(contenu, Curseur.encoder(dernier.getCreatedAt(), dernier.getId()));
     }
 
+    @Transactional(readOnly = true)
     public boolean isFavorite(Long voitureId, User user) {
-        Voiture voiture = voitureRepository.findById(voitureId)
-                .orElseThrow(() -> new ResourceNotFoundException("Voiture non trouvée"));
-        
-        return favoriteRepository.existsByUserAndVoiture(user, voiture);
+        if (favoriteCache.contient(user.getId(), voitureId)) {
+            return true;
+        }
+        verifierVoiture(voitureId);
+        return false;
+    }
+
+    // Réponse groupée pour une liste de voitures, servie par le cache sans accès à la base : les
+    // identifiants inconnus sont simplement rapportés comme non favoris
+    public Map<Long, Boolean> areFavorites(List<Long> voitureIds, User user) {
+        if (voitureIds.size() > maxVerifications) {
+            throw new BusinessException("Au plus " + maxVerifications + " voitures peuvent être vérifiées à la fois");
+        }
+        return favoriteCache.contient(user.getId(), voitureIds);
     }
 
     public void removeFavorite(Long voitureId, User user) {
-        Voiture voiture = voitureRepository.findById(voitureId)
-                .orElseThrow(() -> new ResourceNotFoundException("Voiture non trouvée"));
-        
-        favoriteRepository.deleteByUserAndVoiture(user, voiture);
+        if (favoriteRepository.deleteByUserIdAndVoitureId(user.getId(), voitureId) > 0) {
+            favoriteCache.retirer(user.getId(), voitureId);
+        } else {
+            verifierVoiture(voitureId);
+        }
+    }
+
+    private static final class Curseur {
+        private final LocalDateTime createdAt;
+        private final Long id;
+
+        private Curseur(LocalDateTime createdAt, Long id) {
+            this.createdAt = createdAt;
+            this.id = id;
+        }
+
+        static String encoder(LocalDateTime createdAt, Long id) {
+            String brut = createdAt + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(brut.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Curseur decoder(String curseur) {
+            try {
+                String brut = new String(Base64.getUrlDecoder().decode(curseur), StandardCharsets.UTF_8);
+                int separateur = brut.lastIndexOf('|');
+                return new Curseur(LocalDateTime.parse(brut.substring(0, separateur)),
+                        Long.parseLong(brut.substring(separateur + 1)));
+            } catch (RuntimeException e) {
+                throw new BusinessException("Curseur de pagination invalide");
+            }
+        }
+    }
+
+    // N'est consulté qu'en l'absence de favori, pour conserver la réponse 404 sur une voiture inconnue
+    private void verifierVoiture(Long voitureId) {
+        if (!voitureRepository.existsById(voitureId)) {
+            throw new ResourceNotFoundException("Voiture non trouvée");
+        }
     }
 }
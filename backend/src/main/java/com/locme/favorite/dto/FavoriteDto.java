@@ -0,0 +1,111 @@
+package com.locme.favorite.dto;
+
+import com.locme.favorite.Favorite;
+import com.locme.voiture.Voiture;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public class FavoriteDto {
+    private Long id;
+    private Long voitureId;
+    private String voitureMarque;
+    private String voitureModele;
+    private BigDecimal voiturePrixParJour;
+    private String voitureImageUrl;
+    private Boolean voitureDisponible;
+    private LocalDateTime createdAt;
+
+    public FavoriteDto() {}
+
+    // Utilisé par la projection JPQL de FavoriteRepository : l'ordre des paramètres doit y correspondre
+    public FavoriteDto(Long id, Long voitureId, String voitureMarque, String voitureModele,
+                       BigDecimal voiturePrixParJour, String voitureImageUrl, Boolean voitureDisponible,
+                       LocalDateTime createdAt) {
+        this.id = id;
+        this.voitureId = voitureId;
+        this.voitureMarque = voitureMarque;
+        this.voitureModele = voitureModele;
+        this.voiturePrixParJour = voiturePrixParJour;
+        this.voitureImageUrl = voitureImageUrl;
+        this.voitureDisponible = voitureDisponible;
+        this.createdAt = createdAt;
+    }
+
+    public FavoriteDto(Favorite favorite) {
+        Voiture voiture = favorite.getVoiture();
+        this.id = favorite.getId();
+        this.createdAt = favorite.getCreatedAt();
+        this.voitureId = voiture.getId();
+        this.voitureMarque = voiture.getMarque();
+        this.voitureModele = voiture.getModele();
+        this.voiturePrixParJour = voiture.getPrixParJour();
+        this.voitureImageUrl = voiture.getImageUrl();
+        this.voitureDisponible = voiture.getDisponible();
+    }
+
+    // Getters et Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getVoitureId() {
+        return voitureId;
+    }
+
+    public void setVoitureId(Long voitureId) {
+        this.voitureId = voitureId;
+    }
+
+    public String getVoitureMarque() {
+        return voitureMarque;
+    }
+
+    public void setVoitureMarque(String voitureMarque) {
+        this.voitureMarque = voitureMarque;
+    }
+
+    public String getVoitureModele() {
+        return voitureModele;
+    }
+
+    public void setVoitureModele(String voitureModele) {
+        this.voitureModele = voitureModele;
+    }
+
+    public BigDecimal getVoiturePrixParJour() {
+        return voiturePrixParJour;
+    }
+
+    public void setVoiturePrixParJour(BigDecimal voiturePrixParJour) {
+        this.voiturePrixParJour = voiturePrixParJour;
+    }
+
+    public String getVoitureImageUrl() {
+        return voitureImageUrl;
+    }
+
+    public void setVoitureImageUrl(String voitureImageUrl) {
+        this.voitureImageUrl = voitureImageUrl;
+    }
+
+    public Boolean getVoitureDisponible() {
+        return voitureDisponible;
+    }
+
+    public void setVoitureDisponible(Boolean voitureDisponible) {
+        this.voitureDisponible = voitureDisponible;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,33 @@
+package com.locme.favorite.dto;
+
+import java.util.List;
+
+public class FavoritePageDto {
+    private List<FavoriteDto> favoris;
+    // Curseur opaque à renvoyer pour obtenir la page suivante ; null sur la dernière page
+    private String curseurSuivant;
+
+    public FavoritePageDto() {}
+
+    public FavoritePageDto(List<FavoriteDto> favoris, String curseurSuivant) {
+        this.favoris = favoris;
+        this.curseurSuivant = curseurSuivant;
+    }
+
+    // Getters et Setters
+    public List<FavoriteDto> getFavoris() {
+        return favoris;
+    }
+
+    public void setFavoris(List<FavoriteDto> favoris) {
+        this.favoris = favoris;
+    }
+
+    public String getCurseurSuivant() {
+        return curseurSuivant;
+    }
+
+    public void setCurseurSuivant(String curseurSuivant) {
+        this.curseurSuivant = curseurSuivant;
+    }
+}
@@ -0,0 +1,29 @@
+package com.locme.idempotency;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+@Configuration
+public class IdempotencyConfig {
+
+    @Value("${locme.idempotency.paths:/api/reservations,/api/payments/checkout}")
+    private List<String> chemins;
+
+    @Value("${locme.idempotency.wait-timeout-ms:30000}")
+    private long attenteMaxMs;
+
+    // Enregistré après la chaîne Spring Security pour disposer de l'utilisateur authentifié
+    @Bean
+    public FilterRegistrationBean<IdempotencyFilter> idempotencyFilter(IdempotencyStore store) {
+        FilterRegistrationBean<IdempotencyFilter> registration = new FilterRegistrationBean<>(
+                new IdempotencyFilter(store, Set.copyOf(chemins), Duration.ofMillis(attenteMaxMs)));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+}
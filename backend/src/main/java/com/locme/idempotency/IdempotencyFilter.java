@@ -0,0 +1,243 @@
+package com.locme.idempotency;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Gère l'en-tête Idempotency-Key sur les POST de création : une requête répétée avec la même clé
+ * reçoit la réponse déjà produite, et les doublons simultanés attendent la première exécution.
+ * La clé est propre à chaque utilisateur et liée à l'empreinte SHA-256 du corps.
+ */
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String HEADER_REJOUE = "Idempotent-Replayed";
+    private static final int LONGUEUR_MAX_CLE = 255;
+
+    private final IdempotencyStore store;
+    private final Set<String> chemins;
+    private final Duration attenteMax;
+    private final Map<String, CompletableFuture<ReponseMemorisee>> enCours = new ConcurrentHashMap<>();
+
+    public IdempotencyFilter(IdempotencyStore store, Set<String> chemins, Duration attenteMax) {
+        this.store = store;
+        this.chemins = chemins;
+        this.attenteMax = attenteMax;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod())
+                || request.getHeader(HEADER) == null
+                || !chemins.contains(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String cleClient = request.getHeader(HEADER).trim();
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (cleClient.isEmpty() || cleClient.length() > LONGUEUR_MAX_CLE) {
+            ecrireErreur(response, HttpStatus.BAD_REQUEST, "En-tête Idempotency-Key invalide");
+            return;
+        }
+
+        byte[] corps = StreamUtils.copyToByteArray(request.getInputStream());
+        String empreinte = empreinte(corps);
+        String cle = authentication.getName() + ":" + request.getRequestURI() + ":" + cleClient;
+
+        Optional<ReponseMemorisee> existante = store.get(cle);
+        if (existante.isPresent()) {
+            rejouer(existante.get(), empreinte, response);
+            return;
+        }
+
+        CompletableFuture<ReponseMemorisee> future = new CompletableFuture<>();
+        CompletableFuture<ReponseMemorisee> precedente = enCours.putIfAbsent(cle, future);
+        if (precedente != null) {
+            attendre(precedente, empreinte, response);
+            return;
+        }
+
+        try {
+            // Une exécution concurrente a pu se terminer entre la lecture du store et la réservation
+            existante = store.get(cle);
+            if (existante.isPresent()) {
+                future.complete(existante.get());
+                rejouer(existante.get(), empreinte, response);
+                return;
+            }
+
+            ContentCachingResponseWrapper reponseCapturee = new ContentCachingResponseWrapper(response);
+            filterChain.doFilter(new RequeteMemorisee(request, corps), reponseCapturee);
+
+            ReponseMemorisee reponse = new ReponseMemorisee(empreinte, reponseCapturee.getStatus(),
+                    reponseCapturee.getContentType(),
+                    new String(reponseCapturee.getContentAsByteArray(), StandardCharsets.UTF_8));
+            // Les erreurs serveur ne sont pas mémorisées : le client doit pouvoir réessayer
+            if (reponse.getStatutHttp() < 500) {
+                store.put(cle, reponse);
+            }
+            future.complete(reponse);
+            reponseCapturee.copyBodyToResponse();
+        } catch (IOException | ServletException | RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            enCours.remove(cle, future);
+        }
+    }
+
+    private void attendre(CompletableFuture<ReponseMemorisee> precedente, String empreinte,
+                          HttpServletResponse response) throws IOException {
+        try {
+            rejouer(precedente.get(attenteMax.toMillis(), TimeUnit.MILLISECONDS), empreinte, response);
+        } catch (TimeoutException e) {
+            ecrireErreur(response, HttpStatus.CONFLICT, "Une requête avec cette clé d'idempotence est déjà en cours");
+        } catch (ExecutionException e) {
+            ecrireErreur(response, HttpStatus.CONFLICT, "La requête d'origine a échoué, veuillez réessayer");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            ecrireErreur(response, HttpStatus.CONFLICT, "Une requête avec cette clé d'idempotence est déjà en cours");
+        }
+    }
+
+    private void rejouer(ReponseMemorisee reponse, String empreinte, HttpServletResponse response) throws IOException {
+        if (!reponse.getEmpreinte().equals(empreinte)) {
+            ecrireErreur(response, HttpStatus.UNPROCESSABLE_ENTITY,
+                    "Clé d'idempotence déjà utilisée avec une requête différente");
+            return;
+        }
+        response.setStatus(reponse.getStatutHttp());
+        response.setHeader(HEADER_REJOUE, "true");
+        if (reponse.getContentType() != null) {
+            response.setContentType(reponse.getContentType());
+        }
+        if (reponse.getCorps() != null) {
+            byte[] corps = reponse.getCorps().getBytes(StandardCharsets.UTF_8);
+            response.setContentLength(corps.length);
+            response.getOutputStream().write(corps);
+        }
+    }
+
+    private void ecrireErreur(HttpServletResponse response, HttpStatus statut, String message) throws IOException {
+        response.setStatus(statut.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write("{\"success\":false,\"message\":\"" + message.replace("\"", "\\\"") + "\"}");
+    }
+
+    static String empreinte(byte[] corps) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(corps));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Requête dont le corps, déjà lu pour le calcul de l'empreinte, peut être relu par le contrôleur.
+     */
+    private static final class RequeteMemorisee extends HttpServletRequestWrapper {
+        private final byte[] corps;
+
+        private RequeteMemorisee(HttpServletRequest request, byte[] corps) {
+            super(request);
+            this.corps = corps;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream source = new ByteArrayInputStream(corps);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return source.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // Le corps est déjà en mémoire : toujours prêt, il est signalé disponible puis lu en entier
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    Objects.requireNonNull(readListener, "readListener");
+                    try {
+                        if (!isFinished()) {
+                            readListener.onDataAvailable();
+                        }
+                        if (isFinished()) {
+                            readListener.onAllDataRead();
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        readListener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return source.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return source.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encodage = getCharacterEncoding() != null ? getCharacterEncoding() : StandardCharsets.UTF_8.name();
+            return new BufferedReader(new InputStreamReader(getInputStream(), Charset.forName(encodage)));
+        }
+
+        @Override
+        public int getContentLength() {
+            return corps.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return corps.length;
+        }
+    }
+}
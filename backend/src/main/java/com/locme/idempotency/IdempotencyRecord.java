@@ -0,0 +1,106 @@
+package com.locme.idempotency;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "idempotency_keys")
+public class IdempotencyRecord {
+
+    @Id
+    @Column(name = "cle", length = 512)
+    private String cle;
+
+    @Column(name = "empreinte", nullable = false, length = 64)
+    private String empreinte;
+
+    @Column(name = "statut_http", nullable = false)
+    private int statutHttp;
+
+    @Column(name = "content_type")
+    private String contentType;
+
+    @Column(name = "corps", columnDefinition = "TEXT")
+    private String corps;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    // Constructeurs
+    public IdempotencyRecord() {}
+
+    public IdempotencyRecord(String cle, ReponseMemorisee reponse, LocalDateTime expiresAt) {
+        this.cle = cle;
+        this.empreinte = reponse.getEmpreinte();
+        this.statutHttp = reponse.getStatutHttp();
+        this.contentType = reponse.getContentType();
+        this.corps = reponse.getCorps();
+        this.createdAt = LocalDateTime.now();
+        this.expiresAt = expiresAt;
+    }
+
+    public ReponseMemorisee toReponse() {
+        return new ReponseMemorisee(empreinte, statutHttp, contentType, corps);
+    }
+
+    // Getters et Setters
+    public String getCle() {
+        return cle;
+    }
+
+    public void setCle(String cle) {
+        this.cle = cle;
+    }
+
+    public String getEmpreinte() {
+        return empreinte;
+    }
+
+    public void setEmpreinte(String empreinte) {
+        this.empreinte = empreinte;
+    }
+
+    public int getStatutHttp() {
+        return statutHttp;
+    }
+
+    public void setStatutHttp(int statutHttp) {
+        this.statutHttp = statutHttp;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String getCorps() {
+        return corps;
+    }
+
+    public void setCorps(String corps) {
+        this.corps = corps;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
@@ -0,0 +1,23 @@
+package com.locme.idempotency;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    @Query("SELECT r FROM IdempotencyRecord r WHERE r.cle = :cle AND r.expiresAt > :maintenant")
+    Optional<IdempotencyRecord> findValide(@Param("cle") String cle, @Param("maintenant") LocalDateTime maintenant);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt <= :maintenant")
+    int deleteExpires(@Param("maintenant") LocalDateTime maintenant);
+}
@@ -0,0 +1,78 @@
+package com.locme.idempotency;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Réponses mémorisées par clé d'idempotence : cache mémoire avec expiration, doublé d'une table
+ * pour survivre aux redémarrages et être partagé entre instances.
+ */
+@Component
+public class IdempotencyStore {
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Value("${locme.idempotency.ttl-hours:24}")
+    private long ttlHours = 24;
+
+    @Value("${locme.idempotency.max-entries:10000}")
+    private int maxEntries = 10_000;
+
+    private final Map<String, Entree> memoire = new ConcurrentHashMap<>();
+
+    public Optional<ReponseMemorisee> get(String cle) {
+        LocalDateTime maintenant = LocalDateTime.now();
+        Entree entree = memoire.get(cle);
+        if (entree != null) {
+            if (entree.expiresAt.isAfter(maintenant)) {
+                return Optional.of(entree.reponse);
+            }
+            memoire.remove(cle, entree);
+        }
+        Optional<IdempotencyRecord> record = idempotencyRecordRepository.findValide(cle, maintenant);
+        record.ifPresent(r -> mettreEnMemoire(cle, r.toReponse(), r.getExpiresAt()));
+        return record.map(IdempotencyRecord::toReponse);
+    }
+
+    public void put(String cle, ReponseMemorisee reponse) {
+        LocalDateTime expiresAt = LocalDateTime.now().plusHours(ttlHours);
+        mettreEnMemoire(cle, reponse, expiresAt);
+        idempotencyRecordRepository.save(new IdempotencyRecord(cle, reponse, expiresAt));
+    }
+
+    @Scheduled(fixedDelayString = "${locme.idempotency.purge-interval-ms:60000}")
+    public void purger() {
+        LocalDateTime maintenant = LocalDateTime.now();
+        memoire.values().removeIf(entree -> !entree.expiresAt.isAfter(maintenant));
+        idempotencyRecordRepository.deleteExpires(maintenant);
+    }
+
+    int tailleMemoire() {
+        return memoire.size();
+    }
+
+    private void mettreEnMemoire(String cle, ReponseMemorisee reponse, LocalDateTime expiresAt) {
+        // Au-delà de la limite, la table reste la seule source jusqu'à la prochaine purge
+        if (memoire.size() < maxEntries || memoire.containsKey(cle)) {
+            memoire.put(cle, new Entree(reponse, expiresAt));
+        }
+    }
+
+    private static final class Entree {
+        private final ReponseMemorisee reponse;
+        private final LocalDateTime expiresAt;
+
+        private Entree(ReponseMemorisee reponse, LocalDateTime expiresAt) {
+            this.reponse = reponse;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
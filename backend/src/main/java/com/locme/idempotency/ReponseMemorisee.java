@@ -0,0 +1,34 @@
+package com.locme.idempotency;
+
+/**
+ * Réponse HTTP rejouée pour les requêtes répétées avec la même clé d'idempotence.
+ */
+public class ReponseMemorisee {
+    private final String empreinte;
+    private final int statutHttp;
+    private final String contentType;
+    private final String corps;
+
+    public ReponseMemorisee(String empreinte, int statutHttp, String contentType, String corps) {
+        this.empreinte = empreinte;
+        this.statutHttp = statutHttp;
+        this.contentType = contentType;
+        this.corps = corps;
+    }
+
+    public String getEmpreinte() {
+        return empreinte;
+    }
+
+    public int getStatutHttp() {
+        return statutHttp;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getCorps() {
+        return corps;
+    }
+}
@@ -0,0 +1,60 @@
+package com.locme.outbox;
+
+import java.time.LocalDateTime;
+
+/**
+ * Événement relayé depuis la table outbox vers le bus d'événements de l'application.
+ * Le payload est le JSON enregistré dans la même transaction que la modification métier.
+ */
+public class DomainEvent {
+    private final Long id;
+    private final TypeEvenement type;
+    private final String agregat;
+    private final Long agregatId;
+    private final String payload;
+    private final LocalDateTime occurredAt;
+
+    public DomainEvent(Long id, TypeEvenement type, String agregat, Long agregatId, String payload,
+                       LocalDateTime occurredAt) {
+        this.id = id;
+        this.type = type;
+        this.agregat = agregat;
+        this.agregatId = agregatId;
+        this.payload = payload;
+        this.occurredAt = occurredAt;
+    }
+
+    public static DomainEvent from(OutboxEvent event) {
+        return new DomainEvent(event.getId(), event.getType(), event.getAgregat(), event.getAgregatId(),
+                event.getPayload(), event.getCreatedAt());
+    }
+
+    public boolean concerne(String agregat) {
+        return this.agregat.equals(agregat);
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public TypeEvenement getType() {
+        return type;
+    }
+
+    public String getAgregat() {
+        return agregat;
+    }
+
+    public Long getAgregatId() {
+        return agregatId;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+}
@@ -0,0 +1,106 @@
+package com.locme.outbox;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "outbox_events")
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_events_seq")
+    @SequenceGenerator(name = "outbox_events_seq", sequenceName = "outbox_events_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "agregat", nullable = false)
+    private String agregat;
+
+    @Column(name = "agregat_id", nullable = false)
+    private Long agregatId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false)
+    private TypeEvenement type;
+
+    @Column(name = "payload", nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "published_at")
+    private LocalDateTime publishedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    // Constructeurs
+    public OutboxEvent() {}
+
+    public OutboxEvent(TypeEvenement type, Long agregatId, String payload) {
+        this.agregat = type.getAgregat();
+        this.type = type;
+        this.agregatId = agregatId;
+        this.payload = payload;
+    }
+
+    // Getters et Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getAgregat() {
+        return agregat;
+    }
+
+    public void setAgregat(String agregat) {
+        this.agregat = agregat;
+    }
+
+    public Long getAgregatId() {
+        return agregatId;
+    }
+
+    public void setAgregatId(Long agregatId) {
+        this.agregatId = agregatId;
+    }
+
+    public TypeEvenement getType() {
+        return type;
+    }
+
+    public void setType(TypeEvenement type) {
+        this.type = type;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getPublishedAt() {
+        return publishedAt;
+    }
+
+    public void setPublishedAt(LocalDateTime publishedAt) {
+        this.publishedAt = publishedAt;
+    }
+}
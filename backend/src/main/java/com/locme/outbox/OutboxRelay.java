@@ -0,0 +1,77 @@
+package com.locme.outbox;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Relaie les événements de la table outbox vers le bus d'événements, par lots.
+ * Les écouteurs synchrones (@EventListener) s'exécutent dans la transaction du lot : leurs écritures
+ * et le marquage "publié" sont validés ensemble. Les écouteurs @TransactionalEventListener ne sont
+ * notifiés qu'après validation.
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    @Autowired
+    private OutboxRepository outboxRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${locme.outbox.batch-size:100}")
+    private int batchSize = 100;
+
+    @Value("${locme.outbox.max-batches:10}")
+    private int maxBatches = 10;
+
+    @Value("${locme.outbox.retention-days:7}")
+    private int retentionDays = 7;
+
+    @Scheduled(fixedDelayString = "${locme.outbox.relay-interval-ms:500}")
+    public void relayer() {
+        for (int i = 0; i < maxBatches; i++) {
+            Integer publies;
+            try {
+                publies = transactionTemplate.execute(status -> publierLot());
+            } catch (RuntimeException e) {
+                log.error("Échec du relais outbox, nouvel essai au prochain cycle", e);
+                return;
+            }
+            if (publies == null || publies < batchSize) {
+                return;
+            }
+        }
+    }
+
+    int publierLot() {
+        List<OutboxEvent> lot = outboxRepository.findEvenementsAPublier(PageRequest.of(0, batchSize));
+        LocalDateTime maintenant = LocalDateTime.now();
+        for (OutboxEvent event : lot) {
+            eventPublisher.publishEvent(DomainEvent.from(event));
+            event.setPublishedAt(maintenant);
+        }
+        return lot.size();
+    }
+
+    @Scheduled(cron = "${locme.outbox.purge-cron:0 0 3 * * *}")
+    public void purger() {
+        Integer supprimes = transactionTemplate.execute(status ->
+                outboxRepository.deletePubliesAvant(LocalDateTime.now().minusDays(retentionDays)));
+        log.info("Purge outbox : {} événements supprimés", supprimes);
+    }
+}
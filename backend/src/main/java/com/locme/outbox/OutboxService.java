@@ -0,0 +1,36 @@
+package com.locme.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+public class OutboxService {
+
+    @Autowired
+    private OutboxRepository outboxRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Doit être appelé dans la transaction qui modifie l'agrégat
+    @Transactional(propagation = Propagation.MANDATORY)
+    public OutboxEvent enregistrer(TypeEvenement type, Long agregatId, Object payload) {
+        try {
+            return outboxRepository.save(new OutboxEvent(type, agregatId, objectMapper.writeValueAsString(payload)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Impossible de sérialiser l'événement " + type, e);
+        }
+    }
+
+    public <T> T lirePayload(DomainEvent event, Class<T> type) {
+        try {
+            return objectMapper.readValue(event.getPayload(), type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Payload invalide pour l'événement " + event.getId(), e);
+        }
+    }
+}
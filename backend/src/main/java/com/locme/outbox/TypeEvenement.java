@@ -0,0 +1,24 @@
+package com.locme.outbox;
+
+public enum TypeEvenement {
+    RESERVATION_CREEE(TypeEvenement.RESERVATION),
+    RESERVATION_STATUT_MODIFIE(TypeEvenement.RESERVATION),
+    RESERVATION_SUPPRIMEE(TypeEvenement.RESERVATION),
+    PAIEMENT_CREE(TypeEvenement.PAIEMENT),
+    PAIEMENT_PAYE(TypeEvenement.PAIEMENT),
+    PAIEMENT_ECHOUE(TypeEvenement.PAIEMENT),
+    PAIEMENT_REMBOURSE(TypeEvenement.PAIEMENT);
+
+    public static final String RESERVATION = "Reservation";
+    public static final String PAIEMENT = "Paiement";
+
+    private final String agregat;
+
+    TypeEvenement(String agregat) {
+        this.agregat = agregat;
+    }
+
+    public String getAgregat() {
+        return agregat;
+    }
+}
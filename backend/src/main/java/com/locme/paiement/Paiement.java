@@ -4,6 +4,7 @@ import com.locme.reservation.Reservation;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -13,7 +14,8 @@ import java.time.LocalDateTime;
 public class Paiement {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "paiements_seq")
+    @SequenceGenerator(name = "paiements_seq", sequenceName = "paiements_seq", allocationSize = 50)
     private Long id;
 
     @OneToOne(fetch = FetchType.LAZY)
@@ -25,6 +27,11 @@ public class Paiement {
     @Column(name = "montant", nullable = false, precision = 10, scale = 2)
     private BigDecimal montant;
 
+    // Cumul des remboursements effectués ou en cours, tenu à jour sous verrouillage optimiste
+    @ColumnDefault("0")
+    @Column(name = "montant_rembourse", nullable = false, precision = 10, scale = 2)
+    private BigDecimal montantRembourse = BigDecimal.ZERO;
+
     @Enumerated(EnumType.STRING)
     @Column(name = "statut", nullable = false)
     private StatutPaiement statut = StatutPaiement.EN_ATTENTE;
@@ -42,12 +49,21 @@ public class Paiement {
     @Column(name = "date_paiement")
     private LocalDateTime datePaiement;
 
+    // Dernière concordance constatée avec le prestataire (job de réconciliation)
+    @Column(name = "rapproche_le")
+    private LocalDateTime rapprocheLe;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -147,4 +163,35 @@ public class Paiement {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
+
+    public LocalDateTime getRapprocheLe() {
+        return rapprocheLe;
+    }
+
+    public void setRapprocheLe(LocalDateTime rapprocheLe) {
+        this.rapprocheLe = rapprocheLe;
+    }
+
+    public BigDecimal getMontantRembourse() {
+        return montantRembourse;
+    }
+
+    public void setMontantRembourse(BigDecimal montantRembourse) {
+        this.montantRembourse = montantRembourse;
+    }
+
+    public BigDecimal getMontantRemboursable() {
+        if (montant == null) {
+            return BigDecimal.ZERO;
+        }
+        return montantRembourse == null ? montant : montant.subtract(montantRembourse);
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
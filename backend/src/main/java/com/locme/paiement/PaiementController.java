@@ -4,13 +4,24 @@ import com.locme.auth.AuthService;
 import com.locme.auth.User;
 import com.locme.common.ApiResponse;
 import com.locme.common.exceptions.ResourceNotFoundException;
+import com.locme.paiement.dto.PaiementDto;
+import com.locme.paiement.dto.RemboursementDto;
+import com.locme.paiement.gateway.PaymentGatewayException;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -26,29 +37,47 @@ public class PaiementController {
 
     @PostMapping("/checkout")
     @PreAuthorize("hasRole('CLIENT') or hasRole('ADMIN')")
-    public ResponseEntity<ApiResponse<Paiement>> createPaymentCheckout(@Valid @RequestBody Map<String, Object> request) {
+    public ResponseEntity<ApiResponse<PaiementDto>> createPaymentCheckout(@Valid @RequestBody Map<String, Object> request) {
         try {
             Long reservationId = Long.valueOf(request.get("reservationId").toString());
             MethodePaiement methodePaiement = MethodePaiement.valueOf(request.get("methodePaiement").toString());
             
             Paiement paiement = paiementService.createPaiement(reservationId, methodePaiement);
-            return ResponseEntity.ok(ApiResponse.success("Paiement créé avec succès", paiement));
+            return ResponseEntity.ok(ApiResponse.success("Paiement créé avec succès", new PaiementDto(paiement)));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
         }
     }
 
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('SOCIETE') or hasRole('ADMIN')")
+    public void exportPaiements(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate debut,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fin,
+            HttpServletResponse response) throws IOException {
+        // Écrit directement dans la réponse : rien n'est accumulé en mémoire, quel que soit le volume
+        User currentUser = authService.getCurrentUser();
+        response.setContentType("text/csv;charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename("paiements.csv").build().toString());
+        paiementService.exporterCsv(currentUser, debut, fin, response.getOutputStream());
+    }
+
     @PostMapping("/{id}/process")
     @PreAuthorize("hasRole('CLIENT') or hasRole('ADMIN')")
-    public ResponseEntity<ApiResponse<Paiement>> processPayment(@PathVariable Long id, @RequestBody Map<String, Object> request) {
+    public ResponseEntity<ApiResponse<PaiementDto>> processPayment(@PathVariable Long id, @RequestBody Map<String, Object> request) {
         try {
             String paymentIntentId = request.get("paymentIntentId").toString();
             String transactionId = request.get("transactionId").toString();
             
             Paiement paiement = paiementService.processPayment(id, paymentIntentId, transactionId);
-            return ResponseEntity.ok(ApiResponse.success("Paiement traité avec succès", paiement));
+            return ResponseEntity.ok(ApiResponse.success("Paiement traité avec succès", new PaiementDto(paiement)));
         } catch (ResourceNotFoundException e) {
             return ResponseEntity.status(404).body(ApiResponse.error(e.getMessage()));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(409).body(ApiResponse.error("Le paiement a été modifié simultanément, veuillez réessayer"));
+        } catch (PaymentGatewayException e) {
+            return ResponseEntity.status(503).body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
         }
@@ -56,13 +85,13 @@ public class PaiementController {
 
     @PostMapping("/{id}/failure")
     @PreAuthorize("hasRole('CLIENT') or hasRole('ADMIN')")
-    public ResponseEntity<ApiResponse<Paiement>> processPaymentFailure(@PathVariable Long id, @RequestBody Map<String, Object> request) {
+    public ResponseEntity<ApiResponse<PaiementDto>> processPaymentFailure(@PathVariable Long id, @RequestBody Map<String, Object> request) {
         try {
             String paymentIntentId = request.get("paymentIntentId").toString();
             String errorMessage = request.get("errorMessage").toString();
             
             Paiement paiement = paiementService.processPaymentFailure(id, paymentIntentId, errorMessage);
-            return ResponseEntity.ok(ApiResponse.success("Échec du paiement enregistré", paiement));
+            return ResponseEntity.ok(ApiResponse.success("Échec du paiement enregistré", new PaiementDto(paiement)));
         } catch (ResourceNotFoundException e) {
             return ResponseEntity.status(404).body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
@@ -72,10 +101,10 @@ public class PaiementController {
 
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('CLIENT') or hasRole('ADMIN')")
-    public ResponseEntity<ApiResponse<Paiement>> getPaymentById(@PathVariable Long id) {
+    public ResponseEntity<ApiResponse<PaiementDto>> getPaymentById(@PathVariable Long id) {
         try {
             Paiement paiement = paiementService.getPaiementById(id);
-            return ResponseEntity.ok(ApiResponse.success(paiement));
+            return ResponseEntity.ok(ApiResponse.success(new PaiementDto(paiement)));
         } catch (ResourceNotFoundException e) {
             return ResponseEntity.status(404).body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
@@ -85,11 +114,29 @@ public class PaiementController {
 
     @PostMapping("/{id}/refund")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<ApiResponse<Paiement>> refundPayment(@PathVariable Long id, @RequestBody Map<String, Object> request) {
+    public ResponseEntity<ApiResponse<PaiementDto>> refundPayment(@PathVariable Long id, @RequestBody Map<String, Object> request) {
         try {
             BigDecimal amount = new BigDecimal(request.get("amount").toString());
             Paiement paiement = paiementService.refundPaiement(id, amount);
-            return ResponseEntity.ok(ApiResponse.success("Remboursement effectué avec succès", paiement));
+            return ResponseEntity.ok(ApiResponse.success("Remboursement effectué avec succès", new PaiementDto(paiement)));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(404).body(ApiResponse.error(e.getMessage()));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(409).body(ApiResponse.error("Un autre remboursement est en cours sur ce paiement, veuillez réessayer"));
+        } catch (RemboursementEnAttenteException e) {
+            return ResponseEntity.status(202).body(ApiResponse.success(e.getMessage(), null));
+        } catch (PaymentGatewayException e) {
+            return ResponseEntity.status(503).body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    @GetMapping("/{id}/refunds")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<List<RemboursementDto>>> getRefunds(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(ApiResponse.success(paiementService.getRemboursements(id)));
         } catch (ResourceNotFoundException e) {
             return ResponseEntity.status(404).body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
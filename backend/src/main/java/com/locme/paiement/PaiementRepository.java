@@ -1,17 +1,67 @@
 package com.locme.paiement;
 
+import com.locme.paiement.dto.PaiementExportDto;
 import com.locme.reservation.Reservation;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PaiementRepository extends JpaRepository<Paiement, Long> {
     Optional<Paiement> findByReservation(Reservation reservation);
     Optional<Paiement> findByStripePaymentIntentId(String stripePaymentIntentId);
+    java.util.List<Paiement> findByStripePaymentIntentIdIn(java.util.Collection<String> stripePaymentIntentIds);
     Optional<Paiement> findByTransactionId(String transactionId);
     java.util.List<Paiement> findByStatut(StatutPaiement statut);
     java.util.List<Paiement> findByMethodePaiement(MethodePaiement methodePaiement);
     java.util.List<Paiement> findByMontantBetween(java.math.BigDecimal montantMin, java.math.BigDecimal montantMax);
+
+    // Réconciliation, seconde passe : page suivante après le dernier couple (datePaiement, id) lu, sans
+    // OFFSET ; la première page part de (début de période, 0)
+    @Query("SELECT p FROM Paiement p WHERE p.statut IN :statuts AND p.datePaiement < :fin " +
+           "AND (p.datePaiement > :apresDate OR (p.datePaiement = :apresDate AND p.id > :apresId)) " +
+           "AND (p.rapprocheLe IS NULL OR p.rapprocheLe < :depuis) " +
+           "ORDER BY p.datePaiement, p.id")
+    List<Paiement> findNonRapprochesApres(@Param("statuts") Collection<StatutPaiement> statuts,
+                                          @Param("fin") LocalDateTime fin,
+                                          @Param("depuis") LocalDateTime depuis,
+                                          @Param("apresDate") LocalDateTime apresDate,
+                                          @Param("apresId") Long apresId,
+                                          Pageable limite);
+
+    // Export : projection lue par curseur côté serveur, à consommer dans une transaction.
+    // societeUserId null : toutes les sociétés ; la période porte sur la date d'encaissement
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.locme.paiement.dto.PaiementExportDto(p.id, r.id, p.montant, p.montantRembourse, " +
+           "p.statut, p.methodePaiement, p.datePaiement, p.transactionId, p.stripePaymentIntentId, p.createdAt, " +
+           "s.id, s.nom, u.id, u.email) " +
+           "FROM Paiement p JOIN p.reservation r JOIN r.voiture v JOIN v.societe s JOIN r.user u " +
+           "WHERE (:societeUserId IS NULL OR s.user.id = :societeUserId) " +
+           "AND (:debut IS NULL OR p.datePaiement >= :debut) AND (:fin IS NULL OR p.datePaiement < :fin) " +
+           "ORDER BY p.id")
+    Stream<PaiementExportDto> streamExport(@Param("societeUserId") Long societeUserId,
+                                           @Param("debut") LocalDateTime debut,
+                                           @Param("fin") LocalDateTime fin);
+
+    // Annulation atomique d'une réservation de remboursement, sans risque de conflit de version
+    @Modifying
+    @Query("UPDATE Paiement p SET p.montantRembourse = p.montantRembourse - :montant, p.version = p.version + 1 " +
+           "WHERE p.id = :id")
+    int annulerMontantRembourse(@Param("id") Long id, @Param("montant") java.math.BigDecimal montant);
+
+    @Modifying
+    @Query("UPDATE Paiement p SET p.rapprocheLe = :date WHERE p.id IN :ids")
+    int marquerRapproches(@Param("ids") Collection<Long> ids, @Param("date") LocalDateTime date);
 }
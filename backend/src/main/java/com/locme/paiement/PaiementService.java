@@ -1,25 +1,92 @@
 package com.locme.paiement;
 
+import com.locme.auth.Role;
+import com.locme.auth.User;
+import com.locme.common.csv.EcrivainCsv;
 import com.locme.common.exceptions.BusinessException;
 import com.locme.common.exceptions.ResourceNotFoundException;
+import com.locme.common.retry.RetryOnConflict;
+import com.locme.outbox.OutboxService;
+import com.locme.outbox.TypeEvenement;
+import com.locme.paiement.dto.PaiementEvenement;
+import com.locme.paiement.dto.PaiementExportDto;
+import com.locme.paiement.dto.RemboursementDto;
+import com.locme.paiement.gateway.IntentionPaiement;
+import com.locme.paiement.gateway.PaymentGateway;
+import com.locme.paiement.gateway.PaymentGatewayException;
+import com.locme.paiement.gateway.RefusPrestataireException;
+import com.locme.paiement.gateway.RemboursementPrestataire;
 import com.locme.reservation.Reservation;
 import com.locme.reservation.ReservationRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Stream;
 
 @Service
 public class PaiementService {
 
+    private static final Logger log = LoggerFactory.getLogger(PaiementService.class);
+
+    static final Set<StatutPaiement> STATUTS_PAYABLES = EnumSet.of(StatutPaiement.EN_ATTENTE, StatutPaiement.ECHEC);
+
+    private static final Set<StatutPaiement> STATUTS_REMBOURSABLES =
+            EnumSet.of(StatutPaiement.PAYE, StatutPaiement.PARTIELLEMENT_REMBOURSE);
+
     @Autowired
     private PaiementRepository paiementRepository;
 
     @Autowired
     private ReservationRepository reservationRepository;
 
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private RemboursementRepository remboursementRepository;
+
+    @Autowired
+    private PaymentGateway paymentGateway;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${locme.payments.refunds.retry-delay-ms:120000}")
+    private long delaiRepriseMs = 120_000;
+
+    @Value("${locme.payments.refunds.batch-size:20}")
+    private int tailleLotReprise = 20;
+
+    @Value("${locme.payments.refunds.max-age-hours:20}")
+    private long ageMaxRepriseHeures = 20;
+
+    @Transactional
     public Paiement createPaiement(Long reservationId, MethodePaiement methodePaiement) {
         Reservation reservation = reservationRepository.findById(reservationId)
                 .orElseThrow(() -> new ResourceNotFoundException("Réservation non trouvée"));
@@ -36,51 +103,300 @@ public class PaiementService {
         paiement.setStatut(StatutPaiement.EN_ATTENTE);
         paiement.setMethodePaiement(methodePaiement);
 
-        return paiementRepository.save(paiement);
+        Paiement savedPaiement = paiementRepository.save(paiement);
+        publier(TypeEvenement.PAIEMENT_CREE, savedPaiement, null);
+        return savedPaiement;
     }
 
+    @RetryOnConflict
     public Paiement processPayment(Long paiementId, String paymentIntentId, String transactionId) {
         Paiement paiement = paiementRepository.findById(paiementId)
                 .orElseThrow(() -> new ResourceNotFoundException("Paiement non trouvé"));
+        // Un second appel pour la même intention ne republie pas PAIEMENT_PAYE : le chiffre d'affaires
+        // serait compté deux fois
+        if (paiement.getStatut() == StatutPaiement.PAYE && paymentIntentId.equals(paiement.getStripePaymentIntentId())) {
+            return paiement;
+        }
+        if (!STATUTS_PAYABLES.contains(paiement.getStatut())) {
+            throw new BusinessException("Paiement déjà " + paiement.getStatut());
+        }
 
-        paiement.setStatut(StatutPaiement.PAYE);
-        paiement.setStripePaymentIntentId(paymentIntentId);
-        paiement.setTransactionId(transactionId);
-        paiement.setDatePaiement(LocalDateTime.now());
+        // Vérification auprès du prestataire hors transaction : aucune connexion n'est retenue pendant l'appel
+        IntentionPaiement intention = attendre(paymentGateway.recupererIntention(paymentIntentId));
+        verifierIntention(paiement, intention);
 
-        return paiementRepository.save(paiement);
+        return transactionTemplate.execute(status -> marquerPaye(paiement, intention.getId(),
+                intention.getChargeId() != null ? intention.getChargeId() : transactionId));
     }
 
+    @Transactional
     public Paiement processPaymentFailure(Long paiementId, String paymentIntentId, String errorMessage) {
         Paiement paiement = paiementRepository.findById(paiementId)
                 .orElseThrow(() -> new ResourceNotFoundException("Paiement non trouvé"));
 
+        return marquerEchec(paiement, paymentIntentId);
+    }
+
+    // À appeler dans une transaction : l'événement outbox est enregistré avec la mise à jour
+    Paiement marquerPaye(Paiement paiement, String paymentIntentId, String transactionId) {
+        StatutPaiement ancienStatut = paiement.getStatut();
+        paiement.setStatut(StatutPaiement.PAYE);
+        paiement.setStripePaymentIntentId(paymentIntentId);
+        paiement.setTransactionId(transactionId);
+        paiement.setDatePaiement(LocalDateTime.now());
+
+        Paiement savedPaiement = paiementRepository.save(paiement);
+        publier(TypeEvenement.PAIEMENT_PAYE, savedPaiement, ancienStatut);
+        return savedPaiement;
+    }
+
+    Paiement marquerEchec(Paiement paiement, String paymentIntentId) {
+        StatutPaiement ancienStatut = paiement.getStatut();
         paiement.setStatut(StatutPaiement.ECHEC);
         paiement.setStripePaymentIntentId(paymentIntentId);
 
-        return paiementRepository.save(paiement);
+        Paiement savedPaiement = paiementRepository.save(paiement);
+        publier(TypeEvenement.PAIEMENT_ECHOUE, savedPaiement, ancienStatut);
+        return savedPaiement;
     }
 
+    @Transactional(readOnly = true)
     public Paiement getPaiementById(Long id) {
         return paiementRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Paiement non trouvé"));
     }
 
+    @Transactional(readOnly = true)
     public Paiement getPaiementByReservation(Reservation reservation) {
         return paiementRepository.findByReservation(reservation)
                 .orElseThrow(() -> new ResourceNotFoundException("Paiement non trouvé pour cette réservation"));
     }
 
+    /**
+     * Remboursement total ou partiel. Le montant est d'abord réservé sur le paiement, lu et modifié dans
+     * la même transaction (saveAndFlush, contrôlé par @Version) : de deux demandes concurrentes, une seule
+     * passe, l'autre échoue sur le conflit de version avant tout appel au prestataire. Seul un refus
+     * explicite du prestataire libère le montant ; sans réponse claire, le remboursement reste EN_COURS
+     * et {@link #reprendreRemboursements()} le rejoue avec la même clé d'idempotence.
+     */
     public Paiement refundPaiement(Long paiementId, BigDecimal amount) {
-        Paiement paiement = paiementRepository.findById(paiementId)
-                .orElseThrow(() -> new ResourceNotFoundException("Paiement non trouvé"));
+        Remboursement remboursement = transactionTemplate.execute(status -> {
+            Paiement paiement = paiementRepository.findById(paiementId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Paiement non trouvé"));
+
+            if (!STATUTS_REMBOURSABLES.contains(paiement.getStatut())) {
+                throw new BusinessException("Seuls les paiements payés peuvent être remboursés");
+            }
+            if (amount == null || amount.signum() <= 0 || amount.scale() > 2) {
+                throw new BusinessException("Le montant du remboursement est invalide");
+            }
+            if (amount.compareTo(paiement.getMontantRemboursable()) > 0) {
+                throw new BusinessException("Le montant dépasse le solde remboursable ("
+                        + paiement.getMontantRemboursable() + ")");
+            }
+            if (remboursementRepository.existsByPaiementIdAndStatut(paiement.getId(), StatutRemboursement.EN_COURS)) {
+                throw new BusinessException("Un remboursement de ce paiement attend encore la confirmation du prestataire");
+            }
 
-        if (paiement.getStatut() != StatutPaiement.PAYE) {
-            throw new BusinessException("Seuls les paiements payés peuvent être remboursés");
+            paiement.setMontantRembourse(paiement.getMontantRembourse().add(amount));
+            paiementRepository.saveAndFlush(paiement);
+            Remboursement nouveau = new Remboursement(paiement, amount);
+            remboursementRepository.save(nouveau);
+            return nouveau;
+        });
+
+        return executerRemboursement(remboursement);
+    }
+
+    @Scheduled(fixedDelayString = "${locme.payments.refunds.retry-interval-ms:60000}")
+    public void reprendreRemboursements() {
+        try {
+            reprendreRemboursements(LocalDateTime.now());
+        } catch (RuntimeException e) {
+            log.error("Échec de la reprise des remboursements en cours, nouvel essai au prochain passage", e);
         }
+    }
 
-        paiement.setStatut(StatutPaiement.REMBOURSE);
+    /**
+     * Rejoue auprès du prestataire les remboursements restés EN_COURS depuis plus de retry-delay-ms. Au-delà
+     * de max-age-hours, la clé d'idempotence a pu expirer chez le prestataire : un nouvel appel risquerait un
+     * second remboursement, ces lignes sont signalées pour un rapprochement manuel.
+     */
+    public int reprendreRemboursements(LocalDateTime maintenant) {
+        LocalDateTime limiteAge = maintenant.minusHours(ageMaxRepriseHeures);
+        List<Remboursement> enCours = transactionTemplate.execute(status -> remboursementRepository.findEnCoursCreesEntre(
+                limiteAge, maintenant.minus(Duration.ofMillis(delaiRepriseMs)), PageRequest.of(0, tailleLotReprise)));
+        int termines = 0;
+        for (Remboursement remboursement : enCours) {
+            try {
+                executerRemboursement(remboursement);
+                termines++;
+            } catch (RefusPrestataireException e) {
+                termines++;
+                log.warn("Remboursement {} refusé par le prestataire à la reprise : {}", remboursement.getId(), e.getMessage());
+            } catch (RemboursementEnAttenteException e) {
+                // Le prestataire ne répond toujours pas : inutile d'insister sur le reste du lot
+                log.warn("Reprise des remboursements interrompue : {}", e.getMessage());
+                break;
+            } catch (RuntimeException e) {
+                log.error("Reprise du remboursement {} en échec", remboursement.getId(), e);
+            }
+        }
+        long abandonnes = transactionTemplate.execute(status -> remboursementRepository.countEnCoursCreesAvant(limiteAge));
+        if (abandonnes > 0) {
+            log.error("{} remboursements EN_COURS depuis plus de {} h sont à rapprocher manuellement avec le prestataire",
+                    abandonnes, ageMaxRepriseHeures);
+        }
+        return termines;
+    }
+
+    private Paiement executerRemboursement(Remboursement remboursement) {
+        Paiement paiement = remboursement.getPaiement();
+        String stripeRefundId = null;
+        if (paiement.getStripePaymentIntentId() != null) {
+            RemboursementPrestataire resultat;
+            try {
+                resultat = attendre(paymentGateway.rembourser(paiement.getStripePaymentIntentId(),
+                        remboursement.getMontant().movePointRight(2).longValueExact(),
+                        "remboursement-" + remboursement.getId()));
+            } catch (RefusPrestataireException e) {
+                echouerRemboursement(remboursement, e.getMessage());
+                throw e;
+            } catch (PaymentGatewayException e) {
+                throw new RemboursementEnAttenteException("Remboursement en attente de confirmation du service de paiement ("
+                        + e.getMessage() + ") : il sera repris automatiquement", e);
+            }
+            if (resultat.estEchoue()) {
+                String message = "Remboursement refusé par le prestataire (statut : " + resultat.getStatut() + ")";
+                echouerRemboursement(remboursement, message);
+                throw new RefusPrestataireException(message);
+            }
+            stripeRefundId = resultat.getId();
+        }
+
+        return finaliserRemboursement(remboursement, stripeRefundId);
+    }
+
+    private void echouerRemboursement(Remboursement remboursement, String message) {
+        transactionTemplate.execute(status -> {
+            if (remboursementRepository.terminer(remboursement.getId(), StatutRemboursement.ECHEC, null, message) > 0) {
+                paiementRepository.annulerMontantRembourse(remboursement.getPaiement().getId(), remboursement.getMontant());
+            }
+            return null;
+        });
+    }
+
+    // Le remboursement est acquis chez le prestataire : la mise à jour du statut est rejouée en cas de conflit
+    private Paiement finaliserRemboursement(Remboursement remboursement, String stripeRefundId) {
+        Long paiementId = remboursement.getPaiement().getId();
+        for (int tentative = 1; ; tentative++) {
+            try {
+                return transactionTemplate.execute(status -> {
+                    Paiement courant = paiementRepository.findById(paiementId)
+                            .orElseThrow(() -> new ResourceNotFoundException("Paiement non trouvé"));
+                    // Déjà finalisé par une reprise concurrente : l'événement est publié une seule fois
+                    if (remboursementRepository.terminer(remboursement.getId(), StatutRemboursement.EFFECTUE,
+                            stripeRefundId, null) == 0) {
+                        return courant;
+                    }
+                    entityManager.refresh(courant);
+                    StatutPaiement ancienStatut = courant.getStatut();
+                    courant.setStatut(courant.getMontantRembourse().compareTo(courant.getMontant()) >= 0
+                            ? StatutPaiement.REMBOURSE
+                            : StatutPaiement.PARTIELLEMENT_REMBOURSE);
+                    Paiement savedPaiement = paiementRepository.save(courant);
+
+                    PaiementEvenement evenement = evenement(savedPaiement, ancienStatut);
+                    evenement.setMontantRemboursement(remboursement.getMontant());
+                    outboxService.enregistrer(TypeEvenement.PAIEMENT_REMBOURSE, savedPaiement.getId(), evenement);
+                    return savedPaiement;
+                });
+            } catch (OptimisticLockingFailureException e) {
+                if (tentative >= 3) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<RemboursementDto> getRemboursements(Long paiementId) {
+        Paiement paiement = getPaiementById(paiementId);
+        return remboursementRepository.findByPaiementIdOrderByCreatedAtAsc(paiement.getId()).stream()
+                .map(r -> new RemboursementDto(r, paiement.getId()))
+                .toList();
+    }
+
+    /**
+     * Écrit l'export CSV des paiements (tous pour un admin, ceux de ses voitures pour une société)
+     * au fil du curseur. La période, facultative, porte sur le jour d'encaissement, fin incluse.
+     */
+    @Transactional(readOnly = true)
+    public void exporterCsv(User currentUser, LocalDate debut, LocalDate fin, OutputStream sortie) throws IOException {
+        if (debut != null && fin != null && fin.isBefore(debut)) {
+            throw new BusinessException("La date de fin doit être après la date de début");
+        }
+        Long societeUserId = currentUser.getRole() == Role.ADMIN ? null : currentUser.getId();
+
+        EcrivainCsv csv = EcrivainCsv.pourTelechargement(sortie);
+        csv.ecrire("id", "reservation_id", "montant", "montant_rembourse", "statut", "methode_paiement",
+                "date_paiement", "transaction_id", "payment_intent_id", "cree_le", "societe_id", "societe",
+                "client_id", "client_email");
+        try (Stream<PaiementExportDto> lignes = paiementRepository.streamExport(societeUserId,
+                debut != null ? debut.atStartOfDay() : null,
+                fin != null ? fin.plusDays(1).atStartOfDay() : null)) {
+            Iterator<PaiementExportDto> iterateur = lignes.iterator();
+            while (iterateur.hasNext()) {
+                PaiementExportDto ligne = iterateur.next();
+                csv.ecrire(ligne.getId(), ligne.getReservationId(), ligne.getMontant(), ligne.getMontantRembourse(),
+                        ligne.getStatut(), ligne.getMethodePaiement(), ligne.getDatePaiement(),
+                        ligne.getTransactionId(), ligne.getStripePaymentIntentId(), ligne.getCreatedAt(),
+                        ligne.getSocieteId(), ligne.getSocieteNom(), ligne.getClientId(), ligne.getClientEmail());
+            }
+        }
+        csv.flush();
+    }
+
+    private void verifierIntention(Paiement paiement, IntentionPaiement intention) {
+        if (!intention.estReussie()) {
+            throw new BusinessException("Le paiement n'a pas été confirmé par le prestataire (statut : "
+                    + intention.getStatut() + ")");
+        }
+        long montantAttendu = paiement.getMontant().movePointRight(2).longValueExact();
+        if (intention.getMontantCentimes() != montantAttendu) {
+            throw new BusinessException("Le montant payé ne correspond pas au montant du paiement");
+        }
+        paiementRepository.findByStripePaymentIntentId(intention.getId())
+                .filter(autre -> !autre.getId().equals(paiement.getId()))
+                .ifPresent(autre -> {
+                    throw new BusinessException("Cette intention de paiement est déjà associée à un autre paiement");
+                });
+    }
+
+    private static <T> T attendre(CompletableFuture<T> appel) {
+        try {
+            return appel.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof PaymentGatewayException gatewayException) {
+                throw gatewayException;
+            }
+            throw new PaymentGatewayException("Erreur du service de paiement", e.getCause());
+        }
+    }
+
+    private void publier(TypeEvenement type, Paiement paiement, StatutPaiement ancienStatut) {
+        outboxService.enregistrer(type, paiement.getId(), evenement(paiement, ancienStatut));
+    }
 
-        return paiementRepository.save(paiement);
+    private PaiementEvenement evenement(Paiement paiement, StatutPaiement ancienStatut) {
+        Reservation reservation = paiement.getReservation();
+        Long societeId = reservation.getVoiture() != null && reservation.getVoiture().getSociete() != null
+                ? reservation.getVoiture().getSociete().getId()
+                : null;
+        PaiementEvenement evenement = new PaiementEvenement(
+                paiement.getId(), reservation.getId(), societeId, paiement.getStatut(), ancienStatut,
+                paiement.getMontant(), paiement.getDatePaiement());
+        evenement.setMontantRembourse(paiement.getMontantRembourse());
+        return evenement;
     }
 }
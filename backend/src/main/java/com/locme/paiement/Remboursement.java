@@ -0,0 +1,124 @@
+package com.locme.paiement;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "remboursements",
+        indexes = @Index(name = "idx_remboursements_paiement", columnList = "paiement_id"))
+public class Remboursement {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "remboursements_seq")
+    @SequenceGenerator(name = "remboursements_seq", sequenceName = "remboursements_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "paiement_id", nullable = false)
+    private Paiement paiement;
+
+    @Column(name = "montant", nullable = false, precision = 10, scale = 2)
+    private BigDecimal montant;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "statut", nullable = false)
+    private StatutRemboursement statut = StatutRemboursement.EN_COURS;
+
+    @Column(name = "stripe_refund_id")
+    private String stripeRefundId;
+
+    @Column(name = "message_erreur", length = 1000)
+    private String messageErreur;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    // Constructeurs
+    public Remboursement() {}
+
+    public Remboursement(Paiement paiement, BigDecimal montant) {
+        this.paiement = paiement;
+        this.montant = montant;
+    }
+
+    // Getters et Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Paiement getPaiement() {
+        return paiement;
+    }
+
+    public void setPaiement(Paiement paiement) {
+        this.paiement = paiement;
+    }
+
+    public BigDecimal getMontant() {
+        return montant;
+    }
+
+    public void setMontant(BigDecimal montant) {
+        this.montant = montant;
+    }
+
+    public StatutRemboursement getStatut() {
+        return statut;
+    }
+
+    public void setStatut(StatutRemboursement statut) {
+        this.statut = statut;
+    }
+
+    public String getStripeRefundId() {
+        return stripeRefundId;
+    }
+
+    public void setStripeRefundId(String stripeRefundId) {
+        this.stripeRefundId = stripeRefundId;
+    }
+
+    public String getMessageErreur() {
+        return messageErreur;
+    }
+
+    public void setMessageErreur(String messageErreur) {
+        this.messageErreur = messageErreur;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
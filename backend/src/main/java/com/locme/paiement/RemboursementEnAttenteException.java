@@ -0,0 +1,11 @@
+package com.locme.paiement;
+
+/**
+ * Le prestataire n'a pas confirmé le remboursement (délai dépassé, service indisponible) : il a pu être
+ * exécuté. Le montant reste réservé et le remboursement EN_COURS jusqu'à sa reprise automatique.
+ */
+public class RemboursementEnAttenteException extends RuntimeException {
+    public RemboursementEnAttenteException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
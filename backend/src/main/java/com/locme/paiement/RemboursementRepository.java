@@ -0,0 +1,38 @@
+package com.locme.paiement;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RemboursementRepository extends JpaRepository<Remboursement, Long> {
+    List<Remboursement> findByPaiementIdOrderByCreatedAtAsc(Long paiementId);
+
+    boolean existsByPaiementIdAndStatut(Long paiementId, StatutRemboursement statut);
+
+    // Remboursements dont l'issue chez le prestataire est inconnue, à rejouer avec la même clé d'idempotence
+    @Query("SELECT r FROM Remboursement r JOIN FETCH r.paiement " +
+           "WHERE r.statut = com.locme.paiement.StatutRemboursement.EN_COURS " +
+           "AND r.createdAt >= :depuis AND r.createdAt < :avant ORDER BY r.createdAt")
+    List<Remboursement> findEnCoursCreesEntre(@Param("depuis") LocalDateTime depuis,
+                                              @Param("avant") LocalDateTime avant, Pageable lot);
+
+    @Query("SELECT COUNT(r) FROM Remboursement r " +
+           "WHERE r.statut = com.locme.paiement.StatutRemboursement.EN_COURS AND r.createdAt < :avant")
+    long countEnCoursCreesAvant(@Param("avant") LocalDateTime avant);
+
+    // Transition conditionnelle : seule la première issue enregistrée compte, même si une reprise
+    // et la requête d'origine aboutissent en même temps
+    @Modifying
+    @Query("UPDATE Remboursement r SET r.statut = :statut, r.stripeRefundId = :stripeRefundId, " +
+           "r.messageErreur = :messageErreur, r.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE r.id = :id AND r.statut = com.locme.paiement.StatutRemboursement.EN_COURS")
+    int terminer(@Param("id") Long id, @Param("statut") StatutRemboursement statut,
+                 @Param("stripeRefundId") String stripeRefundId, @Param("messageErreur") String messageErreur);
+}
@@ -0,0 +1,7 @@
+package com.locme.paiement;
+
+public enum StatutRemboursement {
+    EN_COURS,
+    EFFECTUE,
+    ECHEC
+}
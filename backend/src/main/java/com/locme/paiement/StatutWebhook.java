@@ -0,0 +1,9 @@
+package com.locme.paiement;
+
+public enum StatutWebhook {
+    A_TRAITER,
+    TRAITE,
+    IGNORE,
+    // Abandonné après max-attempts erreurs de traitement, à examiner puis remettre A_TRAITER
+    EN_ECHEC
+}
@@ -0,0 +1,33 @@
+package com.locme.paiement;
+
+import com.locme.common.ApiResponse;
+import com.locme.paiement.gateway.EvenementPaiement;
+import com.locme.paiement.gateway.PaymentGateway;
+import com.locme.paiement.gateway.PaymentGatewayException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/payments/webhook")
+public class WebhookController {
+
+    @Autowired
+    private PaymentGateway paymentGateway;
+
+    @Autowired
+    private WebhookService webhookService;
+
+    // Accusé de réception immédiat : le traitement est différé (WebhookService.traiter)
+    @PostMapping
+    public ResponseEntity<ApiResponse<Void>> recevoirEvenement(@RequestBody String payload,
+                                                               @RequestHeader(value = "Stripe-Signature", required = false) String signature) {
+        try {
+            EvenementPaiement evenement = paymentGateway.lireEvenement(payload, signature);
+            webhookService.enregistrer(evenement);
+            return ResponseEntity.ok(ApiResponse.success("Événement reçu", null));
+        } catch (PaymentGatewayException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+}
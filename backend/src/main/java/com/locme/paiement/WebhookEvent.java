@@ -0,0 +1,207 @@
+package com.locme.paiement;
+
+import com.locme.paiement.gateway.EvenementPaiement;
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+@Entity
+@Table(name = "webhook_events",
+        indexes = @Index(name = "idx_webhook_events_statut", columnList = "statut, prochain_essai, cree_le"))
+public class WebhookEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "webhook_events_seq")
+    @SequenceGenerator(name = "webhook_events_seq", sequenceName = "webhook_events_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "event_id", nullable = false, unique = true)
+    private String eventId;
+
+    @Column(name = "type", nullable = false)
+    private String type;
+
+    @Column(name = "payment_intent_id", nullable = false)
+    private String paymentIntentId;
+
+    @Column(name = "paiement_id")
+    private Long paiementId;
+
+    @Column(name = "montant_centimes")
+    private Long montantCentimes;
+
+    @Column(name = "charge_id")
+    private String chargeId;
+
+    @Column(name = "message_erreur", length = 1000)
+    private String messageErreur;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "statut", nullable = false)
+    private StatutWebhook statut = StatutWebhook.A_TRAITER;
+
+    @Column(name = "tentatives", nullable = false)
+    private int tentatives;
+
+    @Column(name = "resultat")
+    private String resultat;
+
+    // Date de création chez le prestataire : ordre d'application pour une même intention
+    @Column(name = "cree_le", nullable = false)
+    private LocalDateTime creeLe;
+
+    @Column(name = "recu_le", nullable = false)
+    private LocalDateTime recuLe;
+
+    @Column(name = "prochain_essai", nullable = false)
+    private LocalDateTime prochainEssai;
+
+    @Column(name = "traite_le")
+    private LocalDateTime traiteLe;
+
+    // Constructeurs
+    public WebhookEvent() {}
+
+    public WebhookEvent(EvenementPaiement evenement) {
+        this.eventId = evenement.getEventId();
+        this.type = evenement.getType();
+        this.paymentIntentId = evenement.getPaymentIntentId();
+        this.paiementId = evenement.getPaiementId();
+        this.montantCentimes = evenement.getMontantCentimes();
+        this.chargeId = evenement.getChargeId();
+        this.messageErreur = evenement.getMessageErreur() != null && evenement.getMessageErreur().length() > 1000
+                ? evenement.getMessageErreur().substring(0, 1000)
+                : evenement.getMessageErreur();
+        this.creeLe = LocalDateTime.ofInstant(evenement.getCreeLe(), ZoneOffset.UTC);
+        this.recuLe = LocalDateTime.now();
+        this.prochainEssai = this.recuLe;
+    }
+
+    public void terminer(StatutWebhook statut, String resultat) {
+        this.statut = statut;
+        this.resultat = resultat;
+        this.traiteLe = LocalDateTime.now();
+    }
+
+    // Getters et Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(String eventId) {
+        this.eventId = eventId;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getPaymentIntentId() {
+        return paymentIntentId;
+    }
+
+    public void setPaymentIntentId(String paymentIntentId) {
+        this.paymentIntentId = paymentIntentId;
+    }
+
+    public Long getPaiementId() {
+        return paiementId;
+    }
+
+    public void setPaiementId(Long paiementId) {
+        this.paiementId = paiementId;
+    }
+
+    public Long getMontantCentimes() {
+        return montantCentimes;
+    }
+
+    public void setMontantCentimes(Long montantCentimes) {
+        this.montantCentimes = montantCentimes;
+    }
+
+    public String getChargeId() {
+        return chargeId;
+    }
+
+    public void setChargeId(String chargeId) {
+        this.chargeId = chargeId;
+    }
+
+    public String getMessageErreur() {
+        return messageErreur;
+    }
+
+    public void setMessageErreur(String messageErreur) {
+        this.messageErreur = messageErreur;
+    }
+
+    public StatutWebhook getStatut() {
+        return statut;
+    }
+
+    public void setStatut(StatutWebhook statut) {
+        this.statut = statut;
+    }
+
+    public int getTentatives() {
+        return tentatives;
+    }
+
+    public void setTentatives(int tentatives) {
+        this.tentatives = tentatives;
+    }
+
+    public String getResultat() {
+        return resultat;
+    }
+
+    public void setResultat(String resultat) {
+        this.resultat = resultat;
+    }
+
+    public LocalDateTime getCreeLe() {
+        return creeLe;
+    }
+
+    public void setCreeLe(LocalDateTime creeLe) {
+        this.creeLe = creeLe;
+    }
+
+    public LocalDateTime getRecuLe() {
+        return recuLe;
+    }
+
+    public void setRecuLe(LocalDateTime recuLe) {
+        this.recuLe = recuLe;
+    }
+
+    public LocalDateTime getProchainEssai() {
+        return prochainEssai;
+    }
+
+    public void setProchainEssai(LocalDateTime prochainEssai) {
+        this.prochainEssai = prochainEssai;
+    }
+
+    public LocalDateTime getTraiteLe() {
+        return traiteLe;
+    }
+
+    public void setTraiteLe(LocalDateTime traiteLe) {
+        this.traiteLe = traiteLe;
+    }
+}
@@ -0,0 +1,34 @@
+package com.locme.paiement;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface WebhookEventRepository extends JpaRepository<WebhookEvent, Long> {
+
+    boolean existsByEventId(String eventId);
+
+    // Lecture du lot sans verrou : chaque événement est ensuite verrouillé dans sa propre transaction
+    @Query("SELECT e FROM WebhookEvent e WHERE e.statut = com.locme.paiement.StatutWebhook.A_TRAITER " +
+           "AND e.prochainEssai <= :maintenant ORDER BY e.creeLe, e.id")
+    List<WebhookEvent> findATraiter(@Param("maintenant") LocalDateTime maintenant, Pageable pageable);
+
+    // SKIP LOCKED, comme pour l'outbox : plusieurs instances peuvent traiter en parallèle
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM WebhookEvent e WHERE e.id = :id AND e.statut = com.locme.paiement.StatutWebhook.A_TRAITER")
+    Optional<WebhookEvent> verrouillerATraiter(@Param("id") Long id);
+
+    WebhookEvent findFirstByPaymentIntentIdAndStatutOrderByCreeLeAscIdAsc(String paymentIntentId, StatutWebhook statut);
+}
@@ -0,0 +1,225 @@
+package com.locme.paiement;
+
+import com.locme.paiement.gateway.EvenementPaiement;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Webhooks du prestataire : la réception se limite à une insertion dans webhook_events (dédoublonnée
+ * par identifiant d'événement), l'application aux paiements se fait ensuite par lots, un événement par
+ * transaction, en respectant l'ordre des événements d'une même intention.
+ */
+@Service
+public class WebhookService {
+
+    private static final Logger log = LoggerFactory.getLogger(WebhookService.class);
+
+    static final Set<String> TYPES_TRAITES = Set.of(
+            EvenementPaiement.INTENTION_REUSSIE,
+            EvenementPaiement.INTENTION_ECHOUEE);
+
+    @Autowired
+    private WebhookEventRepository webhookEventRepository;
+
+    @Autowired
+    private PaiementRepository paiementRepository;
+
+    @Autowired
+    private PaiementService paiementService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private TransactionTemplate transactionParEvenement;
+
+    @Value("${locme.payments.webhook.batch-size:100}")
+    private int batchSize = 100;
+
+    @Value("${locme.payments.webhook.max-batches:10}")
+    private int maxBatches = 10;
+
+    @Value("${locme.payments.webhook.max-attempts:10}")
+    private int maxTentatives = 10;
+
+    /**
+     * @return false si l'événement est ignoré (type non géré) ou déjà reçu
+     */
+    public boolean enregistrer(EvenementPaiement evenement) {
+        if (!TYPES_TRAITES.contains(evenement.getType()) || evenement.getPaymentIntentId() == null) {
+            return false;
+        }
+        if (webhookEventRepository.existsByEventId(evenement.getEventId())) {
+            return false;
+        }
+        try {
+            webhookEventRepository.save(new WebhookEvent(evenement));
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            // Livraison concurrente du même événement
+            return false;
+        }
+    }
+
+    @PostConstruct
+    void initialiser() {
+        transactionParEvenement = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        transactionParEvenement.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Scheduled(fixedDelayString = "${locme.payments.webhook.interval-ms:1000}")
+    public void traiter() {
+        for (int i = 0; i < maxBatches; i++) {
+            int traites;
+            try {
+                traites = traiterLot();
+            } catch (RuntimeException e) {
+                log.error("Échec du traitement des webhooks, nouvel essai au prochain cycle", e);
+                return;
+            }
+            if (traites < batchSize) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Lit un lot sans le verrouiller, puis applique chaque événement dans sa propre transaction : un
+     * événement en erreur est reporté (puis mis EN_ECHEC après max-attempts) sans annuler les autres.
+     */
+    int traiterLot() {
+        LocalDateTime maintenant = LocalDateTime.now();
+        List<WebhookEvent> lot = webhookEventRepository.findATraiter(maintenant, PageRequest.of(0, batchSize));
+        if (lot.isEmpty()) {
+            return 0;
+        }
+
+        // Le lot est trié par date de création : chaque groupe conserve l'ordre de ses événements
+        Map<String, List<WebhookEvent>> parIntention = lot.stream()
+                .collect(Collectors.groupingBy(WebhookEvent::getPaymentIntentId, LinkedHashMap::new, Collectors.toList()));
+        Map<String, Long> paiements = paiementRepository.findByStripePaymentIntentIdIn(parIntention.keySet()).stream()
+                .collect(Collectors.toMap(Paiement::getStripePaymentIntentId, Paiement::getId, (a, b) -> a));
+
+        parIntention.forEach((intentId, evenements) -> {
+            Long paiementId = paiements.get(intentId);
+            if (paiementId == null) {
+                paiementId = paiementParMetadonnees(evenements);
+            }
+            for (WebhookEvent evenement : evenements) {
+                traiterEvenement(evenement.getId(), paiementId, maintenant);
+            }
+        });
+        return lot.size();
+    }
+
+    // Le webhook peut précéder l'appel du client qui associe l'intention au paiement
+    private Long paiementParMetadonnees(List<WebhookEvent> evenements) {
+        return evenements.stream()
+                .map(WebhookEvent::getPaiementId)
+                .filter(id -> id != null)
+                .findFirst()
+                .orElse(null);
+    }
+
+    private void traiterEvenement(Long id, Long paiementId, LocalDateTime maintenant) {
+        try {
+            transactionParEvenement.execute(status -> {
+                // SKIP LOCKED : un événement déjà pris par une autre instance est laissé de côté
+                webhookEventRepository.verrouillerATraiter(id)
+                        .filter(evenement -> !attendUnEvenementAnterieur(evenement))
+                        .ifPresent(evenement -> appliquer(
+                                paiementId != null ? paiementRepository.findById(paiementId).orElse(null) : null,
+                                evenement, maintenant));
+                return null;
+            });
+        } catch (RuntimeException e) {
+            log.warn("Webhook {} en erreur : {}", id, e.getMessage());
+            transactionParEvenement.execute(status -> {
+                webhookEventRepository.verrouillerATraiter(id).ifPresent(evenement -> reporter(evenement, maintenant,
+                        StatutWebhook.EN_ECHEC, tronquer(e.getClass().getSimpleName() + " : " + e.getMessage())));
+                return null;
+            });
+        }
+    }
+
+    // Un événement antérieur de la même intention est encore à traiter (reporté après une erreur, ou en
+    // cours sur une autre instance) : celui-ci attend son tour pour ne pas inverser l'ordre d'application
+    private boolean attendUnEvenementAnterieur(WebhookEvent evenement) {
+        WebhookEvent premier = webhookEventRepository.findFirstByPaymentIntentIdAndStatutOrderByCreeLeAscIdAsc(
+                evenement.getPaymentIntentId(), StatutWebhook.A_TRAITER);
+        if (premier == null || premier.getId().equals(evenement.getId())) {
+            return false;
+        }
+        if (premier.getProchainEssai().isAfter(evenement.getProchainEssai())) {
+            evenement.setProchainEssai(premier.getProchainEssai());
+        }
+        return true;
+    }
+
+    private void appliquer(Paiement paiement, WebhookEvent evenement, LocalDateTime maintenant) {
+        if (paiement == null) {
+            reporter(evenement, maintenant, StatutWebhook.IGNORE, "Aucun paiement associé");
+            return;
+        }
+        switch (evenement.getType()) {
+            case EvenementPaiement.INTENTION_REUSSIE -> {
+                long montantAttendu = paiement.getMontant().movePointRight(2).longValueExact();
+                if (evenement.getMontantCentimes() == null || evenement.getMontantCentimes() != montantAttendu) {
+                    log.warn("Webhook {} : montant {} différent du paiement {} ({})", evenement.getEventId(),
+                            evenement.getMontantCentimes(), paiement.getId(), montantAttendu);
+                    evenement.terminer(StatutWebhook.IGNORE, "Montant différent du paiement");
+                    return;
+                }
+                if (!PaiementService.STATUTS_PAYABLES.contains(paiement.getStatut())) {
+                    evenement.terminer(StatutWebhook.TRAITE, "Paiement déjà " + paiement.getStatut());
+                    return;
+                }
+                String transactionId = evenement.getChargeId() != null ? evenement.getChargeId() : paiement.getTransactionId();
+                paiementService.marquerPaye(paiement, evenement.getPaymentIntentId(), transactionId);
+                evenement.terminer(StatutWebhook.TRAITE, "Paiement " + paiement.getId() + " payé");
+            }
+            case EvenementPaiement.INTENTION_ECHOUEE -> {
+                // Un échec ne remplace jamais un paiement déjà confirmé
+                if (paiement.getStatut() != StatutPaiement.EN_ATTENTE) {
+                    evenement.terminer(StatutWebhook.TRAITE, "Paiement déjà " + paiement.getStatut());
+                    return;
+                }
+                paiementService.marquerEchec(paiement, evenement.getPaymentIntentId());
+                evenement.terminer(StatutWebhook.TRAITE, "Paiement " + paiement.getId() + " en échec");
+            }
+            default -> evenement.terminer(StatutWebhook.IGNORE, "Type non géré");
+        }
+    }
+
+    private void reporter(WebhookEvent evenement, LocalDateTime maintenant, StatutWebhook statutFinal, String raison) {
+        evenement.setTentatives(evenement.getTentatives() + 1);
+        if (evenement.getTentatives() >= maxTentatives) {
+            log.warn("Webhook {} abandonné ({}) après {} tentatives, intention {} : {}", evenement.getEventId(),
+                    statutFinal, evenement.getTentatives(), evenement.getPaymentIntentId(), raison);
+            evenement.terminer(statutFinal, raison);
+            return;
+        }
+        // Attente exponentielle plafonnée à une heure
+        long secondes = Math.min(3600, 5L << Math.min(evenement.getTentatives(), 10));
+        evenement.setProchainEssai(maintenant.plusSeconds(secondes));
+    }
+
+    private static String tronquer(String message) {
+        return message.length() > 255 ? message.substring(0, 255) : message;
+    }
+}
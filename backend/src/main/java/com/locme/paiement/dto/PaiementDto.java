@@ -0,0 +1,142 @@
+package com.locme.paiement.dto;
+
+import com.locme.paiement.MethodePaiement;
+import com.locme.paiement.Paiement;
+import com.locme.paiement.StatutPaiement;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Paiement tel que rendu par l'API : la réservation n'est référencée que par son identifiant, la
+ * réponse se sérialise donc sans session ouverte.
+ */
+public class PaiementDto {
+    private Long id;
+    private Long reservationId;
+    private BigDecimal montant;
+    private BigDecimal montantRembourse;
+    private BigDecimal montantRemboursable;
+    private StatutPaiement statut;
+    private MethodePaiement methodePaiement;
+    private String stripePaymentIntentId;
+    private String transactionId;
+    private LocalDateTime datePaiement;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    public PaiementDto() {}
+
+    public PaiementDto(Paiement paiement) {
+        this.id = paiement.getId();
+        // L'identifiant est lu sur le proxy sans l'initialiser
+        this.reservationId = paiement.getReservation() != null ? paiement.getReservation().getId() : null;
+        this.montant = paiement.getMontant();
+        this.montantRembourse = paiement.getMontantRembourse();
+        this.montantRemboursable = paiement.getMontantRemboursable();
+        this.statut = paiement.getStatut();
+        this.methodePaiement = paiement.getMethodePaiement();
+        this.stripePaymentIntentId = paiement.getStripePaymentIntentId();
+        this.transactionId = paiement.getTransactionId();
+        this.datePaiement = paiement.getDatePaiement();
+        this.createdAt = paiement.getCreatedAt();
+        this.updatedAt = paiement.getUpdatedAt();
+    }
+
+    // Getters et Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getReservationId() {
+        return reservationId;
+    }
+
+    public void setReservationId(Long reservationId) {
+        this.reservationId = reservationId;
+    }
+
+    public BigDecimal getMontant() {
+        return montant;
+    }
+
+    public void setMontant(BigDecimal montant) {
+        this.montant = montant;
+    }
+
+    public BigDecimal getMontantRembourse() {
+        return montantRembourse;
+    }
+
+    public void setMontantRembourse(BigDecimal montantRembourse) {
+        this.montantRembourse = montantRembourse;
+    }
+
+    public BigDecimal getMontantRemboursable() {
+        return montantRemboursable;
+    }
+
+    public void setMontantRemboursable(BigDecimal montantRemboursable) {
+        this.montantRemboursable = montantRemboursable;
+    }
+
+    public StatutPaiement getStatut() {
+        return statut;
+    }
+
+    public void setStatut(StatutPaiement statut) {
+        this.statut = statut;
+    }
+
+    public MethodePaiement getMethodePaiement() {
+        return methodePaiement;
+    }
+
+    public void setMethodePaiement(MethodePaiement methodePaiement) {
+        this.methodePaiement = methodePaiement;
+    }
+
+    public String getStripePaymentIntentId() {
+        return stripePaymentIntentId;
+    }
+
+    public void setStripePaymentIntentId(String stripePaymentIntentId) {
+        this.stripePaymentIntentId = stripePaymentIntentId;
+    }
+
+    public String getTransactionId() {
+        return transactionId;
+    }
+
+    public void setTransactionId(String transactionId) {
+        this.transactionId = transactionId;
+    }
+
+    public LocalDateTime getDatePaiement() {
+        return datePaiement;
+    }
+
+    public void setDatePaiement(LocalDateTime datePaiement) {
+        this.datePaiement = datePaiement;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,105 @@
+package com.locme.paiement.dto;
+
+import com.locme.paiement.StatutPaiement;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public class PaiementEvenement {
+    private Long paiementId;
+    private Long reservationId;
+    private Long societeId;
+    private StatutPaiement statut;
+    private StatutPaiement ancienStatut;
+    private BigDecimal montant;
+    private LocalDateTime datePaiement;
+    private BigDecimal montantRembourse;
+    // Montant du remboursement à l'origine de l'événement (PAIEMENT_REMBOURSE uniquement)
+    private BigDecimal montantRemboursement;
+
+    public PaiementEvenement() {}
+
+    public PaiementEvenement(Long paiementId, Long reservationId, Long societeId, StatutPaiement statut,
+                             StatutPaiement ancienStatut, BigDecimal montant, LocalDateTime datePaiement) {
+        this.paiementId = paiementId;
+        this.reservationId = reservationId;
+        this.societeId = societeId;
+        this.statut = statut;
+        this.ancienStatut = ancienStatut;
+        this.montant = montant;
+        this.datePaiement = datePaiement;
+    }
+
+    // Getters et Setters
+    public Long getPaiementId() {
+        return paiementId;
+    }
+
+    public void setPaiementId(Long paiementId) {
+        this.paiementId = paiementId;
+    }
+
+    public Long getReservationId() {
+        return reservationId;
+    }
+
+    public void setReservationId(Long reservationId) {
+        this.reservationId = reservationId;
+    }
+
+    public Long getSocieteId() {
+        return societeId;
+    }
+
+    public void setSocieteId(Long societeId) {
+        this.societeId = societeId;
+    }
+
+    public StatutPaiement getStatut() {
+        return statut;
+    }
+
+    public void setStatut(StatutPaiement statut) {
+        this.statut = statut;
+    }
+
+    public StatutPaiement getAncienStatut() {
+        return ancienStatut;
+    }
+
+    public void setAncienStatut(StatutPaiement ancienStatut) {
+        this.ancienStatut = ancienStatut;
+    }
+
+    public BigDecimal getMontant() {
+        return montant;
+    }
+
+    public void setMontant(BigDecimal montant) {
+        this.montant = montant;
+    }
+
+    public LocalDateTime getDatePaiement() {
+        return datePaiement;
+    }
+
+    public void setDatePaiement(LocalDateTime datePaiement) {
+        this.datePaiement = datePaiement;
+    }
+
+    public BigDecimal getMontantRembourse() {
+        return montantRembourse;
+    }
+
+    public void setMontantRembourse(BigDecimal montantRembourse) {
+        this.montantRembourse = montantRembourse;
+    }
+
+    public BigDecimal getMontantRemboursement() {
+        return montantRemboursement;
+    }
+
+    public void setMontantRemboursement(BigDecimal montantRemboursement) {
+        this.montantRemboursement = montantRemboursement;
+    }
+}
@@ -0,0 +1,164 @@
+package com.locme.paiement.dto;
+
+import com.locme.paiement.MethodePaiement;
+import com.locme.paiement.StatutPaiement;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Ligne de l'export CSV des paiements, lue directement par projection (aucune entité chargée).
+ */
+public class PaiementExportDto {
+    private Long id;
+    private Long reservationId;
+    private BigDecimal montant;
+    private BigDecimal montantRembourse;
+    private StatutPaiement statut;
+    private MethodePaiement methodePaiement;
+    private LocalDateTime datePaiement;
+    private String transactionId;
+    private String stripePaymentIntentId;
+    private LocalDateTime createdAt;
+    private Long societeId;
+    private String societeNom;
+    private Long clientId;
+    private String clientEmail;
+
+    public PaiementExportDto() {}
+
+    // Utilisé par la projection JPQL de l'export
+    public PaiementExportDto(Long id, Long reservationId, BigDecimal montant, BigDecimal montantRembourse,
+                             StatutPaiement statut, MethodePaiement methodePaiement,
+                             LocalDateTime datePaiement, String transactionId, String stripePaymentIntentId,
+                             LocalDateTime createdAt, Long societeId, String societeNom, Long clientId,
+                             String clientEmail) {
+        this.id = id;
+        this.reservationId = reservationId;
+        this.montant = montant;
+        this.montantRembourse = montantRembourse;
+        this.statut = statut;
+        this.methodePaiement = methodePaiement;
+        this.datePaiement = datePaiement;
+        this.transactionId = transactionId;
+        this.stripePaymentIntentId = stripePaymentIntentId;
+        this.createdAt = createdAt;
+        this.societeId = societeId;
+        this.societeNom = societeNom;
+        this.clientId = clientId;
+        this.clientEmail = clientEmail;
+    }
+
+    // Getters et Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getReservationId() {
+        return reservationId;
+    }
+
+    public void setReservationId(Long reservationId) {
+        this.reservationId = reservationId;
+    }
+
+    public BigDecimal getMontant() {
+        return montant;
+    }
+
+    public void setMontant(BigDecimal montant) {
+        this.montant = montant;
+    }
+
+    public BigDecimal getMontantRembourse() {
+        return montantRembourse;
+    }
+
+    public void setMontantRembourse(BigDecimal montantRembourse) {
+        this.montantRembourse = montantRembourse;
+    }
+
+    public StatutPaiement getStatut() {
+        return statut;
+    }
+
+    public void setStatut(StatutPaiement statut) {
+        this.statut = statut;
+    }
+
+    public MethodePaiement getMethodePaiement() {
+        return methodePaiement;
+    }
+
+    public void setMethodePaiement(MethodePaiement methodePaiement) {
+        this.methodePaiement = methodePaiement;
+    }
+
+    public LocalDateTime getDatePaiement() {
+        return datePaiement;
+    }
+
+    public void setDatePaiement(LocalDateTime datePaiement) {
+        this.datePaiement = datePaiement;
+    }
+
+    public String getTransactionId() {
+        return transactionId;
+    }
+
+    public void setTransactionId(String transactionId) {
+        this.transactionId = transactionId;
+    }
+
+    public String getStripePaymentIntentId() {
+        return stripePaymentIntentId;
+    }
+
+    public void setStripePaymentIntentId(String stripePaymentIntentId) {
+        this.stripePaymentIntentId = stripePaymentIntentId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Long getSocieteId() {
+        return societeId;
+    }
+
+    public void setSocieteId(Long societeId) {
+        this.societeId = societeId;
+    }
+
+    public String getSocieteNom() {
+        return societeNom;
+    }
+
+    public void setSocieteNom(String societeNom) {
+        this.societeNom = societeNom;
+    }
+
+    public Long getClientId() {
+        return clientId;
+    }
+
+    public void setClientId(Long clientId) {
+        this.clientId = clientId;
+    }
+
+    public String getClientEmail() {
+        return clientEmail;
+    }
+
+    public void setClientEmail(String clientEmail) {
+        this.clientEmail = clientEmail;
+    }
+}
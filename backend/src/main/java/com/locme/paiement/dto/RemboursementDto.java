@@ -0,0 +1,86 @@
+package com.locme.paiement.dto;
+
+import com.locme.paiement.Remboursement;
+import com.locme.paiement.StatutRemboursement;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public class RemboursementDto {
+    private Long id;
+    private Long paiementId;
+    private BigDecimal montant;
+    private StatutRemboursement statut;
+    private String stripeRefundId;
+    private String messageErreur;
+    private LocalDateTime createdAt;
+
+    public RemboursementDto() {}
+
+    public RemboursementDto(Remboursement remboursement, Long paiementId) {
+        this.id = remboursement.getId();
+        this.paiementId = paiementId;
+        this.montant = remboursement.getMontant();
+        this.statut = remboursement.getStatut();
+        this.stripeRefundId = remboursement.getStripeRefundId();
+        this.messageErreur = remboursement.getMessageErreur();
+        this.createdAt = remboursement.getCreatedAt();
+    }
+
+    // Getters et Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getPaiementId() {
+        return paiementId;
+    }
+
+    public void setPaiementId(Long paiementId) {
+        this.paiementId = paiementId;
+    }
+
+    public BigDecimal getMontant() {
+        return montant;
+    }
+
+    public void setMontant(BigDecimal montant) {
+        this.montant = montant;
+    }
+
+    public StatutRemboursement getStatut() {
+        return statut;
+    }
+
+    public void setStatut(StatutRemboursement statut) {
+        this.statut = statut;
+    }
+
+    public String getStripeRefundId() {
+        return stripeRefundId;
+    }
+
+    public void setStripeRefundId(String stripeRefundId) {
+        this.stripeRefundId = stripeRefundId;
+    }
+
+    public String getMessageErreur() {
+        return messageErreur;
+    }
+
+    public void setMessageErreur(String messageErreur) {
+        this.messageErreur = messageErreur;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,72 @@
+package com.locme.paiement.gateway;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Disjoncteur minimal : ouvert après un nombre d'échecs consécutifs, il rejette les appels
+ * pendant la durée d'ouverture puis laisse passer un seul appel d'essai.
+ */
+class CircuitBreaker {
+
+    enum Etat { FERME, OUVERT, SEMI_OUVERT }
+
+    private final int seuilEchecs;
+    private final Duration dureeOuverture;
+    private final Clock clock;
+
+    private Etat etat = Etat.FERME;
+    private int echecsConsecutifs;
+    private Instant ouvertJusqua = Instant.MIN;
+    private boolean essaiEnCours;
+
+    CircuitBreaker(int seuilEchecs, Duration dureeOuverture, Clock clock) {
+        this.seuilEchecs = seuilEchecs;
+        this.dureeOuverture = dureeOuverture;
+        this.clock = clock;
+    }
+
+    synchronized boolean autoriser() {
+        if (etat == Etat.OUVERT && !clock.instant().isBefore(ouvertJusqua)) {
+            etat = Etat.SEMI_OUVERT;
+            essaiEnCours = false;
+        }
+        return switch (etat) {
+            case FERME -> true;
+            case OUVERT -> false;
+            case SEMI_OUVERT -> {
+                if (essaiEnCours) {
+                    yield false;
+                }
+                essaiEnCours = true;
+                yield true;
+            }
+        };
+    }
+
+    synchronized void enregistrerSucces() {
+        etat = Etat.FERME;
+        echecsConsecutifs = 0;
+        essaiEnCours = false;
+    }
+
+    synchronized void enregistrerEchec() {
+        echecsConsecutifs++;
+        if (etat == Etat.SEMI_OUVERT || echecsConsecutifs >= seuilEchecs) {
+            etat = Etat.OUVERT;
+            ouvertJusqua = clock.instant().plus(dureeOuverture);
+            essaiEnCours = false;
+        }
+    }
+
+    // Appel autorisé mais jamais parvenu au service : ne compte ni comme succès ni comme échec, et rend
+    // la place de l'appel d'essai en semi-ouvert
+    synchronized void ignorer() {
+        essaiEnCours = false;
+    }
+
+    synchronized Etat getEtat() {
+        return etat;
+    }
+}
@@ -0,0 +1,65 @@
+package com.locme.paiement.gateway;
+
+import java.time.Instant;
+
+/**
+ * Notification du prestataire (webhook) déjà authentifiée, réduite aux champs utiles.
+ */
+public class EvenementPaiement {
+
+    public static final String INTENTION_REUSSIE = "payment_intent.succeeded";
+    public static final String INTENTION_ECHOUEE = "payment_intent.payment_failed";
+
+    private final String eventId;
+    private final String type;
+    private final String paymentIntentId;
+    private final Long paiementId;
+    private final Long montantCentimes;
+    private final String chargeId;
+    private final String messageErreur;
+    private final Instant creeLe;
+
+    public EvenementPaiement(String eventId, String type, String paymentIntentId, Long paiementId,
+                             Long montantCentimes, String chargeId, String messageErreur, Instant creeLe) {
+        this.eventId = eventId;
+        this.type = type;
+        this.paymentIntentId = paymentIntentId;
+        this.paiementId = paiementId;
+        this.montantCentimes = montantCentimes;
+        this.chargeId = chargeId;
+        this.messageErreur = messageErreur;
+        this.creeLe = creeLe;
+    }
+
+    public String getEventId() {
+        return eventId;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getPaymentIntentId() {
+        return paymentIntentId;
+    }
+
+    public Long getPaiementId() {
+        return paiementId;
+    }
+
+    public Long getMontantCentimes() {
+        return montantCentimes;
+    }
+
+    public String getChargeId() {
+        return chargeId;
+    }
+
+    public String getMessageErreur() {
+        return messageErreur;
+    }
+
+    public Instant getCreeLe() {
+        return creeLe;
+    }
+}
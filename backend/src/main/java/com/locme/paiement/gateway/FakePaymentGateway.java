@@ -0,0 +1,120 @@
+package com.locme.paiement.gateway;
+
+import com.stripe.exception.SignatureVerificationException;
+import com.stripe.net.Webhook;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Prestataire en mémoire pour le développement local et les tests ({@code locme.payments.gateway=fake}).
+ */
+@Component
+@ConditionalOnProperty(name = "locme.payments.gateway", havingValue = "fake")
+public class FakePaymentGateway implements PaymentGateway {
+
+    private static final String SECRET_WEBHOOK = "whsec_fake";
+
+    private final Map<String, IntentionPaiement> intentions = new ConcurrentHashMap<>();
+    private final Map<String, RemboursementPrestataire> remboursements = new ConcurrentHashMap<>();
+
+    public void enregistrerIntention(IntentionPaiement intention) {
+        intentions.put(intention.getId(), intention);
+    }
+
+    public void reinitialiser() {
+        intentions.clear();
+        remboursements.clear();
+    }
+
+    public int nombreRemboursements() {
+        return remboursements.size();
+    }
+
+    @Override
+    public CompletableFuture<IntentionPaiement> recupererIntention(String paymentIntentId) {
+        IntentionPaiement intention = intentions.get(paymentIntentId);
+        if (intention == null) {
+            return CompletableFuture.failedFuture(
+                    new RessourceIntrouvableException("Intention de paiement introuvable : " + paymentIntentId));
+        }
+        return CompletableFuture.completedFuture(intention);
+    }
+
+    @Override
+    public CompletableFuture<PageIntentions> listerIntentions(Instant debut, Instant fin, String apres, int limite) {
+        List<IntentionPaiement> triees = intentions.values().stream()
+                .filter(i -> i.getCreeLe() != null && !i.getCreeLe().isBefore(debut) && i.getCreeLe().isBefore(fin))
+                .sorted(Comparator.comparing(IntentionPaiement::getCreeLe).reversed()
+                        .thenComparing(IntentionPaiement::getId, Comparator.reverseOrder()))
+                .toList();
+        int depart = 0;
+        if (apres != null) {
+            for (int i = 0; i < triees.size(); i++) {
+                if (triees.get(i).getId().equals(apres)) {
+                    depart = i + 1;
+                    break;
+                }
+            }
+        }
+        int finPage = Math.min(depart + limite, triees.size());
+        return CompletableFuture.completedFuture(
+                new PageIntentions(List.copyOf(triees.subList(depart, finPage)), finPage < triees.size()));
+    }
+
+    @Override
+    public CompletableFuture<RemboursementPrestataire> rembourser(String paymentIntentId, long montantCentimes,
+                                                                  String cleIdempotence) {
+        if (!intentions.containsKey(paymentIntentId)) {
+            return CompletableFuture.failedFuture(
+                    new RessourceIntrouvableException("Intention de paiement introuvable : " + paymentIntentId));
+        }
+        RemboursementPrestataire remboursement = remboursements.computeIfAbsent(cleIdempotence,
+                cle -> new RemboursementPrestataire("re_fake_" + (remboursements.size() + 1), "succeeded", montantCentimes));
+        return CompletableFuture.completedFuture(remboursement);
+    }
+
+    // Même format et même vérification que Stripe, avec un secret connu : voir signer
+    @Override
+    public EvenementPaiement lireEvenement(String payload, String signature) {
+        if (signature == null) {
+            throw new PaymentGatewayException("Signature du webhook manquante");
+        }
+        try {
+            return StripeEvenements.convertir(Webhook.constructEvent(payload, signature, SECRET_WEBHOOK));
+        } catch (SignatureVerificationException e) {
+            throw new PaymentGatewayException("Signature du webhook invalide", e);
+        } catch (RuntimeException e) {
+            throw new PaymentGatewayException("Événement du webhook illisible", e);
+        }
+    }
+
+    /**
+     * En-tête Stripe-Signature valide pour ce prestataire, pour simuler un webhook en local.
+     */
+    public static String signer(String payload) {
+        return signer(payload, Instant.now().getEpochSecond());
+    }
+
+    static String signer(String payload, long horodatage) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(SECRET_WEBHOOK.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            byte[] empreinte = mac.doFinal((horodatage + "." + payload).getBytes(StandardCharsets.UTF_8));
+            return "t=" + horodatage + ",v1=" + HexFormat.of().formatHex(empreinte);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
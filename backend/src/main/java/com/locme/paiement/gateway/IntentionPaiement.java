@@ -0,0 +1,59 @@
+package com.locme.paiement.gateway;
+
+import java.time.Instant;
+
+/**
+ * Vue d'une intention de paiement telle que connue du prestataire.
+ */
+public class IntentionPaiement {
+
+    public static final String STATUT_REUSSI = "succeeded";
+
+    private final String id;
+    private final String statut;
+    private final long montantCentimes;
+    private final String devise;
+    private final String chargeId;
+    private final Instant creeLe;
+
+    public IntentionPaiement(String id, String statut, long montantCentimes, String devise, String chargeId) {
+        this(id, statut, montantCentimes, devise, chargeId, null);
+    }
+
+    public IntentionPaiement(String id, String statut, long montantCentimes, String devise, String chargeId, Instant creeLe) {
+        this.id = id;
+        this.statut = statut;
+        this.montantCentimes = montantCentimes;
+        this.devise = devise;
+        this.chargeId = chargeId;
+        this.creeLe = creeLe;
+    }
+
+    public boolean estReussie() {
+        return STATUT_REUSSI.equals(statut);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getStatut() {
+        return statut;
+    }
+
+    public long getMontantCentimes() {
+        return montantCentimes;
+    }
+
+    public String getDevise() {
+        return devise;
+    }
+
+    public String getChargeId() {
+        return chargeId;
+    }
+
+    public Instant getCreeLe() {
+        return creeLe;
+    }
+}
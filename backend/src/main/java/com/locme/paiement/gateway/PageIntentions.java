@@ -0,0 +1,29 @@
+package com.locme.paiement.gateway;
+
+import java.util.List;
+
+/**
+ * Page d'intentions de paiement, parcourue avec le curseur {@link #getDernierId()}.
+ */
+public class PageIntentions {
+
+    private final List<IntentionPaiement> intentions;
+    private final boolean suite;
+
+    public PageIntentions(List<IntentionPaiement> intentions, boolean suite) {
+        this.intentions = intentions;
+        this.suite = suite;
+    }
+
+    public List<IntentionPaiement> getIntentions() {
+        return intentions;
+    }
+
+    public boolean aSuite() {
+        return suite && !intentions.isEmpty();
+    }
+
+    public String getDernierId() {
+        return intentions.isEmpty() ? null : intentions.get(intentions.size() - 1).getId();
+    }
+}
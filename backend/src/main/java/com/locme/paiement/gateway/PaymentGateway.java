@@ -0,0 +1,30 @@
+package com.locme.paiement.gateway;
+
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Accès au prestataire de paiement. Les appels sont asynchrones : l'implémentation choisit
+ * où ils s'exécutent et les termine en erreur avec une {@link PaymentGatewayException}.
+ */
+public interface PaymentGateway {
+
+    CompletableFuture<IntentionPaiement> recupererIntention(String paymentIntentId);
+
+    /**
+     * Intentions créées dans [debut, fin[, de la plus récente à la plus ancienne.
+     *
+     * @param apres identifiant de la dernière intention de la page précédente, null pour la première page
+     */
+    CompletableFuture<PageIntentions> listerIntentions(Instant debut, Instant fin, String apres, int limite);
+
+    /**
+     * @param cleIdempotence identique pour les nouvelles tentatives d'un même remboursement
+     */
+    CompletableFuture<RemboursementPrestataire> rembourser(String paymentIntentId, long montantCentimes, String cleIdempotence);
+
+    /**
+     * Authentifie et décode une notification reçue sur le webhook. Appel local, sans réseau.
+     */
+    EvenementPaiement lireEvenement(String payload, String signature);
+}
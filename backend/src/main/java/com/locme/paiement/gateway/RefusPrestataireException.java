@@ -0,0 +1,15 @@
+package com.locme.paiement.gateway;
+
+/**
+ * Le prestataire a répondu et refusé la demande : elle n'a pas été exécutée et ne le sera pas en la
+ * rejouant (à distinguer d'une panne, d'un délai dépassé ou d'un disjoncteur ouvert, dont l'issue est inconnue).
+ */
+public class RefusPrestataireException extends PaymentGatewayException {
+    public RefusPrestataireException(String message) {
+        super(message);
+    }
+
+    public RefusPrestataireException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
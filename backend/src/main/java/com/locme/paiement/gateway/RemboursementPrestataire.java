@@ -0,0 +1,31 @@
+package com.locme.paiement.gateway;
+
+public class RemboursementPrestataire {
+
+    private final String id;
+    private final String statut;
+    private final long montantCentimes;
+
+    public RemboursementPrestataire(String id, String statut, long montantCentimes) {
+        this.id = id;
+        this.statut = statut;
+        this.montantCentimes = montantCentimes;
+    }
+
+    // "failed" et "canceled" sont définitifs ; "pending" aboutit dans la grande majorité des cas
+    public boolean estEchoue() {
+        return "failed".equals(statut) || "canceled".equals(statut);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getStatut() {
+        return statut;
+    }
+
+    public long getMontantCentimes() {
+        return montantCentimes;
+    }
+}
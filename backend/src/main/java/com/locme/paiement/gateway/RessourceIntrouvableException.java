@@ -0,0 +1,14 @@
+package com.locme.paiement.gateway;
+
+/**
+ * Le prestataire a répondu, mais ne connaît pas l'objet demandé (à distinguer d'une panne).
+ */
+public class RessourceIntrouvableException extends RefusPrestataireException {
+    public RessourceIntrouvableException(String message) {
+        super(message);
+    }
+
+    public RessourceIntrouvableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
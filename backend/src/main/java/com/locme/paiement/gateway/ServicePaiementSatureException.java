@@ -0,0 +1,11 @@
+package com.locme.paiement.gateway;
+
+/**
+ * L'appel n'a pas été transmis au prestataire : le pool de la passerelle et sa file sont pleins. Ce n'est
+ * pas une panne du prestataire, elle n'est ni réessayée ni comptée par le disjoncteur.
+ */
+public class ServicePaiementSatureException extends PaymentGatewayException {
+    public ServicePaiementSatureException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
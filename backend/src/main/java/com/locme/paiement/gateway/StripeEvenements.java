@@ -0,0 +1,53 @@
+package com.locme.paiement.gateway;
+
+import com.stripe.exception.EventDataObjectDeserializationException;
+import com.stripe.model.Event;
+import com.stripe.model.PaymentIntent;
+import com.stripe.model.StripeObject;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Conversion des événements Stripe, partagée par la passerelle réelle et la passerelle factice.
+ */
+final class StripeEvenements {
+
+    static final String METADATA_PAIEMENT_ID = "paiement_id";
+
+    private StripeEvenements() {}
+
+    static EvenementPaiement convertir(Event event) {
+        Instant creeLe = event.getCreated() != null ? Instant.ofEpochSecond(event.getCreated()) : Instant.now();
+        StripeObject objet = objet(event);
+        if (!(objet instanceof PaymentIntent intent)) {
+            return new EvenementPaiement(event.getId(), event.getType(), null, null, null, null, null, creeLe);
+        }
+        return new EvenementPaiement(event.getId(), event.getType(), intent.getId(), paiementId(intent.getMetadata()),
+                intent.getAmount(), intent.getLatestCharge(),
+                intent.getLastPaymentError() != null ? intent.getLastPaymentError().getMessage() : null,
+                creeLe);
+    }
+
+    // Objet désérialisé même si la version d'API de l'événement diffère de celle du SDK
+    private static StripeObject objet(Event event) {
+        return event.getDataObjectDeserializer().getObject().orElseGet(() -> {
+            try {
+                return event.getDataObjectDeserializer().deserializeUnsafe();
+            } catch (EventDataObjectDeserializationException e) {
+                throw new PaymentGatewayException("Événement Stripe illisible : " + event.getId(), e);
+            }
+        });
+    }
+
+    private static Long paiementId(Map<String, String> metadata) {
+        if (metadata == null || metadata.get(METADATA_PAIEMENT_ID) == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(metadata.get(METADATA_PAIEMENT_ID));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package com.locme.paiement.gateway;
+
+import com.stripe.StripeClient;
+import com.stripe.exception.ApiConnectionException;
+import com.stripe.exception.RateLimitException;
+import com.stripe.exception.SignatureVerificationException;
+import com.stripe.exception.StripeException;
+import com.stripe.model.PaymentIntent;
+import com.stripe.model.Refund;
+import com.stripe.net.RequestOptions;
+import com.stripe.net.Webhook;
+import com.stripe.param.PaymentIntentListParams;
+import com.stripe.param.RefundCreateParams;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Passerelle Stripe. Les appels s'exécutent sur un pool borné (le dépassement de la file est
+ * rejeté immédiatement), avec un délai global, des nouvelles tentatives espacées avec gigue et
+ * un disjoncteur. Un rejet du pool n'est pas réessayé et ne compte pas pour le disjoncteur.
+ * Un seul {@link StripeClient} est partagé pour réutiliser les connexions.
+ */
+@Component
+@ConditionalOnProperty(name = "locme.payments.gateway", havingValue = "stripe", matchIfMissing = true)
+public class StripePaymentGateway implements PaymentGateway {
+
+    private static final Logger log = LoggerFactory.getLogger(StripePaymentGateway.class);
+
+    @Value("${stripe.secret-key}")
+    private String secretKey;
+
+    @Value("${stripe.webhook-secret:}")
+    private String webhookSecret;
+
+    @Value("${locme.payments.stripe.pool-size:8}")
+    private int taillePool = 8;
+
+    @Value("${locme.payments.stripe.queue-capacity:50}")
+    private int capaciteFile = 50;
+
+    @Value("${locme.payments.stripe.connect-timeout-ms:2000}")
+    private int connectTimeoutMs = 2000;
+
+    @Value("${locme.payments.stripe.read-timeout-ms:5000}")
+    private int readTimeoutMs = 5000;
+
+    @Value("${locme.payments.stripe.timeout-ms:12000}")
+    private long timeoutMs = 12_000;
+
+    @Value("${locme.payments.stripe.max-attempts:3}")
+    private int maxTentatives = 3;
+
+    @Value("${locme.payments.stripe.backoff-ms:200}")
+    private long backoffMs = 200;
+
+    @Value("${locme.payments.stripe.breaker.failure-threshold:5}")
+    private int seuilEchecs = 5;
+
+    @Value("${locme.payments.stripe.breaker.open-ms:30000}")
+    private long ouvertureMs = 30_000;
+
+    private StripeClient client;
+    private ThreadPoolExecutor executor;
+    private CircuitBreaker circuitBreaker;
+
+    public StripePaymentGateway() {}
+
+    StripePaymentGateway(StripeClient client, ThreadPoolExecutor executor, CircuitBreaker circuitBreaker,
+                         int maxTentatives, long backoffMs, long timeoutMs) {
+        this.client = client;
+        this.executor = executor;
+        this.circuitBreaker = circuitBreaker;
+        this.maxTentatives = maxTentatives;
+        this.backoffMs = backoffMs;
+        this.timeoutMs = timeoutMs;
+    }
+
+    @PostConstruct
+    void initialiser() {
+        // Les nouvelles tentatives sont gérées ici, pas par le SDK, pour rester sous le délai global
+        client = StripeClient.builder()
+                .setApiKey(secretKey)
+                .setConnectTimeout(connectTimeoutMs)
+                .setReadTimeout(readTimeoutMs)
+                .setMaxNetworkRetries(0)
+                .build();
+        executor = creerExecutor(taillePool, capaciteFile);
+        circuitBreaker = new CircuitBreaker(seuilEchecs, Duration.ofMillis(ouvertureMs), Clock.systemUTC());
+    }
+
+    @PreDestroy
+    void fermer() {
+        executor.shutdownNow();
+    }
+
+    static ThreadPoolExecutor creerExecutor(int taillePool, int capaciteFile) {
+        AtomicInteger compteur = new AtomicInteger();
+        return new ThreadPoolExecutor(taillePool, taillePool, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(capaciteFile),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "stripe-" + compteur.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public CompletableFuture<IntentionPaiement> recupererIntention(String paymentIntentId) {
+        return executer("recupererIntention", stripe -> versIntention(stripe.paymentIntents().retrieve(paymentIntentId)));
+    }
+
+    @Override
+    public CompletableFuture<PageIntentions> listerIntentions(Instant debut, Instant fin, String apres, int limite) {
+        PaymentIntentListParams params = PaymentIntentListParams.builder()
+                .setCreated(PaymentIntentListParams.Created.builder()
+                        .setGte(debut.getEpochSecond())
+                        .setLt(fin.getEpochSecond())
+                        .build())
+                .setLimit((long) Math.min(limite, 100))
+                .setStartingAfter(apres)
+                .build();
+        return executer("listerIntentions", stripe -> {
+            var page = stripe.paymentIntents().list(params);
+            return new PageIntentions(page.getData().stream().map(StripePaymentGateway::versIntention).toList(),
+                    Boolean.TRUE.equals(page.getHasMore()));
+        });
+    }
+
+    @Override
+    public CompletableFuture<RemboursementPrestataire> rembourser(String paymentIntentId, long montantCentimes,
+                                                                  String cleIdempotence) {
+        RefundCreateParams params = RefundCreateParams.builder()
+                .setPaymentIntent(paymentIntentId)
+                .setAmount(montantCentimes)
+                .build();
+        // La clé d'idempotence rend les nouvelles tentatives sans risque de double remboursement
+        RequestOptions options = RequestOptions.builder().setIdempotencyKey(cleIdempotence).build();
+        return executer("rembourser", stripe -> {
+            Refund refund = stripe.refunds().create(params, options);
+            return new RemboursementPrestataire(refund.getId(), refund.getStatus(),
+                    refund.getAmount() != null ? refund.getAmount() : montantCentimes);
+        });
+    }
+
+    @Override
+    public EvenementPaiement lireEvenement(String payload, String signature) {
+        if (signature == null || webhookSecret == null || webhookSecret.isBlank()) {
+            throw new PaymentGatewayException("Signature du webhook manquante");
+        }
+        try {
+            return StripeEvenements.convertir(Webhook.constructEvent(payload, signature, webhookSecret));
+        } catch (SignatureVerificationException e) {
+            throw new PaymentGatewayException("Signature du webhook invalide", e);
+        } catch (RuntimeException e) {
+            throw new PaymentGatewayException("Événement du webhook illisible", e);
+        }
+    }
+
+    <T> CompletableFuture<T> executer(String operation, AppelStripe<T> appel) {
+        if (!circuitBreaker.autoriser()) {
+            return CompletableFuture.failedFuture(
+                    new PaymentGatewayException("Service de paiement temporairement indisponible"));
+        }
+        long echeance = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        return tenter(operation, appel, 1, echeance)
+                .orTimeout(timeoutMs, TimeUnit.MILLISECONDS)
+                .handle((resultat, erreur) -> {
+                    if (erreur == null) {
+                        circuitBreaker.enregistrerSucces();
+                        return resultat;
+                    }
+                    Throwable cause = erreur instanceof CompletionException && erreur.getCause() != null
+                            ? erreur.getCause() : erreur;
+                    // Une requête refusée par Stripe (4xx) prouve que le service répond ; un rejet par le
+                    // pool local ne dit rien de son état
+                    if (cause instanceof ServicePaiementSatureException) {
+                        circuitBreaker.ignorer();
+                    } else if (estTransitoire(cause)) {
+                        circuitBreaker.enregistrerEchec();
+                    } else {
+                        circuitBreaker.enregistrerSucces();
+                    }
+                    if (cause instanceof PaymentGatewayException e) {
+                        throw e;
+                    }
+                    if (cause instanceof StripeException e && Integer.valueOf(404).equals(e.getStatusCode())) {
+                        throw new RessourceIntrouvableException("Objet inconnu du service de paiement : " + e.getMessage(), e);
+                    }
+                    if (cause instanceof StripeException e && e.getStatusCode() != null && e.getStatusCode() >= 400
+                            && !estTransitoire(e)) {
+                        throw new RefusPrestataireException("Demande refusée par le service de paiement : " + e.getMessage(), e);
+                    }
+                    String message = cause instanceof TimeoutException
+                            ? "Le service de paiement n'a pas répondu à temps"
+                            : "Erreur du service de paiement : " + cause.getMessage();
+                    throw new PaymentGatewayException(message, cause);
+                });
+    }
+
+    private <T> CompletableFuture<T> tenter(String operation, AppelStripe<T> appel, int tentative, long echeance) {
+        CompletableFuture<T> essai;
+        try {
+            essai = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return appel.appeler(client);
+                } catch (StripeException e) {
+                    throw new CompletionException(e);
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(new ServicePaiementSatureException("Service de paiement saturé", e));
+        }
+
+        return essai.handle((resultat, erreur) -> {
+            if (erreur == null) {
+                return CompletableFuture.completedFuture(resultat);
+            }
+            Throwable cause = erreur instanceof CompletionException && erreur.getCause() != null
+                    ? erreur.getCause() : erreur;
+            long attente = delaiAvecGigue(tentative);
+            // Inutile de réessayer si le délai global sera dépassé avant le prochain essai
+            boolean horsDelai = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(attente) >= echeance;
+            if (tentative >= maxTentatives || horsDelai || !estTransitoire(cause)) {
+                return CompletableFuture.<T>failedFuture(cause);
+            }
+            log.warn("Appel Stripe {} en échec (tentative {}/{}), nouvel essai dans {} ms : {}",
+                    operation, tentative, maxTentatives, attente, cause.getMessage());
+            // L'attente ne bloque aucun thread du pool
+            Executor differe = CompletableFuture.delayedExecutor(attente, TimeUnit.MILLISECONDS);
+            return CompletableFuture.supplyAsync(() -> null, differe)
+                    .thenCompose(ignore -> tenter(operation, appel, tentative + 1, echeance));
+        }).thenCompose(future -> future);
+    }
+
+    // Gigue complète : délai tiré entre 0 et backoff * 2^(tentative - 1)
+    private long delaiAvecGigue(int tentative) {
+        long plafond = backoffMs << Math.min(tentative - 1, 10);
+        return ThreadLocalRandom.current().nextLong(plafond + 1);
+    }
+
+    static boolean estTransitoire(Throwable erreur) {
+        if (erreur instanceof ApiConnectionException || erreur instanceof RateLimitException
+                || erreur instanceof TimeoutException) {
+            return true;
+        }
+        if (erreur instanceof ServicePaiementSatureException) {
+            return false;
+        }
+        if (erreur instanceof PaymentGatewayException) {
+            return true;
+        }
+        if (erreur instanceof StripeException e) {
+            Integer statut = e.getStatusCode();
+            return statut != null && (statut >= 500 || statut == 409);
+        }
+        return false;
+    }
+
+    private static IntentionPaiement versIntention(PaymentIntent intent) {
+        return new IntentionPaiement(intent.getId(), intent.getStatus(),
+                intent.getAmount() != null ? intent.getAmount() : 0L,
+                intent.getCurrency(), intent.getLatestCharge(),
+                intent.getCreated() != null ? Instant.ofEpochSecond(intent.getCreated()) : null);
+    }
+
+    CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    @FunctionalInterface
+    interface AppelStripe<T> {
+        T appeler(StripeClient client) throws StripeException;
+    }
+}
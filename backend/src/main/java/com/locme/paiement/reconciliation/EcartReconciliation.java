@@ -0,0 +1,139 @@
+package com.locme.paiement.reconciliation;
+
+import com.locme.paiement.StatutPaiement;
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "ecarts_reconciliation",
+        indexes = @Index(name = "idx_ecarts_reconciliation_rapport", columnList = "rapport_id"))
+public class EcartReconciliation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ecarts_reconciliation_seq")
+    @SequenceGenerator(name = "ecarts_reconciliation_seq", sequenceName = "ecarts_reconciliation_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "rapport_id", nullable = false)
+    private Long rapportId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false)
+    private TypeEcart type;
+
+    @Column(name = "paiement_id")
+    private Long paiementId;
+
+    @Column(name = "payment_intent_id")
+    private String paymentIntentId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "statut_local")
+    private StatutPaiement statutLocal;
+
+    @Column(name = "statut_prestataire")
+    private String statutPrestataire;
+
+    @Column(name = "montant_local", precision = 10, scale = 2)
+    private BigDecimal montantLocal;
+
+    @Column(name = "montant_prestataire", precision = 10, scale = 2)
+    private BigDecimal montantPrestataire;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    // Constructeurs
+    public EcartReconciliation() {}
+
+    public EcartReconciliation(Long rapportId, TypeEcart type, Long paiementId, String paymentIntentId) {
+        this.rapportId = rapportId;
+        this.type = type;
+        this.paiementId = paiementId;
+        this.paymentIntentId = paymentIntentId;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    // Getters et Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getRapportId() {
+        return rapportId;
+    }
+
+    public void setRapportId(Long rapportId) {
+        this.rapportId = rapportId;
+    }
+
+    public TypeEcart getType() {
+        return type;
+    }
+
+    public void setType(TypeEcart type) {
+        this.type = type;
+    }
+
+    public Long getPaiementId() {
+        return paiementId;
+    }
+
+    public void setPaiementId(Long paiementId) {
+        this.paiementId = paiementId;
+    }
+
+    public String getPaymentIntentId() {
+        return paymentIntentId;
+    }
+
+    public void setPaymentIntentId(String paymentIntentId) {
+        this.paymentIntentId = paymentIntentId;
+    }
+
+    public StatutPaiement getStatutLocal() {
+        return statutLocal;
+    }
+
+    public void setStatutLocal(StatutPaiement statutLocal) {
+        this.statutLocal = statutLocal;
+    }
+
+    public String getStatutPrestataire() {
+        return statutPrestataire;
+    }
+
+    public void setStatutPrestataire(String statutPrestataire) {
+        this.statutPrestataire = statutPrestataire;
+    }
+
+    public BigDecimal getMontantLocal() {
+        return montantLocal;
+    }
+
+    public void setMontantLocal(BigDecimal montantLocal) {
+        this.montantLocal = montantLocal;
+    }
+
+    public BigDecimal getMontantPrestataire() {
+        return montantPrestataire;
+    }
+
+    public void setMontantPrestataire(BigDecimal montantPrestataire) {
+        this.montantPrestataire = montantPrestataire;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,11 @@
+package com.locme.paiement.reconciliation;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface EcartReconciliationRepository extends JpaRepository<EcartReconciliation, Long> {
+    List<EcartReconciliation> findByRapportIdOrderByIdAsc(Long rapportId);
+}
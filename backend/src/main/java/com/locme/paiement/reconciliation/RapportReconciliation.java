@@ -0,0 +1,133 @@
+package com.locme.paiement.reconciliation;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "rapports_reconciliation")
+public class RapportReconciliation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "rapports_reconciliation_seq")
+    @SequenceGenerator(name = "rapports_reconciliation_seq", sequenceName = "rapports_reconciliation_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "periode_debut", nullable = false)
+    private LocalDateTime periodeDebut;
+
+    @Column(name = "periode_fin", nullable = false)
+    private LocalDateTime periodeFin;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "statut", nullable = false)
+    private StatutRapport statut = StatutRapport.EN_COURS;
+
+    @Column(name = "intentions_prestataire", nullable = false)
+    private long intentionsPrestataire;
+
+    @Column(name = "paiements_verifies", nullable = false)
+    private long paiementsVerifies;
+
+    @Column(name = "ecarts", nullable = false)
+    private long ecarts;
+
+    @Column(name = "message", length = 1000)
+    private String message;
+
+    @Column(name = "demarre_le", nullable = false)
+    private LocalDateTime demarreLe;
+
+    @Column(name = "termine_le")
+    private LocalDateTime termineLe;
+
+    // Constructeurs
+    public RapportReconciliation() {}
+
+    public RapportReconciliation(LocalDateTime periodeDebut, LocalDateTime periodeFin) {
+        this.periodeDebut = periodeDebut;
+        this.periodeFin = periodeFin;
+        this.demarreLe = LocalDateTime.now();
+    }
+
+    // Getters et Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public LocalDateTime getPeriodeDebut() {
+        return periodeDebut;
+    }
+
+    public void setPeriodeDebut(LocalDateTime periodeDebut) {
+        this.periodeDebut = periodeDebut;
+    }
+
+    public LocalDateTime getPeriodeFin() {
+        return periodeFin;
+    }
+
+    public void setPeriodeFin(LocalDateTime periodeFin) {
+        this.periodeFin = periodeFin;
+    }
+
+    public StatutRapport getStatut() {
+        return statut;
+    }
+
+    public void setStatut(StatutRapport statut) {
+        this.statut = statut;
+    }
+
+    public long getIntentionsPrestataire() {
+        return intentionsPrestataire;
+    }
+
+    public void setIntentionsPrestataire(long intentionsPrestataire) {
+        this.intentionsPrestataire = intentionsPrestataire;
+    }
+
+    public long getPaiementsVerifies() {
+        return paiementsVerifies;
+    }
+
+    public void setPaiementsVerifies(long paiementsVerifies) {
+        this.paiementsVerifies = paiementsVerifies;
+    }
+
+    public long getEcarts() {
+        return ecarts;
+    }
+
+    public void setEcarts(long ecarts) {
+        this.ecarts = ecarts;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public LocalDateTime getDemarreLe() {
+        return demarreLe;
+    }
+
+    public void setDemarreLe(LocalDateTime demarreLe) {
+        this.demarreLe = demarreLe;
+    }
+
+    public LocalDateTime getTermineLe() {
+        return termineLe;
+    }
+
+    public void setTermineLe(LocalDateTime termineLe) {
+        this.termineLe = termineLe;
+    }
+}
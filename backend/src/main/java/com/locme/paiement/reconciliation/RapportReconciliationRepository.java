@@ -0,0 +1,12 @@
+package com.locme.paiement.reconciliation;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface RapportReconciliationRepository extends JpaRepository<RapportReconciliation, Long> {
+    List<RapportReconciliation> findAllByOrderByDemarreLeDesc(Pageable pageable);
+}
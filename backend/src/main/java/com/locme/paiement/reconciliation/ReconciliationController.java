@@ -0,0 +1,68 @@
+package com.locme.paiement.reconciliation;
+
+import com.locme.common.ApiResponse;
+import com.locme.common.exceptions.ResourceNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/payments/reconciliations")
+@CrossOrigin(origins = "*")
+@PreAuthorize("hasRole('ADMIN')")
+public class ReconciliationController {
+
+    @Autowired
+    private ReconciliationService reconciliationService;
+
+    @PostMapping
+    public ResponseEntity<ApiResponse<RapportReconciliation>> demarrerReconciliation(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime debut,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fin) {
+        try {
+            RapportReconciliation rapport = reconciliationService.demarrer(debut, fin);
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(ApiResponse.success("Réconciliation démarrée", rapport));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<RapportReconciliation>>> getRapports(
+            @RequestParam(defaultValue = "20") int limite) {
+        try {
+            return ResponseEntity.ok(ApiResponse.success(reconciliationService.getRapports(Math.min(limite, 100))));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ApiResponse<RapportReconciliation>> getRapport(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(ApiResponse.success(reconciliationService.getRapport(id)));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(404).body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    @GetMapping("/{id}/ecarts")
+    public ResponseEntity<ApiResponse<List<EcartReconciliation>>> getEcarts(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(ApiResponse.success(reconciliationService.getEcarts(id)));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(404).body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+}
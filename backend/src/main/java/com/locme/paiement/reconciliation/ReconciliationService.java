@@ -0,0 +1,353 @@
+package com.locme.paiement.reconciliation;
+
+import com.locme.common.exceptions.BusinessException;
+import com.locme.common.exceptions.ResourceNotFoundException;
+import com.locme.paiement.Paiement;
+import com.locme.paiement.PaiementRepository;
+import com.locme.paiement.StatutPaiement;
+import com.locme.paiement.gateway.IntentionPaiement;
+import com.locme.paiement.gateway.PageIntentions;
+import com.locme.paiement.gateway.PaymentGateway;
+import com.locme.paiement.gateway.PaymentGatewayException;
+import com.locme.paiement.gateway.RessourceIntrouvableException;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Réconciliation des paiements encaissés avec le prestataire, en deux passes à mémoire constante :
+ * <ol>
+ *   <li>les intentions du prestataire sont parcourues page par page et rapprochées des paiements
+ *   locaux correspondants, qui sont marqués comme rapprochés ;</li>
+ *   <li>les paiements locaux de la période restés sans correspondance sont lus par pages et
+ *   vérifiés un à un auprès du prestataire.</li>
+ * </ol>
+ * Les appels au prestataire sont séquentiels et cadencés (max-calls-per-second) : la réconciliation ne
+ * sature ni le pool ni le disjoncteur partagés avec les paiements en ligne.
+ */
+@Service
+public class ReconciliationService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReconciliationService.class);
+
+    static final Set<StatutPaiement> STATUTS_ENCAISSES = EnumSet.of(
+            StatutPaiement.PAYE, StatutPaiement.PARTIELLEMENT_REMBOURSE, StatutPaiement.REMBOURSE);
+
+    @Autowired
+    private PaiementRepository paiementRepository;
+
+    @Autowired
+    private RapportReconciliationRepository rapportRepository;
+
+    @Autowired
+    private EcartReconciliationRepository ecartRepository;
+
+    @Autowired
+    private PaymentGateway paymentGateway;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${locme.payments.reconciliation.page-size:100}")
+    private int taillePage = 100;
+
+    @Value("${locme.payments.reconciliation.batch-size:50}")
+    private int tailleLot = 50;
+
+    // Appels au prestataire par seconde, toutes passes confondues ; 0 : sans limite
+    @Value("${locme.payments.reconciliation.max-calls-per-second:10}")
+    private int appelsParSeconde = 10;
+
+    // Une intention est créée avant l'encaissement : la fenêtre prestataire commence plus tôt
+    @Value("${locme.payments.reconciliation.margin-hours:24}")
+    private long margeHeures = 24;
+
+    private final ZoneId zone = ZoneId.systemDefault();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Scheduled(cron = "${locme.payments.reconciliation.cron:0 30 2 * * *}")
+    public void reconcilierVeille() {
+        LocalDate aujourdhui = LocalDate.now();
+        RapportReconciliation rapport = reconcilier(aujourdhui.minusDays(1).atStartOfDay(), aujourdhui.atStartOfDay());
+        log.info("Réconciliation {} : {} ({} écarts)", rapport.getId(), rapport.getStatut(), rapport.getEcarts());
+    }
+
+    /**
+     * Lance la réconciliation en arrière-plan et rend le rapport en cours.
+     */
+    public RapportReconciliation demarrer(LocalDateTime debut, LocalDateTime fin) {
+        RapportReconciliation rapport = creerRapport(debut, fin);
+        executor.submit(() -> executer(rapport));
+        return rapport;
+    }
+
+    public RapportReconciliation reconcilier(LocalDateTime debut, LocalDateTime fin) {
+        return executer(creerRapport(debut, fin));
+    }
+
+    @Transactional(readOnly = true)
+    public List<RapportReconciliation> getRapports(int limite) {
+        return rapportRepository.findAllByOrderByDemarreLeDesc(PageRequest.of(0, limite));
+    }
+
+    @Transactional(readOnly = true)
+    public RapportReconciliation getRapport(Long id) {
+        return rapportRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Rapport de réconciliation non trouvé"));
+    }
+
+    @Transactional(readOnly = true)
+    public List<EcartReconciliation> getEcarts(Long rapportId) {
+        getRapport(rapportId);
+        return ecartRepository.findByRapportIdOrderByIdAsc(rapportId);
+    }
+
+    @PreDestroy
+    void fermer() {
+        executor.shutdownNow();
+    }
+
+    private RapportReconciliation creerRapport(LocalDateTime debut, LocalDateTime fin) {
+        if (debut == null || fin == null || !debut.isBefore(fin)) {
+            throw new BusinessException("La période de réconciliation est invalide");
+        }
+        return rapportRepository.save(new RapportReconciliation(debut, fin));
+    }
+
+    RapportReconciliation executer(RapportReconciliation rapport) {
+        LocalDateTime debutExecution = LocalDateTime.now();
+        Compteurs compteurs = new Compteurs();
+        Cadence cadence = new Cadence(appelsParSeconde);
+        try {
+            comparerIntentions(rapport, debutExecution, compteurs, cadence);
+            verifierPaiementsLocaux(rapport, debutExecution, compteurs, cadence);
+            rapport.setStatut(StatutRapport.TERMINE);
+        } catch (RuntimeException e) {
+            log.error("Échec de la réconciliation {}", rapport.getId(), e);
+            rapport.setStatut(StatutRapport.ECHEC);
+            String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            rapport.setMessage(message.length() > 1000 ? message.substring(0, 1000) : message);
+        }
+        rapport.setIntentionsPrestataire(compteurs.intentions);
+        rapport.setPaiementsVerifies(compteurs.verifies);
+        rapport.setEcarts(compteurs.ecarts);
+        rapport.setTermineLe(LocalDateTime.now());
+        return rapportRepository.save(rapport);
+    }
+
+    private void comparerIntentions(RapportReconciliation rapport, LocalDateTime debutExecution, Compteurs compteurs,
+                                    Cadence cadence) {
+        Instant debutPeriode = rapport.getPeriodeDebut().atZone(zone).toInstant();
+        Instant debut = rapport.getPeriodeDebut().minusHours(margeHeures).atZone(zone).toInstant();
+        Instant fin = rapport.getPeriodeFin().atZone(zone).toInstant();
+
+        String apres = null;
+        PageIntentions page;
+        do {
+            // Appel distant hors transaction, écriture des résultats de la page dans une transaction courte
+            cadence.patienter();
+            page = attendre(paymentGateway.listerIntentions(debut, fin, apres, taillePage));
+            PageIntentions courante = page;
+            transactionTemplate.execute(status -> {
+                rapprocherPage(rapport.getId(), courante.getIntentions(), debutPeriode, debutExecution, compteurs);
+                return null;
+            });
+            compteurs.intentions += page.getIntentions().size();
+            apres = page.getDernierId();
+        } while (page.aSuite());
+    }
+
+    private void rapprocherPage(Long rapportId, List<IntentionPaiement> intentions, Instant debutPeriode,
+                                LocalDateTime debutExecution, Compteurs compteurs) {
+        if (intentions.isEmpty()) {
+            return;
+        }
+        Map<String, Paiement> locaux = paiementRepository.findByStripePaymentIntentIdIn(
+                        intentions.stream().map(IntentionPaiement::getId).toList()).stream()
+                .collect(Collectors.toMap(Paiement::getStripePaymentIntentId, Function.identity(), (a, b) -> a));
+
+        List<Long> rapproches = new ArrayList<>();
+        List<EcartReconciliation> ecarts = new ArrayList<>();
+        for (IntentionPaiement intention : intentions) {
+            Paiement local = locaux.get(intention.getId());
+            boolean encaisseLocalement = local != null && STATUTS_ENCAISSES.contains(local.getStatut());
+            if (intention.estReussie()) {
+                if (local == null) {
+                    // Hors période (marge), l'absence sera signalée par la réconciliation de la période concernée
+                    if (intention.getCreeLe() == null || !intention.getCreeLe().isBefore(debutPeriode)) {
+                        ecarts.add(ecart(rapportId, TypeEcart.ABSENT_LOCALEMENT, null, intention));
+                    }
+                } else if (!encaisseLocalement) {
+                    ecarts.add(ecart(rapportId, TypeEcart.STATUT_DIVERGENT, local, intention));
+                } else if (centimes(local.getMontant()) != intention.getMontantCentimes()) {
+                    ecarts.add(ecart(rapportId, TypeEcart.MONTANT_DIVERGENT, local, intention));
+                } else {
+                    rapproches.add(local.getId());
+                }
+            } else if (encaisseLocalement) {
+                ecarts.add(ecart(rapportId, TypeEcart.STATUT_DIVERGENT, local, intention));
+            }
+        }
+        marquerRapproches(rapproches, debutExecution);
+        enregistrer(ecarts, compteurs);
+    }
+
+    // Lecture par pages (clé datePaiement, id) : ni transaction ni curseur ne restent ouverts pendant les
+    // appels au prestataire, et chaque page est validée dès qu'elle est vérifiée
+    private void verifierPaiementsLocaux(RapportReconciliation rapport, LocalDateTime debutExecution,
+                                         Compteurs compteurs, Cadence cadence) {
+        LocalDateTime apresDate = rapport.getPeriodeDebut();
+        long apresId = 0;
+        List<Paiement> page;
+        do {
+            page = paiementRepository.findNonRapprochesApres(STATUTS_ENCAISSES, rapport.getPeriodeFin(),
+                    debutExecution, apresDate, apresId, PageRequest.of(0, tailleLot));
+            if (page.isEmpty()) {
+                return;
+            }
+            verifierLot(rapport.getId(), page, debutExecution, compteurs, cadence);
+            Paiement dernier = page.get(page.size() - 1);
+            apresDate = dernier.getDatePaiement();
+            apresId = dernier.getId();
+        } while (page.size() >= tailleLot);
+    }
+
+    // Un appel à la fois, au rythme de la cadence : la réconciliation n'occupe qu'une place du pool Stripe
+    // partagé avec les paiements en ligne
+    private void verifierLot(Long rapportId, List<Paiement> lot, LocalDateTime debutExecution, Compteurs compteurs,
+                             Cadence cadence) {
+        List<EcartReconciliation> ecarts = new ArrayList<>();
+        List<Long> rapproches = new ArrayList<>();
+        for (Paiement paiement : lot) {
+            if (paiement.getStripePaymentIntentId() == null) {
+                ecarts.add(ecart(rapportId, TypeEcart.ABSENT_CHEZ_PRESTATAIRE, paiement, null));
+                continue;
+            }
+            cadence.patienter();
+            IntentionPaiement intention;
+            try {
+                intention = attendre(paymentGateway.recupererIntention(paiement.getStripePaymentIntentId()));
+            } catch (RessourceIntrouvableException e) {
+                ecarts.add(ecart(rapportId, TypeEcart.ABSENT_CHEZ_PRESTATAIRE, paiement, null));
+                continue;
+            }
+            if (!intention.estReussie()) {
+                ecarts.add(ecart(rapportId, TypeEcart.ABSENT_CHEZ_PRESTATAIRE, paiement, intention));
+            } else if (centimes(paiement.getMontant()) != intention.getMontantCentimes()) {
+                ecarts.add(ecart(rapportId, TypeEcart.MONTANT_DIVERGENT, paiement, intention));
+            } else {
+                rapproches.add(paiement.getId());
+            }
+        }
+        compteurs.verifies += lot.size();
+        transactionTemplate.execute(status -> {
+            marquerRapproches(rapproches, debutExecution);
+            enregistrer(ecarts, compteurs);
+            return null;
+        });
+    }
+
+    private void marquerRapproches(List<Long> ids, LocalDateTime date) {
+        if (!ids.isEmpty()) {
+            paiementRepository.marquerRapproches(ids, date);
+        }
+    }
+
+    private void enregistrer(List<EcartReconciliation> ecarts, Compteurs compteurs) {
+        if (ecarts.isEmpty()) {
+            return;
+        }
+        ecartRepository.saveAll(ecarts);
+        entityManager.flush();
+        ecarts.forEach(entityManager::detach);
+        compteurs.ecarts += ecarts.size();
+    }
+
+    private static EcartReconciliation ecart(Long rapportId, TypeEcart type, Paiement paiement, IntentionPaiement intention) {
+        EcartReconciliation ecart = new EcartReconciliation(rapportId, type,
+                paiement != null ? paiement.getId() : null,
+                intention != null ? intention.getId() : paiement.getStripePaymentIntentId());
+        if (paiement != null) {
+            ecart.setStatutLocal(paiement.getStatut());
+            ecart.setMontantLocal(paiement.getMontant());
+        }
+        if (intention != null) {
+            ecart.setStatutPrestataire(intention.getStatut());
+            ecart.setMontantPrestataire(BigDecimal.valueOf(intention.getMontantCentimes(), 2));
+        }
+        return ecart;
+    }
+
+    private static long centimes(BigDecimal montant) {
+        return montant.movePointRight(2).longValueExact();
+    }
+
+    private static <T> T attendre(CompletableFuture<T> appel) {
+        try {
+            return appel.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof PaymentGatewayException gatewayException) {
+                throw gatewayException;
+            }
+            throw new PaymentGatewayException("Erreur du service de paiement", e.getCause());
+        }
+    }
+
+    private static final class Cadence {
+        private final long intervalleNanos;
+        private long prochainAppel = System.nanoTime();
+
+        private Cadence(int appelsParSeconde) {
+            this.intervalleNanos = appelsParSeconde > 0 ? TimeUnit.SECONDS.toNanos(1) / appelsParSeconde : 0;
+        }
+
+        void patienter() {
+            long attente = prochainAppel - System.nanoTime();
+            if (attente > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(attente);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Réconciliation interrompue", e);
+                }
+            }
+            prochainAppel = Math.max(prochainAppel, System.nanoTime()) + intervalleNanos;
+        }
+    }
+
+    private static final class Compteurs {
+        private long intentions;
+        private long verifies;
+        private long ecarts;
+    }
+}
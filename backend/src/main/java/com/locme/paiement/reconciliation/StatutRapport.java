@@ -0,0 +1,7 @@
+package com.locme.paiement.reconciliation;
+
+public enum StatutRapport {
+    EN_COURS,
+    TERMINE,
+    ECHEC
+}
@@ -0,0 +1,10 @@
+package com.locme.paiement.reconciliation;
+
+public enum TypeEcart {
+    // Paiement encaissé chez le prestataire sans paiement local correspondant
+    ABSENT_LOCALEMENT,
+    // Paiement payé localement, intention inconnue ou non aboutie chez le prestataire
+    ABSENT_CHEZ_PRESTATAIRE,
+    STATUT_DIVERGENT,
+    MONTANT_DIVERGENT
+}
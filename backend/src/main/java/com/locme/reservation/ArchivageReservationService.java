@@ -0,0 +1,87 @@
+package com.locme.reservation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+
+/**
+ * Archive les réservations closes (TERMINEE, ANNULEE) dont la date de fin dépasse la durée de
+ * conservation : la ligne quitte reservations_courantes pour la partition d'archive de son année
+ * (cf. V4). Lots courts, chacun dans sa transaction, pour ne garder les verrous que brièvement ;
+ * au-delà du nombre de lots d'un passage, le reste attend le passage suivant.
+ */
+@Service
+public class ArchivageReservationService {
+
+    private static final Logger log = LoggerFactory.getLogger(ArchivageReservationService.class);
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${locme.reservations.archivage.retention-months:12}")
+    private int moisConservation = 12;
+
+    @Value("${locme.reservations.archivage.batch-size:1000}")
+    private int tailleLot = 1000;
+
+    @Value("${locme.reservations.archivage.max-batches:100}")
+    private int maxLots = 100;
+
+    @Scheduled(cron = "${locme.reservations.archivage.cron:0 0 4 * * *}")
+    public void archiver() {
+        try {
+            archiver(LocalDate.now());
+        } catch (RuntimeException e) {
+            log.error("Échec de l'archivage des réservations, nouvel essai au prochain passage", e);
+        }
+    }
+
+    public int archiver(LocalDate aujourdhui) {
+        LocalDate limite = aujourdhui.minusMonths(moisConservation);
+        LocalDate plusAncienne = transactionTemplate.execute(status ->
+                reservationRepository.findPlusAncienneFinArchivable(limite));
+        if (plusAncienne == null) {
+            return 0;
+        }
+
+        // Partition de chaque année concernée créée avant d'y déplacer des lignes : une fois des lignes
+        // tombées dans la partition par défaut, PostgreSQL refuserait de créer celle de leur année
+        for (int annee = plusAncienne.getYear(); annee <= limite.getYear(); annee++) {
+            creerPartition(annee);
+        }
+
+        int total = 0;
+        for (int i = 0; i < maxLots; i++) {
+            Integer archivees = transactionTemplate.execute(status ->
+                    reservationRepository.archiverLot(limite, tailleLot));
+            total += archivees;
+            if (archivees < tailleLot) {
+                break;
+            }
+        }
+        log.info("Archivage : {} réservations closes avant le {} archivées", total, limite);
+        return total;
+    }
+
+    private void creerPartition(int annee) {
+        try {
+            Boolean creee = transactionTemplate.execute(status -> reservationRepository.creerPartitionArchive(annee));
+            if (Boolean.TRUE.equals(creee)) {
+                log.info("Partition d'archive des réservations créée pour {}", annee);
+            }
+        } catch (DataAccessException e) {
+            // Les lignes de cette année iront dans reservations_archives_defaut
+            log.warn("Partition d'archive {} non créée", annee, e);
+        }
+    }
+}
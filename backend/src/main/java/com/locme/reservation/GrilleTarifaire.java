@@ -0,0 +1,164 @@
+package com.locme.reservation;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Tarifs d'une voiture compilés en centimes, jour par jour, à partir de la date d'origine.
+ * Les ajustements sont exprimés en points de base (1 % = 100). Immuable : une nouvelle grille
+ * est compilée à chaque changement de prix ou de règles.
+ */
+final class GrilleTarifaire {
+
+    private static final long BASE_POINTS = 10_000L;
+
+    private final Long voitureId;
+    private final Long societeId;
+    private final long prixBaseCentimes;
+    private final long origine;
+    private final long[] prixJournaliers;
+
+    // Règles compilées, utilisées pour la grille et pour les dates hors horizon
+    private final long[] saisonsDebut;
+    private final long[] saisonsFin;
+    private final int[] saisonsPoints;
+    private final int weekendPoints;
+    private final int[] dureesMinimum;
+    private final int[] dureesPoints;
+
+    private GrilleTarifaire(Long voitureId, Long societeId, long prixBaseCentimes, long origine, int horizonJours,
+                            long[] saisonsDebut, long[] saisonsFin, int[] saisonsPoints, int weekendPoints,
+                            int[] dureesMinimum, int[] dureesPoints) {
+        this.voitureId = voitureId;
+        this.societeId = societeId;
+        this.prixBaseCentimes = prixBaseCentimes;
+        this.origine = origine;
+        this.saisonsDebut = saisonsDebut;
+        this.saisonsFin = saisonsFin;
+        this.saisonsPoints = saisonsPoints;
+        this.weekendPoints = weekendPoints;
+        this.dureesMinimum = dureesMinimum;
+        this.dureesPoints = dureesPoints;
+        this.prixJournaliers = new long[horizonJours];
+        for (int i = 0; i < horizonJours; i++) {
+            prixJournaliers[i] = calculerPrixJour(origine + i);
+        }
+    }
+
+    static GrilleTarifaire compiler(Long voitureId, Long societeId, long prixBaseCentimes,
+                                    List<RegleTarifaire> regles, LocalDate origine, int horizonJours) {
+        List<RegleTarifaire> saisons = new ArrayList<>();
+        List<RegleTarifaire> durees = new ArrayList<>();
+        int weekend = 0;
+        for (RegleTarifaire regle : regles) {
+            switch (regle.getType()) {
+                case SAISON -> {
+                    if (regle.getDateDebut() != null && regle.getDateFin() != null) {
+                        saisons.add(regle);
+                    }
+                }
+                case WEEKEND -> weekend += enPoints(regle);
+                case DUREE -> {
+                    if (regle.getDureeMinimum() != null) {
+                        durees.add(regle);
+                    }
+                }
+            }
+        }
+        durees.sort(Comparator.comparing(RegleTarifaire::getDureeMinimum));
+
+        long[] saisonsDebut = new long[saisons.size()];
+        long[] saisonsFin = new long[saisons.size()];
+        int[] saisonsPoints = new int[saisons.size()];
+        for (int i = 0; i < saisons.size(); i++) {
+            saisonsDebut[i] = saisons.get(i).getDateDebut().toEpochDay();
+            saisonsFin[i] = saisons.get(i).getDateFin().toEpochDay();
+            saisonsPoints[i] = enPoints(saisons.get(i));
+        }
+        int[] dureesMinimum = new int[durees.size()];
+        int[] dureesPoints = new int[durees.size()];
+        for (int i = 0; i < durees.size(); i++) {
+            dureesMinimum[i] = durees.get(i).getDureeMinimum();
+            dureesPoints[i] = enPoints(durees.get(i));
+        }
+
+        return new GrilleTarifaire(voitureId, societeId, prixBaseCentimes, origine.toEpochDay(), horizonJours,
+                saisonsDebut, saisonsFin, saisonsPoints, weekend, dureesMinimum, dureesPoints);
+    }
+
+    /**
+     * Montant en centimes pour les jours facturés [debut, fin[.
+     */
+    long calculerMontantCentimes(long debut, long fin) {
+        if (fin <= debut) {
+            return 0L;
+        }
+        long total = 0L;
+        for (long jour = debut; jour < fin; jour++) {
+            long index = jour - origine;
+            total += (index >= 0 && index < prixJournaliers.length)
+                    ? prixJournaliers[(int) index]
+                    : calculerPrixJour(jour);
+        }
+        return ajuster(total, pointsDuree(fin - debut));
+    }
+
+    long calculerMontantCentimes(LocalDate debut, LocalDate fin) {
+        return calculerMontantCentimes(debut.toEpochDay(), fin.toEpochDay());
+    }
+
+    private long calculerPrixJour(long jour) {
+        int points = 0;
+        for (int i = 0; i < saisonsDebut.length; i++) {
+            if (jour >= saisonsDebut[i] && jour <= saisonsFin[i]) {
+                points += saisonsPoints[i];
+            }
+        }
+        long prix = ajuster(prixBaseCentimes, points);
+        return estWeekend(jour) ? ajuster(prix, weekendPoints) : prix;
+    }
+
+    private int pointsDuree(long nombreJours) {
+        int points = 0;
+        for (int i = 0; i < dureesMinimum.length && dureesMinimum[i] <= nombreJours; i++) {
+            points = dureesPoints[i];
+        }
+        return points;
+    }
+
+    private static boolean estWeekend(long jour) {
+        // 1970-01-01 était un jeudi
+        int jourSemaine = (int) Math.floorMod(jour + 3, 7L) + 1;
+        return jourSemaine == DayOfWeek.SATURDAY.getValue() || jourSemaine == DayOfWeek.SUNDAY.getValue();
+    }
+
+    private static long ajuster(long centimes, int points) {
+        if (points == 0) {
+            return centimes;
+        }
+        return Math.max(0L, (centimes * (BASE_POINTS + points) + BASE_POINTS / 2) / BASE_POINTS);
+    }
+
+    private static int enPoints(RegleTarifaire regle) {
+        return regle.getPourcentage().movePointRight(2).intValue();
+    }
+
+    Long getVoitureId() {
+        return voitureId;
+    }
+
+    Long getSocieteId() {
+        return societeId;
+    }
+
+    long getPrixBaseCentimes() {
+        return prixBaseCentimes;
+    }
+
+    LocalDate getOrigine() {
+        return LocalDate.ofEpochDay(origine);
+    }
+}
@@ -0,0 +1,141 @@
+package com.locme.reservation;
+
+import com.locme.societe.Societe;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Règle de tarification d'une société.
+ * Le pourcentage est un ajustement appliqué au prix de base : +20 pour une majoration de 20 %,
+ * -10 pour une remise de 10 %.
+ */
+@Entity
+@Table(name = "regles_tarifaires")
+public class RegleTarifaire {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "regles_tarifaires_seq")
+    @SequenceGenerator(name = "regles_tarifaires_seq", sequenceName = "regles_tarifaires_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "societe_id", nullable = false)
+    private Societe societe;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false)
+    private TypeRegleTarifaire type;
+
+    @Column(name = "libelle")
+    private String libelle;
+
+    @NotNull
+    @Column(name = "pourcentage", nullable = false, precision = 5, scale = 2)
+    private BigDecimal pourcentage;
+
+    // Période couverte (règles SAISON uniquement)
+    @Column(name = "date_debut")
+    private LocalDate dateDebut;
+
+    @Column(name = "date_fin")
+    private LocalDate dateFin;
+
+    // Nombre de jours minimum (règles DUREE uniquement)
+    @Column(name = "duree_minimum")
+    private Integer dureeMinimum;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    // Constructeurs
+    public RegleTarifaire() {}
+
+    public RegleTarifaire(Societe societe, TypeRegleTarifaire type, BigDecimal pourcentage) {
+        this.societe = societe;
+        this.type = type;
+        this.pourcentage = pourcentage;
+    }
+
+    // Getters et Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Societe getSociete() {
+        return societe;
+    }
+
+    public void setSociete(Societe societe) {
+        this.societe = societe;
+    }
+
+    public TypeRegleTarifaire getType() {
+        return type;
+    }
+
+    public void setType(TypeRegleTarifaire type) {
+        this.type = type;
+    }
+
+    public String getLibelle() {
+        return libelle;
+    }
+
+    public void setLibelle(String libelle) {
+        this.libelle = libelle;
+    }
+
+    public BigDecimal getPourcentage() {
+        return pourcentage;
+    }
+
+    public void setPourcentage(BigDecimal pourcentage) {
+        this.pourcentage = pourcentage;
+    }
+
+    public LocalDate getDateDebut() {
+        return dateDebut;
+    }
+
+    public void setDateDebut(LocalDate dateDebut) {
+        this.dateDebut = dateDebut;
+    }
+
+    public LocalDate getDateFin() {
+        return dateFin;
+    }
+
+    public void setDateFin(LocalDate dateFin) {
+        this.dateFin = dateFin;
+    }
+
+    public Integer getDureeMinimum() {
+        return dureeMinimum;
+    }
+
+    public void setDureeMinimum(Integer dureeMinimum) {
+        this.dureeMinimum = dureeMinimum;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
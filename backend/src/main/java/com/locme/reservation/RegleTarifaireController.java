@@ -0,0 +1,66 @@
+package com.locme.reservation;
+
+import com.locme.auth.AuthService;
+import com.locme.auth.User;
+import com.locme.common.ApiResponse;
+import com.locme.common.exceptions.ResourceNotFoundException;
+import com.locme.reservation.dto.RegleTarifaireDto;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import jakarta.validation.Valid;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/regles-tarifaires")
+@CrossOrigin(origins = "*")
+@Tag(name = "Règles tarifaires", description = "API de gestion des tarifs saisonniers, week-end et dégressifs")
+public class RegleTarifaireController {
+
+    @Autowired
+    private TarificationService tarificationService;
+
+    @Autowired
+    private AuthService authService;
+
+    @GetMapping
+    @PreAuthorize("hasRole('SOCIETE')")
+    public ResponseEntity<ApiResponse<List<RegleTarifaireDto>>> getRegles() {
+        try {
+            User currentUser = authService.getCurrentUser();
+            List<RegleTarifaireDto> regles = tarificationService.getReglesBySociete(currentUser);
+            return ResponseEntity.ok(ApiResponse.success(regles));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    @PostMapping
+    @PreAuthorize("hasRole('SOCIETE')")
+    public ResponseEntity<ApiResponse<RegleTarifaireDto>> createRegle(@Valid @RequestBody RegleTarifaireDto regleDto) {
+        try {
+            User currentUser = authService.getCurrentUser();
+            RegleTarifaireDto createdRegle = tarificationService.createRegle(regleDto, currentUser);
+            return ResponseEntity.ok(ApiResponse.success("Règle tarifaire créée avec succès", createdRegle));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    @PreAuthorize("hasRole('SOCIETE')")
+    public ResponseEntity<ApiResponse<Void>> deleteRegle(@PathVariable Long id) {
+        try {
+            User currentUser = authService.getCurrentUser();
+            tarificationService.deleteRegle(id, currentUser);
+            return ResponseEntity.ok(ApiResponse.success("Règle tarifaire supprimée avec succès", null));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(404).body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.locme.reservation;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface RegleTarifaireRepository extends JpaRepository<RegleTarifaire, Long> {
+    List<RegleTarifaire> findBySocieteId(Long societeId);
+    List<RegleTarifaire> findBySocieteIdIn(Collection<Long> societeIds);
+}
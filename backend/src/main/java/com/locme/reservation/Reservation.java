@@ -5,6 +5,7 @@ import com.locme.voiture.Voiture;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -15,7 +16,8 @@ import java.time.LocalDateTime;
 public class Reservation {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reservations_seq")
+    @SequenceGenerator(name = "reservations_seq", sequenceName = "reservations_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -58,6 +60,16 @@ public class Reservation {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    // Posée uniquement par ArchivageReservationService ; détermine la partition de la ligne (cf. V4)
+    @ColumnDefault("false")
+    @Column(name = "archivee", nullable = false, insertable = false, updatable = false)
+    private boolean archivee;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -176,4 +188,16 @@ public class Reservation {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public boolean isArchivee() {
+        return archivee;
+    }
 }
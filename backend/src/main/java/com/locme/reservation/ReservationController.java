@@ -5,12 +5,21 @@ import com.locme.auth.User;
 import com.locme.common.ApiResponse;
 import com.locme.common.exceptions.ResourceNotFoundException;
 import com.locme.reservation.dto.ReservationDto;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -21,6 +30,9 @@ public class ReservationController {
     @Autowired
     private ReservationService reservationService;
 
+    @Autowired
+    private ReservationStreamService reservationStreamService;
+
     @Autowired
     private AuthService authService;
 
@@ -42,6 +54,26 @@ public class ReservationController {
         }
     }
 
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamReservations() {
+        User currentUser = authService.getCurrentUser();
+        return reservationStreamService.abonner(currentUser);
+    }
+
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('SOCIETE') or hasRole('ADMIN')")
+    public void exportReservations(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate debut,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fin,
+            HttpServletResponse response) throws IOException {
+        // Écrit directement dans la réponse : rien n'est accumulé en mémoire, quel que soit le volume
+        User currentUser = authService.getCurrentUser();
+        response.setContentType("text/csv;charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename("reservations.csv").build().toString());
+        reservationService.exporterCsv(currentUser, debut, fin, response.getOutputStream());
+    }
+
     @GetMapping("/societe/{id}")
     @PreAuthorize("hasRole('SOCIETE') or hasRole('ADMIN')")
     public ResponseEntity<ApiResponse<List<ReservationDto>>> getReservationsBySociete(@PathVariable Long id) {
@@ -91,6 +123,8 @@ public class ReservationController {
             return ResponseEntity.ok(ApiResponse.success("Statut de réservation mis à jour", updatedReservation));
         } catch (ResourceNotFoundException e) {
             return ResponseEntity.status(404).body(ApiResponse.error("Réservation non trouvée"));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(409).body(ApiResponse.error("La réservation a été modifiée simultanément, veuillez réessayer"));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
         }
@@ -105,6 +139,8 @@ public class ReservationController {
             return ResponseEntity.ok(ApiResponse.success("Réservation confirmée avec succès", updatedReservation));
         } catch (ResourceNotFoundException e) {
             return ResponseEntity.status(404).body(ApiResponse.error("Réservation non trouvée"));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(409).body(ApiResponse.error("La réservation a été modifiée simultanément, veuillez réessayer"));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
         }
@@ -119,6 +155,8 @@ public class ReservationController {
             return ResponseEntity.ok(ApiResponse.success("Réservation annulée avec succès", updatedReservation));
         } catch (ResourceNotFoundException e) {
             return ResponseEntity.status(404).body(ApiResponse.error("Réservation non trouvée"));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(409).body(ApiResponse.error("La réservation a été modifiée simultanément, veuillez réessayer"));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
         }
@@ -133,6 +171,8 @@ public class ReservationController {
             return ResponseEntity.ok(ApiResponse.success("Réservation marquée comme terminée", updatedReservation));
         } catch (ResourceNotFoundException e) {
             return ResponseEntity.status(404).body(ApiResponse.error("Réservation non trouvée"));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(409).body(ApiResponse.error("La réservation a été modifiée simultanément, veuillez réessayer"));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
         }
@@ -1,31 +1,85 @@
 package com.locme.reservation;
 
 import com.locme.auth.User;
+import com.locme.reservation.dto.ReservationExportDto;
 import com.locme.voiture.Voiture;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface ReservationRepository extends JpaRepository<Reservation, Long> {
-    List<Reservation> findByUser(User user);
+    // Voiture et client lus par ReservationDto, chargés avec la réservation
+    @Override
+    @EntityGraph(attributePaths = {"voiture", "user"})
+    List<Reservation> findAll();
+
+    // Les listes et les contrôles de conflit ne lisent que les réservations courantes (archivee = false) :
+    // PostgreSQL n'ouvre que la partition reservations_courantes
+    @EntityGraph(attributePaths = {"voiture", "user"})
+    @Query("SELECT r FROM Reservation r WHERE r.user = :user AND r.archivee = false")
+    List<Reservation> findByUser(@Param("user") User user);
     List<Reservation> findByVoiture(Voiture voiture);
     List<Reservation> findByStatut(StatutReservation statut);
     List<Reservation> findByDateDebutBetween(LocalDate startDate, LocalDate endDate);
     
-    @Query("SELECT r FROM Reservation r WHERE r.voiture = :voiture AND r.statut IN ('CONFIRMEE', 'EN_COURS') " +
-           "AND ((r.dateDebut <= :dateFin AND r.dateFin >= :dateDebut))")
+    @Query("SELECT r FROM Reservation r WHERE r.voiture = :voiture AND r.archivee = false " +
+           "AND r.statut IN ('CONFIRMEE', 'EN_COURS') AND ((r.dateDebut <= :dateFin AND r.dateFin >= :dateDebut))")
     List<Reservation> findConflictingReservations(@Param("voiture") Voiture voiture, 
                                                   @Param("dateDebut") LocalDate dateDebut, 
                                                   @Param("dateFin") LocalDate dateFin);
     
-    @Query("SELECT r FROM Reservation r WHERE r.user = :user AND r.statut = :statut")
+    // VoitureService.deleteVoiture : réservations encore à honorer (jamais archivées)
+    @Query("SELECT count(r) > 0 FROM Reservation r WHERE r.voiture.id = :voitureId AND r.archivee = false " +
+           "AND r.statut IN ('EN_ATTENTE', 'CONFIRMEE', 'EN_COURS')")
+    boolean existsActivesByVoitureId(@Param("voitureId") Long voitureId);
+
+    @Query("SELECT r FROM Reservation r WHERE r.user = :user AND r.archivee = false AND r.statut = :statut")
     List<Reservation> findByUserAndStatut(@Param("user") User user, @Param("statut") StatutReservation statut);
     
-    @Query("SELECT r FROM Reservation r WHERE r.voiture.societe.user = :societeUser")
+    @EntityGraph(attributePaths = {"voiture", "user"})
+    @Query("SELECT r FROM Reservation r WHERE r.voiture.societe.user = :societeUser AND r.archivee = false")
     List<Reservation> findByVoitureSocieteUser(@Param("societeUser") User societeUser);
+
+    // Export : projection lue par curseur côté serveur (fetch size), à consommer dans une transaction.
+    // societeUserId null : toutes les sociétés
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.locme.reservation.dto.ReservationExportDto(r.id, r.createdAt, r.dateDebut, r.dateFin, " +
+           "r.statut, r.montant, v.id, v.marque, v.modele, s.id, s.nom, u.id, u.nom, u.email) " +
+           "FROM Reservation r JOIN r.voiture v JOIN v.societe s JOIN r.user u " +
+           "WHERE (:societeUserId IS NULL OR s.user.id = :societeUserId) " +
+           "AND (:debut IS NULL OR r.dateDebut >= :debut) AND (:fin IS NULL OR r.dateDebut <= :fin) " +
+           "ORDER BY r.id")
+    Stream<ReservationExportDto> streamExport(@Param("societeUserId") Long societeUserId,
+                                              @Param("debut") LocalDate debut,
+                                              @Param("fin") LocalDate fin);
+
+    // Archivage (PostgreSQL uniquement, cf. V4 et ArchivageReservationService)
+    @Query("SELECT MIN(r.dateFin) FROM Reservation r WHERE r.archivee = false " +
+           "AND r.statut IN ('TERMINEE', 'ANNULEE') AND r.dateFin < :limite")
+    LocalDate findPlusAncienneFinArchivable(@Param("limite") LocalDate limite);
+
+    @Query(value = "SELECT creer_partition_archive_reservations(:annee)", nativeQuery = true)
+    boolean creerPartitionArchive(@Param("annee") int annee);
+
+    // Passer archivee à TRUE déplace la ligne vers reservations_archives. Les lignes verrouillées par
+    // une transaction en cours sont laissées au lot suivant. Espace de requête déclaré : sans lui,
+    // Hibernate viderait tout le cache de second niveau à chaque lot
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "reservations"))
+    @Query(value = "UPDATE reservations SET archivee = TRUE WHERE archivee = FALSE AND id IN (" +
+                   "SELECT id FROM reservations_courantes WHERE statut IN ('TERMINEE', 'ANNULEE') " +
+                   "AND date_fin < :limite ORDER BY date_fin LIMIT :taille FOR UPDATE SKIP LOCKED)",
+           nativeQuery = true)
+    int archiverLot(@Param("limite") LocalDate limite, @Param("taille") int taille);
 }
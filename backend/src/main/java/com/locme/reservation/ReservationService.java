@@ -1,19 +1,32 @@
 package com.locme.reservation;
 
+import com.locme.auth.Role;
 import com.locme.auth.User;
+import com.locme.common.csv.EcrivainCsv;
 import com.locme.common.exceptions.BusinessException;
 import com.locme.common.exceptions.ResourceNotFoundException;
+import com.locme.common.retry.RetryOnConflict;
+import com.locme.outbox.OutboxService;
+import com.locme.outbox.TypeEvenement;
 import com.locme.reservation.dto.ReservationDto;
+import com.locme.reservation.dto.ReservationEvenement;
+import com.locme.reservation.dto.ReservationExportDto;
+import com.locme.societe.Societe;
 import com.locme.voiture.Voiture;
 import com.locme.voiture.VoitureRepository;
+import com.locme.voiture.popularite.PopulariteService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
+import java.util.Iterator;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class ReservationService {
@@ -24,30 +37,72 @@ public class ReservationService {
     @Autowired
     private VoitureRepository voitureRepository;
 
+    @Autowired
+    private TarificationService tarificationService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private PopulariteService populariteService;
+
+    @Transactional(readOnly = true)
     public List<ReservationDto> getAllReservations() {
         return reservationRepository.findAll().stream()
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public List<ReservationDto> getReservationsByUser(User user) {
         return reservationRepository.findByUser(user).stream()
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public List<ReservationDto> getReservationsBySociete(User societeUser) {
         return reservationRepository.findByVoitureSocieteUser(societeUser).stream()
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Écrit l'export CSV des réservations (toutes pour un admin, celles de ses voitures pour une
+     * société) au fil du curseur : chaque ligne lue est aussitôt écrite, la mémoire ne dépend pas
+     * du volume. La période, facultative, porte sur la date de début.
+     */
+    @Transactional(readOnly = true)
+    public void exporterCsv(User currentUser, LocalDate debut, LocalDate fin, OutputStream sortie) throws IOException {
+        if (debut != null && fin != null && fin.isBefore(debut)) {
+            throw new BusinessException("La date de fin doit être après la date de début");
+        }
+        Long societeUserId = currentUser.getRole() == Role.ADMIN ? null : currentUser.getId();
+
+        EcrivainCsv csv = EcrivainCsv.pourTelechargement(sortie);
+        csv.ecrire("id", "cree_le", "date_debut", "date_fin", "statut", "montant", "voiture_id", "marque", "modele",
+                "societe_id", "societe", "client_id", "client", "client_email");
+        try (Stream<ReservationExportDto> lignes = reservationRepository.streamExport(societeUserId, debut, fin)) {
+            Iterator<ReservationExportDto> iterateur = lignes.iterator();
+            while (iterateur.hasNext()) {
+                ReservationExportDto ligne = iterateur.next();
+                csv.ecrire(ligne.getId(), ligne.getCreatedAt(), ligne.getDateDebut(), ligne.getDateFin(),
+                        ligne.getStatut(), ligne.getMontant(), ligne.getVoitureId(), ligne.getMarque(),
+                        ligne.getModele(), ligne.getSocieteId(), ligne.getSocieteNom(), ligne.getClientId(),
+                        ligne.getClientNom(), ligne.getClientEmail());
+            }
+        }
+        csv.flush();
+    }
+
+    @Transactional(readOnly = true)
     public ReservationDto getReservationById(Long id) {
         Reservation reservation = reservationRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Réservation non trouvée"));
         return convertToDto(reservation);
     }
 
+    @Transactional
     public ReservationDto createReservation(ReservationDto reservationDto, User currentUser) {
         Voiture voiture = voitureRepository.findById(reservationDto.getVoitureId())
                 .orElseThrow(() -> new ResourceNotFoundException("Voiture non trouvée"));
@@ -74,9 +129,9 @@ public class ReservationService {
             throw new BusinessException("La date de fin doit être après la date de début");
         }
 
-        // Calculer le montant
-        long days = ChronoUnit.DAYS.between(reservationDto.getDateDebut(), reservationDto.getDateFin());
-        BigDecimal montant = voiture.getPrixParJour().multiply(BigDecimal.valueOf(days));
+        // Calculer le montant (tarifs saisonniers, week-end et dégressifs de la société)
+        BigDecimal montant = tarificationService.calculerMontant(
+                voiture, reservationDto.getDateDebut(), reservationDto.getDateFin());
 
         Reservation reservation = new Reservation();
         reservation.setVoiture(voiture);
@@ -90,25 +145,43 @@ public class ReservationService {
         reservation.setStatut(StatutReservation.EN_ATTENTE);
 
         Reservation savedReservation = reservationRepository.save(reservation);
-        return convertToDto(savedReservation);
+        // L'INSERT attend la fin d'une suppression concurrente de la voiture (verrou de deleteVoiture) ;
+        // la suppression est donc vérifiée une fois la ligne écrite
+        reservationRepository.flush();
+        if (voitureRepository.estSupprimee(voiture.getId())) {
+            throw new ResourceNotFoundException("Voiture non trouvée");
+        }
+        ReservationDto dto = convertToDto(savedReservation);
+        outboxService.enregistrer(TypeEvenement.RESERVATION_CREEE, savedReservation.getId(),
+                toEvenement(savedReservation, dto, null));
+        populariteService.enregistrerReservation(voiture.getId());
+        return dto;
     }
 
+    @RetryOnConflict
+    @Transactional
     public ReservationDto updateReservationStatus(Long id, StatutReservation newStatus, User currentUser) {
         Reservation reservation = reservationRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Réservation non trouvée"));
 
-        // Vérifier les permissions (propriétaire de la voiture ou admin)
+        // Vérifier les permissions (propriétaire de la voiture ou admin) ; la propriété de la voiture
+        // est vérifiée par identifiants, sans charger la voiture, sa société et son utilisateur
         if (!reservation.getUser().getId().equals(currentUser.getId()) && 
             !currentUser.getRole().name().equals("ADMIN") &&
-            !reservation.getVoiture().getSociete().getUser().getId().equals(currentUser.getId())) {
+            !voitureRepository.existsByIdAndSocieteUserId(reservation.getVoiture().getId(), currentUser.getId())) {
             throw new BusinessException("Vous n'êtes pas autorisé à modifier cette réservation");
         }
 
+        StatutReservation ancienStatut = reservation.getStatut();
         reservation.setStatut(newStatus);
         Reservation updatedReservation = reservationRepository.save(reservation);
-        return convertToDto(updatedReservation);
+        ReservationDto dto = convertToDto(updatedReservation);
+        outboxService.enregistrer(TypeEvenement.RESERVATION_STATUT_MODIFIE, id,
+                toEvenement(updatedReservation, dto, ancienStatut));
+        return dto;
     }
 
+    @Transactional
     public void deleteReservation(Long id, User currentUser) {
         Reservation reservation = reservationRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Réservation non trouvée"));
@@ -119,9 +192,18 @@ public class ReservationService {
             throw new BusinessException("Vous n'êtes pas autorisé à supprimer cette réservation");
         }
 
+        outboxService.enregistrer(TypeEvenement.RESERVATION_SUPPRIMEE, id,
+                toEvenement(reservation, convertToDto(reservation), reservation.getStatut()));
         reservationRepository.delete(reservation);
     }
 
+    private ReservationEvenement toEvenement(Reservation reservation, ReservationDto dto, StatutReservation ancienStatut) {
+        Societe societe = reservation.getVoiture().getSociete();
+        Long societeId = societe != null ? societe.getId() : null;
+        Long societeUserId = societe != null && societe.getUser() != null ? societe.getUser().getId() : null;
+        return new ReservationEvenement(dto, ancienStatut, societeId, societeUserId);
+    }
+
     private ReservationDto convertToDto(Reservation reservation) {
         return new ReservationDto(
                 reservation.getId(),
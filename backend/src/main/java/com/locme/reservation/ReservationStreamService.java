@@ -0,0 +1,215 @@
+package com.locme.reservation;
+
+import com.locme.auth.Role;
+import com.locme.auth.User;
+import com.locme.outbox.DomainEvent;
+import com.locme.outbox.OutboxService;
+import com.locme.outbox.TypeEvenement;
+import com.locme.reservation.dto.ReservationEvenement;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Diffusion en temps réel des changements de réservations (Server-Sent Events).
+ * Un abonné inactif ne coûte qu'un SseEmitter : la requête est asynchrone et ne retient aucun
+ * thread, et les envois se font sur des threads virtuels.
+ * <p>
+ * Les abonnés ne sont connus que de la JVM qui tient leur connexion, et chaque événement n'est publié
+ * que sur l'instance dont l'OutboxRelay a réclamé le lot : un client connecté à une autre instance le
+ * manque. Le flux suppose donc une instance unique, ou un routage qui garde tous les clients sur celle
+ * qui relaie l'outbox.
+ */
+@Service
+public class ReservationStreamService {
+
+    // Envois non encore écrits au-delà desquels un abonné est considéré comme ne lisant plus
+    private static final int MAX_EN_ATTENTE = 100;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Value("${locme.reservations.stream.timeout-ms:1800000}")
+    private long timeoutMs = 1_800_000L;
+
+    // Abonnés indexés par utilisateur client, par utilisateur société, et administrateurs
+    private final Map<Long, Set<SseEmitter>> clients = new ConcurrentHashMap<>();
+    private final Map<Long, Set<SseEmitter>> societes = new ConcurrentHashMap<>();
+    private final Set<SseEmitter> admins = ConcurrentHashMap.newKeySet();
+    // File d'envoi de chaque abonné, quel que soit son index
+    private final Map<SseEmitter, FileEnvoi> files = new ConcurrentHashMap<>();
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public SseEmitter abonner(User user) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        FileEnvoi file = new FileEnvoi(emitter);
+        files.put(emitter, file);
+        ajouter(user, emitter);
+
+        Runnable retirer = () -> retirer(user, emitter);
+        emitter.onCompletion(retirer);
+        emitter.onTimeout(retirer);
+        emitter.onError(e -> retirer.run());
+
+        file.soumettre(SseEmitter.event().comment("connecté"));
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void surEvenement(DomainEvent event) {
+        if (!event.concerne(TypeEvenement.RESERVATION) || nombreAbonnes() == 0) {
+            return;
+        }
+        ReservationEvenement evenement = outboxService.lirePayload(event, ReservationEvenement.class);
+        for (SseEmitter emitter : getDestinataires(evenement)) {
+            FileEnvoi file = files.get(emitter);
+            if (file != null) {
+                file.soumettre(SseEmitter.event()
+                        .id(String.valueOf(event.getId()))
+                        .name(event.getType().name())
+                        .data(evenement.getReservation(), MediaType.APPLICATION_JSON));
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${locme.reservations.stream.heartbeat-ms:25000}")
+    public void heartbeat() {
+        for (FileEnvoi file : files.values()) {
+            file.soumettre(SseEmitter.event().comment("ping"));
+        }
+    }
+
+    List<SseEmitter> getDestinataires(ReservationEvenement evenement) {
+        List<SseEmitter> destinataires = new ArrayList<>(admins);
+        if (evenement.getReservation().getUserId() != null) {
+            destinataires.addAll(clients.getOrDefault(evenement.getReservation().getUserId(), Set.of()));
+        }
+        if (evenement.getSocieteUserId() != null) {
+            destinataires.addAll(societes.getOrDefault(evenement.getSocieteUserId(), Set.of()));
+        }
+        return destinataires;
+    }
+
+    int nombreAbonnes() {
+        int total = admins.size();
+        for (Set<SseEmitter> abonnes : clients.values()) {
+            total += abonnes.size();
+        }
+        for (Set<SseEmitter> abonnes : societes.values()) {
+            total += abonnes.size();
+        }
+        return total;
+    }
+
+    @PreDestroy
+    public void fermer() {
+        admins.forEach(SseEmitter::complete);
+        clients.values().forEach(abonnes -> abonnes.forEach(SseEmitter::complete));
+        societes.values().forEach(abonnes -> abonnes.forEach(SseEmitter::complete));
+        executor.shutdown();
+    }
+
+    // Ajout et retrait passent tous deux par compute sur l'entrée de l'utilisateur : un retrait qui vide
+    // l'ensemble ne peut pas l'ôter de l'index pendant qu'un nouvel abonné y est ajouté
+    private void ajouter(User user, SseEmitter emitter) {
+        if (user.getRole() == Role.ADMIN) {
+            admins.add(emitter);
+            return;
+        }
+        Map<Long, Set<SseEmitter>> index = user.getRole() == Role.SOCIETE ? societes : clients;
+        index.compute(user.getId(), (id, abonnes) -> {
+            Set<SseEmitter> ensemble = abonnes != null ? abonnes : ConcurrentHashMap.newKeySet();
+            ensemble.add(emitter);
+            return ensemble;
+        });
+    }
+
+    void retirer(User user, SseEmitter emitter) {
+        files.remove(emitter);
+        if (user.getRole() == Role.ADMIN) {
+            admins.remove(emitter);
+            return;
+        }
+        Map<Long, Set<SseEmitter>> index = user.getRole() == Role.SOCIETE ? societes : clients;
+        index.computeIfPresent(user.getId(), (id, abonnes) -> {
+            abonnes.remove(emitter);
+            return abonnes.isEmpty() ? null : abonnes;
+        });
+    }
+
+    private void envoyer(SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+        } catch (IOException | IllegalStateException e) {
+            // Connexion fermée côté client : onError/onCompletion retire l'abonné
+            emitter.completeWithError(e);
+        }
+    }
+
+    /**
+     * Envois d'un abonné dans l'ordre de leur soumission : un seul thread virtuel à la fois vide la file,
+     * deux changements de statut d'une même réservation ne peuvent donc pas se croiser.
+     */
+    private final class FileEnvoi {
+
+        private final SseEmitter emitter;
+        private final Queue<SseEmitter.SseEventBuilder> evenements = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger enAttente = new AtomicInteger();
+        private final AtomicBoolean enCours = new AtomicBoolean();
+
+        FileEnvoi(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void soumettre(SseEmitter.SseEventBuilder event) {
+            // Client qui ne lit plus : la connexion est fermée, il se reconnecte avec Last-Event-ID
+            if (enAttente.incrementAndGet() > MAX_EN_ATTENTE) {
+                emitter.complete();
+                return;
+            }
+            evenements.add(event);
+            declencher();
+        }
+
+        private void declencher() {
+            if (enCours.compareAndSet(false, true)) {
+                executor.execute(this::vider);
+            }
+        }
+
+        private void vider() {
+            try {
+                SseEmitter.SseEventBuilder event;
+                while ((event = evenements.poll()) != null) {
+                    enAttente.decrementAndGet();
+                    envoyer(emitter, event);
+                }
+            } finally {
+                enCours.set(false);
+            }
+            // Un envoi soumis entre la dernière lecture de la file et la libération reste à traiter
+            if (!evenements.isEmpty()) {
+                declencher();
+            }
+        }
+    }
+}
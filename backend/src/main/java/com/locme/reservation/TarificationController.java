@@ -0,0 +1,55 @@
+package com.locme.reservation;
+
+import com.locme.common.ApiResponse;
+import com.locme.common.exceptions.ResourceNotFoundException;
+import com.locme.reservation.dto.DevisDto;
+import com.locme.reservation.dto.DevisGroupeRequest;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import jakarta.validation.Valid;
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/voitures")
+@CrossOrigin(origins = "*")
+@Tag(name = "Tarification", description = "API de calcul des prix de location")
+public class TarificationController {
+
+    @Autowired
+    private TarificationService tarificationService;
+
+    @GetMapping("/{id}/quote")
+    @Operation(summary = "Devis", description = "Calculer le prix de location d'une voiture pour une période")
+    public ResponseEntity<ApiResponse<DevisDto>> getDevis(
+            @PathVariable Long id,
+            @Parameter(description = "Date de début de location") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateDebut,
+            @Parameter(description = "Date de fin de location") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateFin) {
+        try {
+            DevisDto devis = tarificationService.getDevis(id, dateDebut, dateFin);
+            return ResponseEntity.ok(ApiResponse.success(devis));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(404).body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    @PostMapping("/quotes")
+    @Operation(summary = "Devis groupés", description = "Calculer le prix de location de plusieurs voitures pour une même période")
+    public ResponseEntity<ApiResponse<List<DevisDto>>> getDevisGroupes(@Valid @RequestBody DevisGroupeRequest request) {
+        try {
+            List<DevisDto> devis = tarificationService.getDevis(
+                    request.getVoitureIds(), request.getDateDebut(), request.getDateFin());
+            return ResponseEntity.ok(ApiResponse.success(devis));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package com.locme.reservation;
+
+import com.locme.auth.User;
+import com.locme.common.exceptions.BusinessException;
+import com.locme.common.exceptions.ResourceNotFoundException;
+import com.locme.reservation.dto.DevisDto;
+import com.locme.reservation.dto.RegleTarifaireDto;
+import com.locme.societe.Societe;
+import com.locme.societe.SocieteRepository;
+import com.locme.voiture.Voiture;
+import com.locme.voiture.VoitureRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+@Service
+public class TarificationService {
+
+    @Autowired
+    private VoitureRepository voitureRepository;
+
+    @Autowired
+    private RegleTarifaireRepository regleTarifaireRepository;
+
+    @Autowired
+    private SocieteRepository societeRepository;
+
+    @Value("${locme.tarification.horizon-jours:365}")
+    private int horizonJours = 365;
+
+    // Le montant se calcule jour par jour : une période sans borne coûterait une itération par jour demandé
+    @Value("${locme.tarification.duree-max-jours:90}")
+    private int dureeMaxJours = 90;
+
+    // Devis groupés : voitures × jours calculés par requête
+    @Value("${locme.tarification.devis-groupes.max-jours-total:5000}")
+    private long maxJoursDevisGroupes = 5000;
+
+    // Grilles compilées par voiture, recompilées chaque jour ou à chaque changement de tarif
+    private final Map<Long, GrilleTarifaire> grilles = new ConcurrentHashMap<>();
+    // Incrémenté à chaque invalidation validée : une grille lue avant n'est pas conservée
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @Transactional(readOnly = true)
+    public DevisDto getDevis(Long voitureId, LocalDate dateDebut, LocalDate dateFin) {
+        verifierPeriode(dateDebut, dateFin);
+        GrilleTarifaire grille = getGrilleEnCache(voitureId);
+        if (grille == null) {
+            long avant = invalidations.get();
+            Voiture voiture = voitureRepository.findById(voitureId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Voiture non trouvée"));
+            grille = compiler(voiture, regleTarifaireRepository.findBySocieteId(voiture.getSociete().getId()), LocalDate.now());
+            conserver(grille, avant);
+        }
+        return toDevis(grille, dateDebut, dateFin);
+    }
+
+    @Transactional(readOnly = true)
+    public List<DevisDto> getDevis(List<Long> voitureIds, LocalDate dateDebut, LocalDate dateFin) {
+        verifierPeriode(dateDebut, dateFin);
+        Set<Long> ids = new LinkedHashSet<>(voitureIds);
+        ids.remove(null);
+        if (ids.size() * ChronoUnit.DAYS.between(dateDebut, dateFin) > maxJoursDevisGroupes) {
+            throw new BusinessException("Trop de jours à calculer pour un devis groupé (" + maxJoursDevisGroupes
+                    + " au plus, voitures × jours) : réduisez la période ou le nombre de voitures");
+        }
+
+        // Les grilles manquantes sont compilées en deux requêtes, quel que soit le nombre de voitures
+        Map<Long, GrilleTarifaire> selection = new HashMap<>();
+        List<Long> manquantes = new ArrayList<>();
+        for (Long id : ids) {
+            GrilleTarifaire grille = getGrilleEnCache(id);
+            if (grille != null) {
+                selection.put(id, grille);
+            } else {
+                manquantes.add(id);
+            }
+        }
+        if (!manquantes.isEmpty()) {
+            long avant = invalidations.get();
+            for (GrilleTarifaire grille : compilerGrilles(voitureRepository.findAllById(manquantes))) {
+                selection.put(grille.getVoitureId(), grille);
+                conserver(grille, avant);
+            }
+        }
+
+        List<DevisDto> devis = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            GrilleTarifaire grille = selection.get(id);
+            if (grille != null) {
+                devis.add(toDevis(grille, dateDebut, dateFin));
+            }
+        }
+        return devis;
+    }
+
+    // La voiture a été lue par l'appelant, peut-être avant une invalidation : la grille compilée ici
+    // sert au calcul sans être conservée
+    public BigDecimal calculerMontant(Voiture voiture, LocalDate dateDebut, LocalDate dateFin) {
+        verifierPeriode(dateDebut, dateFin);
+        GrilleTarifaire grille = getGrilleEnCache(voiture.getId());
+        if (grille == null) {
+            grille = compiler(voiture, regleTarifaireRepository.findBySocieteId(voiture.getSociete().getId()), LocalDate.now());
+        }
+        return BigDecimal.valueOf(grille.calculerMontantCentimes(dateDebut, dateFin), 2);
+    }
+
+    /** Effective à la validation de la transaction en cours, qui porte le changement de prix. */
+    public void invaliderVoiture(Long voitureId) {
+        apresValidation(() -> {
+            invalidations.incrementAndGet();
+            grilles.remove(voitureId);
+        });
+    }
+
+    /** Effective à la validation de la transaction en cours, qui porte le changement de règles. */
+    public void invaliderSociete(Long societeId) {
+        apresValidation(() -> {
+            invalidations.incrementAndGet();
+            grilles.values().removeIf(grille -> societeId.equals(grille.getSocieteId()));
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public List<RegleTarifaireDto> getReglesBySociete(User societeUser) {
+        Societe societe = getSociete(societeUser);
+        return regleTarifaireRepository.findBySocieteId(societe.getId()).stream()
+                .map(this::convertToDto)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional
+    public RegleTarifaireDto createRegle(RegleTarifaireDto regleDto, User societeUser) {
+        Societe societe = getSociete(societeUser);
+
+        if (regleDto.getType() == TypeRegleTarifaire.SAISON) {
+            if (regleDto.getDateDebut() == null || regleDto.getDateFin() == null) {
+                throw new BusinessException("Une règle saisonnière doit avoir une date de début et une date de fin");
+            }
+            if (regleDto.getDateFin().isBefore(regleDto.getDateDebut())) {
+                throw new BusinessException("La date de fin doit être après la date de début");
+            }
+        }
+        if (regleDto.getType() == TypeRegleTarifaire.DUREE && regleDto.getDureeMinimum() == null) {
+            throw new BusinessException("Une règle de durée doit avoir une durée minimum");
+        }
+
+        RegleTarifaire regle = new RegleTarifaire(societe, regleDto.getType(), regleDto.getPourcentage());
+        regle.setLibelle(regleDto.getLibelle());
+        if (regleDto.getType() == TypeRegleTarifaire.SAISON) {
+            regle.setDateDebut(regleDto.getDateDebut());
+            regle.setDateFin(regleDto.getDateFin());
+        }
+        if (regleDto.getType() == TypeRegleTarifaire.DUREE) {
+            regle.setDureeMinimum(regleDto.getDureeMinimum());
+        }
+
+        RegleTarifaire savedRegle = regleTarifaireRepository.save(regle);
+        invaliderSociete(societe.getId());
+        return convertToDto(savedRegle);
+    }
+
+    @Transactional
+    public void deleteRegle(Long id, User societeUser) {
+        RegleTarifaire regle = regleTarifaireRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Règle tarifaire non trouvée"));
+        Societe societe = getSociete(societeUser);
+
+        if (!regle.getSociete().getId().equals(societe.getId())) {
+            throw new BusinessException("Vous n'êtes pas autorisé à supprimer cette règle");
+        }
+
+        regleTarifaireRepository.delete(regle);
+        invaliderSociete(societe.getId());
+    }
+
+    private GrilleTarifaire compiler(Voiture voiture, List<RegleTarifaire> regles, LocalDate aujourdhui) {
+        return GrilleTarifaire.compiler(voiture.getId(), voiture.getSociete().getId(),
+                enCentimes(voiture.getPrixParJour()), regles, aujourdhui, horizonJours);
+    }
+
+    // Le compteur est relu sous le verrou de l'entrée : une invalidation validée après la lecture de la
+    // voiture empêche l'installation, une invalidation plus tardive retire la grille installée
+    private void conserver(GrilleTarifaire grille, long avant) {
+        grilles.compute(grille.getVoitureId(), (id, existante) -> invalidations.get() == avant ? grille : existante);
+    }
+
+    private static void apresValidation(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private List<GrilleTarifaire> compilerGrilles(List<Voiture> voitures) {
+        Set<Long> societeIds = voitures.stream()
+                .map(voiture -> voiture.getSociete().getId())
+                .collect(Collectors.toSet());
+        Map<Long, List<RegleTarifaire>> reglesParSociete = regleTarifaireRepository.findBySocieteIdIn(societeIds).stream()
+                .collect(Collectors.groupingBy(regle -> regle.getSociete().getId()));
+        LocalDate aujourdhui = LocalDate.now();
+        List<GrilleTarifaire> compilees = new ArrayList<>(voitures.size());
+        for (Voiture voiture : voitures) {
+            compilees.add(compiler(voiture,
+                    reglesParSociete.getOrDefault(voiture.getSociete().getId(), Collections.emptyList()), aujourdhui));
+        }
+        return compilees;
+    }
+
+    private GrilleTarifaire getGrilleEnCache(Long voitureId) {
+        GrilleTarifaire grille = grilles.get(voitureId);
+        return grille != null && grille.getOrigine().equals(LocalDate.now()) ? grille : null;
+    }
+
+    private DevisDto toDevis(GrilleTarifaire grille, LocalDate dateDebut, LocalDate dateFin) {
+        return new DevisDto(
+                grille.getVoitureId(),
+                dateDebut,
+                dateFin,
+                ChronoUnit.DAYS.between(dateDebut, dateFin),
+                BigDecimal.valueOf(grille.getPrixBaseCentimes(), 2),
+                BigDecimal.valueOf(grille.calculerMontantCentimes(dateDebut, dateFin), 2)
+        );
+    }
+
+    private void verifierPeriode(LocalDate dateDebut, LocalDate dateFin) {
+        if (dateDebut == null || dateFin == null) {
+            throw new BusinessException("Les dates de début et de fin sont obligatoires");
+        }
+        if (dateFin.isBefore(dateDebut)) {
+            throw new BusinessException("La date de fin doit être après la date de début");
+        }
+        if (ChronoUnit.DAYS.between(dateDebut, dateFin) > dureeMaxJours) {
+            throw new BusinessException("La durée de location ne peut pas dépasser " + dureeMaxJours + " jours");
+        }
+    }
+
+    private Societe getSociete(User societeUser) {
+        return societeRepository.findByUser(societeUser)
+                .orElseThrow(() -> new ResourceNotFoundException("Société non trouvée"));
+    }
+
+    private static long enCentimes(BigDecimal montant) {
+        return montant.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    private RegleTarifaireDto convertToDto(RegleTarifaire regle) {
+        RegleTarifaireDto dto = new RegleTarifaireDto();
+        dto.setId(regle.getId());
+        dto.setSocieteId(regle.getSociete().getId());
+        dto.setType(regle.getType());
+        dto.setLibelle(regle.getLibelle());
+        dto.setPourcentage(regle.getPourcentage());
+        dto.setDateDebut(regle.getDateDebut());
+        dto.setDateFin(regle.getDateFin());
+        dto.setDureeMinimum(regle.getDureeMinimum());
+        return dto;
+    }
+}
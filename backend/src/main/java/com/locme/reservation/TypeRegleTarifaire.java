@@ -0,0 +1,7 @@
+package com.locme.reservation;
+
+public enum TypeRegleTarifaire {
+    SAISON,
+    WEEKEND,
+    DUREE
+}
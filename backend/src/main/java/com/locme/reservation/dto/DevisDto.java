@@ -0,0 +1,74 @@
+package com.locme.reservation.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public class DevisDto {
+    private Long voitureId;
+    private LocalDate dateDebut;
+    private LocalDate dateFin;
+    private long nombreJours;
+    private BigDecimal prixParJour;
+    private BigDecimal montant;
+
+    public DevisDto() {}
+
+    public DevisDto(Long voitureId, LocalDate dateDebut, LocalDate dateFin, long nombreJours,
+                    BigDecimal prixParJour, BigDecimal montant) {
+        this.voitureId = voitureId;
+        this.dateDebut = dateDebut;
+        this.dateFin = dateFin;
+        this.nombreJours = nombreJours;
+        this.prixParJour = prixParJour;
+        this.montant = montant;
+    }
+
+    // Getters et Setters
+    public Long getVoitureId() {
+        return voitureId;
+    }
+
+    public void setVoitureId(Long voitureId) {
+        this.voitureId = voitureId;
+    }
+
+    public LocalDate getDateDebut() {
+        return dateDebut;
+    }
+
+    public void setDateDebut(LocalDate dateDebut) {
+        this.dateDebut = dateDebut;
+    }
+
+    public LocalDate getDateFin() {
+        return dateFin;
+    }
+
+    public void setDateFin(LocalDate dateFin) {
+        this.dateFin = dateFin;
+    }
+
+    public long getNombreJours() {
+        return nombreJours;
+    }
+
+    public void setNombreJours(long nombreJours) {
+        this.nombreJours = nombreJours;
+    }
+
+    public BigDecimal getPrixParJour() {
+        return prixParJour;
+    }
+
+    public void setPrixParJour(BigDecimal prixParJour) {
+        this.prixParJour = prixParJour;
+    }
+
+    public BigDecimal getMontant() {
+        return montant;
+    }
+
+    public void setMontant(BigDecimal montant) {
+        this.montant = montant;
+    }
+}
@@ -0,0 +1,54 @@
+package com.locme.reservation.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public class DevisGroupeRequest {
+
+    @NotNull
+    private LocalDate dateDebut;
+
+    @NotNull
+    private LocalDate dateFin;
+
+    @NotEmpty
+    @Size(max = 500)
+    private List<Long> voitureIds;
+
+    public DevisGroupeRequest() {}
+
+    public DevisGroupeRequest(LocalDate dateDebut, LocalDate dateFin, List<Long> voitureIds) {
+        this.dateDebut = dateDebut;
+        this.dateFin = dateFin;
+        this.voitureIds = voitureIds;
+    }
+
+    // Getters et Setters
+    public LocalDate getDateDebut() {
+        return dateDebut;
+    }
+
+    public void setDateDebut(LocalDate dateDebut) {
+        this.dateDebut = dateDebut;
+    }
+
+    public LocalDate getDateFin() {
+        return dateFin;
+    }
+
+    public void setDateFin(LocalDate dateFin) {
+        this.dateFin = dateFin;
+    }
+
+    public List<Long> getVoitureIds() {
+        return voitureIds;
+    }
+
+    public void setVoitureIds(List<Long> voitureIds) {
+        this.voitureIds = voitureIds;
+    }
+}
@@ -0,0 +1,98 @@
+package com.locme.reservation.dto;
+
+import com.locme.reservation.TypeRegleTarifaire;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public class RegleTarifaireDto {
+    private Long id;
+    private Long societeId;
+
+    @NotNull
+    private TypeRegleTarifaire type;
+
+    private String libelle;
+
+    @NotNull
+    @DecimalMin(value = "-100.0")
+    @DecimalMax(value = "500.0")
+    private BigDecimal pourcentage;
+
+    private LocalDate dateDebut;
+    private LocalDate dateFin;
+
+    @Min(1)
+    private Integer dureeMinimum;
+
+    public RegleTarifaireDto() {}
+
+    // Getters et Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getSocieteId() {
+        return societeId;
+    }
+
+    public void setSocieteId(Long societeId) {
+        this.societeId = societeId;
+    }
+
+    public TypeRegleTarifaire getType() {
+        return type;
+    }
+
+    public void setType(TypeRegleTarifaire type) {
+        this.type = type;
+    }
+
+    public String getLibelle() {
+        return libelle;
+    }
+
+    public void setLibelle(String libelle) {
+        this.libelle = libelle;
+    }
+
+    public BigDecimal getPourcentage() {
+        return pourcentage;
+    }
+
+    public void setPourcentage(BigDecimal pourcentage) {
+        this.pourcentage = pourcentage;
+    }
+
+    public LocalDate getDateDebut() {
+        return dateDebut;
+    }
+
+    public void setDateDebut(LocalDate dateDebut) {
+        this.dateDebut = dateDebut;
+    }
+
+    public LocalDate getDateFin() {
+        return dateFin;
+    }
+
+    public void setDateFin(LocalDate dateFin) {
+        this.dateFin = dateFin;
+    }
+
+    public Integer getDureeMinimum() {
+        return dureeMinimum;
+    }
+
+    public void setDureeMinimum(Integer dureeMinimum) {
+        this.dureeMinimum = dureeMinimum;
+    }
+}
@@ -0,0 +1,53 @@
+package com.locme.reservation.dto;
+
+import com.locme.reservation.StatutReservation;
+
+public class ReservationEvenement {
+    private ReservationDto reservation;
+    private StatutReservation ancienStatut;
+    private Long societeId;
+    private Long societeUserId;
+
+    public ReservationEvenement() {}
+
+    public ReservationEvenement(ReservationDto reservation, StatutReservation ancienStatut,
+                                Long societeId, Long societeUserId) {
+        this.reservation = reservation;
+        this.ancienStatut = ancienStatut;
+        this.societeId = societeId;
+        this.societeUserId = societeUserId;
+    }
+
+    // Getters et Setters
+    public ReservationDto getReservation() {
+        return reservation;
+    }
+
+    public void setReservation(ReservationDto reservation) {
+        this.reservation = reservation;
+    }
+
+    public StatutReservation getAncienStatut() {
+        return ancienStatut;
+    }
+
+    public void setAncienStatut(StatutReservation ancienStatut) {
+        this.ancienStatut = ancienStatut;
+    }
+
+    public Long getSocieteId() {
+        return societeId;
+    }
+
+    public void setSocieteId(Long societeId) {
+        this.societeId = societeId;
+    }
+
+    public Long getSocieteUserId() {
+        return societeUserId;
+    }
+
+    public void setSocieteUserId(Long societeUserId) {
+        this.societeUserId = societeUserId;
+    }
+}
@@ -0,0 +1,163 @@
+package com.locme.reservation.dto;
+
+import com.locme.reservation.StatutReservation;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Ligne de l'export CSV des réservations, lue directement par projection (aucune entité chargée).
+ */
+public class ReservationExportDto {
+    private Long id;
+    private LocalDateTime createdAt;
+    private LocalDate dateDebut;
+    private LocalDate dateFin;
+    private StatutReservation statut;
+    private BigDecimal montant;
+    private Long voitureId;
+    private String marque;
+    private String modele;
+    private Long societeId;
+    private String societeNom;
+    private Long clientId;
+    private String clientNom;
+    private String clientEmail;
+
+    public ReservationExportDto() {}
+
+    // Utilisé par la projection JPQL de l'export
+    public ReservationExportDto(Long id, LocalDateTime createdAt, LocalDate dateDebut, LocalDate dateFin,
+                                StatutReservation statut, BigDecimal montant, Long voitureId, String marque,
+                                String modele, Long societeId, String societeNom, Long clientId,
+                                String clientNom, String clientEmail) {
+        this.id = id;
+        this.createdAt = createdAt;
+        this.dateDebut = dateDebut;
+        this.dateFin = dateFin;
+        this.statut = statut;
+        this.montant = montant;
+        this.voitureId = voitureId;
+        this.marque = marque;
+        this.modele = modele;
+        this.societeId = societeId;
+        this.societeNom = societeNom;
+        this.clientId = clientId;
+        this.clientNom = clientNom;
+        this.clientEmail = clientEmail;
+    }
+
+    // Getters et Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDate getDateDebut() {
+        return dateDebut;
+    }
+
+    public void setDateDebut(LocalDate dateDebut) {
+        this.dateDebut = dateDebut;
+    }
+
+    public LocalDate getDateFin() {
+        return dateFin;
+    }
+
+    public void setDateFin(LocalDate dateFin) {
+        this.dateFin = dateFin;
+    }
+
+    public StatutReservation getStatut() {
+        return statut;
+    }
+
+    public void setStatut(StatutReservation statut) {
+        this.statut = statut;
+    }
+
+    public BigDecimal getMontant() {
+        return montant;
+    }
+
+    public void setMontant(BigDecimal montant) {
+        this.montant = montant;
+    }
+
+    public Long getVoitureId() {
+        return voitureId;
+    }
+
+    public void setVoitureId(Long voitureId) {
+        this.voitureId = voitureId;
+    }
+
+    public String getMarque() {
+        return marque;
+    }
+
+    public void setMarque(String marque) {
+        this.marque = marque;
+    }
+
+    public String getModele() {
+        return modele;
+    }
+
+    public void setModele(String modele) {
+        this.modele = modele;
+    }
+
+    public Long getSocieteId() {
+        return societeId;
+    }
+
+    public void setSocieteId(Long societeId) {
+        this.societeId = societeId;
+    }
+
+    public String getSocieteNom() {
+        return societeNom;
+    }
+
+    public void setSocieteNom(String societeNom) {
+        this.societeNom = societeNom;
+    }
+
+    public Long getClientId() {
+        return clientId;
+    }
+
+    public void setClientId(Long clientId) {
+        this.clientId = clientId;
+    }
+
+    public String getClientNom() {
+        return clientNom;
+    }
+
+    public void setClientNom(String clientNom) {
+        this.clientNom = clientNom;
+    }
+
+    public String getClientEmail() {
+        return clientEmail;
+    }
+
+    public void setClientEmail(String clientEmail) {
+        this.clientEmail = clientEmail;
+    }
+}
@@ -1,13 +1,17 @@
 package com.locme.societe;
 
 import com.locme.auth.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 
 @Repository
 public interface SocieteRepository extends JpaRepository<Societe, Long> {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Societe> findByUser(User user);
     Optional<Societe> findByEmail(String email);
     boolean existsByEmail(String email);
@@ -0,0 +1,47 @@
+package com.locme.statistiques;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Événement outbox déjà compté dans les agrégats. Les statistiques sont validées dans leur propre
+ * transaction : si le lot du relais est ensuite annulé, l'événement republié est reconnu et ignoré.
+ */
+@Entity
+@Table(name = "statistiques_evenements",
+        indexes = @Index(name = "idx_statistiques_evenements_traite_le", columnList = "traite_le"))
+public class EvenementStatistique {
+
+    @Id
+    @Column(name = "evenement_id")
+    private Long evenementId;
+
+    @Column(name = "traite_le", nullable = false)
+    private LocalDateTime traiteLe;
+
+    // Constructeurs
+    public EvenementStatistique() {}
+
+    public EvenementStatistique(Long evenementId, LocalDateTime traiteLe) {
+        this.evenementId = evenementId;
+        this.traiteLe = traiteLe;
+    }
+
+    // Getters et Setters
+    public Long getEvenementId() {
+        return evenementId;
+    }
+
+    public void setEvenementId(Long evenementId) {
+        this.evenementId = evenementId;
+    }
+
+    public LocalDateTime getTraiteLe() {
+        return traiteLe;
+    }
+
+    public void setTraiteLe(LocalDateTime traiteLe) {
+        this.traiteLe = traiteLe;
+    }
+}
@@ -0,0 +1,17 @@
+package com.locme.statistiques;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface EvenementStatistiqueRepository extends JpaRepository<EvenementStatistique, Long> {
+
+    @Modifying
+    @Query("DELETE FROM EvenementStatistique e WHERE e.traiteLe < :limite")
+    int deleteTraitesAvant(@Param("limite") LocalDateTime limite);
+}
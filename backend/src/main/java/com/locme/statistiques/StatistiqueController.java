@@ -0,0 +1,56 @@
+package com.locme.statistiques;
+
+import com.locme.auth.AuthService;
+import com.locme.auth.User;
+import com.locme.common.ApiResponse;
+import com.locme.statistiques.dto.TableauDeBordDto;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/stats")
+@CrossOrigin(origins = "*")
+@Tag(name = "Statistiques", description = "Tableaux de bord des sociétés et de l'administration")
+public class StatistiqueController {
+
+    @Autowired
+    private StatistiqueService statistiqueService;
+
+    @Autowired
+    private AuthService authService;
+
+    @GetMapping("/societe")
+    @PreAuthorize("hasRole('SOCIETE')")
+    @Operation(summary = "Tableau de bord société", description = "Réservations, chiffre d'affaires et occupation par jour (30 derniers jours par défaut)")
+    public ResponseEntity<ApiResponse<TableauDeBordDto>> getTableauDeBordSociete(
+            @Parameter(description = "Premier jour inclus") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate debut,
+            @Parameter(description = "Dernier jour inclus") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fin) {
+        try {
+            User currentUser = authService.getCurrentUser();
+            return ResponseEntity.ok(ApiResponse.success(statistiqueService.getTableauDeBordSociete(currentUser, debut, fin)));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    @GetMapping("/admin")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Statistiques globales", description = "Agrégats de toutes les sociétés par jour (30 derniers jours par défaut)")
+    public ResponseEntity<ApiResponse<TableauDeBordDto>> getTableauDeBordGlobal(
+            @Parameter(description = "Premier jour inclus") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate debut,
+            @Parameter(description = "Dernier jour inclus") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fin) {
+        try {
+            return ResponseEntity.ok(ApiResponse.success(statistiqueService.getTableauDeBordGlobal(debut, fin)));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.locme.statistiques;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Agrégats d'activité d'une société pour une journée, tenus à jour au fil des événements de réservation
+ * et de paiement. Les tableaux de bord lisent une ligne par jour au lieu de parcourir les réservations.
+ */
+@Entity
+@Table(name = "statistiques_journalieres",
+        uniqueConstraints = @UniqueConstraint(name = "uk_statistiques_journalieres_societe_jour", columnNames = {"societe_id", "jour"}),
+        indexes = @Index(name = "idx_statistiques_journalieres_jour", columnList = "jour"))
+public class StatistiqueJournaliere {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "statistiques_journalieres_seq")
+    @SequenceGenerator(name = "statistiques_journalieres_seq", sequenceName = "statistiques_journalieres_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "societe_id", nullable = false)
+    private Long societeId;
+
+    @Column(name = "jour", nullable = false)
+    private LocalDate jour;
+
+    @Column(name = "reservations_creees", nullable = false)
+    private long reservationsCreees;
+
+    @Column(name = "reservations_confirmees", nullable = false)
+    private long reservationsConfirmees;
+
+    @Column(name = "reservations_annulees", nullable = false)
+    private long reservationsAnnulees;
+
+    // Voitures louées ce jour-là (réservations confirmées, en cours ou terminées couvrant la date)
+    @Column(name = "jours_loues", nullable = false)
+    private long joursLoues;
+
+    @Column(name = "chiffre_affaires", nullable = false, precision = 12, scale = 2)
+    private BigDecimal chiffreAffaires = BigDecimal.ZERO;
+
+    @Column(name = "montant_rembourse", nullable = false, precision = 12, scale = 2)
+    private BigDecimal montantRembourse = BigDecimal.ZERO;
+
+    // Constructeurs
+    public StatistiqueJournaliere() {}
+
+    public StatistiqueJournaliere(Long societeId, LocalDate jour) {
+        this.societeId = societeId;
+        this.jour = jour;
+    }
+
+    // Getters et Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getSocieteId() {
+        return societeId;
+    }
+
+    public void setSocieteId(Long societeId) {
+        this.societeId = societeId;
+    }
+
+    public LocalDate getJour() {
+        return jour;
+    }
+
+    public void setJour(LocalDate jour) {
+        this.jour = jour;
+    }
+
+    public long getReservationsCreees() {
+        return reservationsCreees;
+    }
+
+    public void setReservationsCreees(long reservationsCreees) {
+        this.reservationsCreees = reservationsCreees;
+    }
+
+    public long getReservationsConfirmees() {
+        return reservationsConfirmees;
+    }
+
+    public void setReservationsConfirmees(long reservationsConfirmees) {
+        this.reservationsConfirmees = reservationsConfirmees;
+    }
+
+    public long getReservationsAnnulees() {
+        return reservationsAnnulees;
+    }
+
+    public void setReservationsAnnulees(long reservationsAnnulees) {
+        this.reservationsAnnulees = reservationsAnnulees;
+    }
+
+    public long getJoursLoues() {
+        return joursLoues;
+    }
+
+    public void setJoursLoues(long joursLoues) {
+        this.joursLoues = joursLoues;
+    }
+
+    public BigDecimal getChiffreAffaires() {
+        return chiffreAffaires;
+    }
+
+    public void setChiffreAffaires(BigDecimal chiffreAffaires) {
+        this.chiffreAffaires = chiffreAffaires;
+    }
+
+    public BigDecimal getMontantRembourse() {
+        return montantRembourse;
+    }
+
+    public void setMontantRembourse(BigDecimal montantRembourse) {
+        this.montantRembourse = montantRembourse;
+    }
+}
@@ -0,0 +1,56 @@
+package com.locme.statistiques;
+
+import com.locme.statistiques.dto.StatistiqueJourDto;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface StatistiqueJournaliereRepository extends JpaRepository<StatistiqueJournaliere, Long> {
+
+    // Incrément en base : deux relais qui mettent à jour la même journée ne s'écrasent pas
+    @Modifying
+    @Query("UPDATE StatistiqueJournaliere s SET " +
+           "s.reservationsCreees = s.reservationsCreees + :creees, " +
+           "s.reservationsConfirmees = s.reservationsConfirmees + :confirmees, " +
+           "s.reservationsAnnulees = s.reservationsAnnulees + :annulees, " +
+           "s.joursLoues = s.joursLoues + :joursLoues, " +
+           "s.chiffreAffaires = s.chiffreAffaires + :chiffreAffaires, " +
+           "s.montantRembourse = s.montantRembourse + :montantRembourse " +
+           "WHERE s.societeId = :societeId AND s.jour = :jour")
+    int incrementer(@Param("societeId") Long societeId, @Param("jour") LocalDate jour,
+                    @Param("creees") long creees, @Param("confirmees") long confirmees,
+                    @Param("annulees") long annulees, @Param("joursLoues") long joursLoues,
+                    @Param("chiffreAffaires") BigDecimal chiffreAffaires,
+                    @Param("montantRembourse") BigDecimal montantRembourse);
+
+    // Jours loués d'une location en un seul UPDATE, quelle que soit sa durée ; fin exclue
+    @Modifying
+    @Query("UPDATE StatistiqueJournaliere s SET s.joursLoues = s.joursLoues + :sens " +
+           "WHERE s.societeId = :societeId AND s.jour >= :debut AND s.jour < :fin")
+    int incrementerJoursLoues(@Param("societeId") Long societeId, @Param("debut") LocalDate debut,
+                              @Param("fin") LocalDate fin, @Param("sens") long sens);
+
+    @Query("SELECT s.jour FROM StatistiqueJournaliere s WHERE s.societeId = :societeId AND s.jour >= :debut AND s.jour < :fin")
+    List<LocalDate> findJoursExistants(@Param("societeId") Long societeId, @Param("debut") LocalDate debut,
+                                       @Param("fin") LocalDate fin);
+
+    @Query("SELECT new com.locme.statistiques.dto.StatistiqueJourDto(s.jour, s.reservationsCreees, " +
+           "s.reservationsConfirmees, s.reservationsAnnulees, s.joursLoues, s.chiffreAffaires, s.montantRembourse) " +
+           "FROM StatistiqueJournaliere s WHERE s.societeId = :societeId AND s.jour BETWEEN :debut AND :fin " +
+           "ORDER BY s.jour")
+    List<StatistiqueJourDto> findJoursSociete(@Param("societeId") Long societeId, @Param("debut") LocalDate debut,
+                                              @Param("fin") LocalDate fin);
+
+    @Query("SELECT new com.locme.statistiques.dto.StatistiqueJourDto(s.jour, SUM(s.reservationsCreees), " +
+           "SUM(s.reservationsConfirmees), SUM(s.reservationsAnnulees), SUM(s.joursLoues), " +
+           "SUM(s.chiffreAffaires), SUM(s.montantRembourse)) " +
+           "FROM StatistiqueJournaliere s WHERE s.jour BETWEEN :debut AND :fin GROUP BY s.jour ORDER BY s.jour")
+    List<StatistiqueJourDto> findJoursGlobaux(@Param("debut") LocalDate debut, @Param("fin") LocalDate fin);
+}
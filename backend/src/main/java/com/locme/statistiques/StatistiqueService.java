@@ -0,0 +1,349 @@
+package com.locme.statistiques;
+
+import com.locme.auth.User;
+import com.locme.common.exceptions.BusinessException;
+import com.locme.outbox.DomainEvent;
+import com.locme.outbox.OutboxService;
+import com.locme.outbox.TypeEvenement;
+import com.locme.paiement.dto.PaiementEvenement;
+import com.locme.reservation.StatutReservation;
+import com.locme.reservation.dto.ReservationDto;
+import com.locme.reservation.dto.ReservationEvenement;
+import com.locme.societe.Societe;
+import com.locme.societe.SocieteRepository;
+import com.locme.statistiques.dto.StatistiqueJourDto;
+import com.locme.statistiques.dto.TableauDeBordDto;
+import com.locme.voiture.VoitureRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tient à jour les agrégats journaliers par société à partir des événements outbox. L'écouteur est
+ * synchrone mais valide ses écritures dans sa propre transaction (REQUIRES_NEW) : une erreur de
+ * statistiques est journalisée sans annuler le lot du relais, et la table statistiques_evenements
+ * garantit qu'un événement republié après l'annulation de ce lot n'est compté qu'une fois.
+ */
+@Service
+public class StatistiqueService {
+
+    private static final Logger log = LoggerFactory.getLogger(StatistiqueService.class);
+
+    // Statuts pour lesquels la voiture est considérée comme louée sur la période réservée
+    private static final Set<StatutReservation> OCCUPANTS =
+            EnumSet.of(StatutReservation.CONFIRMEE, StatutReservation.EN_COURS, StatutReservation.TERMINEE);
+
+    private static final Set<StatutReservation> ANNULATIONS =
+            EnumSet.of(StatutReservation.ANNULEE, StatutReservation.REFUSEE);
+
+    private static final Set<TypeEvenement> TYPES_TRAITES = EnumSet.of(TypeEvenement.RESERVATION_CREEE,
+            TypeEvenement.RESERVATION_STATUT_MODIFIE, TypeEvenement.RESERVATION_SUPPRIMEE,
+            TypeEvenement.PAIEMENT_PAYE, TypeEvenement.PAIEMENT_REMBOURSE);
+
+    private static final int MAX_TENTATIVES = 3;
+
+    @Autowired
+    private StatistiqueJournaliereRepository statistiqueRepository;
+
+    @Autowired
+    private SocieteRepository societeRepository;
+
+    @Autowired
+    private VoitureRepository voitureRepository;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private EvenementStatistiqueRepository evenementRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private TransactionTemplate transactionStatistiques;
+
+    @Value("${locme.statistiques.default-days:30}")
+    private int joursParDefaut = 30;
+
+    @Value("${locme.statistiques.max-days:366}")
+    private int joursMax = 366;
+
+    // Au-delà, une location n'occupe que ses max-rental-days premiers jours dans les agrégats
+    @Value("${locme.statistiques.max-rental-days:731}")
+    private int joursLocationMax = 731;
+
+    @Value("${locme.statistiques.events-retention-days:7}")
+    private int retentionEvenementsJours = 7;
+
+    @PostConstruct
+    void initialiser() {
+        transactionStatistiques = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        transactionStatistiques.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @EventListener
+    public void surEvenement(DomainEvent event) {
+        if (!TYPES_TRAITES.contains(event.getType())) {
+            return;
+        }
+        for (int tentative = 1; ; tentative++) {
+            try {
+                transactionStatistiques.execute(status -> {
+                    compter(event);
+                    return null;
+                });
+                return;
+            } catch (DataIntegrityViolationException e) {
+                // Première ligne d'un jour insérée en même temps par un autre relais : rejoué en incrément
+                if (tentative < MAX_TENTATIVES) {
+                    continue;
+                }
+                log.error("Événement {} ignoré pour les statistiques après {} tentatives", event.getId(), tentative, e);
+                return;
+            } catch (RuntimeException e) {
+                // Les statistiques ne doivent jamais bloquer le relais : l'événement est ignoré pour elles
+                log.error("Événement {} ignoré pour les statistiques", event.getId(), e);
+                return;
+            }
+        }
+    }
+
+    private void compter(DomainEvent event) {
+        if (evenementRepository.existsById(event.getId())) {
+            return;
+        }
+        Map<Cle, Delta> deltas = new LinkedHashMap<>();
+        List<Periode> periodes = new ArrayList<>();
+        LocalDate jour = event.getOccurredAt() != null ? event.getOccurredAt().toLocalDate() : LocalDate.now();
+        if (event.getType() == TypeEvenement.PAIEMENT_PAYE || event.getType() == TypeEvenement.PAIEMENT_REMBOURSE) {
+            surPaiement(event, outboxService.lirePayload(event, PaiementEvenement.class), jour, deltas);
+        } else {
+            surReservation(event, outboxService.lirePayload(event, ReservationEvenement.class), jour, deltas, periodes);
+        }
+        // Les jours ponctuels d'abord : les lignes qu'ils créent sont ensuite vues par occuperPeriode
+        deltas.forEach(this::appliquer);
+        periodes.forEach(this::occuperPeriode);
+        evenementRepository.save(new EvenementStatistique(event.getId(), LocalDateTime.now()));
+    }
+
+    @Scheduled(cron = "${locme.statistiques.purge-cron:0 45 3 * * *}")
+    public void purgerEvenements() {
+        try {
+            Integer supprimes = transactionTemplate.execute(status ->
+                    evenementRepository.deleteTraitesAvant(LocalDateTime.now().minusDays(retentionEvenementsJours)));
+            log.info("Purge statistiques : {} événements traités oubliés", supprimes);
+        } catch (RuntimeException e) {
+            log.error("Échec de la purge des événements de statistiques, nouvel essai au prochain passage", e);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public TableauDeBordDto getTableauDeBordSociete(User currentUser, LocalDate debut, LocalDate fin) {
+        Societe societe = societeRepository.findByUser(currentUser)
+                .orElseThrow(() -> new BusinessException("Société non trouvée pour cet utilisateur"));
+        LocalDate[] periode = periode(debut, fin);
+        List<StatistiqueJourDto> jours = statistiqueRepository.findJoursSociete(societe.getId(), periode[0], periode[1]);
+        return tableauDeBord(periode, voitureRepository.countBySocieteId(societe.getId()), jours);
+    }
+
+    @Transactional(readOnly = true)
+    public TableauDeBordDto getTableauDeBordGlobal(LocalDate debut, LocalDate fin) {
+        LocalDate[] periode = periode(debut, fin);
+        List<StatistiqueJourDto> jours = statistiqueRepository.findJoursGlobaux(periode[0], periode[1]);
+        return tableauDeBord(periode, voitureRepository.count(), jours);
+    }
+
+    private void surReservation(DomainEvent event, ReservationEvenement evenement, LocalDate jour, Map<Cle, Delta> deltas,
+                                List<Periode> periodes) {
+        Long societeId = evenement.getSocieteId();
+        ReservationDto reservation = evenement.getReservation();
+        if (societeId == null || reservation == null) {
+            return;
+        }
+        StatutReservation ancien = evenement.getAncienStatut();
+        StatutReservation nouveau = reservation.getStatut();
+        switch (event.getType()) {
+            case RESERVATION_CREEE -> delta(deltas, societeId, jour).creees++;
+            case RESERVATION_STATUT_MODIFIE -> {
+                boolean occupeAvant = ancien != null && OCCUPANTS.contains(ancien);
+                boolean occupeApres = nouveau != null && OCCUPANTS.contains(nouveau);
+                if (!occupeAvant && occupeApres) {
+                    delta(deltas, societeId, jour).confirmees++;
+                    occuper(periodes, societeId, reservation, 1);
+                } else if (occupeAvant && !occupeApres) {
+                    occuper(periodes, societeId, reservation, -1);
+                }
+                if (nouveau != null && ANNULATIONS.contains(nouveau) && (ancien == null || !ANNULATIONS.contains(ancien))) {
+                    delta(deltas, societeId, jour).annulees++;
+                }
+            }
+            case RESERVATION_SUPPRIMEE -> {
+                // ancienStatut porte le statut au moment de la suppression
+                if (ancien != null && OCCUPANTS.contains(ancien)) {
+                    occuper(periodes, societeId, reservation, -1);
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    private void surPaiement(DomainEvent event, PaiementEvenement evenement, LocalDate jour, Map<Cle, Delta> deltas) {
+        if (evenement.getSocieteId() == null) {
+            return;
+        }
+        if (event.getType() == TypeEvenement.PAIEMENT_PAYE && evenement.getMontant() != null) {
+            LocalDate jourPaiement = evenement.getDatePaiement() != null ? evenement.getDatePaiement().toLocalDate() : jour;
+            Delta delta = delta(deltas, evenement.getSocieteId(), jourPaiement);
+            delta.chiffreAffaires = delta.chiffreAffaires.add(evenement.getMontant());
+        } else if (event.getType() == TypeEvenement.PAIEMENT_REMBOURSE
+                && evenement.getMontantRemboursement() != null) {
+            Delta delta = delta(deltas, evenement.getSocieteId(), jour);
+            delta.montantRembourse = delta.montantRembourse.add(evenement.getMontantRemboursement());
+        }
+    }
+
+    // Une location occupe la voiture chaque jour de dateDebut (inclus) à dateFin (exclue), au moins un jour
+    private void occuper(List<Periode> periodes, Long societeId, ReservationDto reservation, int sens) {
+        LocalDate debut = reservation.getDateDebut();
+        LocalDate fin = reservation.getDateFin();
+        if (debut == null || fin == null) {
+            return;
+        }
+        LocalDate finExclue = fin.isAfter(debut) ? fin : debut.plusDays(1);
+        if (ChronoUnit.DAYS.between(debut, finExclue) > joursLocationMax) {
+            log.warn("Réservation {} : seuls les {} premiers jours sont comptés comme loués", reservation.getId(),
+                    joursLocationMax);
+            finExclue = debut.plusDays(joursLocationMax);
+        }
+        periodes.add(new Periode(societeId, debut, finExclue, sens));
+    }
+
+    // Un UPDATE pour les jours déjà présents, des insertions groupées pour les autres
+    private void occuperPeriode(Periode periode) {
+        statistiqueRepository.incrementerJoursLoues(periode.societeId, periode.debut, periode.fin, periode.sens);
+        Set<LocalDate> existants = new HashSet<>(
+                statistiqueRepository.findJoursExistants(periode.societeId, periode.debut, periode.fin));
+        List<StatistiqueJournaliere> nouvelles = periode.debut.datesUntil(periode.fin)
+                .filter(jour -> !existants.contains(jour))
+                .map(jour -> {
+                    StatistiqueJournaliere statistique = new StatistiqueJournaliere(periode.societeId, jour);
+                    statistique.setJoursLoues(periode.sens);
+                    return statistique;
+                })
+                .toList();
+        if (!nouvelles.isEmpty()) {
+            statistiqueRepository.saveAll(nouvelles);
+        }
+    }
+
+    private void appliquer(Cle cle, Delta delta) {
+        int modifiees = statistiqueRepository.incrementer(cle.societeId, cle.jour, delta.creees, delta.confirmees,
+                delta.annulees, 0, delta.chiffreAffaires, delta.montantRembourse);
+        if (modifiees == 0) {
+            // Première activité du jour ; une insertion concurrente annule la transaction, rejouée en incrément
+            StatistiqueJournaliere statistique = new StatistiqueJournaliere(cle.societeId, cle.jour);
+            statistique.setReservationsCreees(delta.creees);
+            statistique.setReservationsConfirmees(delta.confirmees);
+            statistique.setReservationsAnnulees(delta.annulees);
+            statistique.setChiffreAffaires(delta.chiffreAffaires);
+            statistique.setMontantRembourse(delta.montantRembourse);
+            statistiqueRepository.save(statistique);
+        }
+    }
+
+    private LocalDate[] periode(LocalDate debut, LocalDate fin) {
+        LocalDate finPeriode = fin != null ? fin : LocalDate.now();
+        LocalDate debutPeriode = debut != null ? debut : finPeriode.minusDays(joursParDefaut - 1L);
+        if (finPeriode.isBefore(debutPeriode)) {
+            throw new BusinessException("La date de fin doit être après la date de début");
+        }
+        if (ChronoUnit.DAYS.between(debutPeriode, finPeriode) >= joursMax) {
+            throw new BusinessException("La période ne peut pas dépasser " + joursMax + " jours");
+        }
+        return new LocalDate[]{debutPeriode, finPeriode};
+    }
+
+    private TableauDeBordDto tableauDeBord(LocalDate[] periode, long nombreVoitures, List<StatistiqueJourDto> jours) {
+        TableauDeBordDto tableau = new TableauDeBordDto(periode[0], periode[1], nombreVoitures, jours);
+        long joursLoues = 0;
+        for (StatistiqueJourDto jour : jours) {
+            tableau.setReservationsCreees(tableau.getReservationsCreees() + jour.getReservationsCreees());
+            tableau.setReservationsConfirmees(tableau.getReservationsConfirmees() + jour.getReservationsConfirmees());
+            tableau.setReservationsAnnulees(tableau.getReservationsAnnulees() + jour.getReservationsAnnulees());
+            tableau.setChiffreAffaires(tableau.getChiffreAffaires().add(jour.getChiffreAffaires()));
+            tableau.setMontantRembourse(tableau.getMontantRembourse().add(jour.getMontantRembourse()));
+            joursLoues += jour.getJoursLoues();
+        }
+        long joursVoitures = nombreVoitures * (ChronoUnit.DAYS.between(periode[0], periode[1]) + 1);
+        tableau.setTauxOccupation(joursVoitures == 0 ? 0 : Math.min(1.0, (double) joursLoues / joursVoitures));
+        return tableau;
+    }
+
+    private static Delta delta(Map<Cle, Delta> deltas, Long societeId, LocalDate jour) {
+        return deltas.computeIfAbsent(new Cle(societeId, jour), cle -> new Delta());
+    }
+
+    private static final class Cle {
+        private final Long societeId;
+        private final LocalDate jour;
+
+        private Cle(Long societeId, LocalDate jour) {
+            this.societeId = societeId;
+            this.jour = jour;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Cle autre && societeId.equals(autre.societeId) && jour.equals(autre.jour);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * societeId.hashCode() + jour.hashCode();
+        }
+    }
+
+    private static final class Periode {
+        private final Long societeId;
+        private final LocalDate debut;
+        private final LocalDate fin;
+        private final long sens;
+
+        private Periode(Long societeId, LocalDate debut, LocalDate fin, long sens) {
+            this.societeId = societeId;
+            this.debut = debut;
+            this.fin = fin;
+            this.sens = sens;
+        }
+    }
+
+    private static final class Delta {
+        private long creees;
+        private long confirmees;
+        private long annulees;
+        private BigDecimal chiffreAffaires = BigDecimal.ZERO;
+        private BigDecimal montantRembourse = BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,86 @@
+package com.locme.statistiques.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public class StatistiqueJourDto {
+    private LocalDate jour;
+    private long reservationsCreees;
+    private long reservationsConfirmees;
+    private long reservationsAnnulees;
+    private long joursLoues;
+    private BigDecimal chiffreAffaires;
+    private BigDecimal montantRembourse;
+
+    public StatistiqueJourDto() {}
+
+    // Utilisé par les projections JPQL (sommes par jour)
+    public StatistiqueJourDto(LocalDate jour, Long reservationsCreees, Long reservationsConfirmees,
+                              Long reservationsAnnulees, Long joursLoues, BigDecimal chiffreAffaires,
+                              BigDecimal montantRembourse) {
+        this.jour = jour;
+        this.reservationsCreees = reservationsCreees != null ? reservationsCreees : 0;
+        this.reservationsConfirmees = reservationsConfirmees != null ? reservationsConfirmees : 0;
+        this.reservationsAnnulees = reservationsAnnulees != null ? reservationsAnnulees : 0;
+        this.joursLoues = joursLoues != null ? joursLoues : 0;
+        this.chiffreAffaires = chiffreAffaires != null ? chiffreAffaires : BigDecimal.ZERO;
+        this.montantRembourse = montantRembourse != null ? montantRembourse : BigDecimal.ZERO;
+    }
+
+    // Getters et Setters
+    public LocalDate getJour() {
+        return jour;
+    }
+
+    public void setJour(LocalDate jour) {
+        this.jour = jour;
+    }
+
+    public long getReservationsCreees() {
+        return reservationsCreees;
+    }
+
+    public void setReservationsCreees(long reservationsCreees) {
+        this.reservationsCreees = reservationsCreees;
+    }
+
+    public long getReservationsConfirmees() {
+        return reservationsConfirmees;
+    }
+
+    public void setReservationsConfirmees(long reservationsConfirmees) {
+        this.reservationsConfirmees = reservationsConfirmees;
+    }
+
+    public long getReservationsAnnulees() {
+        return reservationsAnnulees;
+    }
+
+    public void setReservationsAnnulees(long reservationsAnnulees) {
+        this.reservationsAnnulees = reservationsAnnulees;
+    }
+
+    public long getJoursLoues() {
+        return joursLoues;
+    }
+
+    public void setJoursLoues(long joursLoues) {
+        this.joursLoues = joursLoues;
+    }
+
+    public BigDecimal getChiffreAffaires() {
+        return chiffreAffaires;
+    }
+
+    public void setChiffreAffaires(BigDecimal chiffreAffaires) {
+        this.chiffreAffaires = chiffreAffaires;
+    }
+
+    public BigDecimal getMontantRembourse() {
+        return montantRembourse;
+    }
+
+    public void setMontantRembourse(BigDecimal montantRembourse) {
+        this.montantRembourse = montantRembourse;
+    }
+}
@@ -0,0 +1,109 @@
+package com.locme.statistiques.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+public class TableauDeBordDto {
+    private LocalDate debut;
+    private LocalDate fin;
+    private long nombreVoitures;
+    private long reservationsCreees;
+    private long reservationsConfirmees;
+    private long reservationsAnnulees;
+    private BigDecimal chiffreAffaires = BigDecimal.ZERO;
+    private BigDecimal montantRembourse = BigDecimal.ZERO;
+    // Part des jours-voitures de la période couverts par une location, entre 0 et 1
+    private double tauxOccupation;
+    private List<StatistiqueJourDto> jours;
+
+    public TableauDeBordDto() {}
+
+    public TableauDeBordDto(LocalDate debut, LocalDate fin, long nombreVoitures, List<StatistiqueJourDto> jours) {
+        this.debut = debut;
+        this.fin = fin;
+        this.nombreVoitures = nombreVoitures;
+        this.jours = jours;
+    }
+
+    // Getters et Setters
+    public LocalDate getDebut() {
+        return debut;
+    }
+
+    public void setDebut(LocalDate debut) {
+        this.debut = debut;
+    }
+
+    public LocalDate getFin() {
+        return fin;
+    }
+
+    public void setFin(LocalDate fin) {
+        this.fin = fin;
+    }
+
+    public long getNombreVoitures() {
+        return nombreVoitures;
+    }
+
+    public void setNombreVoitures(long nombreVoitures) {
+        this.nombreVoitures = nombreVoitures;
+    }
+
+    public long getReservationsCreees() {
+        return reservationsCreees;
+    }
+
+    public void setReservationsCreees(long reservationsCreees) {
+        this.reservationsCreees = reservationsCreees;
+    }
+
+    public long getReservationsConfirmees() {
+        return reservationsConfirmees;
+    }
+
+    public void setReservationsConfirmees(long reservationsConfirmees) {
+        this.reservationsConfirmees = reservationsConfirmees;
+    }
+
+    public long getReservationsAnnulees() {
+        return reservationsAnnulees;
+    }
+
+    public void setReservationsAnnulees(long reservationsAnnulees) {
+        this.reservationsAnnulees = reservationsAnnulees;
+    }
+
+    public BigDecimal getChiffreAffaires() {
+        return chiffreAffaires;
+    }
+
+    public void setChiffreAffaires(BigDecimal chiffreAffaires) {
+        this.chiffreAffaires = chiffreAffaires;
+    }
+
+    public BigDecimal getMontantRembourse() {
+        return montantRembourse;
+    }
+
+    public void setMontantRembourse(BigDecimal montantRembourse) {
+        this.montantRembourse = montantRembourse;
+    }
+
+    public double getTauxOccupation() {
+        return tauxOccupation;
+    }
+
+    public void setTauxOccupation(double tauxOccupation) {
+        this.tauxOccupation = tauxOccupation;
+    }
+
+    public List<StatistiqueJourDto> getJours() {
+        return jours;
+    }
+
+    public void setJours(List<StatistiqueJourDto> jours) {
+        this.jours = jours;
+    }
+}
@@ -0,0 +1,84 @@
+package com.locme.voiture;
+
+import com.locme.favorite.FavoriteRepository;
+import com.locme.voiture.popularite.StatistiquePopulariteRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Supprime définitivement les voitures supprimées logiquement depuis plus de delay-days que plus aucune
+ * réservation, courante ou archivée, ne référence. Favoris et statistiques de popularité ne sont pas de
+ * l'historique : ils partent avec la voiture. Une voiture réservée garde sa ligne indéfiniment.
+ */
+@Service
+public class PurgeVoituresService {
+
+    private static final Logger log = LoggerFactory.getLogger(PurgeVoituresService.class);
+
+    @Autowired
+    private VoitureRepository voitureRepository;
+
+    @Autowired
+    private FavoriteRepository favoriteRepository;
+
+    @Autowired
+    private StatistiquePopulariteRepository statistiqueRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${locme.voitures.purge.delay-days:30}")
+    private int delaiJours = 30;
+
+    @Value("${locme.voitures.purge.batch-size:500}")
+    private int tailleLot = 500;
+
+    @Value("${locme.voitures.purge.max-batches:20}")
+    private int maxLots = 20;
+
+    @Scheduled(cron = "${locme.voitures.purge.cron:0 30 4 * * *}")
+    public void purger() {
+        try {
+            purger(LocalDateTime.now());
+        } catch (RuntimeException e) {
+            log.error("Échec de la purge des voitures supprimées, nouvel essai au prochain passage", e);
+        }
+    }
+
+    public int purger(LocalDateTime maintenant) {
+        LocalDateTime limite = maintenant.minusDays(delaiJours);
+        int total = 0;
+        for (int i = 0; i < maxLots; i++) {
+            List<Long> ids = transactionTemplate.execute(status -> purgerLot(limite));
+            total += ids.size();
+            if (ids.size() < tailleLot) {
+                break;
+            }
+        }
+        if (total > 0) {
+            log.info("Purge : {} voitures supprimées avant le {} effacées", total, limite);
+        }
+        return total;
+    }
+
+    // Une réservation créée entre la sélection et le DELETE fait échouer le lot (clé étrangère) : il est
+    // rejoué au passage suivant, sans la voiture désormais réservée
+    private List<Long> purgerLot(LocalDateTime limite) {
+        List<Long> ids = voitureRepository.findIdsPurgeables(limite, PageRequest.of(0, tailleLot));
+        if (!ids.isEmpty()) {
+            favoriteRepository.deleteByVoitureIdIn(ids);
+            statistiqueRepository.deleteByVoitureIdIn(ids);
+            voitureRepository.purger(ids);
+        }
+        return ids;
+    }
+}
@@ -6,16 +6,22 @@ import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "voitures")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "voitures")
 public class Voiture {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "voitures_seq")
+    @SequenceGenerator(name = "voitures_seq", sequenceName = "voitures_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank
@@ -69,6 +75,15 @@ public class Voiture {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Suppression logique : la ligne reste pour l'historique des réservations (cf. V5)
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
+
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -210,4 +225,24 @@ public class Voiture {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
+
+    public LocalDateTime getDeletedAt() {
+        return deletedAt;
+    }
+
+    public void setDeletedAt(LocalDateTime deletedAt) {
+        this.deletedAt = deletedAt;
+    }
+
+    public boolean isSupprimee() {
+        return deletedAt != null;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
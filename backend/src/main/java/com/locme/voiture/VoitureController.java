@@ -4,18 +4,28 @@ import com.locme.auth.AuthService;
 import com.locme.auth.User;
 import com.locme.common.ApiResponse;
 import com.locme.common.exceptions.ResourceNotFoundException;
+import com.locme.voiture.dto.RapportImportDto;
 import com.locme.voiture.dto.VoitureDto;
+import com.locme.voiture.importation.FormatImport;
+import com.locme.voiture.importation.VoitureImportService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -28,6 +38,9 @@ public class VoitureController {
     @Autowired
     private VoitureService voitureService;
 
+    @Autowired
+    private VoitureImportService voitureImportService;
+
     @Autowired
     private AuthService authService;
 
@@ -59,6 +72,14 @@ public class VoitureController {
         return ResponseEntity.ok(ApiResponse.success(voitures));
     }
 
+    @GetMapping("/trending")
+    @Operation(summary = "Voitures tendance", description = "Voitures les plus consultées, mises en favori et réservées ces derniers jours")
+    public ResponseEntity<ApiResponse<List<VoitureDto>>> getTrendingVoitures(
+            @Parameter(description = "Nombre de voitures (50 au plus)") @RequestParam(required = false) Integer limite) {
+        List<VoitureDto> voitures = voitureService.getTrendingVoitures(limite);
+        return ResponseEntity.ok(ApiResponse.success(voitures));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse<VoitureDto>> getVoitureById(@PathVariable Long id) {
         try {
@@ -95,6 +116,24 @@ public class VoitureController {
         }
     }
 
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    @PreAuthorize("hasRole('SOCIETE')")
+    @Operation(summary = "Import de flotte", description = "Importer des voitures depuis un corps CSV (avec en-tête) ou NDJSON, lu ligne à ligne, avec un rapport d'erreurs par ligne")
+    public ResponseEntity<ApiResponse<RapportImportDto>> importerVoitures(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            @Parameter(description = "Séparateur des colonnes CSV") @RequestParam(defaultValue = ",") char separateur,
+            InputStream corps) {
+        try {
+            User currentUser = authService.getCurrentUser();
+            FormatImport format = MediaType.valueOf("text/csv").includes(contentType) ? FormatImport.CSV : FormatImport.NDJSON;
+            Charset charset = contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8;
+            RapportImportDto rapport = voitureImportService.importer(new InputStreamReader(corps, charset), format, separateur, currentUser);
+            return ResponseEntity.ok(ApiResponse.success("Import terminé", rapport));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('SOCIETE') or hasRole('ADMIN')")
     public ResponseEntity<ApiResponse<VoitureDto>> updateVoiture(@PathVariable Long id, @Valid @RequestBody VoitureDto voitureDto) {
@@ -104,6 +143,8 @@ public class VoitureController {
             return ResponseEntity.ok(ApiResponse.success("Voiture mise à jour avec succès", updatedVoiture));
         } catch (ResourceNotFoundException e) {
             return ResponseEntity.status(404).body(ApiResponse.error(e.getMessage()));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(409).body(ApiResponse.error("La voiture a été modifiée simultanément, veuillez réessayer"));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
         }
@@ -1,31 +1,133 @@
 package com.locme.voiture;
 
 import com.locme.societe.Societe;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
+/**
+ * Les voitures supprimées (deleted_at renseigné, cf. V5) sont exclues de chaque recherche, y compris
+ * findById et existsById (VoitureRepositoryCustom). Les réservations et favoris qui les référencent
+ * y accèdent toujours par leur association.
+ */
 @Repository
-public interface VoitureRepository extends JpaRepository<Voiture, Long> {
+public interface VoitureRepository extends JpaRepository<Voiture, Long>, VoitureRepositoryCustom {
+    // Les listes converties en VoitureDto (nom de la société compris) chargent la société dans la même requête
+    @Override
+    @EntityGraph(attributePaths = "societe")
+    @Query("SELECT v FROM Voiture v WHERE v.deletedAt IS NULL")
+    List<Voiture> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = "societe")
+    @Query("SELECT v FROM Voiture v WHERE v.deletedAt IS NULL")
+    List<Voiture> findAll(Sort sort);
+
+    @Override
+    @EntityGraph(attributePaths = "societe")
+    @Query(value = "SELECT v FROM Voiture v WHERE v.deletedAt IS NULL",
+           countQuery = "SELECT count(v) FROM Voiture v WHERE v.deletedAt IS NULL")
+    Page<Voiture> findAll(Pageable pageable);
+
+    // Redéclarées pour lever l'ambiguïté avec CrudRepository : implémentées par VoitureRepositoryCustomImpl
+    @Override
+    Optional<Voiture> findById(Long id);
+
+    @Override
+    boolean existsById(Long id);
+
+    @Override
+    @Query("SELECT v FROM Voiture v WHERE v.id IN :ids AND v.deletedAt IS NULL")
+    List<Voiture> findAllById(@Param("ids") Iterable<Long> ids);
+
+    @Override
+    @Query("SELECT count(v) FROM Voiture v WHERE v.deletedAt IS NULL")
+    long count();
+
+    // deleteVoiture : FOR UPDATE fait attendre les INSERT de réservations sur cette voiture (contrôle de
+    // clé étrangère, FOR KEY SHARE) jusqu'à la validation de la suppression, et inversement
+    @Query(value = "SELECT id FROM voitures WHERE id = :id FOR UPDATE", nativeQuery = true)
+    Long verrouiller(@Param("id") Long id);
+
+    // createReservation, une fois la réservation écrite : la voiture a pu être supprimée depuis sa lecture
+    @Query("SELECT count(v) > 0 FROM Voiture v WHERE v.id = :id AND v.deletedAt IS NOT NULL")
+    boolean estSupprimee(@Param("id") Long id);
+
+    @EntityGraph(attributePaths = "societe")
+    @Query("SELECT v FROM Voiture v WHERE v.id IN :ids AND v.deletedAt IS NULL")
+    List<Voiture> findWithSocieteByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Catalogue par défaut : périmé par toute écriture sur voitures, servi depuis les régions sinon
+    @EntityGraph(attributePaths = "societe")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT v FROM Voiture v WHERE v.disponible = true AND v.deletedAt IS NULL")
     List<Voiture> findByDisponibleTrue();
-    List<Voiture> findBySociete(Societe societe);
-    List<Voiture> findBySocieteAndDisponibleTrue(Societe societe);
-    List<Voiture> findByMarque(String marque);
-    List<Voiture> findByPrixParJourBetween(BigDecimal prixMin, BigDecimal prixMax);
-    List<Voiture> findByCarburant(TypeCarburant carburant);
-    List<Voiture> findBySocieteUser(com.locme.auth.User user);
+
+    @Query("SELECT v FROM Voiture v WHERE v.societe = :societe AND v.deletedAt IS NULL")
+    List<Voiture> findBySociete(@Param("societe") Societe societe);
+
+    @Query("SELECT v FROM Voiture v WHERE v.societe = :societe AND v.disponible = true AND v.deletedAt IS NULL")
+    List<Voiture> findBySocieteAndDisponibleTrue(@Param("societe") Societe societe);
+
+    @Query("SELECT v FROM Voiture v WHERE v.marque = :marque AND v.deletedAt IS NULL")
+    List<Voiture> findByMarque(@Param("marque") String marque);
+
+    @Query("SELECT v FROM Voiture v WHERE v.prixParJour BETWEEN :prixMin AND :prixMax AND v.deletedAt IS NULL")
+    List<Voiture> findByPrixParJourBetween(@Param("prixMin") BigDecimal prixMin, @Param("prixMax") BigDecimal prixMax);
+
+    @Query("SELECT v FROM Voiture v WHERE v.carburant = :carburant AND v.deletedAt IS NULL")
+    List<Voiture> findByCarburant(@Param("carburant") TypeCarburant carburant);
+
+    @EntityGraph(attributePaths = "societe")
+    @Query("SELECT v FROM Voiture v WHERE v.societe.user = :user AND v.deletedAt IS NULL")
+    List<Voiture> findBySocieteUser(@Param("user") com.locme.auth.User user);
+
+    @Query("SELECT count(v) FROM Voiture v WHERE v.societe.id = :societeId AND v.deletedAt IS NULL")
+    long countBySocieteId(@Param("societeId") Long societeId);
+
+    // Contrôles de propriété par identifiants : une seule requête indexée, sans charger la société.
+    // Voitures supprimées comprises : la société garde la main sur les réservations déjà prises
+    boolean existsByIdAndSocieteUserId(Long id, Long userId);
+
+    @Query("SELECT v FROM Voiture v WHERE v.id = :id AND v.societe.user.id = :userId AND v.deletedAt IS NULL")
+    Optional<Voiture> findByIdAndSocieteUserId(@Param("id") Long id, @Param("userId") Long userId);
+
+    @Query("SELECT v.id FROM Voiture v WHERE v.id IN :ids AND v.deletedAt IS NULL")
+    List<Long> findIdsExistants(@Param("ids") Collection<Long> ids);
+
+    // PurgeVoituresService : voitures supprimées avant la limite que plus aucune réservation ne référence
+    @Query("SELECT v.id FROM Voiture v WHERE v.deletedAt < :limite " +
+           "AND NOT EXISTS (SELECT r.id FROM Reservation r WHERE r.voiture = v) ORDER BY v.deletedAt")
+    List<Long> findIdsPurgeables(@Param("limite") LocalDateTime limite, Pageable lot);
+
+    @Modifying
+    @Query("DELETE FROM Voiture v WHERE v.id IN :ids AND v.deletedAt IS NOT NULL")
+    int purger(@Param("ids") Collection<Long> ids);
     
-    @Query("SELECT v FROM Voiture v WHERE v.disponible = true AND v.id NOT IN " +
-           "(SELECT r.voiture.id FROM Reservation r WHERE r.statut IN ('CONFIRMEE', 'EN_COURS') " +
+    @EntityGraph(attributePaths = "societe")
+    @Query("SELECT v FROM Voiture v WHERE v.disponible = true AND v.deletedAt IS NULL AND v.id NOT IN " +
+           "(SELECT r.voiture.id FROM Reservation r WHERE r.archivee = false AND r.statut IN ('CONFIRMEE', 'EN_COURS') " +
            "AND ((r.dateDebut <= :dateFin AND r.dateFin >= :dateDebut)))")
     List<Voiture> findAvailableVoituresByDate(@Param("dateDebut") LocalDate dateDebut, @Param("dateFin") LocalDate dateFin);
     
-    @Query("SELECT v FROM Voiture v WHERE v.disponible = true AND " +
+    @EntityGraph(attributePaths = "societe")
+    @Query("SELECT v FROM Voiture v WHERE v.disponible = true AND v.deletedAt IS NULL AND " +
            "(:marque IS NULL OR LOWER(v.marque) LIKE LOWER(CONCAT('%', :marque, '%'))) AND " +
            "(:prixMin IS NULL OR v.prixParJour >= :prixMin) AND " +
            "(:prixMax IS NULL OR v.prixParJour <= :prixMax)")
@@ -0,0 +1,14 @@
+package com.locme.voiture;
+
+import java.util.Optional;
+
+/**
+ * Lectures par identifiant de VoitureRepository, qui remplacent celles de JpaRepository pour ignorer
+ * les voitures supprimées tout en restant servies par le cache de second niveau.
+ */
+public interface VoitureRepositoryCustom {
+
+    Optional<Voiture> findById(Long id);
+
+    boolean existsById(Long id);
+}
@@ -0,0 +1,27 @@
+package com.locme.voiture;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+@Transactional(readOnly = true)
+class VoitureRepositoryCustomImpl implements VoitureRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // EntityManager.find plutôt qu'une requête : la région voitures répond sans SQL, et y contient la
+    // voiture supprimée telle quelle, deleted_at compris
+    @Override
+    public Optional<Voiture> findById(Long id) {
+        return Optional.ofNullable(entityManager.find(Voiture.class, id))
+                .filter(voiture -> !voiture.isSupprimee());
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return findById(id).isPresent();
+    }
+}
@@ -1,16 +1,33 @@
 package com.locme.voiture;
 
 import com.locme.auth.User;
+import com.locme.common.exceptions.BusinessException;
 import com.locme.common.exceptions.ResourceNotFoundException;
+import com.locme.common.retry.RetryOnConflict;
+import com.locme.favorite.FavoriteCache;
+import com.locme.reservation.ReservationRepository;
+import com.locme.reservation.TarificationService;
 import com.locme.societe.Societe;
 import com.locme.societe.SocieteRepository;
 import com.locme.voiture.dto.VoitureDto;
+import com.locme.voiture.popularite.PopulariteService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -22,76 +39,185 @@ public class VoitureService {
     @Autowired
     private SocieteRepository societeRepository;
 
+    @Autowired
+    private TarificationService tarificationService;
+
+    @Autowired
+    private PopulariteService populariteService;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private FavoriteCache favoriteCache;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${locme.popularite.default-limit:10}")
+    private int limiteTendancesDefaut = 10;
+
+    // Aligné sur hibernate.jdbc.batch_size : un lot de voitures = un lot d'INSERT
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int tailleLotImport = 50;
+
+    @Transactional(readOnly = true)
     public List<VoitureDto> getAllVoitures() {
         return voitureRepository.findAll().stream()
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public List<VoitureDto> getAvailableVoitures() {
         return voitureRepository.findByDisponibleTrue().stream()
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public List<VoitureDto> getAvailableVoituresByDate(LocalDate dateDebut, LocalDate dateFin) {
         return voitureRepository.findAvailableVoituresByDate(dateDebut, dateFin).stream()
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public List<VoitureDto> getAvailableVoituresWithFilters(String marque, BigDecimal prixMin, BigDecimal prixMax) {
         return voitureRepository.findAvailableVoituresWithFilters(marque, prixMin, prixMax).stream()
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public VoitureDto getVoitureById(Long id) {
         Voiture voiture = voitureRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Voiture non trouvée"));
+        populariteService.enregistrerVue(id);
         return convertToDto(voiture);
     }
 
+    @Transactional(readOnly = true)
+    public List<VoitureDto> getTrendingVoitures(Integer limite) {
+        List<Long> ids = populariteService.tendances(limite == null ? limiteTendancesDefaut : limite);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        // Une seule requête pour le classement ; les voitures supprimées depuis sont ignorées
+        Map<Long, Voiture> voitures = voitureRepository.findWithSocieteByIdIn(ids).stream()
+                .collect(Collectors.toMap(Voiture::getId, Function.identity()));
+        return ids.stream()
+                .map(voitures::get)
+                .filter(Objects::nonNull)
+                .map(this::convertToDto)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
     public List<VoitureDto> getVoituresBySociete(User societeUser) {
         return voitureRepository.findBySocieteUser(societeUser).stream()
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
     }
 
+    @Transactional
     public VoitureDto createVoiture(VoitureDto voitureDto, User currentUser) {
         Societe societe = societeRepository.findByUser(currentUser)
                 .orElseThrow(() -> new com.locme.common.exceptions.BusinessException("Société non trouvée pour cet utilisateur"));
 
         Voiture voiture = new Voiture();
-        voiture.setMarque(voitureDto.getMarque());
-        voiture.setModele(voitureDto.getModele());
-        voiture.setPrixParJour(voitureDto.getPrixParJour());
-        voiture.setDisponible(voitureDto.getDisponible());
-        voiture.setAnnee(voitureDto.getAnnee());
-        voiture.setKilometrage(voitureDto.getKilometrage());
-        voiture.setCarburant(voitureDto.getCarburant());
-        voiture.setTransmission(voitureDto.getTransmission());
-        voiture.setNombrePlaces(voitureDto.getNombrePlaces());
-        voiture.setImageUrl(voitureDto.getImageUrl());
-        voiture.setDescription(voitureDto.getDescription());
+        copierChamps(voitureDto, voiture);
         voiture.setSociete(societe);
 
         Voiture savedVoiture = voitureRepository.save(voiture);
         return convertToDto(savedVoiture);
     }
 
+    /**
+     * Insère des voitures en masse pour une société. Les ids étant tirés d'une séquence, Hibernate
+     * envoie les INSERT par lots JDBC ; le contexte de persistance est vidé après chaque lot pour
+     * que la mémoire ne grossisse pas avec le volume importé. Retourne les ids dans l'ordre reçu.
+     */
+    @Transactional
+    public List<Long> importerVoitures(Long societeId, List<VoitureDto> voitureDtos) {
+        Societe societe = societeRepository.getReferenceById(societeId);
+        List<Long> ids = new ArrayList<>(voitureDtos.size());
+        List<Voiture> lot = new ArrayList<>(tailleLotImport);
+        for (VoitureDto voitureDto : voitureDtos) {
+            Voiture voiture = new Voiture();
+            copierChamps(voitureDto, voiture);
+            voiture.setSociete(societe);
+            lot.add(voiture);
+            if (lot.size() >= tailleLotImport) {
+                ecrireLot(lot, ids);
+            }
+        }
+        if (!lot.isEmpty()) {
+            ecrireLot(lot, ids);
+        }
+        return ids;
+    }
+
+    @RetryOnConflict
+    @Transactional
     public VoitureDto updateVoiture(Long id, VoitureDto voitureDto, User currentUser) {
-        Voiture voiture = voitureRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Voiture non trouvée"));
+        // Chargement filtré sur le propriétaire : la société n'est ni chargée ni comparée en Java
+        Voiture voiture = voitureRepository.findByIdAndSocieteUserId(id, currentUser.getId())
+                .orElseThrow(() -> refusOuIntrouvable(id, "Vous n'êtes pas autorisé à modifier cette voiture"));
 
-        // Vérifier que l'utilisateur est propriétaire de la société
-        Societe societe = societeRepository.findByUser(currentUser)
-                .orElseThrow(() -> new ResourceNotFoundException("Société non trouvée"));
-        
-        if (!voiture.getSociete().getId().equals(societe.getId())) {
-            throw new com.locme.common.exceptions.BusinessException("Vous n'êtes pas autorisé à modifier cette voiture");
+        copierChamps(voitureDto, voiture);
+
+        Voiture updatedVoiture = voitureRepository.save(voiture);
+        tarificationService.invaliderVoiture(id);
+        return convertToDto(updatedVoiture);
+    }
+
+    /**
+     * Suppression logique : la voiture disparaît des recherches mais sa ligne reste pour les réservations
+     * qui la référencent, jusqu'à la purge (PurgeVoituresService). Écrite par l'entité, la suppression
+     * remplace l'entrée de la région voitures et périme les requêtes en cache sur voitures.
+     * Refusée tant que des réservations restent à honorer : la société les annule d'abord.
+     */
+    @RetryOnConflict
+    @Transactional
+    public void deleteVoiture(Long id, User currentUser) {
+        Voiture voiture = voitureRepository.findByIdAndSocieteUserId(id, currentUser.getId())
+                .orElseThrow(() -> refusOuIntrouvable(id, "Vous n'êtes pas autorisé à supprimer cette voiture"));
+        // Verrou pris avant la vérification : une réservation en cours d'écriture est validée et vue ici,
+        // une réservation écrite ensuite attend la suppression puis la constate
+        voitureRepository.verrouiller(id);
+        if (reservationRepository.existsActivesByVoitureId(id)) {
+            throw new BusinessException("Cette voiture a des réservations en attente, confirmées ou en cours");
         }
+        voiture.setDeletedAt(LocalDateTime.now());
+        tarificationService.invaliderVoiture(id);
+        apresValidation(() -> favoriteCache.retirerVoiture(id));
+    }
 
+    private static void apresValidation(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private void ecrireLot(List<Voiture> lot, List<Long> ids) {
+        voitureRepository.saveAll(lot);
+        entityManager.flush();
+        for (Voiture voiture : lot) {
+            ids.add(voiture.getId());
+            entityManager.detach(voiture);
+        }
+        lot.clear();
+    }
+
+    private static void copierChamps(VoitureDto voitureDto, Voiture voiture) {
         voiture.setMarque(voitureDto.getMarque());
         voiture.setModele(voitureDto.getModele());
         voiture.setPrixParJour(voitureDto.getPrixParJour());
@@ -103,23 +229,14 @@ public class VoitureService {
         voiture.setNombrePlaces(voitureDto.getNombrePlaces());
         voiture.setImageUrl(voitureDto.getImageUrl());
         voiture.setDescription(voitureDto.getDescription());
-
-        Voiture updatedVoiture = voitureRepository.save(voiture);
-        return convertToDto(updatedVoiture);
     }
 
-    public void deleteVoiture(Long id, User currentUser) {
-        Voiture voiture = voitureRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Voiture non trouvée"));
-
-        Societe societe = societeRepository.findByUser(currentUser)
-                .orElseThrow(() -> new ResourceNotFoundException("Société non trouvée"));
-        
-        if (!voiture.getSociete().getId().equals(societe.getId())) {
-            throw new com.locme.common.exceptions.BusinessException("Vous n'êtes pas autorisé à supprimer cette voiture");
+    // Aucune ligne ne correspond au couple (voiture, propriétaire) : distingue l'absence du refus
+    private RuntimeException refusOuIntrouvable(Long id, String messageRefus) {
+        if (!voitureRepository.existsById(id)) {
+            return new ResourceNotFoundException("Voiture non trouvée");
         }
-
-        voitureRepository.delete(voiture);
+        return new com.locme.common.exceptions.BusinessException(messageRefus);
     }
 
     private VoitureDto convertToDto(Voiture voiture) {
@@ -0,0 +1,31 @@
+package com.locme.voiture.dto;
+
+public class ErreurImportDto {
+    // Ligne du fichier importé (à partir de 1, en-tête CSV compris)
+    private long ligne;
+    private String message;
+
+    public ErreurImportDto() {}
+
+    public ErreurImportDto(long ligne, String message) {
+        this.ligne = ligne;
+        this.message = message;
+    }
+
+    // Getters et Setters
+    public long getLigne() {
+        return ligne;
+    }
+
+    public void setLigne(long ligne) {
+        this.ligne = ligne;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
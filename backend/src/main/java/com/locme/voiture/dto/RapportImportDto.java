@@ -0,0 +1,66 @@
+package com.locme.voiture.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class RapportImportDto {
+    private long lignesLues;
+    private long voituresImportees;
+    private long lignesRejetees;
+    private List<ErreurImportDto> erreurs = new ArrayList<>();
+    // Vrai lorsque des erreurs au-delà du maximum conservé ont seulement été comptées
+    private boolean erreursTronquees;
+    // Vrai lorsque le flux, mal formé, n'a pas pu être lu jusqu'au bout
+    private boolean interrompu;
+
+    public RapportImportDto() {}
+
+    // Getters et Setters
+    public long getLignesLues() {
+        return lignesLues;
+    }
+
+    public void setLignesLues(long lignesLues) {
+        this.lignesLues = lignesLues;
+    }
+
+    public long getVoituresImportees() {
+        return voituresImportees;
+    }
+
+    public void setVoituresImportees(long voituresImportees) {
+        this.voituresImportees = voituresImportees;
+    }
+
+    public long getLignesRejetees() {
+        return lignesRejetees;
+    }
+
+    public void setLignesRejetees(long lignesRejetees) {
+        this.lignesRejetees = lignesRejetees;
+    }
+
+    public List<ErreurImportDto> getErreurs() {
+        return erreurs;
+    }
+
+    public void setErreurs(List<ErreurImportDto> erreurs) {
+        this.erreurs = erreurs;
+    }
+
+    public boolean isErreursTronquees() {
+        return erreursTronquees;
+    }
+
+    public void setErreursTronquees(boolean erreursTronquees) {
+        this.erreursTronquees = erreursTronquees;
+    }
+
+    public boolean isInterrompu() {
+        return interrompu;
+    }
+
+    public void setInterrompu(boolean interrompu) {
+        this.interrompu = interrompu;
+    }
+}
@@ -30,6 +30,7 @@ public class VoitureDto {
     private TypeCarburant carburant;
     private TypeTransmission transmission;
     private Integer nombrePlaces;
+    @Size(max = 255)
     private String imageUrl;
     private String description;
     private Long societeId;
@@ -0,0 +1,6 @@
+package com.locme.voiture.importation;
+
+public enum FormatImport {
+    CSV,
+    NDJSON
+}
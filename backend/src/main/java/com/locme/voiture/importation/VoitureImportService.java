@@ -0,0 +1,324 @@
+package com.locme.voiture.importation;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.locme.auth.User;
+import com.locme.common.csv.FormatCsvException;
+import com.locme.common.csv.LecteurCsv;
+import com.locme.common.exceptions.BusinessException;
+import com.locme.societe.Societe;
+import com.locme.societe.SocieteRepository;
+import com.locme.voiture.TypeCarburant;
+import com.locme.voiture.TypeTransmission;
+import com.locme.voiture.VoitureService;
+import com.locme.voiture.dto.ErreurImportDto;
+import com.locme.voiture.dto.RapportImportDto;
+import com.locme.voiture.dto.VoitureDto;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Import de flotte en masse. Le corps (CSV avec en-tête ou NDJSON) est lu ligne à ligne : seuls le
+ * lot en cours et les premières erreurs sont gardés en mémoire. Chaque ligne valide rejoint un lot
+ * inséré dans sa propre transaction ; une ligne invalide est rejetée sans bloquer les autres.
+ */
+@Service
+public class VoitureImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(VoitureImportService.class);
+
+    private static final int LONGUEUR_MAX_LIGNE = LecteurCsv.LONGUEUR_MAX_CHAMP;
+    private static final int LONGUEUR_MAX_EXTRAIT = 50;
+
+    // Noms de colonnes CSV normalisés (sans accents, casse ni séparateurs) -> propriété de VoitureDto
+    private static final Map<String, String> COLONNES = Map.ofEntries(
+            Map.entry("marque", "marque"),
+            Map.entry("modele", "modele"),
+            Map.entry("prixparjour", "prixParJour"),
+            Map.entry("disponible", "disponible"),
+            Map.entry("annee", "annee"),
+            Map.entry("kilometrage", "kilometrage"),
+            Map.entry("carburant", "carburant"),
+            Map.entry("transmission", "transmission"),
+            Map.entry("nombreplaces", "nombrePlaces"),
+            Map.entry("imageurl", "imageUrl"),
+            Map.entry("description", "description"));
+
+    private static final List<String> COLONNES_OBLIGATOIRES = List.of("marque", "modele", "prixParJour");
+
+    @Autowired
+    private VoitureService voitureService;
+
+    @Autowired
+    private SocieteRepository societeRepository;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${locme.voitures.import.chunk-size:500}")
+    private int tailleLot = 500;
+
+    @Value("${locme.voitures.import.max-errors:1000}")
+    private int erreursMax = 1000;
+
+    public RapportImportDto importer(Reader corps, FormatImport format, char separateur, User currentUser) throws IOException {
+        // Société résolue une seule fois pour tout le fichier
+        Societe societe = societeRepository.findByUser(currentUser)
+                .orElseThrow(() -> new BusinessException("Société non trouvée pour cet utilisateur"));
+
+        Import importEnCours = new Import(societe.getId());
+        try {
+            if (format == FormatImport.CSV) {
+                importerCsv(new LecteurCsv(corps, separateur), importEnCours);
+            } else {
+                importerNdjson(corps, importEnCours);
+            }
+        } catch (FormatCsvException e) {
+            // Flux illisible au-delà de ce point : les lots déjà validés sont conservés
+            importEnCours.rapport.setInterrompu(true);
+            importEnCours.rejeter(e.getLigne(), e.getMessage() + ", import interrompu");
+        }
+        importEnCours.ecrireLot();
+
+        RapportImportDto rapport = importEnCours.rapport;
+        log.info("Import de flotte pour la société {} : {} voitures importées, {} lignes rejetées",
+                societe.getId(), rapport.getVoituresImportees(), rapport.getLignesRejetees());
+        return rapport;
+    }
+
+    private void importerCsv(LecteurCsv lecteur, Import importEnCours) throws IOException {
+        List<String> entete = lecteur.lire();
+        if (entete == null) {
+            throw new BusinessException("Le fichier est vide");
+        }
+        List<String> colonnes = colonnes(entete);
+
+        List<String> champs;
+        while ((champs = lecteur.lire()) != null) {
+            long ligne = lecteur.getLigne();
+            importEnCours.rapport.setLignesLues(importEnCours.rapport.getLignesLues() + 1);
+            if (champs.size() != colonnes.size()) {
+                importEnCours.rejeter(ligne, colonnes.size() + " colonnes attendues, " + champs.size() + " trouvées");
+                continue;
+            }
+            VoitureDto voitureDto = new VoitureDto();
+            try {
+                for (int i = 0; i < colonnes.size(); i++) {
+                    affecter(voitureDto, colonnes.get(i), champs.get(i).trim());
+                }
+            } catch (IllegalArgumentException e) {
+                importEnCours.rejeter(ligne, e.getMessage());
+                continue;
+            }
+            importEnCours.accepter(ligne, voitureDto);
+        }
+    }
+
+    private void importerNdjson(Reader corps, Import importEnCours) throws IOException {
+        LecteurLignes lecteur = new LecteurLignes(corps);
+        long ligne = 0;
+        String contenu;
+        while ((contenu = lecteur.lire()) != null) {
+            ligne++;
+            if (ligne == 1 && contenu.startsWith("\uFEFF")) {
+                contenu = contenu.substring(1);
+            }
+            if (!lecteur.tropLongue && contenu.isBlank()) {
+                continue;
+            }
+            importEnCours.rapport.setLignesLues(importEnCours.rapport.getLignesLues() + 1);
+            if (lecteur.tropLongue) {
+                importEnCours.rejeter(ligne, "Ligne de plus de " + LONGUEUR_MAX_LIGNE + " caractères");
+                continue;
+            }
+            VoitureDto voitureDto;
+            try {
+                voitureDto = objectMapper.readValue(contenu, VoitureDto.class);
+            } catch (JsonProcessingException e) {
+                importEnCours.rejeter(ligne, "JSON invalide : " + extrait(e.getOriginalMessage(), 200));
+                continue;
+            }
+            importEnCours.accepter(ligne, voitureDto);
+        }
+    }
+
+    private static List<String> colonnes(List<String> entete) {
+        List<String> colonnes = new ArrayList<>(entete.size());
+        for (String nom : entete) {
+            String colonne = COLONNES.get(normaliser(nom));
+            if (colonne == null) {
+                throw new BusinessException("Colonne inconnue : " + extrait(nom.trim(), LONGUEUR_MAX_EXTRAIT));
+            }
+            if (colonnes.contains(colonne)) {
+                throw new BusinessException("Colonne en double : " + colonne);
+            }
+            colonnes.add(colonne);
+        }
+        Set<String> manquantes = new LinkedHashSet<>(COLONNES_OBLIGATOIRES);
+        colonnes.forEach(manquantes::remove);
+        if (!manquantes.isEmpty()) {
+            throw new BusinessException("Colonnes obligatoires manquantes : " + String.join(", ", manquantes));
+        }
+        return colonnes;
+    }
+
+    // Une cellule vide laisse la valeur par défaut du DTO
+    private static void affecter(VoitureDto voitureDto, String colonne, String valeur) {
+        if (valeur.isEmpty()) {
+            return;
+        }
+        try {
+            switch (colonne) {
+                case "marque" -> voitureDto.setMarque(valeur);
+                case "modele" -> voitureDto.setModele(valeur);
+                case "prixParJour" -> voitureDto.setPrixParJour(new BigDecimal(valeur.replace(',', '.')));
+                case "disponible" -> voitureDto.setDisponible(booleen(valeur));
+                case "annee" -> voitureDto.setAnnee(Integer.valueOf(valeur));
+                case "kilometrage" -> voitureDto.setKilometrage(Long.valueOf(valeur));
+                case "carburant" -> voitureDto.setCarburant(TypeCarburant.valueOf(valeur.toUpperCase(Locale.ROOT)));
+                case "transmission" -> voitureDto.setTransmission(TypeTransmission.valueOf(valeur.toUpperCase(Locale.ROOT)));
+                case "nombrePlaces" -> voitureDto.setNombrePlaces(Integer.valueOf(valeur));
+                case "imageUrl" -> voitureDto.setImageUrl(valeur);
+                case "description" -> voitureDto.setDescription(valeur);
+                default -> throw new IllegalStateException("Colonne non gérée : " + colonne);
+            }
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException comprise
+            throw new IllegalArgumentException("Valeur invalide pour " + colonne + " : "
+                    + extrait(valeur, LONGUEUR_MAX_EXTRAIT));
+        }
+    }
+
+    private static Boolean booleen(String valeur) {
+        return switch (valeur.toLowerCase(Locale.ROOT)) {
+            case "true", "oui", "1" -> true;
+            case "false", "non", "0" -> false;
+            default -> throw new IllegalArgumentException(valeur);
+        };
+    }
+
+    private static String normaliser(String nom) {
+        return Normalizer.normalize(nom, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .replaceAll("[^A-Za-z0-9]", "")
+                .toLowerCase(Locale.ROOT);
+    }
+
+    private static String extrait(String valeur, int longueurMax) {
+        return valeur.length() <= longueurMax ? valeur : valeur.substring(0, longueurMax) + "…";
+    }
+
+    /**
+     * État d'un import : le lot en attente d'insertion, avec la ligne d'origine de chaque voiture
+     * pour pouvoir rapporter un rejet du lot entier, et le rapport tenu au fil de la lecture.
+     */
+    private final class Import {
+        private final Long societeId;
+        private final List<VoitureDto> lot = new ArrayList<>();
+        private final List<Long> lignesLot = new ArrayList<>();
+        private final RapportImportDto rapport = new RapportImportDto();
+
+        private Import(Long societeId) {
+            this.societeId = societeId;
+        }
+
+        private void accepter(long ligne, VoitureDto voitureDto) {
+            Set<ConstraintViolation<VoitureDto>> violations = validator.validate(voitureDto);
+            if (!violations.isEmpty()) {
+                rejeter(ligne, violations.stream()
+                        .map(violation -> violation.getPropertyPath() + " : " + violation.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining(", ")));
+                return;
+            }
+            if (voitureDto.getDisponible() == null) {
+                voitureDto.setDisponible(true);
+            }
+            lot.add(voitureDto);
+            lignesLot.add(ligne);
+            if (lot.size() >= tailleLot) {
+                ecrireLot();
+            }
+        }
+
+        private void ecrireLot() {
+            if (lot.isEmpty()) {
+                return;
+            }
+            try {
+                voitureService.importerVoitures(societeId, lot);
+                rapport.setVoituresImportees(rapport.getVoituresImportees() + lot.size());
+            } catch (DataAccessException e) {
+                // La transaction du lot est annulée en entier : aucune de ses voitures n'est importée
+                log.warn("Lot de {} voitures rejeté à l'import pour la société {}", lot.size(), societeId, e);
+                for (Long ligne : lignesLot) {
+                    rejeter(ligne, "Lot rejeté par la base de données, voiture non importée");
+                }
+            }
+            lot.clear();
+            lignesLot.clear();
+        }
+
+        private void rejeter(long ligne, String message) {
+            rapport.setLignesRejetees(rapport.getLignesRejetees() + 1);
+            if (rapport.getErreurs().size() < erreursMax) {
+                rapport.getErreurs().add(new ErreurImportDto(ligne, message));
+            } else {
+                rapport.setErreursTronquees(true);
+            }
+        }
+    }
+
+    /**
+     * Lignes NDJSON de longueur bornée : au-delà du maximum, la fin de la ligne est consommée sans
+     * être gardée et la ligne est signalée trop longue.
+     */
+    private static final class LecteurLignes {
+        private final Reader reader;
+        private final StringBuilder tampon = new StringBuilder();
+        private boolean tropLongue;
+
+        private LecteurLignes(Reader reader) {
+            this.reader = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+        }
+
+        private String lire() throws IOException {
+            tampon.setLength(0);
+            tropLongue = false;
+            int c;
+            while ((c = reader.read()) != -1) {
+                if (c == '\n') {
+                    return tampon.toString();
+                }
+                if (tampon.length() < LONGUEUR_MAX_LIGNE) {
+                    tampon.append((char) c);
+                } else {
+                    tropLongue = true;
+                }
+            }
+            return tampon.isEmpty() && !tropLongue ? null : tampon.toString();
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.locme.voiture.popularite;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Popularité des voitures : vues, ajouts en favori et réservations sont comptés en mémoire sans verrou
+ * (LongAdder), puis ajoutés par lots aux statistiques du jour. Le classement des tendances est recalculé
+ * périodiquement à partir de ces statistiques, chaque journée pesant deux fois moins après chaque demi-vie.
+ */
+@Service
+public class PopulariteService {
+
+    private static final Logger log = LoggerFactory.getLogger(PopulariteService.class);
+
+    @Autowired
+    private StatistiquePopulariteRepository statistiqueRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${locme.popularite.batch-size:200}")
+    private int batchSize = 200;
+
+    @Value("${locme.popularite.window-days:14}")
+    private int fenetreJours = 14;
+
+    @Value("${locme.popularite.half-life-days:3}")
+    private double demiVieJours = 3;
+
+    @Value("${locme.popularite.max-trending:50}")
+    private int maxTendances = 50;
+
+    @Value("${locme.popularite.retention-days:90}")
+    private int retentionDays = 90;
+
+    @Value("${locme.popularite.weight.vue:1}")
+    private double poidsVue = 1;
+
+    @Value("${locme.popularite.weight.favori:5}")
+    private double poidsFavori = 5;
+
+    @Value("${locme.popularite.weight.reservation:20}")
+    private double poidsReservation = 20;
+
+    // Une entrée par voiture consultée : la taille est bornée par le nombre de voitures
+    private final Map<Long, Compteurs> compteurs = new ConcurrentHashMap<>();
+
+    private volatile List<Long> classement;
+
+    public void enregistrerVue(Long voitureId) {
+        compteurs(voitureId).vues.increment();
+    }
+
+    public void enregistrerFavori(Long voitureId) {
+        compteurs(voitureId).favoris.increment();
+    }
+
+    public void enregistrerReservation(Long voitureId) {
+        compteurs(voitureId).reservations.increment();
+    }
+
+    /** Identifiants des voitures les plus populaires, de la plus populaire à la moins populaire. */
+    public List<Long> tendances(int limite) {
+        List<Long> courant = classement;
+        if (courant == null) {
+            courant = classer();
+        }
+        return courant.subList(0, Math.min(Math.max(limite, 0), courant.size()));
+    }
+
+    @Scheduled(fixedDelayString = "${locme.popularite.flush-interval-ms:30000}")
+    public void ecrire() {
+        List<Releve> releves = new ArrayList<>();
+        compteurs.forEach((voitureId, compteur) -> {
+            Releve releve = compteur.relever(voitureId);
+            if (releve != null) {
+                releves.add(releve);
+            }
+        });
+
+        LocalDate jour = LocalDate.now();
+        for (int debut = 0; debut < releves.size(); debut += batchSize) {
+            List<Releve> lot = releves.subList(debut, Math.min(debut + batchSize, releves.size()));
+            try {
+                transactionTemplate.execute(status -> {
+                    lot.forEach(releve -> appliquer(releve, jour));
+                    return null;
+                });
+            } catch (RuntimeException e) {
+                // Les compteurs non écrits sont rendus et repartent au prochain cycle
+                log.error("Échec de l'écriture des statistiques de popularité, nouvel essai au prochain cycle", e);
+                releves.subList(debut, releves.size()).forEach(this::restituer);
+                return;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void arreter() {
+        ecrire();
+    }
+
+    @Scheduled(fixedDelayString = "${locme.popularite.ranking-interval-ms:60000}")
+    public void rafraichir() {
+        classer();
+    }
+
+    private List<Long> classer() {
+        LocalDate aujourdhui = LocalDate.now();
+        Map<Long, Double> scores = new HashMap<>();
+        for (StatistiquePopularite statistique : statistiqueRepository.findByJourGreaterThanEqual(
+                aujourdhui.minusDays(fenetreJours - 1L))) {
+            long age = ChronoUnit.DAYS.between(statistique.getJour(), aujourdhui);
+            double poids = Math.pow(0.5, age / demiVieJours);
+            double score = statistique.getVues() * poidsVue
+                    + statistique.getFavoris() * poidsFavori
+                    + statistique.getReservations() * poidsReservation;
+            scores.merge(statistique.getVoitureId(), poids * score, Double::sum);
+        }
+
+        List<Long> nouveau = scores.entrySet().stream()
+                .filter(entree -> entree.getValue() > 0)
+                .sorted(Map.Entry.<Long, Double>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey(Comparator.naturalOrder())))
+                .limit(maxTendances)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toUnmodifiableList());
+        classement = nouveau;
+        return nouveau;
+    }
+
+    @Scheduled(cron = "${locme.popularite.purge-cron:0 30 3 * * *}")
+    public void purger() {
+        Integer supprimes = transactionTemplate.execute(status ->
+                statistiqueRepository.deleteAvant(LocalDate.now().minusDays(retentionDays)));
+        log.info("Purge des statistiques de popularité : {} lignes supprimées", supprimes);
+    }
+
+    private Compteurs compteurs(Long voitureId) {
+        Compteurs compteur = compteurs.get(voitureId);
+        return compteur != null ? compteur : compteurs.computeIfAbsent(voitureId, id -> new Compteurs());
+    }
+
+    private void appliquer(Releve releve, LocalDate jour) {
+        int modifiees = statistiqueRepository.incrementer(releve.voitureId, jour, releve.vues, releve.favoris,
+                releve.reservations);
+        if (modifiees == 0) {
+            // Première écriture du jour ; une insertion concurrente fait échouer le lot, rejoué en incrément
+            statistiqueRepository.save(new StatistiquePopularite(releve.voitureId, jour, releve.vues,
+                    releve.favoris, releve.reservations));
+        }
+    }
+
+    private void restituer(Releve releve) {
+        Compteurs compteur = compteurs(releve.voitureId);
+        compteur.vues.add(releve.vues);
+        compteur.favoris.add(releve.favoris);
+        compteur.reservations.add(releve.reservations);
+    }
+
+    private static final class Compteurs {
+        private final LongAdder vues = new LongAdder();
+        private final LongAdder favoris = new LongAdder();
+        private final LongAdder reservations = new LongAdder();
+
+        Releve relever(Long voitureId) {
+            long v = vues.sumThenReset();
+            long f = favoris.sumThenReset();
+            long r = reservations.sumThenReset();
+            return v == 0 && f == 0 && r == 0 ? null : new Releve(voitureId, v, f, r);
+        }
+    }
+
+    private static final class Releve {
+        private final Long voitureId;
+        private final long vues;
+        private final long favoris;
+        private final long reservations;
+
+        private Releve(Long voitureId, long vues, long favoris, long reservations) {
+            this.voitureId = voitureId;
+            this.vues = vues;
+            this.favoris = favoris;
+            this.reservations = reservations;
+        }
+    }
+}
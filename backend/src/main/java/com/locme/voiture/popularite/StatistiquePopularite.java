@@ -0,0 +1,96 @@
+package com.locme.voiture.popularite;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+
+/**
+ * Compteurs d'interactions d'une voiture pour une journée. La voiture est référencée par son seul
+ * identifiant : les statistiques ne bloquent pas sa suppression et sont ignorées ensuite.
+ */
+@Entity
+@Table(name = "statistiques_popularite",
+        uniqueConstraints = @UniqueConstraint(name = "uk_statistiques_popularite_voiture_jour", columnNames = {"voiture_id", "jour"}),
+        indexes = @Index(name = "idx_statistiques_popularite_jour", columnList = "jour"))
+public class StatistiquePopularite {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "statistiques_popularite_seq")
+    @SequenceGenerator(name = "statistiques_popularite_seq", sequenceName = "statistiques_popularite_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "voiture_id", nullable = false)
+    private Long voitureId;
+
+    @Column(name = "jour", nullable = false)
+    private LocalDate jour;
+
+    @Column(name = "vues", nullable = false)
+    private long vues;
+
+    @Column(name = "favoris", nullable = false)
+    private long favoris;
+
+    @Column(name = "reservations", nullable = false)
+    private long reservations;
+
+    // Constructeurs
+    public StatistiquePopularite() {}
+
+    public StatistiquePopularite(Long voitureId, LocalDate jour, long vues, long favoris, long reservations) {
+        this.voitureId = voitureId;
+        this.jour = jour;
+        this.vues = vues;
+        this.favoris = favoris;
+        this.reservations = reservations;
+    }
+
+    // Getters et Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getVoitureId() {
+        return voitureId;
+    }
+
+    public void setVoitureId(Long voitureId) {
+        this.voitureId = voitureId;
+    }
+
+    public LocalDate getJour() {
+        return jour;
+    }
+
+    public void setJour(LocalDate jour) {
+        this.jour = jour;
+    }
+
+    public long getVues() {
+        return vues;
+    }
+
+    public void setVues(long vues) {
+        this.vues = vues;
+    }
+
+    public long getFavoris() {
+        return favoris;
+    }
+
+    public void setFavoris(long favoris) {
+        this.favoris = favoris;
+    }
+
+    public long getReservations() {
+        return reservations;
+    }
+
+    public void setReservations(long reservations) {
+        this.reservations = reservations;
+    }
+}
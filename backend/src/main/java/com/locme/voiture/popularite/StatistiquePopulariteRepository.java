@@ -0,0 +1,32 @@
+package com.locme.voiture.popularite;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface StatistiquePopulariteRepository extends JpaRepository<StatistiquePopularite, Long> {
+
+    // Incrément en base : les instances qui écrivent la même ligne ne s'écrasent pas
+    @Modifying
+    @Query("UPDATE StatistiquePopularite s SET s.vues = s.vues + :vues, s.favoris = s.favoris + :favoris, " +
+           "s.reservations = s.reservations + :reservations WHERE s.voitureId = :voitureId AND s.jour = :jour")
+    int incrementer(@Param("voitureId") Long voitureId, @Param("jour") LocalDate jour, @Param("vues") long vues,
+                    @Param("favoris") long favoris, @Param("reservations") long reservations);
+
+    List<StatistiquePopularite> findByJourGreaterThanEqual(LocalDate depuis);
+
+    @Modifying
+    @Query("DELETE FROM StatistiquePopularite s WHERE s.jour < :limite")
+    int deleteAvant(@Param("limite") LocalDate limite);
+
+    @Modifying
+    @Query("DELETE FROM StatistiquePopularite s WHERE s.voitureId IN :voitureIds")
+    int deleteByVoitureIdIn(@Param("voitureIds") Collection<Long> voitureIds);
+}
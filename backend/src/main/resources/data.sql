@@ -13,12 +13,12 @@ INSERT INTO societes (id, nom, adresse, email, telephone, description, user_id,
 (2, 'CarFast Toulouse', '456 Rue de la République, 31000 Toulouse', 'contact@carfast.com', '0561234567', 'Location de voitures rapides et fiables', 8, NOW(), NOW());
 
 -- Insertion de voitures de test avec images locales
-INSERT INTO voitures (marque, modele, prix_par_jour, disponible, annee, kilometrage, carburant, transmission, nombre_places, image_url, description, societe_id, created_at, updated_at) VALUES
-('Toyota', 'Corolla', 45.00, true, 2022, 15000, 'ESSENCE', 'MANUELLE', 5, '/api/images/voitures/toyota-corolla.svg', 'Voiture économique et fiable, parfaite pour la ville', 1, NOW(), NOW()),
-('BMW', 'X3', 85.00, true, 2023, 8000, 'ESSENCE', 'AUTOMATIQUE', 5, '/api/images/voitures/bmw-x3.svg', 'SUV premium avec toutes les options', 1, NOW(), NOW()),
-('Mercedes', 'Classe A', 75.00, true, 2022, 12000, 'ESSENCE', 'AUTOMATIQUE', 5, '/api/images/voitures/mercedes-classe-a.svg', 'Berline compacte luxueuse', 1, NOW(), NOW()),
-('Audi', 'A4', 80.00, true, 2023, 5000, 'DIESEL', 'AUTOMATIQUE', 5, '/api/images/voitures/audi-a4.svg', 'Berline sportive et confortable', 1, NOW(), NOW()),
-('Volkswagen', 'Golf', 50.00, true, 2022, 18000, 'ESSENCE', 'MANUELLE', 5, '/api/images/voitures/volkswagen-golf.svg', 'Compacte polyvalente et économique', 1, NOW(), NOW()),
-('Peugeot', '308', 40.00, true, 2021, 25000, 'DIESEL', 'MANUELLE', 5, '/api/images/voitures/peugeot-308.svg', 'Voiture familiale spacieuse', 2, NOW(), NOW()),
-('Renault', 'Clio', 35.00, true, 2022, 20000, 'ESSENCE', 'MANUELLE', 5, '/api/images/voitures/renault-clio.svg', 'Citadine parfaite pour la ville', 2, NOW(), NOW()),
-('Tesla', 'Model 3', 120.00, true, 2023, 3000, 'ELECTRIQUE', 'AUTOMATIQUE', 5, '/api/images/voitures/tesla-model3.svg', 'Voiture électrique haute performance', 2, NOW(), NOW());
\ No newline at end of file
+INSERT INTO voitures (id, marque, modele, prix_par_jour, disponible, annee, kilometrage, carburant, transmission, nombre_places, image_url, description, societe_id, created_at, updated_at) VALUES
+(1, 'Toyota', 'Corolla', 45.00, true, 2022, 15000, 'ESSENCE', 'MANUELLE', 5, '/api/images/voitures/toyota-corolla.svg', 'Voiture économique et fiable, parfaite pour la ville', 1, NOW(), NOW()),
+(2, 'BMW', 'X3', 85.00, true, 2023, 8000, 'ESSENCE', 'AUTOMATIQUE', 5, '/api/images/voitures/bmw-x3.svg', 'SUV premium avec toutes les options', 1, NOW(), NOW()),
+(3, 'Mercedes', 'Classe A', 75.00, true, 2022, 12000, 'ESSENCE', 'AUTOMATIQUE', 5, '/api/images/voitures/mercedes-classe-a.svg', 'Berline compacte luxueuse', 1, NOW(), NOW()),
+(4, 'Audi', 'A4', 80.00, true, 2023, 5000, 'DIESEL', 'AUTOMATIQUE', 5, '/api/images/voitures/audi-a4.svg', 'Berline sportive et confortable', 1, NOW(), NOW()),
+(5, 'Volkswagen', 'Golf', 50.00, true, 2022, 18000, 'ESSENCE', 'MANUELLE', 5, '/api/images/voitures/volkswagen-golf.svg', 'Compacte polyvalente et économique', 1, NOW(), NOW()),
+(6, 'Peugeot', '308', 40.00, true, 2021, 25000, 'DIESEL', 'MANUELLE', 5, '/api/images/voitures/peugeot-308.svg', 'Voiture familiale spacieuse', 2, NOW(), NOW()),
+(7, 'Renault', 'Clio', 35.00, true, 2022, 20000, 'ESSENCE', 'MANUELLE', 5, '/api/images/voitures/renault-clio.svg', 'Citadine parfaite pour la ville', 2, NOW(), NOW()),
+(8, 'Tesla', 'Model 3', 120.00, true, 2023, 3000, 'ELECTRIQUE', 'AUTOMATIQUE', 5, '/api/images/voitures/tesla-model3.svg', 'Voiture électrique haute performance', 2, NOW(), NOW());
\ No newline at end of file
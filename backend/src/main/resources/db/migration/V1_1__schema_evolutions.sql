@@ -0,0 +1,180 @@
+-- Tables et colonnes ajoutées depuis le schéma initial (V1). Sur une base rattachée à la version 1,
+-- c'est ce script qui les crée ; il s'applique à l'identique sur une base neuve.
+
+-- Hibernate nommait lui-même clés primaires, étrangères et contraintes d'unicité (reservations_pkey,
+-- FK..., UK...) : elles reprennent ici les noms de V1, que les migrations suivantes référencent
+-- (V4 supprime fk_paiements_reservation et renomme pk_reservations). Le nom se déduit de la table et
+-- des colonnes, sans le suffixe _id : fk_paiements_reservation, uk_favorites_user_voiture...
+DO $$
+DECLARE
+    c RECORD;
+    nom TEXT;
+BEGIN
+    FOR c IN
+        SELECT con.conname, con.contype, rel.relname AS nom_table,
+               (SELECT string_agg(regexp_replace(att.attname, '_id$', ''), '_' ORDER BY cle.rang)
+                FROM unnest(con.conkey) WITH ORDINALITY AS cle(num, rang)
+                JOIN pg_attribute att ON att.attrelid = con.conrelid AND att.attnum = cle.num) AS colonnes
+        FROM pg_constraint con
+        JOIN pg_class rel ON rel.oid = con.conrelid
+        JOIN pg_namespace ns ON ns.oid = rel.relnamespace
+        WHERE ns.nspname = current_schema()
+          AND rel.relname IN ('users', 'societes', 'voitures', 'reservations', 'paiements', 'favorites')
+          AND con.contype IN ('p', 'f', 'u')
+    LOOP
+        nom := CASE c.contype
+                   WHEN 'p' THEN 'pk_' || c.nom_table
+                   WHEN 'f' THEN 'fk_' || c.nom_table || '_' || c.colonnes
+                   ELSE 'uk_' || c.nom_table || '_' || c.colonnes
+               END;
+        IF c.conname <> nom THEN
+            EXECUTE format('ALTER TABLE %I RENAME CONSTRAINT %I TO %I', c.nom_table, c.conname, nom);
+        END IF;
+    END LOOP;
+END $$;
+
+-- Verrouillage optimiste (@Version)
+ALTER TABLE societes ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE voitures ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE reservations ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE paiements ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+-- Remboursements partiels et rapprochement avec le prestataire
+ALTER TABLE paiements ADD COLUMN montant_rembourse NUMERIC(10, 2) NOT NULL DEFAULT 0;
+ALTER TABLE paiements ADD COLUMN rapproche_le TIMESTAMP(6);
+
+-- Pagination des favoris par date d'ajout
+CREATE INDEX idx_favorites_user_created ON favorites (user_id, created_at, id);
+
+CREATE TABLE remboursements (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    paiement_id      BIGINT         NOT NULL,
+    montant          NUMERIC(10, 2) NOT NULL,
+    statut           VARCHAR(255)   NOT NULL CHECK (statut IN ('EN_COURS', 'EFFECTUE', 'ECHEC')),
+    stripe_refund_id VARCHAR(255),
+    message_erreur   VARCHAR(1000),
+    created_at       TIMESTAMP(6)   NOT NULL,
+    updated_at       TIMESTAMP(6),
+    CONSTRAINT pk_remboursements PRIMARY KEY (id),
+    CONSTRAINT fk_remboursements_paiement FOREIGN KEY (paiement_id) REFERENCES paiements (id)
+);
+
+CREATE INDEX idx_remboursements_paiement ON remboursements (paiement_id);
+
+CREATE TABLE regles_tarifaires (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    societe_id    BIGINT        NOT NULL,
+    type          VARCHAR(255)  NOT NULL CHECK (type IN ('SAISON', 'WEEKEND', 'DUREE')),
+    libelle       VARCHAR(255),
+    pourcentage   NUMERIC(5, 2) NOT NULL,
+    date_debut    DATE,
+    date_fin      DATE,
+    duree_minimum INTEGER,
+    created_at    TIMESTAMP(6),
+    CONSTRAINT pk_regles_tarifaires PRIMARY KEY (id),
+    CONSTRAINT fk_regles_tarifaires_societe FOREIGN KEY (societe_id) REFERENCES societes (id)
+);
+
+CREATE TABLE outbox_events (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    agregat      VARCHAR(255) NOT NULL,
+    agregat_id   BIGINT       NOT NULL,
+    type         VARCHAR(255) NOT NULL CHECK (type IN ('RESERVATION_CREEE', 'RESERVATION_STATUT_MODIFIE', 'RESERVATION_SUPPRIMEE',
+                                                       'PAIEMENT_CREE', 'PAIEMENT_PAYE', 'PAIEMENT_ECHOUE', 'PAIEMENT_REMBOURSE')),
+    payload      TEXT         NOT NULL,
+    created_at   TIMESTAMP(6) NOT NULL,
+    published_at TIMESTAMP(6),
+    CONSTRAINT pk_outbox_events PRIMARY KEY (id)
+);
+
+CREATE TABLE idempotency_keys (
+    cle          VARCHAR(512) NOT NULL,
+    empreinte    VARCHAR(64)  NOT NULL,
+    statut_http  INTEGER      NOT NULL,
+    content_type VARCHAR(255),
+    corps        TEXT,
+    created_at   TIMESTAMP(6) NOT NULL,
+    expires_at   TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_idempotency_keys PRIMARY KEY (cle)
+);
+
+CREATE TABLE webhook_events (
+    id                BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    event_id          VARCHAR(255)  NOT NULL,
+    type              VARCHAR(255)  NOT NULL,
+    payment_intent_id VARCHAR(255)  NOT NULL,
+    charge_id         VARCHAR(255),
+    montant_centimes  BIGINT,
+    paiement_id       BIGINT,
+    statut            VARCHAR(255)  NOT NULL CHECK (statut IN ('A_TRAITER', 'TRAITE', 'IGNORE')),
+    resultat          VARCHAR(255),
+    tentatives        INTEGER       NOT NULL,
+    message_erreur    VARCHAR(1000),
+    recu_le           TIMESTAMP(6)  NOT NULL,
+    cree_le           TIMESTAMP(6)  NOT NULL,
+    prochain_essai    TIMESTAMP(6)  NOT NULL,
+    traite_le         TIMESTAMP(6),
+    CONSTRAINT pk_webhook_events PRIMARY KEY (id),
+    CONSTRAINT uk_webhook_events_event UNIQUE (event_id)
+);
+
+CREATE INDEX idx_webhook_events_statut ON webhook_events (statut, prochain_essai, cree_le);
+
+CREATE TABLE rapports_reconciliation (
+    id                     BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    periode_debut          TIMESTAMP(6)  NOT NULL,
+    periode_fin            TIMESTAMP(6)  NOT NULL,
+    statut                 VARCHAR(255)  NOT NULL CHECK (statut IN ('EN_COURS', 'TERMINE', 'ECHEC')),
+    paiements_verifies     BIGINT        NOT NULL,
+    intentions_prestataire BIGINT        NOT NULL,
+    ecarts                 BIGINT        NOT NULL,
+    message                VARCHAR(1000),
+    demarre_le             TIMESTAMP(6)  NOT NULL,
+    termine_le             TIMESTAMP(6),
+    CONSTRAINT pk_rapports_reconciliation PRIMARY KEY (id)
+);
+
+CREATE TABLE ecarts_reconciliation (
+    id                  BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    rapport_id          BIGINT       NOT NULL,
+    type                VARCHAR(255) NOT NULL CHECK (type IN ('ABSENT_LOCALEMENT', 'ABSENT_CHEZ_PRESTATAIRE', 'STATUT_DIVERGENT', 'MONTANT_DIVERGENT')),
+    paiement_id         BIGINT,
+    payment_intent_id   VARCHAR(255),
+    statut_local        VARCHAR(255) CHECK (statut_local IN ('EN_ATTENTE', 'PAYE', 'ECHEC', 'REMBOURSE', 'PARTIELLEMENT_REMBOURSE')),
+    statut_prestataire  VARCHAR(255),
+    montant_local       NUMERIC(10, 2),
+    montant_prestataire NUMERIC(10, 2),
+    created_at          TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_ecarts_reconciliation PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_ecarts_reconciliation_rapport ON ecarts_reconciliation (rapport_id);
+
+CREATE TABLE statistiques_popularite (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    voiture_id   BIGINT NOT NULL,
+    jour         DATE   NOT NULL,
+    vues         BIGINT NOT NULL,
+    favoris      BIGINT NOT NULL,
+    reservations BIGINT NOT NULL,
+    CONSTRAINT pk_statistiques_popularite PRIMARY KEY (id),
+    CONSTRAINT uk_statistiques_popularite_voiture_jour UNIQUE (voiture_id, jour)
+);
+
+CREATE INDEX idx_statistiques_popularite_jour ON statistiques_popularite (jour);
+
+CREATE TABLE statistiques_journalieres (
+    id                      BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    societe_id              BIGINT         NOT NULL,
+    jour                    DATE           NOT NULL,
+    reservations_creees     BIGINT         NOT NULL,
+    reservations_confirmees BIGINT         NOT NULL,
+    reservations_annulees   BIGINT         NOT NULL,
+    jours_loues             BIGINT         NOT NULL,
+    chiffre_affaires        NUMERIC(12, 2) NOT NULL,
+    montant_rembourse       NUMERIC(12, 2) NOT NULL,
+    CONSTRAINT pk_statistiques_journalieres PRIMARY KEY (id),
+    CONSTRAINT uk_statistiques_journalieres_societe_jour UNIQUE (societe_id, jour)
+);
+
+CREATE INDEX idx_statistiques_journalieres_jour ON statistiques_journalieres (jour);
@@ -0,0 +1,100 @@
+-- Schéma de LocMe tel que le produisait hibernate.ddl-auto=update avant le passage aux migrations :
+-- une base existante créée par Hibernate est marquée à cette version (baseline-on-migrate) sans que
+-- ce script ne soit rejoué. Tout ce qui a été ajouté depuis vient dans les versions suivantes
+-- (V1_1 et au-delà), appliquées aussi bien à une base neuve qu'à une base rattachée.
+
+CREATE TABLE users (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    nom          VARCHAR(50)  NOT NULL,
+    email        VARCHAR(100) NOT NULL,
+    mot_de_passe VARCHAR(100) NOT NULL,
+    role         VARCHAR(255) NOT NULL CHECK (role IN ('CLIENT', 'SOCIETE', 'ADMIN')),
+    telephone    VARCHAR(255),
+    adresse      VARCHAR(255),
+    created_at   TIMESTAMP(6),
+    updated_at   TIMESTAMP(6),
+    CONSTRAINT pk_users PRIMARY KEY (id),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE societes (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    nom         VARCHAR(100) NOT NULL,
+    adresse     VARCHAR(255) NOT NULL,
+    email       VARCHAR(100) NOT NULL,
+    telephone   VARCHAR(255),
+    description TEXT,
+    logo_url    VARCHAR(255),
+    user_id     BIGINT       NOT NULL,
+    created_at  TIMESTAMP(6),
+    updated_at  TIMESTAMP(6),
+    CONSTRAINT pk_societes PRIMARY KEY (id),
+    CONSTRAINT uk_societes_email UNIQUE (email),
+    CONSTRAINT uk_societes_user UNIQUE (user_id),
+    CONSTRAINT fk_societes_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE voitures (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    marque        VARCHAR(50)   NOT NULL,
+    modele        VARCHAR(50)   NOT NULL,
+    prix_par_jour NUMERIC(10, 2) NOT NULL,
+    disponible    BOOLEAN       NOT NULL,
+    annee         INTEGER,
+    kilometrage   BIGINT,
+    carburant     VARCHAR(255) CHECK (carburant IN ('ESSENCE', 'DIESEL', 'HYBRIDE', 'ELECTRIQUE', 'GPL')),
+    transmission  VARCHAR(255) CHECK (transmission IN ('MANUELLE', 'AUTOMATIQUE', 'SEMI_AUTOMATIQUE')),
+    nombre_places INTEGER,
+    image_url     VARCHAR(255),
+    description   TEXT,
+    societe_id    BIGINT        NOT NULL,
+    created_at    TIMESTAMP(6),
+    updated_at    TIMESTAMP(6),
+    CONSTRAINT pk_voitures PRIMARY KEY (id),
+    CONSTRAINT fk_voitures_societe FOREIGN KEY (societe_id) REFERENCES societes (id)
+);
+
+CREATE TABLE reservations (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    voiture_id   BIGINT         NOT NULL,
+    user_id      BIGINT         NOT NULL,
+    date_debut   DATE           NOT NULL,
+    date_fin     DATE           NOT NULL,
+    statut       VARCHAR(255)   NOT NULL CHECK (statut IN ('EN_ATTENTE', 'CONFIRMEE', 'EN_COURS', 'TERMINEE', 'ANNULEE', 'REFUSEE')),
+    montant      NUMERIC(10, 2) NOT NULL,
+    commentaires TEXT,
+    lieu_prise   VARCHAR(255),
+    lieu_retour  VARCHAR(255),
+    created_at   TIMESTAMP(6),
+    updated_at   TIMESTAMP(6),
+    CONSTRAINT pk_reservations PRIMARY KEY (id),
+    CONSTRAINT fk_reservations_voiture FOREIGN KEY (voiture_id) REFERENCES voitures (id),
+    CONSTRAINT fk_reservations_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE paiements (
+    id                       BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    reservation_id           BIGINT         NOT NULL,
+    montant                  NUMERIC(10, 2) NOT NULL,
+    statut                   VARCHAR(255)   NOT NULL CHECK (statut IN ('EN_ATTENTE', 'PAYE', 'ECHEC', 'REMBOURSE', 'PARTIELLEMENT_REMBOURSE')),
+    methode_paiement         VARCHAR(255) CHECK (methode_paiement IN ('CARTE_CREDIT', 'CARTE_DEBIT', 'VIREMENT', 'ESPECES', 'CHEQUE')),
+    stripe_payment_intent_id VARCHAR(255),
+    transaction_id           VARCHAR(255),
+    date_paiement            TIMESTAMP(6),
+    created_at               TIMESTAMP(6),
+    updated_at               TIMESTAMP(6),
+    CONSTRAINT pk_paiements PRIMARY KEY (id),
+    CONSTRAINT uk_paiements_reservation UNIQUE (reservation_id),
+    CONSTRAINT fk_paiements_reservation FOREIGN KEY (reservation_id) REFERENCES reservations (id)
+);
+
+CREATE TABLE favorites (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    user_id    BIGINT NOT NULL,
+    voiture_id BIGINT NOT NULL,
+    created_at TIMESTAMP(6),
+    CONSTRAINT pk_favorites PRIMARY KEY (id),
+    CONSTRAINT uk_favorites_user_voiture UNIQUE (user_id, voiture_id),
+    CONSTRAINT fk_favorites_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_favorites_voiture FOREIGN KEY (voiture_id) REFERENCES voitures (id)
+);
@@ -0,0 +1,45 @@
+-- Index choisis d'après les requêtes des repositories. Les index partiels ne couvrent que les lignes
+-- réellement recherchées ; QueryPlanIntegrationTest vérifie qu'aucune de ces requêtes ne retombe
+-- sur un parcours séquentiel.
+
+-- ReservationRepository.findConflictingReservations et le NOT IN de
+-- VoitureRepository.findAvailableVoituresByDate : seules les réservations qui bloquent une voiture
+-- sont indexées, et les dates sont dans l'index (parcours d'index seul pour la sous-requête)
+CREATE INDEX idx_reservations_voiture_actives ON reservations (voiture_id, date_debut, date_fin)
+    WHERE statut IN ('CONFIRMEE', 'EN_COURS');
+
+-- ReservationRepository.findByUser / findByUserAndStatut
+CREATE INDEX idx_reservations_user_statut ON reservations (user_id, statut);
+
+-- ReservationRepository.findByVoitureSocieteUser (jointure depuis les voitures de la société),
+-- et suppression d'une voiture (clé étrangère)
+CREATE INDEX idx_reservations_voiture ON reservations (voiture_id);
+
+-- VoitureRepository.findByDisponibleTrue / findAvailableVoituresWithFilters : le catalogue ne lit
+-- que les voitures disponibles, filtrées par prix
+CREATE INDEX idx_voitures_disponibles_prix ON voitures (prix_par_jour) WHERE disponible;
+
+-- VoitureRepository.findBySocieteUser / countBySocieteId, et clé étrangère vers societes
+CREATE INDEX idx_voitures_societe ON voitures (societe_id);
+
+-- Clé étrangère vers voitures (suppression d'une voiture) ; (user_id, voiture_id) est déjà unique
+CREATE INDEX idx_favorites_voiture ON favorites (voiture_id);
+
+-- PaiementRepository.findByStripePaymentIntentId(In) : les paiements sans intention ne sont pas indexés
+CREATE INDEX idx_paiements_stripe_payment_intent ON paiements (stripe_payment_intent_id)
+    WHERE stripe_payment_intent_id IS NOT NULL;
+
+-- PaiementRepository.streamNonRapproches : parcours dans l'ordre (date_paiement, id)
+CREATE INDEX idx_paiements_date_paiement ON paiements (date_paiement, id);
+
+-- OutboxRepository.findEvenementsAPublier : la file ne contient que les événements non publiés
+CREATE INDEX idx_outbox_events_a_publier ON outbox_events (id) WHERE published_at IS NULL;
+
+-- OutboxRepository.deletePubliesAvant
+CREATE INDEX idx_outbox_events_published ON outbox_events (published_at) WHERE published_at IS NOT NULL;
+
+-- IdempotencyRecordRepository.deleteExpires
+CREATE INDEX idx_idempotency_keys_expires ON idempotency_keys (expires_at);
+
+-- RegleTarifaireRepository.findBySocieteId(In)
+CREATE INDEX idx_regles_tarifaires_societe ON regles_tarifaires (societe_id);
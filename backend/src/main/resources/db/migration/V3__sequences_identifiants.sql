@@ -0,0 +1,23 @@
+-- Identifiants tirés de séquences plutôt que de colonnes IDENTITY : Hibernate peut ainsi connaître
+-- l'id avant l'INSERT et regrouper les insertions en lots JDBC (hibernate.jdbc.batch_size).
+-- Chaque séquence avance de 50, comme l'allocationSize des entités (optimiseur pooled) : un appel
+-- à nextval réserve 50 identifiants côté application.
+--
+-- Les colonnes id n'ont volontairement plus de valeur par défaut : un INSERT manuel qui tirerait
+-- nextval directement entrerait en collision avec les plages déjà réservées par l'application.
+-- Chaque séquence démarre après le plus grand id existant.
+
+DO $$
+DECLARE
+    t TEXT;
+BEGIN
+    FOREACH t IN ARRAY ARRAY[
+        'users', 'societes', 'voitures', 'reservations', 'paiements', 'remboursements', 'favorites',
+        'regles_tarifaires', 'outbox_events', 'webhook_events', 'rapports_reconciliation',
+        'ecarts_reconciliation', 'statistiques_popularite', 'statistiques_journalieres'
+    ] LOOP
+        EXECUTE format('ALTER TABLE %I ALTER COLUMN id DROP IDENTITY IF EXISTS', t);
+        EXECUTE format('CREATE SEQUENCE %I INCREMENT BY 50', t || '_seq');
+        EXECUTE format('SELECT setval(%L, (SELECT COALESCE(MAX(id), 0) FROM %I) + 50, false)', t || '_seq', t);
+    END LOOP;
+END $$;
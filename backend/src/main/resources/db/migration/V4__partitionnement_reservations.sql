@@ -0,0 +1,118 @@
+-- Partitionnement de reservations. Les réservations closes (TERMINEE, ANNULEE) depuis plus de
+-- locme.reservations.archivage.retention-months sont marquées archivee par ArchivageReservationService,
+-- ce qui déplace la ligne dans reservations_archives, elle-même découpée par année de date_fin.
+-- Les requêtes qui filtrent sur archivee = FALSE (conflits, disponibilités, listes) n'ouvrent que
+-- reservations_courantes, dont la taille ne dépend plus de l'historique.
+--
+--   reservations                    LIST (archivee)
+--   ├── reservations_courantes      archivee = FALSE
+--   └── reservations_archives       archivee = TRUE, RANGE (date_fin)
+--       ├── reservations_archives_AAAA   créée à la demande par l'archivage
+--       └── reservations_archives_defaut
+
+-- Une clé primaire de table partitionnée contient les colonnes de partitionnement : id seul n'est
+-- plus unique côté base (il l'est par la séquence) et ne peut plus être la cible d'une clé étrangère.
+-- La contrainte de paiements vers reservations est reprise par des déclencheurs plus bas.
+ALTER TABLE paiements DROP CONSTRAINT fk_paiements_reservation;
+
+ALTER TABLE reservations RENAME TO reservations_v3;
+ALTER TABLE reservations_v3 RENAME CONSTRAINT pk_reservations TO pk_reservations_v3;
+DROP INDEX idx_reservations_voiture_actives;
+DROP INDEX idx_reservations_user_statut;
+DROP INDEX idx_reservations_voiture;
+
+CREATE TABLE reservations (
+    id           BIGINT         NOT NULL,
+    voiture_id   BIGINT         NOT NULL,
+    user_id      BIGINT         NOT NULL,
+    date_debut   DATE           NOT NULL,
+    date_fin     DATE           NOT NULL,
+    statut       VARCHAR(255)   NOT NULL CHECK (statut IN ('EN_ATTENTE', 'CONFIRMEE', 'EN_COURS', 'TERMINEE', 'ANNULEE', 'REFUSEE')),
+    montant      NUMERIC(10, 2) NOT NULL,
+    commentaires TEXT,
+    lieu_prise   VARCHAR(255),
+    lieu_retour  VARCHAR(255),
+    version      BIGINT         NOT NULL DEFAULT 0,
+    created_at   TIMESTAMP(6),
+    updated_at   TIMESTAMP(6),
+    archivee     BOOLEAN        NOT NULL DEFAULT FALSE,
+    CONSTRAINT pk_reservations PRIMARY KEY (id, archivee, date_fin),
+    CONSTRAINT fk_reservations_voiture FOREIGN KEY (voiture_id) REFERENCES voitures (id),
+    CONSTRAINT fk_reservations_user FOREIGN KEY (user_id) REFERENCES users (id),
+    -- Seules les réservations closes partent en archive
+    CONSTRAINT ck_reservations_archivee CHECK (NOT archivee OR statut IN ('TERMINEE', 'ANNULEE'))
+) PARTITION BY LIST (archivee);
+
+CREATE TABLE reservations_courantes PARTITION OF reservations FOR VALUES IN (FALSE);
+
+CREATE TABLE reservations_archives PARTITION OF reservations FOR VALUES IN (TRUE)
+    PARTITION BY RANGE (date_fin);
+
+-- Filet pour une année dont la partition n'existerait pas encore ; l'archivage crée la partition
+-- d'une année avant d'y déplacer des lignes, cette partition reste donc normalement vide
+CREATE TABLE reservations_archives_defaut PARTITION OF reservations_archives DEFAULT;
+
+INSERT INTO reservations (id, voiture_id, user_id, date_debut, date_fin, statut, montant, commentaires,
+                          lieu_prise, lieu_retour, version, created_at, updated_at)
+SELECT id, voiture_id, user_id, date_debut, date_fin, statut, montant, commentaires,
+       lieu_prise, lieu_retour, version, created_at, updated_at
+FROM reservations_v3;
+
+DROP TABLE reservations_v3;
+
+-- Index de V2, créés sur chaque partition
+CREATE INDEX idx_reservations_voiture_actives ON reservations (voiture_id, date_debut, date_fin)
+    WHERE statut IN ('CONFIRMEE', 'EN_COURS');
+CREATE INDEX idx_reservations_user_statut ON reservations (user_id, statut);
+CREATE INDEX idx_reservations_voiture ON reservations (voiture_id);
+
+-- ArchivageReservationService : les réservations closes à archiver, des plus anciennes aux plus récentes
+CREATE INDEX idx_reservations_courantes_a_archiver ON reservations_courantes (date_fin)
+    WHERE statut IN ('TERMINEE', 'ANNULEE');
+
+-- Partition d'archive d'une année, créée si besoin. Renvoie TRUE si elle vient d'être créée.
+CREATE FUNCTION creer_partition_archive_reservations(annee INTEGER) RETURNS BOOLEAN AS $$
+DECLARE
+    nom_partition TEXT := 'reservations_archives_' || annee;
+BEGIN
+    IF to_regclass(nom_partition) IS NOT NULL THEN
+        RETURN FALSE;
+    END IF;
+    EXECUTE format('CREATE TABLE %I PARTITION OF reservations_archives FOR VALUES FROM (%L) TO (%L)',
+                   nom_partition, make_date(annee, 1, 1), make_date(annee + 1, 1, 1));
+    RETURN TRUE;
+END $$ LANGUAGE plpgsql;
+
+-- Clé étrangère paiements.reservation_id, par déclencheurs. Le verrou FOR KEY SHARE est celui que
+-- prendrait une vraie clé étrangère : la réservation ne peut pas disparaître avant la fin de la transaction.
+CREATE FUNCTION verifier_reservation_paiement() RETURNS TRIGGER AS $$
+BEGIN
+    PERFORM 1 FROM reservations WHERE id = NEW.reservation_id FOR KEY SHARE;
+    IF NOT FOUND THEN
+        RAISE foreign_key_violation USING
+            MESSAGE = format('Réservation %s inexistante pour le paiement %s', NEW.reservation_id, NEW.id),
+            CONSTRAINT = 'fk_paiements_reservation';
+    END IF;
+    RETURN NEW;
+END $$ LANGUAGE plpgsql;
+
+CREATE TRIGGER fk_paiements_reservation
+    BEFORE INSERT OR UPDATE OF reservation_id ON paiements
+    FOR EACH ROW EXECUTE FUNCTION verifier_reservation_paiement();
+
+-- Un déplacement entre partitions (archivage) se présente comme une suppression suivie d'une
+-- insertion : la réservation n'est refusée que si elle a réellement disparu en fin d'instruction.
+CREATE FUNCTION verifier_suppression_reservation() RETURNS TRIGGER AS $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM paiements WHERE reservation_id = OLD.id)
+            AND NOT EXISTS (SELECT 1 FROM reservations WHERE id = OLD.id) THEN
+        RAISE foreign_key_violation USING
+            MESSAGE = format('La réservation %s est encore référencée par un paiement', OLD.id),
+            CONSTRAINT = 'fk_paiements_reservation';
+    END IF;
+    RETURN NULL;
+END $$ LANGUAGE plpgsql;
+
+CREATE TRIGGER fk_paiements_reservation_suppression
+    AFTER DELETE ON reservations
+    FOR EACH ROW EXECUTE FUNCTION verifier_suppression_reservation();
@@ -0,0 +1,16 @@
+-- Suppression logique des voitures. Une voiture supprimée garde sa ligne (deleted_at renseigné) tant
+-- que des réservations, même archivées, y font référence : l'historique reste lisible et les clés
+-- étrangères de reservations et favorites ne bloquent plus la suppression. PurgeVoituresService
+-- supprime ensuite pour de bon les voitures que plus aucune réservation ne référence.
+ALTER TABLE voitures ADD COLUMN deleted_at TIMESTAMP(6);
+
+-- Catalogue (findByDisponibleTrue, findAvailableVoituresWithFilters) : voitures ni indisponibles ni supprimées
+DROP INDEX idx_voitures_disponibles_prix;
+CREATE INDEX idx_voitures_disponibles_prix ON voitures (prix_par_jour) WHERE disponible AND deleted_at IS NULL;
+
+-- Voitures d'une société (findBySocieteUser, countBySocieteId) sans les voitures supprimées ;
+-- idx_voitures_societe reste pour la clé étrangère vers societes
+CREATE INDEX idx_voitures_societe_actives ON voitures (societe_id) WHERE deleted_at IS NULL;
+
+-- PurgeVoituresService : voitures supprimées, des plus anciennes aux plus récentes
+CREATE INDEX idx_voitures_supprimees ON voitures (deleted_at) WHERE deleted_at IS NOT NULL;
@@ -0,0 +1,9 @@
+-- Webhooks traités un par transaction : un événement en erreur est reporté, puis mis EN_ECHEC au-delà
+-- de locme.payments.webhook.max-attempts au lieu de bloquer le reste du lot
+ALTER TABLE webhook_events DROP CONSTRAINT webhook_events_statut_check;
+ALTER TABLE webhook_events ADD CONSTRAINT webhook_events_statut_check
+    CHECK (statut IN ('A_TRAITER', 'TRAITE', 'IGNORE', 'EN_ECHEC'));
+
+-- Premier événement à traiter d'une intention (WebhookService.attendUnEvenementAnterieur)
+CREATE INDEX idx_webhook_events_intention_a_traiter ON webhook_events (payment_intent_id, cree_le, id)
+    WHERE statut = 'A_TRAITER';
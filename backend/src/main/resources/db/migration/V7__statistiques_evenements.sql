@@ -0,0 +1,9 @@
+-- Événements outbox déjà comptés par StatistiqueService, qui valide ses agrégats dans sa propre
+-- transaction : un événement republié après l'annulation du lot du relais n'est pas compté deux fois
+CREATE TABLE statistiques_evenements (
+    evenement_id BIGINT       NOT NULL,
+    traite_le    TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_statistiques_evenements PRIMARY KEY (evenement_id)
+);
+
+CREATE INDEX idx_statistiques_evenements_traite_le ON statistiques_evenements (traite_le);
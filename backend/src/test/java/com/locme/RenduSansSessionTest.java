@@ -0,0 +1,210 @@
+package com.locme;
+
+import com.locme.auth.Role;
+import com.locme.auth.User;
+import com.locme.auth.UserRepository;
+import com.locme.paiement.Paiement;
+import com.locme.paiement.PaiementRepository;
+import com.locme.reservation.Reservation;
+import com.locme.reservation.ReservationRepository;
+import com.locme.societe.Societe;
+import com.locme.societe.SocieteRepository;
+import com.locme.voiture.Voiture;
+import com.locme.voiture.VoitureRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Sans open-session-in-view, tout ce que la réponse sérialise doit être chargé dans la transaction
+ * du service. Au moment d'écrire le corps, aucune session ni connexion ne doit plus être tenue, et
+ * le rendu ne doit déclencher aucune requête (un chargement paresseux échouerait ou en lancerait).
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:rendu;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.sql.init.mode=never",
+        "spring.flyway.enabled=false",
+        "locme.payments.gateway=fake",
+        "locme.scheduling.enabled=false"
+})
+@AutoConfigureMockMvc
+@Import(RenduSansSessionTest.SondeRendu.class)
+class RenduSansSessionTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private SondeRendu sonde;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SocieteRepository societeRepository;
+
+    @Autowired
+    private VoitureRepository voitureRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private PaiementRepository paiementRepository;
+
+    private User client;
+    private User societeUser;
+    private User admin;
+    private Voiture voiture;
+    private Reservation reservation;
+    private Paiement paiement;
+
+    @BeforeEach
+    void setUp() {
+        paiementRepository.deleteAll();
+        reservationRepository.deleteAll();
+        voitureRepository.deleteAll();
+        societeRepository.deleteAll();
+        userRepository.deleteAll();
+
+        client = userRepository.save(new User("Client", "client@locme.com", "x", Role.CLIENT));
+        societeUser = userRepository.save(new User("Société", "societe@locme.com", "x", Role.SOCIETE));
+        admin = userRepository.save(new User("Admin", "admin@locme.com", "x", Role.ADMIN));
+        Societe societe = societeRepository.save(new Societe("Société", "Adresse", "societe@locme.com", societeUser));
+        voiture = voitureRepository.save(new Voiture("Renault", "Clio", new BigDecimal("45.00"), societe));
+        voitureRepository.save(new Voiture("Peugeot", "208", new BigDecimal("50.00"), societe));
+        reservation = reservationRepository.save(new Reservation(voiture, client,
+                LocalDate.now().plusDays(3), LocalDate.now().plusDays(5), new BigDecimal("135.00")));
+        paiement = paiementRepository.save(new Paiement(reservation, new BigDecimal("135.00")));
+    }
+
+    @Test
+    @DisplayName("Catalogue : rendu sans session, sans connexion et sans requête")
+    void testCatalogue() throws Exception {
+        verifierRendu(get("/api/voitures"));
+        verifierRendu(get("/api/voitures/disponibles"));
+        verifierRendu(get("/api/voitures/disponibles")
+                .param("dateDebut", LocalDate.now().plusDays(10).toString())
+                .param("dateFin", LocalDate.now().plusDays(12).toString()));
+        verifierRendu(get("/api/voitures/disponibles").param("marque", "Renault"));
+        verifierRendu(get("/api/voitures/trending"));
+        verifierRendu(get("/api/voitures/" + voiture.getId()));
+    }
+
+    @Test
+    @DisplayName("Espace client : réservations et paiement rendus sans session")
+    void testEspaceClient() throws Exception {
+        verifierRendu(get("/api/reservations/my-reservations").with(user(client)));
+        verifierRendu(get("/api/reservations/" + reservation.getId()).with(user(client)));
+        verifierRendu(get("/api/payments/" + paiement.getId()).with(user(client)));
+        verifierRendu(get("/api/favorites/user/" + client.getId()).with(user(client)));
+    }
+
+    @Test
+    @DisplayName("Espaces société et admin : listes rendues sans session")
+    void testEspacesSocieteEtAdmin() throws Exception {
+        verifierRendu(get("/api/voitures/societe/" + societeUser.getId()).with(user(societeUser)));
+        verifierRendu(get("/api/reservations/societe/" + societeUser.getId()).with(user(societeUser)));
+        verifierRendu(get("/api/reservations").with(user(admin)));
+        verifierRendu(get("/api/payments/" + paiement.getId() + "/refunds").with(user(admin)));
+    }
+
+    private void verifierRendu(MockHttpServletRequestBuilder requete) throws Exception {
+        sonde.reinitialiser();
+
+        mockMvc.perform(requete).andExpect(status().isOk());
+
+        assertTrue(sonde.appelee, "Le corps de la réponse n'est pas passé par la sonde");
+        assertFalse(sonde.sessionOuverte, "Session JPA encore ouverte pendant le rendu");
+        assertFalse(sonde.transactionActive, "Transaction encore active pendant le rendu");
+        assertEquals(0, sonde.connexionsActives, "Connexion encore empruntée pendant le rendu");
+        assertEquals(sonde.requetesAvantRendu, sonde.statistiques().getPrepareStatementCount(),
+                "Requête exécutée pendant le rendu (chargement paresseux)");
+    }
+
+    /**
+     * Relève l'état de la persistance juste avant la sérialisation du corps.
+     */
+    @ControllerAdvice
+    static class SondeRendu implements ResponseBodyAdvice<Object> {
+
+        @Autowired
+        private EntityManagerFactory entityManagerFactory;
+
+        @Autowired
+        private DataSource dataSource;
+
+        private volatile boolean appelee;
+        private volatile boolean sessionOuverte;
+        private volatile boolean transactionActive;
+        private volatile int connexionsActives;
+        private volatile long requetesAvantRendu;
+
+        void reinitialiser() {
+            appelee = false;
+            sessionOuverte = true;
+            transactionActive = true;
+            connexionsActives = -1;
+            requetesAvantRendu = -1;
+        }
+
+        Statistics statistiques() {
+            return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        }
+
+        @Override
+        public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+            return true;
+        }
+
+        @Override
+        public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                      Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                      ServerHttpRequest request, ServerHttpResponse response) {
+            appelee = true;
+            sessionOuverte = TransactionSynchronizationManager.hasResource(entityManagerFactory);
+            transactionActive = TransactionSynchronizationManager.isActualTransactionActive();
+            try {
+                connexionsActives = dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean().getActiveConnections();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+            requetesAvantRendu = statistiques().getPrepareStatementCount();
+            return body;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.locme.common.csv;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EcrivainCsvTest {
+
+    @Test
+    @DisplayName("Les champs contenant séparateur, guillemets ou sauts de ligne sont relus à l'identique")
+    void testEchappement() throws IOException {
+        StringWriter sortie = new StringWriter();
+        EcrivainCsv ecrivain = new EcrivainCsv(sortie, ',');
+
+        ecrivain.ecrire("Familiale, \"308\"\nspacieuse", null, new BigDecimal("1E+2"), LocalDate.of(2025, 3, 1));
+        ecrivain.flush();
+
+        assertEquals("\"Familiale, \"\"308\"\"\nspacieuse\",,100,2025-03-01\r\n", sortie.toString());
+        assertEquals(Arrays.asList("Familiale, \"308\"\nspacieuse", "", "100", "2025-03-01"),
+                new LecteurCsv(new StringReader(sortie.toString()), ',').lire());
+    }
+
+    @Test
+    @DisplayName("Un texte commençant comme une formule est neutralisé, pas un nombre négatif")
+    void testInjectionFormule() throws IOException {
+        StringWriter sortie = new StringWriter();
+        EcrivainCsv ecrivain = new EcrivainCsv(sortie, ';');
+
+        ecrivain.ecrire("=HYPERLINK(\"x\")", "@SUM(A1)", new BigDecimal("-12.50"));
+        ecrivain.flush();
+
+        assertEquals("\"'=HYPERLINK(\"\"x\"\")\";'@SUM(A1);-12.50\r\n", sortie.toString());
+    }
+
+    @Test
+    @DisplayName("Le téléchargement est en UTF-8 précédé de la marque d'ordre des octets")
+    void testTelechargement() throws IOException {
+        ByteArrayOutputStream sortie = new ByteArrayOutputStream();
+        EcrivainCsv ecrivain = EcrivainCsv.pourTelechargement(sortie);
+
+        ecrivain.ecrire("Société", "Modèle");
+        ecrivain.flush();
+
+        assertEquals("\uFEFFSociété,Modèle\r\n", sortie.toString(StandardCharsets.UTF_8));
+    }
+}
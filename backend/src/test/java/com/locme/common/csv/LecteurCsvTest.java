@@ -0,0 +1,58 @@
+package com.locme.common.csv;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LecteurCsvTest {
+
+    @Test
+    @DisplayName("Les champs entre guillemets gardent séparateurs, guillemets doublés et sauts de ligne")
+    void testChampsEntreGuillemets() throws IOException {
+        LecteurCsv lecteur = new LecteurCsv(new StringReader(
+                "marque,description\r\nPeugeot,\"Familiale, \"\"308\"\"\nspacieuse\"\r\nFiat,\n"), ',');
+
+        assertEquals(Arrays.asList("marque", "description"), lecteur.lire());
+        assertEquals(Arrays.asList("Peugeot", "Familiale, \"308\"\nspacieuse"), lecteur.lire());
+        assertEquals(2, lecteur.getLigne());
+        assertEquals(Arrays.asList("Fiat", ""), lecteur.lire());
+        assertEquals(4, lecteur.getLigne());
+        assertNull(lecteur.lire());
+    }
+
+    @Test
+    @DisplayName("Les lignes vides et la marque d'ordre des octets sont ignorées")
+    void testLignesVidesEtBom() throws IOException {
+        LecteurCsv lecteur = new LecteurCsv(new StringReader("\uFEFFa;b\n\n\nc;d"), ';');
+
+        assertEquals(List.of("a", "b"), lecteur.lire());
+        assertEquals(List.of("c", "d"), lecteur.lire());
+        assertEquals(4, lecteur.getLigne());
+        assertNull(lecteur.lire());
+    }
+
+    @Test
+    @DisplayName("Un guillemet non fermé est signalé avec la ligne de l'enregistrement")
+    void testGuillemetNonFerme() throws IOException {
+        LecteurCsv lecteur = new LecteurCsv(new StringReader("a,b\n\"ouvert,c\nsuite"), ',');
+        lecteur.lire();
+
+        FormatCsvException exception = assertThrows(FormatCsvException.class, lecteur::lire);
+
+        assertEquals(2, exception.getLigne());
+    }
+
+    @Test
+    @DisplayName("Un champ trop long interrompt la lecture sans tout garder en mémoire")
+    void testChampTropLong() {
+        LecteurCsv lecteur = new LecteurCsv(new StringReader("x".repeat(LecteurCsv.LONGUEUR_MAX_CHAMP + 1)), ',');
+
+        assertThrows(FormatCsvException.class, lecteur::lire);
+    }
+}
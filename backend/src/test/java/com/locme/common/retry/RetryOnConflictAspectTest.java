@@ -0,0 +1,111 @@
+package com.locme.common.retry;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetryOnConflictAspectTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ServiceConcurrent cible;
+    private ServiceConcurrent proxy;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        RetryOnConflictAspect aspect = new RetryOnConflictAspect();
+        ReflectionTestUtils.setField(aspect, "meterRegistry", meterRegistry);
+
+        cible = new ServiceConcurrent();
+        AspectJProxyFactory factory = new AspectJProxyFactory(cible);
+        factory.addAspect(aspect);
+        proxy = factory.getProxy();
+    }
+
+    @Test
+    @DisplayName("Un conflit transitoire est rejoué jusqu'au succès")
+    void testConflitResolu() {
+        cible.echecsRestants = 2;
+
+        assertEquals("ok", proxy.modifier());
+        assertEquals(3, cible.appels);
+        assertEquals(2.0, compteur("reprise"));
+        assertEquals(1.0, compteur("resolu"));
+        assertEquals(0.0, compteur("epuise"));
+    }
+
+    @Test
+    @DisplayName("Le conflit est propagé une fois les tentatives épuisées")
+    void testConflitPersistant() {
+        cible.echecsRestants = 10;
+
+        assertThrows(OptimisticLockingFailureException.class, () -> proxy.modifier());
+        assertEquals(3, cible.appels);
+        assertEquals(1.0, compteur("epuise"));
+    }
+
+    @Test
+    @DisplayName("Les autres exceptions ne sont pas rejouées")
+    void testAutreExceptionNonRejouee() {
+        assertThrows(IllegalStateException.class, () -> proxy.echouer());
+        assertEquals(1, cible.appels);
+    }
+
+    @Test
+    @DisplayName("Pas de reprise dans une transaction englobante")
+    void testPasDeRepriseDansUneTransaction() {
+        cible.echecsRestants = 1;
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            assertThrows(OptimisticLockingFailureException.class, () -> proxy.modifier());
+            assertEquals(1, cible.appels);
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+    }
+
+    @Test
+    @DisplayName("Le délai de reprise reste borné")
+    void testDelaiBorne() throws NoSuchMethodException {
+        RetryOnConflict config = ServiceConcurrent.class.getMethod("modifier").getAnnotation(RetryOnConflict.class);
+        for (int tentative = 1; tentative < 40; tentative++) {
+            long delai = RetryOnConflictAspect.delai(config, tentative);
+            assertTrue(delai >= 0 && delai <= config.maxBackoffMs());
+        }
+    }
+
+    private double compteur(String issue) {
+        var counter = meterRegistry.find(RetryOnConflictAspect.METRIQUE)
+                .tag("methode", "ServiceConcurrent.modifier")
+                .tag("issue", issue)
+                .counter();
+        return counter == null ? 0.0 : counter.count();
+    }
+
+    static class ServiceConcurrent {
+        int echecsRestants;
+        int appels;
+
+        @RetryOnConflict(backoffMs = 1, maxBackoffMs = 5)
+        public String modifier() {
+            appels++;
+            if (echecsRestants-- > 0) {
+                throw new OptimisticLockingFailureException("version périmée");
+            }
+            return "ok";
+        }
+
+        @RetryOnConflict
+        public void echouer() {
+            appels++;
+            throw new IllegalStateException("erreur métier");
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.locme.config;
+
+import com.locme.auth.Role;
+import com.locme.auth.User;
+import com.locme.auth.UserRepository;
+import com.locme.societe.Societe;
+import com.locme.societe.SocieteRepository;
+import com.locme.voiture.Voiture;
+import com.locme.voiture.VoitureRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.cache.CacheManager;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Cache de second niveau contre H2, hors transaction de test : chaque appel de dépôt valide sa
+ * propre transaction, comme en production, et seules les données validées entrent en cache. Le cache,
+ * désactivé par défaut, est activé comme sur un déploiement à instance unique.
+ */
+@DataJpaTest(properties = {
+        "spring.sql.init.mode=never",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=true",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CacheSecondNiveauTest {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SocieteRepository societeRepository;
+
+    @Autowired
+    private VoitureRepository voitureRepository;
+
+    private Statistics statistiques;
+    private User societeUser;
+    private Voiture voiture;
+
+    @BeforeEach
+    void setUp() {
+        statistiques = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getStatistics();
+        societeUser = userRepository.save(new User("Société", "societe@locme.com", "x", Role.SOCIETE));
+        Societe societe = societeRepository.save(new Societe("Société", "Adresse", "societe@locme.com", societeUser));
+        voiture = voitureRepository.save(new Voiture("Renault", "Clio", new BigDecimal("45.00"), societe));
+        statistiques.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        voitureRepository.deleteAll();
+        societeRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Chaque contexte a son propre CacheManager, avec les régions d'ehcache.xml")
+    void testCacheManagerIsole() {
+        CacheManager cacheManager = ((JCacheRegionFactoryIsolee) entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getCache().getRegionFactory()).getCacheManager();
+
+        assertTrue(cacheManager.getURI().toString().startsWith("urn:locme:cache:"));
+        assertNull(cacheManager.getCache("users"));
+        assertNotNull(cacheManager.getCache("societes"));
+        assertNotNull(cacheManager.getCache("voitures"));
+    }
+
+    @Test
+    @DisplayName("Une voiture et sa société relues dans une nouvelle session viennent du cache, sans SQL")
+    void testLectureDepuisLeCache() {
+        String nomSociete = transactionTemplate.execute(statut ->
+                voitureRepository.findById(voiture.getId()).orElseThrow().getSociete().getNom());
+
+        assertEquals("Société", nomSociete);
+        assertEquals(0, statistiques.getPrepareStatementCount());
+        assertEquals(1, statistiques.getDomainDataRegionStatistics("voitures").getHitCount());
+        assertEquals(1, statistiques.getDomainDataRegionStatistics("societes").getHitCount());
+    }
+
+    @Test
+    @DisplayName("Une modification validée remplace l'entrée en cache")
+    void testModificationRemplaceLEntree() {
+        Voiture modifiee = voitureRepository.findById(voiture.getId()).orElseThrow();
+        modifiee.setPrixParJour(new BigDecimal("60.00"));
+        voitureRepository.save(modifiee);
+        statistiques.clear();
+
+        Voiture relue = voitureRepository.findById(voiture.getId()).orElseThrow();
+
+        assertEquals(0, new BigDecimal("60.00").compareTo(relue.getPrixParJour()));
+        assertEquals(0, statistiques.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("Une suppression logique remplace l'entrée en cache : la voiture supprimée n'est plus servie")
+    void testSuppressionLogiqueRemplaceLEntree() {
+        voitureRepository.findById(voiture.getId());
+        transactionTemplate.executeWithoutResult(statut ->
+                voitureRepository.findByIdAndSocieteUserId(voiture.getId(), societeUser.getId()).orElseThrow()
+                        .setDeletedAt(LocalDateTime.now()));
+        statistiques.clear();
+
+        assertTrue(voitureRepository.findById(voiture.getId()).isEmpty());
+        assertFalse(voitureRepository.existsById(voiture.getId()));
+        // Servie par la région, deleted_at compris, sans SQL
+        assertEquals(0, statistiques.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("Le catalogue en cache est périmé par la suppression logique d'une voiture")
+    void testSuppressionLogiquePerimeLeCatalogue() {
+        assertEquals(1, voitureRepository.findByDisponibleTrue().size());
+        transactionTemplate.executeWithoutResult(statut ->
+                voitureRepository.findByIdAndSocieteUserId(voiture.getId(), societeUser.getId()).orElseThrow()
+                        .setDeletedAt(LocalDateTime.now()));
+        statistiques.clear();
+
+        assertTrue(voitureRepository.findByDisponibleTrue().isEmpty());
+        assertEquals(0, statistiques.getQueryCacheHitCount());
+    }
+
+    @Test
+    @DisplayName("Les utilisateurs ne sont pas en cache : findByEmail et findById relisent la base")
+    void testUtilisateursHorsCache() {
+        userRepository.findByEmail("societe@locme.com");
+        userRepository.findById(societeUser.getId());
+        statistiques.clear();
+
+        assertTrue(userRepository.findByEmail("societe@locme.com").isPresent());
+        assertTrue(userRepository.findById(societeUser.getId()).isPresent());
+        assertEquals(2, statistiques.getPrepareStatementCount());
+        assertEquals(0, statistiques.getQueryCacheHitCount());
+        assertEquals(0, statistiques.getSecondLevelCacheHitCount());
+    }
+
+    @Test
+    @DisplayName("findByUser est servi par le cache de requêtes, périmé par une écriture sur societes")
+    void testCacheDeRequetes() {
+        societeRepository.findByUser(societeUser);
+        statistiques.clear();
+
+        assertTrue(societeRepository.findByUser(societeUser).isPresent());
+        assertEquals(0, statistiques.getPrepareStatementCount());
+        assertEquals(1, statistiques.getQueryCacheHitCount());
+
+        User autre = userRepository.save(new User("Autre", "autre@locme.com", "x", Role.SOCIETE));
+        societeRepository.save(new Societe("Autre", "Adresse", "autre@locme.com", autre));
+        statistiques.clear();
+
+        assertTrue(societeRepository.findByUser(societeUser).isPresent());
+        assertEquals(0, statistiques.getQueryCacheHitCount());
+    }
+}
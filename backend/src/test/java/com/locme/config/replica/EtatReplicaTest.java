@@ -0,0 +1,78 @@
+package com.locme.config.replica;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EtatReplicaTest {
+
+    @Mock
+    private DataSource replica;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private Statement statement;
+
+    @Mock
+    private ResultSet resultSet;
+
+    private EtatReplica etatReplica;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        etatReplica = new EtatReplica(replica);
+        lenient().when(replica.getConnection()).thenReturn(connection);
+        lenient().when(connection.createStatement()).thenReturn(statement);
+        lenient().when(statement.executeQuery(EtatReplica.REQUETE_RETARD)).thenReturn(resultSet);
+    }
+
+    @Test
+    @DisplayName("La réplique est disponible sous le retard toléré et écartée au-delà")
+    void testRetard() throws SQLException {
+        when(resultSet.getDouble(1)).thenReturn(1500.4, 2500.0, 80.0);
+
+        etatReplica.verifier();
+        assertTrue(etatReplica.isDisponible());
+        assertEquals(1500L, etatReplica.getRetardMs());
+
+        etatReplica.verifier();
+        assertFalse(etatReplica.isDisponible());
+
+        etatReplica.verifier();
+        assertTrue(etatReplica.isDisponible());
+    }
+
+    @Test
+    @DisplayName("Un retard inconnu ou une erreur de connexion écarte la réplique")
+    void testRetardInconnuEtErreur() throws SQLException {
+        when(resultSet.getDouble(1)).thenReturn(0.0);
+        when(resultSet.wasNull()).thenReturn(true);
+
+        etatReplica.verifier();
+        assertFalse(etatReplica.isDisponible());
+        assertNull(etatReplica.getRetardMs());
+
+        when(resultSet.wasNull()).thenReturn(false);
+        etatReplica.verifier();
+        assertTrue(etatReplica.isDisponible());
+
+        when(replica.getConnection()).thenThrow(new SQLException("Connection refused"));
+        etatReplica.verifier();
+        assertFalse(etatReplica.isDisponible());
+    }
+}
@@ -0,0 +1,127 @@
+package com.locme.config.replica;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RoutageDataSourceTest {
+
+    @Mock
+    private DataSource primaire;
+
+    @Mock
+    private DataSource replica;
+
+    @Mock
+    private Connection connexionPrimaire;
+
+    @Mock
+    private Connection connexionReplica;
+
+    private EtatReplica etatReplica;
+    private EcrituresRecentes ecrituresRecentes;
+    private RoutageDataSource routage;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        etatReplica = new EtatReplica(replica);
+        ecrituresRecentes = new EcrituresRecentes();
+        routage = new RoutageDataSource(primaire, replica, etatReplica, ecrituresRecentes);
+        lenient().when(primaire.getConnection()).thenReturn(connexionPrimaire);
+        lenient().when(replica.getConnection()).thenReturn(connexionReplica);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clear();
+        SecurityContextHolder.clearContext();
+    }
+
+    private void repliqueAJour() throws SQLException {
+        Statement statement = mock(Statement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+        when(connexionReplica.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(anyString())).thenReturn(resultSet);
+        when(resultSet.getDouble(1)).thenReturn(120.0);
+        etatReplica.verifier();
+        assertTrue(etatReplica.isDisponible());
+    }
+
+    private void authentifier(String email) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(email, null, List.of()));
+    }
+
+    @Test
+    @DisplayName("Les transactions en lecture seule vont sur la réplique, les autres sur la principale")
+    void testRoutageSelonLectureSeule() throws SQLException {
+        repliqueAJour();
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertSame(connexionReplica, routage.getConnection());
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        assertSame(connexionPrimaire, routage.getConnection());
+    }
+
+    @Test
+    @DisplayName("Tant que la réplique n'a pas été mesurée, tout va sur la principale")
+    void testRepliqueNonVerifiee() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertSame(connexionPrimaire, routage.getConnection());
+        verify(replica, never()).getConnection();
+    }
+
+    @Test
+    @DisplayName("Une réplique injoignable est écartée et la lecture se fait sur la principale")
+    void testRepliqueInjoignable() throws SQLException {
+        repliqueAJour();
+        when(replica.getConnection()).thenThrow(new SQLException("Connection refused"));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertSame(connexionPrimaire, routage.getConnection());
+        assertFalse(etatReplica.isDisponible());
+    }
+
+    @Test
+    @DisplayName("Après une écriture validée, l'utilisateur lit la principale, pas les autres")
+    void testLectureDeSesEcritures() throws SQLException {
+        repliqueAJour();
+        authentifier("client@locme.com");
+        routage.getConnection();
+        List<TransactionSynchronization> synchronisations = TransactionSynchronizationManager.getSynchronizations();
+        assertEquals(1, synchronisations.size());
+
+        // Rien n'est retenu tant que la transaction n'est pas validée
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertSame(connexionReplica, routage.getConnection());
+
+        synchronisations.forEach(TransactionSynchronization::afterCommit);
+        assertSame(connexionPrimaire, routage.getConnection());
+
+        authentifier("autre@locme.com");
+        assertSame(connexionReplica, routage.getConnection());
+    }
+}
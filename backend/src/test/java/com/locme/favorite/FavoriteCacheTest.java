@@ -0,0 +1,121 @@
+package com.locme.favorite;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FavoriteCacheTest {
+
+    @Mock
+    private FavoriteRepository favoriteRepository;
+
+    @InjectMocks
+    private FavoriteCache favoriteCache;
+
+    @Test
+    @DisplayName("Les favoris d'un utilisateur ne sont chargés qu'une fois")
+    void testChargementUnique() {
+        when(favoriteRepository.findVoitureIdsByUserId(1L)).thenReturn(Arrays.asList(4L, 2L));
+
+        assertTrue(favoriteCache.contient(1L, 2L));
+        assertTrue(favoriteCache.contient(1L, 4L));
+        assertFalse(favoriteCache.contient(1L, 3L));
+
+        verify(favoriteRepository, times(1)).findVoitureIdsByUserId(1L);
+    }
+
+    @Test
+    @DisplayName("Vérification groupée dans l'ordre demandé")
+    void testVerificationGroupee() {
+        when(favoriteRepository.findVoitureIdsByUserId(1L)).thenReturn(Collections.singletonList(2L));
+
+        Map<Long, Boolean> resultat = favoriteCache.contient(1L, Arrays.asList(3L, 2L, 1L));
+
+        assertEquals(Arrays.asList(3L, 2L, 1L), List.copyOf(resultat.keySet()));
+        assertEquals(Arrays.asList(false, true, false), List.copyOf(resultat.values()));
+    }
+
+    @Test
+    @DisplayName("Les bascules validées sont reportées sur l'ensemble chargé, sans accès à la base")
+    void testReportDesBascules() {
+        when(favoriteRepository.findVoitureIdsByUserId(1L)).thenReturn(Collections.singletonList(2L));
+        assertFalse(favoriteCache.contient(1L, 5L));
+
+        favoriteCache.ajouter(1L, 5L);
+        favoriteCache.retirer(1L, 2L);
+
+        assertTrue(favoriteCache.contient(1L, 5L));
+        assertFalse(favoriteCache.contient(1L, 2L));
+        verify(favoriteRepository, times(1)).findVoitureIdsByUserId(1L);
+    }
+
+    @Test
+    @DisplayName("Une bascule sur un utilisateur non chargé ne crée pas d'ensemble")
+    void testBasculeSansEnsemble() {
+        when(favoriteRepository.findVoitureIdsByUserId(1L)).thenReturn(Collections.singletonList(5L));
+
+        favoriteCache.ajouter(1L, 5L);
+        verifyNoInteractions(favoriteRepository);
+
+        assertTrue(favoriteCache.contient(1L, 5L));
+        verify(favoriteRepository).findVoitureIdsByUserId(1L);
+    }
+
+    @Test
+    @DisplayName("Un chargement chevauché par une bascule est relu avant d'être conservé")
+    void testChargementChevauche() {
+        // La bascule est validée en base pendant la première lecture, qui ne la voit pas
+        when(favoriteRepository.findVoitureIdsByUserId(1L))
+                .thenAnswer(invocation -> {
+                    favoriteCache.ajouter(1L, 5L);
+                    return Collections.emptyList();
+                })
+                .thenReturn(Collections.singletonList(5L));
+
+        assertTrue(favoriteCache.contient(1L, 5L));
+        assertTrue(favoriteCache.contient(1L, 5L));
+        verify(favoriteRepository, times(2)).findVoitureIdsByUserId(1L);
+    }
+
+    @Test
+    @DisplayName("Un ensemble expiré est rechargé depuis la base")
+    void testExpiration() {
+        ReflectionTestUtils.setField(favoriteCache, "ttlMinutes", -1L);
+        when(favoriteRepository.findVoitureIdsByUserId(1L))
+                .thenReturn(Collections.singletonList(2L))
+                .thenReturn(Collections.emptyList());
+
+        assertTrue(favoriteCache.contient(1L, 2L));
+        assertFalse(favoriteCache.contient(1L, 2L));
+        verify(favoriteRepository, times(2)).findVoitureIdsByUserId(1L);
+    }
+
+    @Test
+    @DisplayName("Une voiture supprimée est retirée de tous les ensembles chargés")
+    void testRetraitVoitureSupprimee() {
+        when(favoriteRepository.findVoitureIdsByUserId(1L)).thenReturn(Arrays.asList(2L, 5L));
+        when(favoriteRepository.findVoitureIdsByUserId(2L)).thenReturn(Collections.singletonList(5L));
+        favoriteCache.contient(1L, 5L);
+        favoriteCache.contient(2L, 5L);
+
+        favoriteCache.retirerVoiture(5L);
+
+        assertEquals(Map.of(2L, true, 5L, false), favoriteCache.contient(1L, Arrays.asList(2L, 5L)));
+        assertFalse(favoriteCache.contient(2L, 5L));
+        verify(favoriteRepository, times(1)).findVoitureIdsByUserId(1L);
+        verify(favoriteRepository, times(1)).findVoitureIdsByUserId(2L);
+    }
+}
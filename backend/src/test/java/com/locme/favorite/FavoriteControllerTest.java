@@ -8,6 +8,8 @@ import com.locme.auth.Role;
 import com.locme.common.ApiResponse;
 import com.locme.common.exceptions.ResourceNotFoundException;
 import com.locme.config.TestSecurityConfig;
+import com.locme.favorite.dto.FavoriteDto;
+import com.locme.favorite.dto.FavoritePageDto;
 import com.locme.societe.Societe;
 import com.locme.voiture.Voiture;
 import org.junit.jupiter.api.BeforeEach;
@@ -25,7 +27,8 @@ import org.springframework.test.web.servlet.MockMvc;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Arrays;
-import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
@@ -92,7 +95,7 @@ class FavoriteControllerTest {
     void testToggleFavoriteAdd() throws Exception {
         // Given
         when(authService.getCurrentUser()).thenReturn(testUser);
-        when(favoriteService.toggleFavorite(1L, testUser)).thenReturn(testFavorite);
+        when(favoriteService.toggleFavorite(1L, testUser)).thenReturn(new FavoriteDto(testFavorite));
 
         // When & Then
         mockMvc.perform(post("/api/favorites/toggle/1"))
@@ -145,16 +148,18 @@ class FavoriteControllerTest {
     @WithMockUser(username = "client@example.com", roles = {"CLIENT"})
     void testGetUserFavorites() throws Exception {
         // Given
-        List<Favorite> favorites = Arrays.asList(testFavorite);
+        FavoritePageDto favorites = new FavoritePageDto(Arrays.asList(new FavoriteDto(testFavorite)), "curseur");
         when(authService.getCurrentUser()).thenReturn(testUser);
-        when(favoriteService.getUserFavorites(testUser)).thenReturn(favorites);
+        when(favoriteService.getUserFavorites(1L, null, 10)).thenReturn(favorites);
 
         // When & Then
-        mockMvc.perform(get("/api/favorites/user/1"))
+        mockMvc.perform(get("/api/favorites/user/1").param("taille", "10"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.success").value(true))
-                .andExpect(jsonPath("$.data").isArray())
-                .andExpect(jsonPath("$.data[0].id").value(1));
+                .andExpect(jsonPath("$.data.favoris").isArray())
+                .andExpect(jsonPath("$.data.favoris[0].id").value(1))
+                .andExpect(jsonPath("$.data.favoris[0].voitureMarque").value("Toyota"))
+                .andExpect(jsonPath("$.data.curseurSuivant").value("curseur"));
     }
 
     @Test
@@ -184,15 +189,15 @@ class FavoriteControllerTest {
         adminUser.setId(3L);
         adminUser.setRole(Role.ADMIN);
 
-        List<Favorite> favorites = Arrays.asList(testFavorite);
+        FavoritePageDto favorites = new FavoritePageDto(Arrays.asList(new FavoriteDto(testFavorite)), null);
         when(authService.getCurrentUser()).thenReturn(adminUser);
-        when(favoriteService.getUserFavorites(adminUser)).thenReturn(favorites);
+        when(favoriteService.getUserFavorites(1L, null, null)).thenReturn(favorites);
 
         // When & Then
         mockMvc.perform(get("/api/favorites/user/1"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.success").value(true))
-                .andExpect(jsonPath("$.data").isArray());
+                .andExpect(jsonPath("$.data.favoris").isArray());
     }
 
     @Test
@@ -224,6 +229,27 @@ class FavoriteControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    @DisplayName("Test bulk favorite check")
+    @WithMockUser(username = "client@example.com", roles = {"CLIENT"})
+    void testAreFavorites() throws Exception {
+        // Given
+        Map<Long, Boolean> favoris = new LinkedHashMap<>();
+        favoris.put(1L, true);
+        favoris.put(2L, false);
+        when(authService.getCurrentUser()).thenReturn(testUser);
+        when(favoriteService.areFavorites(Arrays.asList(1L, 2L), testUser)).thenReturn(favoris);
+
+        // When & Then
+        mockMvc.perform(post("/api/favorites/check")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[1, 2]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.data.1").value(true))
+                .andExpect(jsonPath("$.data.2").value(false));
+    }
+
     @Test
     @DisplayName("Test remove favorite")
     @WithMockUser(username = "client@example.com", roles = {"CLIENT"})
@@ -2,10 +2,14 @@ package com.locme.favorite;
 
 import com.locme.auth.User;
 import com.locme.auth.Role;
+import com.locme.common.exceptions.BusinessException;
 import com.locme.common.exceptions.ResourceNotFoundException;
+import com.locme.favorite.dto.FavoriteDto;
+import com.locme.favorite.dto.FavoritePageDto;
 import com.locme.societe.Societe;
 import com.locme.voiture.Voiture;
 import com.locme.voiture.VoitureRepository;
+import com.locme.voiture.popularite.PopulariteService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -13,12 +17,15 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -35,6 +42,12 @@ class FavoriteServiceTest {
     @Mock
     private VoitureRepository voitureRepository;
 
+    @Mock
+    private FavoriteCache favoriteCache;
+
+    @Mock
+    private PopulariteService populariteService;
+
     @InjectMocks
     private FavoriteService favoriteService;
 
@@ -74,46 +87,65 @@ class FavoriteServiceTest {
     @DisplayName("Test toggle favorite - add to favorites")
     void testToggleFavoriteAdd() {
         // Given
-        when(voitureRepository.findById(1L)).thenReturn(Optional.of(testVoiture));
-        when(favoriteRepository.findByUserAndVoiture(testUser, testVoiture)).thenReturn(Optional.empty());
-        when(favoriteRepository.save(any(Favorite.class))).thenReturn(testFavorite);
+        when(favoriteRepository.deleteByUserIdAndVoitureId(1L, 1L)).thenReturn(0);
+        when(voitureRepository.existsById(1L)).thenReturn(true);
+        when(voitureRepository.getReferenceById(1L)).thenReturn(testVoiture);
+        when(favoriteRepository.saveAndFlush(any(Favorite.class))).thenReturn(testFavorite);
 
         // When
-        Favorite result = favoriteService.toggleFavorite(1L, testUser);
+        FavoriteDto result = favoriteService.toggleFavorite(1L, testUser);
 
         // Then
         assertNotNull(result);
         assertEquals(1L, result.getId());
-        assertEquals(testUser, result.getUser());
-        assertEquals(testVoiture, result.getVoiture());
-        verify(voitureRepository).findById(1L);
-        verify(favoriteRepository).findByUserAndVoiture(testUser, testVoiture);
-        verify(favoriteRepository).save(any(Favorite.class));
+        assertEquals(1L, result.getVoitureId());
+        assertNotNull(result.getCreatedAt());
+        verify(voitureRepository, never()).findById(anyLong());
+        verify(favoriteCache).ajouter(1L, 1L);
+        verify(populariteService).enregistrerFavori(1L);
     }
 
     @Test
     @DisplayName("Test toggle favorite - remove from favorites")
     void testToggleFavoriteRemove() {
         // Given
-        when(voitureRepository.findById(1L)).thenReturn(Optional.of(testVoiture));
-        when(favoriteRepository.findByUserAndVoiture(testUser, testVoiture)).thenReturn(Optional.of(testFavorite));
+        when(favoriteRepository.deleteByUserIdAndVoitureId(1L, 1L)).thenReturn(1);
 
         // When
-        Favorite result = favoriteService.toggleFavorite(1L, testUser);
+        FavoriteDto result = favoriteService.toggleFavorite(1L, testUser);
 
         // Then
         assertNull(result);
-        verify(voitureRepository).findById(1L);
-        verify(favoriteRepository).findByUserAndVoiture(testUser, testVoiture);
-        verify(favoriteRepository).delete(testFavorite);
-        verify(favoriteRepository, never()).save(any(Favorite.class));
+        verify(favoriteCache).retirer(1L, 1L);
+        verify(favoriteRepository, never()).saveAndFlush(any());
+        verifyNoInteractions(voitureRepository, populariteService);
+    }
+
+    @Test
+    @DisplayName("Test toggle favorite - concurrent insert of the same favorite")
+    void testToggleFavoriteConcurrent() {
+        // Given
+        when(favoriteRepository.deleteByUserIdAndVoitureId(1L, 1L)).thenReturn(0);
+        when(voitureRepository.existsById(1L)).thenReturn(true);
+        when(favoriteRepository.saveAndFlush(any(Favorite.class)))
+                .thenThrow(new DataIntegrityViolationException("uk_favorites_user_voiture"));
+
+        // When
+        FavoriteDto result = favoriteService.toggleFavorite(1L, testUser);
+
+        // Then
+        assertNotNull(result);
+        assertEquals(1L, result.getVoitureId());
+        verify(favoriteCache).ajouter(1L, 1L);
+        verifyNoInteractions(populariteService);
     }
 
     @Test
     @DisplayName("Test toggle favorite with voiture not found")
     void testToggleFavoriteVoitureNotFound() {
         // Given
-        when(voitureRepository.findById(999L)).thenReturn(Optional.empty());
+        when(favoriteRepository.deleteByUserIdAndVoitureId(1L, 999L)).thenReturn(0);
+        when(voitureRepository.existsById(999L)).thenReturn(false);
 
         // When & Then
         ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class, () -> {
@@ -121,65 +153,112 @@ class FavoriteServiceTest {
         });
 
         assertEquals("Voiture non trouvée", exception.getMessage());
-        verify(voitureRepository).findById(999L);
-        verify(favoriteRepository, never()).findByUserAndVoiture(any(User.class), any(Voiture.class));
-        verify(favoriteRepository, never()).save(any(Favorite.class));
+        verify(favoriteRepository, never()).saveAndFlush(any());
+        verifyNoInteractions(favoriteCache);
     }
 
     @Test
     @DisplayName("Test get user favorites")
     void testGetUserFavorites() {
         // Given
-        List<Favorite> favorites = Arrays.asList(testFavorite);
-        when(favoriteRepository.findByUser(testUser)).thenReturn(favorites);
+        when(favoriteRepository.findPremierePage(1L, PageRequest.of(0, 21)))
+                .thenReturn(Arrays.asList(new FavoriteDto(testFavorite)));
 
         // When
-        List<Favorite> result = favoriteService.getUserFavorites(testUser);
+        FavoritePageDto result = favoriteService.getUserFavorites(1L, null, null);
 
         // Then
         assertNotNull(result);
-        assertEquals(1, result.size());
-        assertEquals(1L, result.get(0).getId());
-        verify(favoriteRepository).findByUser(testUser);
+        assertEquals(1, result.getFavoris().size());
+        assertEquals(1L, result.getFavoris().get(0).getId());
+        assertNull(result.getCurseurSuivant());
+        verifyNoInteractions(favoriteCache);
+    }
+
+    @Test
+    @DisplayName("Test get user favorites keyset pagination")
+    void testGetUserFavoritesPagination() {
+        // Given
+        LocalDateTime maintenant = LocalDateTime.now();
+        List<FavoriteDto> premiere = Arrays.asList(
+                favoriteDto(30L, maintenant),
+                favoriteDto(20L, maintenant.minusMinutes(1)),
+                favoriteDto(10L, maintenant.minusMinutes(2)));
+        when(favoriteRepository.findPremierePage(1L, PageRequest.of(0, 3))).thenReturn(premiere);
+        when(favoriteRepository.findPageApres(1L, maintenant.minusMinutes(1), 20L, PageRequest.of(0, 3)))
+                .thenReturn(Arrays.asList(favoriteDto(10L, maintenant.minusMinutes(2))));
+
+        // When
+        FavoritePageDto page1 = favoriteService.getUserFavorites(1L, null, 2);
+        FavoritePageDto page2 = favoriteService.getUserFavorites(1L, page1.getCurseurSuivant(), 2);
+
+        // Then
+        assertEquals(Arrays.asList(30L, 20L), page1.getFavoris().stream().map(FavoriteDto::getId).toList());
+        assertNotNull(page1.getCurseurSuivant());
+        assertEquals(Arrays.asList(10L), page2.getFavoris().stream().map(FavoriteDto::getId).toList());
+        assertNull(page2.getCurseurSuivant());
+    }
+
+    @Test
+    @DisplayName("Test get user favorites page size is bounded")
+    void testGetUserFavoritesTailleBornee() {
+        // Given
+        when(favoriteRepository.findPremierePage(eq(1L), any())).thenReturn(Arrays.asList());
+
+        // When
+        favoriteService.getUserFavorites(1L, null, 10_000);
+
+        // Then
+        verify(favoriteRepository).findPremierePage(1L, PageRequest.of(0, 101));
+    }
+
+    @Test
+    @DisplayName("Test get user favorites with invalid cursor")
+    void testGetUserFavoritesCurseurInvalide() {
+        // When & Then
+        BusinessException exception = assertThrows(BusinessException.class, () -> {
+            favoriteService.getUserFavorites(1L, "pas-un-curseur", null);
+        });
+
+        assertEquals("Curseur de pagination invalide", exception.getMessage());
+        verify(favoriteRepository, never()).findPageApres(anyLong(), any(), anyLong(), any());
     }
 
     @Test
     @DisplayName("Test is favorite - true")
     void testIsFavoriteTrue() {
         // Given
-        when(voitureRepository.findById(1L)).thenReturn(Optional.of(testVoiture));
-        when(favoriteRepository.existsByUserAndVoiture(testUser, testVoiture)).thenReturn(true);
+        when(favoriteCache.contient(1L, 1L)).thenReturn(true);
 
         // When
         boolean result = favoriteService.isFavorite(1L, testUser);
 
         // Then
         assertTrue(result);
-        verify(voitureRepository).findById(1L);
-        verify(favoriteRepository).existsByUserAndVoiture(testUser, testVoiture);
+        verifyNoInteractions(voitureRepository, favoriteRepository);
     }
 
     @Test
     @DisplayName("Test is favorite - false")
     void testIsFavoriteFalse() {
         // Given
-        when(voitureRepository.findById(1L)).thenReturn(Optional.of(testVoiture));
-        when(favoriteRepository.existsByUserAndVoiture(testUser, testVoiture)).thenReturn(false);
+        when(favoriteCache.contient(1L, 1L)).thenReturn(false);
+        when(voitureRepository.existsById(1L)).thenReturn(true);
 
         // When
         boolean result = favoriteService.isFavorite(1L, testUser);
 
         // Then
         assertFalse(result);
-        verify(voitureRepository).findById(1L);
-        verify(favoriteRepository).existsByUserAndVoiture(testUser, testVoiture);
+        verify(voitureRepository).existsById(1L);
     }
 
     @Test
     @DisplayName("Test is favorite with voiture not found")
     void testIsFavoriteVoitureNotFound() {
         // Given
-        when(voitureRepository.findById(999L)).thenReturn(Optional.empty());
+        when(favoriteCache.contient(1L, 999L)).thenReturn(false);
+        when(voitureRepository.existsById(999L)).thenReturn(false);
 
         // When & Then
         ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class, () -> {
@@ -187,29 +266,60 @@ class FavoriteServiceTest {
         });
 
         assertEquals("Voiture non trouvée", exception.getMessage());
-        verify(voitureRepository).findById(999L);
-        verify(favoriteRepository, never()).existsByUserAndVoiture(any(User.class), any(Voiture.class));
+        verify(voitureRepository).existsById(999L);
+    }
+
+    @Test
+    @DisplayName("Test bulk favorite check")
+    void testAreFavorites() {
+        // Given
+        List<Long> voitureIds = Arrays.asList(1L, 2L, 3L);
+        Map<Long, Boolean> attendu = Map.of(1L, true, 2L, false, 3L, false);
+        when(favoriteCache.contient(1L, voitureIds)).thenReturn(attendu);
+
+        // When
+        Map<Long, Boolean> result = favoriteService.areFavorites(voitureIds, testUser);
+
+        // Then
+        assertEquals(attendu, result);
+        verifyNoInteractions(voitureRepository, favoriteRepository);
+    }
+
+    @Test
+    @DisplayName("Test bulk favorite check with too many ids")
+    void testAreFavoritesTooMany() {
+        // Given
+        ReflectionTestUtils.setField(favoriteService, "maxVerifications", 2);
+
+        // When & Then
+        BusinessException exception = assertThrows(BusinessException.class, () -> {
+            favoriteService.areFavorites(Arrays.asList(1L, 2L, 3L), testUser);
+        });
+
+        assertEquals("Au plus 2 voitures peuvent être vérifiées à la fois", exception.getMessage());
+        verifyNoInteractions(favoriteCache);
     }
 
     @Test
     @DisplayName("Test remove favorite")
     void testRemoveFavorite() {
         // Given
-        when(voitureRepository.findById(1L)).thenReturn(Optional.of(testVoiture));
+        when(favoriteRepository.deleteByUserIdAndVoitureId(1L, 1L)).thenReturn(1);
 
         // When
         favoriteService.removeFavorite(1L, testUser);
 
         // Then
-        verify(voitureRepository).findById(1L);
-        verify(favoriteRepository).deleteByUserAndVoiture(testUser, testVoiture);
+        verify(favoriteCache).retirer(1L, 1L);
+        verifyNoInteractions(voitureRepository);
     }
 
     @Test
     @DisplayName("Test remove favorite with voiture not found")
     void testRemoveFavoriteVoitureNotFound() {
         // Given
-        when(voitureRepository.findById(999L)).thenReturn(Optional.empty());
+        when(favoriteRepository.deleteByUserIdAndVoitureId(1L, 999L)).thenReturn(0);
+        when(voitureRepository.existsById(999L)).thenReturn(false);
 
         // When & Then
         ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class, () -> {
@@ -217,23 +327,23 @@ class FavoriteServiceTest {
         });
 
         assertEquals("Voiture non trouvée", exception.getMessage());
-        verify(voitureRepository).findById(999L);
-        verify(favoriteRepository, never()).deleteByUserAndVoiture(any(User.class), any(Voiture.class));
+        verify(voitureRepository).existsById(999L);
+        verifyNoInteractions(favoriteCache);
     }
 
     @Test
     @DisplayName("Test get user favorites empty list")
     void testGetUserFavoritesEmpty() {
         // Given
-        when(favoriteRepository.findByUser(testUser)).thenReturn(Arrays.asList());
+        when(favoriteRepository.findPremierePage(eq(1L), any())).thenReturn(Arrays.asList());
 
         // When
-        List<Favorite> result = favoriteService.getUserFavorites(testUser);
+        FavoritePageDto result = favoriteService.getUserFavorites(1L, null, null);
 
         // Then
         assertNotNull(result);
-        assertTrue(result.isEmpty());
-        verify(favoriteRepository).findByUser(testUser);
+        assertTrue(result.getFavoris().isEmpty());
+        assertNull(result.getCurseurSuivant());
     }
 
     @Test
@@ -244,21 +354,24 @@ class FavoriteServiceTest {
         anotherUser.setId(2L);
         anotherUser.setRole(Role.CLIENT);
 
-        when(voitureRepository.findById(1L)).thenReturn(Optional.of(testVoiture));
-        when(favoriteRepository.findByUserAndVoiture(testUser, testVoiture)).thenReturn(Optional.empty());
-        when(favoriteRepository.findByUserAndVoiture(anotherUser, testVoiture)).thenReturn(Optional.empty());
-        when(favoriteRepository.save(any(Favorite.class))).thenReturn(testFavorite);
+        when(favoriteRepository.deleteByUserIdAndVoitureId(anyLong(), eq(1L))).thenReturn(0);
+        when(voitureRepository.existsById(1L)).thenReturn(true);
+        when(favoriteRepository.saveAndFlush(any(Favorite.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         // When
-        Favorite result1 = favoriteService.toggleFavorite(1L, testUser);
-        Favorite result2 = favoriteService.toggleFavorite(1L, anotherUser);
+        FavoriteDto result1 = favoriteService.toggleFavorite(1L, testUser);
+        FavoriteDto result2 = favoriteService.toggleFavorite(1L, anotherUser);
 
         // Then
         assertNotNull(result1);
         assertNotNull(result2);
-        verify(voitureRepository, times(2)).findById(1L);
-        verify(favoriteRepository).findByUserAndVoiture(testUser, testVoiture);
-        verify(favoriteRepository).findByUserAndVoiture(anotherUser, testVoiture);
-        verify(favoriteRepository, times(2)).save(any(Favorite.class));
+        verify(favoriteCache).ajouter(1L, 1L);
+        verify(favoriteCache).ajouter(2L, 1L);
+        verify(favoriteRepository).deleteByUserIdAndVoitureId(1L, 1L);
+        verify(favoriteRepository).deleteByUserIdAndVoitureId(2L, 1L);
+    }
+
+    private FavoriteDto favoriteDto(Long id, LocalDateTime createdAt) {
+        return new FavoriteDto(id, 1L, "Toyota", "Camry", new BigDecimal("50.00"), null, true, createdAt);
     }
 }
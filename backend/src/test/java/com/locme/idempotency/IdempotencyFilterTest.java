@@ -0,0 +1,220 @@
+package com.locme.idempotency;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.StreamUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyFilterTest {
+
+    @Mock
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @InjectMocks
+    private IdempotencyStore store;
+
+    private IdempotencyFilter filter;
+    private AtomicInteger executions;
+
+    @BeforeEach
+    void setUp() {
+        filter = new IdempotencyFilter(store, Set.of("/api/reservations"), Duration.ofSeconds(5));
+        executions = new AtomicInteger();
+        lenient().when(idempotencyRecordRepository.findValide(anyString(), any())).thenReturn(Optional.empty());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("client@test.com", null, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private MockHttpServletRequest requete(String cle, String corps) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/reservations");
+        request.addHeader(IdempotencyFilter.HEADER, cle);
+        request.setContentType("application/json");
+        request.setContent(corps.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    private FilterChain chaine(CountDownLatch attente) {
+        return (req, res) -> {
+            String corps = StreamUtils.copyToString(req.getInputStream(), StandardCharsets.UTF_8);
+            if (attente != null) {
+                try {
+                    attente.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            int numero = executions.incrementAndGet();
+            ((HttpServletResponse) res).setStatus(200);
+            res.setContentType("application/json");
+            res.getWriter().write("{\"execution\":" + numero + ",\"corps\":" + corps + "}");
+        };
+    }
+
+    @Test
+    @DisplayName("Test rejeu de la réponse pour une clé déjà utilisée")
+    void testRejeu() throws Exception {
+        MockHttpServletResponse premiere = new MockHttpServletResponse();
+        filter.doFilter(requete("cle-1", "{\"voitureId\":1}"), premiere, chaine(null));
+
+        MockHttpServletResponse seconde = new MockHttpServletResponse();
+        filter.doFilter(requete("cle-1", "{\"voitureId\":1}"), seconde, chaine(null));
+
+        assertEquals(1, executions.get());
+        assertEquals(200, seconde.getStatus());
+        assertEquals(premiere.getContentAsString(), seconde.getContentAsString());
+        assertEquals("true", seconde.getHeader(IdempotencyFilter.HEADER_REJOUE));
+        verify(idempotencyRecordRepository).save(any(IdempotencyRecord.class));
+    }
+
+    @Test
+    @DisplayName("Test lecture non bloquante du corps mémorisé")
+    void testLectureNonBloquante() throws Exception {
+        List<String> appels = new ArrayList<>();
+        ByteArrayOutputStream lu = new ByteArrayOutputStream();
+        FilterChain nonBloquante = (req, res) -> {
+            ServletInputStream entree = req.getInputStream();
+            entree.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    appels.add("onDataAvailable");
+                    byte[] tampon = new byte[4];
+                    int n;
+                    while (entree.isReady() && (n = entree.read(tampon)) != -1) {
+                        lu.write(tampon, 0, n);
+                    }
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    appels.add("onAllDataRead");
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    appels.add("onError");
+                }
+            });
+            ((HttpServletResponse) res).setStatus(200);
+        };
+
+        filter.doFilter(requete("cle-1", "{\"voitureId\":1}"), new MockHttpServletResponse(), nonBloquante);
+
+        assertEquals(List.of("onDataAvailable", "onAllDataRead"), appels);
+        assertEquals("{\"voitureId\":1}", lu.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Test clé réutilisée avec un corps différent")
+    void testCorpsDifferent() throws Exception {
+        filter.doFilter(requete("cle-1", "{\"voitureId\":1}"), new MockHttpServletResponse(), chaine(null));
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(requete("cle-1", "{\"voitureId\":2}"), response, chaine(null));
+
+        assertEquals(422, response.getStatus());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    @DisplayName("Test requêtes sans clé ou hors périmètre non mémorisées")
+    void testHorsPerimetre() throws Exception {
+        MockHttpServletRequest sansCle = new MockHttpServletRequest("POST", "/api/reservations");
+        sansCle.setContent("{}".getBytes(StandardCharsets.UTF_8));
+        filter.doFilter(sansCle, new MockHttpServletResponse(), chaine(null));
+        filter.doFilter(sansCle, new MockHttpServletResponse(), chaine(null));
+
+        MockHttpServletRequest autreChemin = requete("cle-1", "{}");
+        autreChemin.setRequestURI("/api/favorites");
+        filter.doFilter(autreChemin, new MockHttpServletResponse(), chaine(null));
+
+        assertEquals(3, executions.get());
+        verify(idempotencyRecordRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Test erreurs serveur non mémorisées")
+    void testErreurServeurNonMemorisee() throws Exception {
+        FilterChain enErreur = (req, res) -> {
+            executions.incrementAndGet();
+            ((HttpServletResponse) res).setStatus(503);
+        };
+        filter.doFilter(requete("cle-1", "{}"), new MockHttpServletResponse(), enErreur);
+        filter.doFilter(requete("cle-1", "{}"), new MockHttpServletResponse(), enErreur);
+
+        assertEquals(2, executions.get());
+        verify(idempotencyRecordRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Test doublons concurrents regroupés sur une seule exécution")
+    void testDoublonsConcurrents() throws Exception {
+        CountDownLatch liberation = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            MockHttpServletResponse premiere = new MockHttpServletResponse();
+            MockHttpServletResponse seconde = new MockHttpServletResponse();
+            var contexte = SecurityContextHolder.getContext();
+
+            Future<?> f1 = executor.submit(() -> {
+                SecurityContextHolder.setContext(contexte);
+                filter.doFilter(requete("cle-1", "{}"), premiere, chaine(liberation));
+                return null;
+            });
+            // Laisse la première requête prendre la clé avant d'envoyer le doublon
+            Thread.sleep(100);
+            Future<?> f2 = executor.submit(() -> {
+                SecurityContextHolder.setContext(contexte);
+                filter.doFilter(requete("cle-1", "{}"), seconde, chaine(null));
+                return null;
+            });
+            Thread.sleep(100);
+            liberation.countDown();
+            f1.get(5, TimeUnit.SECONDS);
+            f2.get(5, TimeUnit.SECONDS);
+
+            assertEquals(1, executions.get());
+            assertEquals(premiere.getContentAsString(), seconde.getContentAsString());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.locme.integration;
+
+import com.locme.auth.User;
+import com.locme.auth.UserRepository;
+import com.locme.reservation.ArchivageReservationService;
+import com.locme.reservation.Reservation;
+import com.locme.reservation.ReservationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Archivage sur le schéma partitionné de V4 : lignes déplacées vers la partition de leur année,
+ * réservations archivées absentes des listes mais toujours lisibles par id, et clé étrangère des
+ * paiements assurée par les déclencheurs.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@ActiveProfiles("test")
+class ArchivageReservationsIntegrationTest {
+
+    private static final LocalDate AUJOURDHUI = LocalDate.of(2026, 3, 15);
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("archivage")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.flyway.enabled", () -> "true");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "validate");
+        registry.add("locme.scheduling.enabled", () -> "false");
+    }
+
+    @Autowired
+    private ArchivageReservationService archivageService;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM paiements");
+        jdbcTemplate.update("DELETE FROM reservations");
+        jdbcTemplate.update("DELETE FROM voitures");
+        jdbcTemplate.update("DELETE FROM societes");
+        jdbcTemplate.update("DELETE FROM users");
+
+        jdbcTemplate.update("INSERT INTO users (id, nom, email, mot_de_passe, role) VALUES " +
+                "(1, 'Société', 'societe@locme.com', 'x', 'SOCIETE'), (2, 'Client', 'client@locme.com', 'x', 'CLIENT')");
+        jdbcTemplate.update("INSERT INTO societes (id, nom, adresse, email, user_id) VALUES (1, 'Société', 'Adresse', 'societe@locme.com', 1)");
+        jdbcTemplate.update("INSERT INTO voitures (id, marque, modele, prix_par_jour, disponible, societe_id) VALUES (1, 'Renault', 'Clio', 45, true, 1)");
+        // Closes depuis plus d'un an (1 à 3), ouverte depuis plus d'un an (4), close récemment (5)
+        jdbcTemplate.update("INSERT INTO reservations (id, voiture_id, user_id, date_debut, date_fin, statut, montant) VALUES " +
+                "(1, 1, 2, DATE '2023-06-01', DATE '2023-06-05', 'TERMINEE', 180), " +
+                "(2, 1, 2, DATE '2024-02-01', DATE '2024-02-03', 'ANNULEE', 90), " +
+                "(3, 1, 2, DATE '2024-11-01', DATE '2024-11-04', 'TERMINEE', 135), " +
+                "(4, 1, 2, DATE '2024-05-01', DATE '2024-05-02', 'CONFIRMEE', 45), " +
+                "(5, 1, 2, DATE '2026-01-10', DATE '2026-01-12', 'TERMINEE', 90)");
+        jdbcTemplate.update("INSERT INTO paiements (id, reservation_id, montant, statut) VALUES (1, 1, 180, 'PAYE')");
+    }
+
+    private Map<Long, String> partitions() {
+        return jdbcTemplate.queryForList("SELECT id, tableoid::regclass::text AS partition FROM reservations").stream()
+                .collect(Collectors.toMap(ligne -> ((Number) ligne.get("id")).longValue(), ligne -> (String) ligne.get("partition")));
+    }
+
+    @Test
+    @DisplayName("Les réservations closes depuis plus d'un an rejoignent la partition d'archive de leur année")
+    void testArchivage() {
+        ReflectionTestUtils.setField(archivageService, "tailleLot", 2);
+
+        assertEquals(3, archivageService.archiver(AUJOURDHUI));
+
+        assertEquals(Map.of(
+                1L, "reservations_archives_2023",
+                2L, "reservations_archives_2024",
+                3L, "reservations_archives_2024",
+                4L, "reservations_courantes",
+                5L, "reservations_courantes"), partitions());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM reservations_archives_defaut", Integer.class));
+        // Second passage : plus rien à déplacer
+        assertEquals(0, archivageService.archiver(AUJOURDHUI));
+    }
+
+    @Test
+    @DisplayName("Une réservation archivée sort des listes mais reste lisible par id, avec son paiement")
+    void testLectureApresArchivage() {
+        archivageService.archiver(AUJOURDHUI);
+        User client = userRepository.findByEmail("client@locme.com").orElseThrow();
+
+        List<Long> courantes = transactionTemplate.execute(status ->
+                reservationRepository.findByUser(client).stream().map(Reservation::getId).sorted().toList());
+        assertEquals(List.of(4L, 5L), courantes);
+
+        Reservation archivee = reservationRepository.findById(1L).orElseThrow();
+        assertTrue(archivee.isArchivee());
+        assertEquals(1L, jdbcTemplate.queryForObject("SELECT reservation_id FROM paiements WHERE id = 1", Long.class));
+    }
+
+    @Test
+    @DisplayName("La clé étrangère des paiements tient toujours : ni paiement orphelin, ni suppression d'une réservation payée")
+    void testCleEtrangerePaiements() {
+        archivageService.archiver(AUJOURDHUI);
+
+        assertThrows(DataIntegrityViolationException.class, () -> jdbcTemplate.update(
+                "INSERT INTO paiements (id, reservation_id, montant, statut) VALUES (2, 999, 10, 'PAYE')"));
+        assertThrows(DataIntegrityViolationException.class, () ->
+                transactionTemplate.executeWithoutResult(status -> reservationRepository.deleteById(1L)));
+
+        // Paiement d'une réservation archivée, puis suppression d'une réservation sans paiement
+        jdbcTemplate.update("INSERT INTO paiements (id, reservation_id, montant, statut) VALUES (3, 2, 90, 'PAYE')");
+        transactionTemplate.executeWithoutResult(status -> reservationRepository.deleteById(4L));
+        assertFalse(reservationRepository.existsById(4L));
+    }
+}
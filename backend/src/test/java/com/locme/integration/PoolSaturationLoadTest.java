@@ -0,0 +1,192 @@
+package com.locme.integration;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Charge croissante sur le catalogue avec le profil prod et un petit pool, pour trouver le point de
+ * saturation : le palier au-delà duquel le débit ne progresse plus alors que les requêtes
+ * attendent une connexion (hikaricp.connections.pending). Lancer avec {@code mvn test -Pload}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Testcontainers(disabledWithoutDocker = true)
+@ActiveProfiles("prod")
+@Tag("load")
+class PoolSaturationLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(PoolSaturationLoadTest.class);
+
+    private static final int TAILLE_POOL = 4;
+    private static final int[] CONCURRENCES = {1, 2, 4, 8, 16, 32, 64};
+    private static final Duration DUREE_PALIER = Duration.ofSeconds(5);
+    // Gain de débit en dessous duquel un palier n'apporte plus rien
+    private static final double GAIN_MINIMUM = 1.10;
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("charge")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.datasource.hikari.maximum-pool-size", () -> TAILLE_POOL);
+        registry.add("spring.datasource.hikari.minimum-idle", () -> TAILLE_POOL);
+        registry.add("management.server.port", () -> "0");
+        registry.add("locme.payments.gateway", () -> "fake");
+        registry.add("locme.scheduling.enabled", () -> "false");
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Le débit plafonne quand le pool est saturé, sans erreur jusqu'au point de saturation")
+    void testPointDeSaturation() throws InterruptedException {
+        peupler();
+        assertEquals(TAILLE_POOL, meterRegistry.get("hikaricp.connections.max")
+                .tag("pool", "locme-primaire").gauge().value());
+
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest requete = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/voitures/disponibles"))
+                .GET().build();
+        // Chauffe : JIT, cache des requêtes préparées
+        mesurer(client, requete, TAILLE_POOL, Duration.ofSeconds(3));
+
+        List<Palier> paliers = new ArrayList<>();
+        for (int concurrence : CONCURRENCES) {
+            paliers.add(mesurer(client, requete, concurrence, DUREE_PALIER));
+        }
+
+        log.info("concurrence | req/s | p50 ms | p99 ms | attente max | erreurs");
+        paliers.forEach(palier -> log.info(String.format("%11d | %5.0f | %6.1f | %6.1f | %11d | %7d", palier.concurrence,
+                palier.debit, palier.p50Ms, palier.p99Ms, palier.attenteMax, palier.erreurs)));
+
+        int saturation = -1;
+        for (int i = 1; i < paliers.size() && saturation < 0; i++) {
+            if (paliers.get(i).debit < paliers.get(i - 1).debit * GAIN_MINIMUM) {
+                saturation = i - 1;
+            }
+        }
+        assertTrue(saturation >= 0, "Le débit progresse encore au dernier palier");
+        Palier point = paliers.get(saturation);
+        log.info("Saturation à {} requêtes simultanées ({} req/s)", point.concurrence, Math.round(point.debit));
+
+        for (int i = 0; i <= saturation; i++) {
+            assertEquals(0, paliers.get(i).erreurs, "Erreurs avant saturation");
+        }
+        // Au-delà, les requêtes supplémentaires ne font qu'attendre une connexion
+        assertTrue(paliers.get(paliers.size() - 1).attenteMax > 0);
+        assertTrue(paliers.get(paliers.size() - 1).p99Ms > paliers.get(saturation).p99Ms);
+    }
+
+    private void peupler() {
+        jdbcTemplate.update("INSERT INTO users (id, nom, email, mot_de_passe, role) "
+                + "SELECT i, 'Société ' || i, 'societe' || i || '@locme.com', 'x', 'SOCIETE' FROM generate_series(1, 20) i");
+        jdbcTemplate.update("INSERT INTO societes (id, nom, adresse, email, user_id) "
+                + "SELECT i, 'Société ' || i, 'Adresse', 'societe' || i || '@locme.com', i FROM generate_series(1, 20) i");
+        jdbcTemplate.update("INSERT INTO voitures (id, marque, modele, prix_par_jour, disponible, societe_id) "
+                + "SELECT i, 'Marque ' || (i % 10), 'Modèle', 30 + (i % 100), true, 1 + (i % 20) FROM generate_series(1, 200) i");
+    }
+
+    private Palier mesurer(HttpClient client, HttpRequest requete, int concurrence, Duration duree) throws InterruptedException {
+        Gauge attente = meterRegistry.get("hikaricp.connections.pending").tag("pool", "locme-primaire").gauge();
+        ConcurrentLinkedQueue<Long> latences = new ConcurrentLinkedQueue<>();
+        AtomicInteger erreurs = new AtomicInteger();
+        AtomicInteger attenteMax = new AtomicInteger();
+        long fin = System.nanoTime() + duree.toNanos();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrence; i++) {
+                executor.submit(() -> {
+                    while (System.nanoTime() < fin) {
+                        long debut = System.nanoTime();
+                        try {
+                            HttpResponse<Void> reponse = client.send(requete, HttpResponse.BodyHandlers.discarding());
+                            if (reponse.statusCode() == 200) {
+                                latences.add(System.nanoTime() - debut);
+                            } else {
+                                erreurs.incrementAndGet();
+                            }
+                        } catch (IOException e) {
+                            erreurs.incrementAndGet();
+                        }
+                    }
+                    return null;
+                });
+            }
+            executor.submit(() -> {
+                while (System.nanoTime() < fin) {
+                    attenteMax.accumulateAndGet((int) attente.value(), Math::max);
+                    Thread.sleep(5);
+                }
+                return null;
+            });
+        }
+
+        List<Long> triees = latences.stream().sorted().toList();
+        Palier palier = new Palier();
+        palier.concurrence = concurrence;
+        palier.debit = triees.size() / (duree.toNanos() / 1e9);
+        palier.p50Ms = percentile(triees, 0.50);
+        palier.p99Ms = percentile(triees, 0.99);
+        palier.attenteMax = attenteMax.get();
+        palier.erreurs = erreurs.get();
+        return palier;
+    }
+
+    private static double percentile(List<Long> triees, double rang) {
+        if (triees.isEmpty()) {
+            return 0;
+        }
+        return triees.get((int) Math.min(triees.size() - 1, Math.floor(rang * triees.size()))) / 1e6;
+    }
+
+    private static final class Palier {
+        private int concurrence;
+        private double debit;
+        private double p50Ms;
+        private double p99Ms;
+        private int attenteMax;
+        private int erreurs;
+    }
+}
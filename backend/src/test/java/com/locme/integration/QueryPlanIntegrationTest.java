@@ -0,0 +1,146 @@
+package com.locme.integration;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Applique les migrations Flyway sur un vrai PostgreSQL puis vérifie, par EXPLAIN, que les requêtes
+ * les plus fréquentes des repositories passent par un index. Les parcours séquentiels sont désactivés
+ * (enable_seqscan) : s'il en reste un dans le plan, c'est qu'aucun index ne convient à la requête.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class QueryPlanIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("plans")
+            .withUsername("test")
+            .withPassword("test");
+
+    @BeforeAll
+    static void migrerEtPeupler() throws SQLException {
+        Flyway.configure()
+                .dataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())
+                .load()
+                .migrate();
+
+        // Les colonnes id n'ont pas de valeur par défaut (séquences réservées à Hibernate, cf. V3)
+        try (Connection connection = connexion(); Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO users (id, nom, email, mot_de_passe, role) " +
+                    "SELECT i, 'Utilisateur ' || i, 'user' || i || '@locme.com', 'x', " +
+                    "CASE WHEN i <= 50 THEN 'SOCIETE' ELSE 'CLIENT' END FROM generate_series(1, 2000) i");
+            statement.execute("INSERT INTO societes (id, nom, adresse, email, user_id) " +
+                    "SELECT i, 'Société ' || i, 'Adresse', 'societe' || i || '@locme.com', i FROM generate_series(1, 50) i");
+            statement.execute("INSERT INTO voitures (id, marque, modele, prix_par_jour, disponible, societe_id) " +
+                    "SELECT i, 'Marque ' || (i % 20), 'Modèle', 30 + (i % 100), i % 10 <> 0, 1 + (i % 50) " +
+                    "FROM generate_series(1, 2000) i");
+            statement.execute("INSERT INTO reservations (id, voiture_id, user_id, date_debut, date_fin, statut, montant) " +
+                    "SELECT i, 1 + (i % 2000), 51 + (i % 1950), DATE '2026-01-01' + (i % 365), " +
+                    "DATE '2026-01-01' + (i % 365) + 3, " +
+                    "(ARRAY['EN_ATTENTE','CONFIRMEE','EN_COURS','TERMINEE','ANNULEE','REFUSEE'])[1 + i % 6], 150 " +
+                    "FROM generate_series(1, 20000) i");
+            statement.execute("INSERT INTO paiements (id, reservation_id, montant, statut, stripe_payment_intent_id, date_paiement) " +
+                    "SELECT id, id, montant, CASE WHEN id % 3 = 0 THEN 'EN_ATTENTE' ELSE 'PAYE' END, " +
+                    "CASE WHEN id % 3 = 0 THEN NULL ELSE 'pi_' || id END, " +
+                    "TIMESTAMP '2026-01-01' + id * INTERVAL '10 minutes' FROM reservations");
+            statement.execute("INSERT INTO favorites (id, user_id, voiture_id, created_at) " +
+                    "SELECT i, 51 + (i % 1950), 1 + (i % 1999), TIMESTAMP '2026-01-01' + i * INTERVAL '1 minute' " +
+                    "FROM generate_series(1, 20000) i ON CONFLICT DO NOTHING");
+            statement.execute("INSERT INTO outbox_events (id, agregat, agregat_id, type, payload, created_at, published_at) " +
+                    "SELECT i, 'Reservation', i, 'RESERVATION_CREEE', '{}', NOW(), " +
+                    "CASE WHEN i % 100 = 0 THEN NULL ELSE NOW() END FROM generate_series(1, 20000) i");
+            statement.execute("UPDATE voitures SET deleted_at = TIMESTAMP '2026-01-01' + id * INTERVAL '1 hour' " +
+                    "WHERE id % 50 = 0");
+            // Réservations closes de 2026 archivées (partition créée comme le fait ArchivageReservationService)
+            statement.execute("SELECT creer_partition_archive_reservations(2026)");
+            statement.execute("UPDATE reservations SET archivee = TRUE WHERE statut IN ('TERMINEE', 'ANNULEE') " +
+                    "AND date_fin < DATE '2026-06-01'");
+            statement.execute("ANALYZE");
+        }
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @DisplayName("Les requêtes fréquentes utilisent un index")
+    @CsvSource(delimiter = '|', value = {
+            "conflits de réservation | SELECT * FROM reservations WHERE voiture_id = 42 AND archivee = FALSE " +
+                    "AND statut IN ('CONFIRMEE', 'EN_COURS') AND date_debut <= DATE '2026-07-10' AND date_fin >= DATE '2026-07-01'",
+            "voitures disponibles sur une période | SELECT v.* FROM voitures v WHERE v.disponible = true " +
+                    "AND v.deleted_at IS NULL AND v.id NOT IN " +
+                    "(SELECT r.voiture_id FROM reservations r WHERE r.archivee = FALSE AND r.statut IN ('CONFIRMEE', 'EN_COURS') " +
+                    "AND r.date_debut <= DATE '2026-07-10' AND r.date_fin >= DATE '2026-07-01')",
+            "catalogue filtré par prix | SELECT * FROM voitures WHERE disponible = true AND deleted_at IS NULL " +
+                    "AND prix_par_jour >= 40 AND prix_par_jour <= 60",
+            "réservations d'un client | SELECT * FROM reservations WHERE user_id = 77 AND archivee = FALSE",
+            "réservations d'un client par statut | SELECT * FROM reservations WHERE user_id = 77 AND archivee = FALSE " +
+                    "AND statut = 'CONFIRMEE'",
+            "réservations d'une société | SELECT r.* FROM reservations r JOIN voitures v ON v.id = r.voiture_id " +
+                    "JOIN societes s ON s.id = v.societe_id WHERE s.user_id = 3 AND r.archivee = FALSE",
+            "réservation par id | SELECT * FROM reservations WHERE id = 4242",
+            "lot d'archivage | SELECT id FROM reservations_courantes WHERE statut IN ('TERMINEE', 'ANNULEE') " +
+                    "AND date_fin < DATE '2026-03-01' ORDER BY date_fin LIMIT 1000",
+            "voitures d'une société | SELECT count(*) FROM voitures WHERE societe_id = 3 AND deleted_at IS NULL",
+            "voitures à purger | SELECT v.id FROM voitures v WHERE v.deleted_at < TIMESTAMP '2026-02-01' " +
+                    "AND NOT EXISTS (SELECT 1 FROM reservations r WHERE r.voiture_id = v.id) ORDER BY v.deleted_at LIMIT 500",
+            "page de favoris | SELECT f.id, v.id, v.marque FROM favorites f JOIN voitures v ON v.id = f.voiture_id " +
+                    "WHERE f.user_id = 77 ORDER BY f.created_at DESC, f.id DESC LIMIT 21",
+            "favoris d'une voiture | SELECT id FROM favorites WHERE voiture_id = 42",
+            "paiement par intention | SELECT * FROM paiements WHERE stripe_payment_intent_id = 'pi_100'",
+            "paiements à rapprocher | SELECT * FROM paiements WHERE statut IN ('PAYE', 'REMBOURSE') " +
+                    "AND date_paiement >= TIMESTAMP '2026-02-01' AND date_paiement < TIMESTAMP '2026-02-02' " +
+                    "AND (rapproche_le IS NULL OR rapproche_le < TIMESTAMP '2026-02-03') ORDER BY date_paiement, id",
+            "file outbox | SELECT * FROM outbox_events WHERE published_at IS NULL ORDER BY id LIMIT 100 FOR UPDATE SKIP LOCKED",
+            "purge outbox | DELETE FROM outbox_events WHERE published_at < TIMESTAMP '2020-01-01'"
+    })
+    void testRequeteIndexee(String nom, String requete) throws SQLException {
+        String plan = plan(requete);
+        assertFalse(plan.contains("Seq Scan"), () -> "Parcours séquentiel pour « " + nom + " » :\n" + plan);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @DisplayName("Les requêtes sur les réservations courantes n'ouvrent aucune partition d'archive")
+    @CsvSource(delimiter = '|', value = {
+            "conflits de réservation | SELECT * FROM reservations WHERE voiture_id = 42 AND archivee = FALSE " +
+                    "AND statut IN ('CONFIRMEE', 'EN_COURS') AND date_debut <= DATE '2026-07-10' AND date_fin >= DATE '2026-07-01'",
+            "réservations d'un client | SELECT * FROM reservations WHERE user_id = 77 AND archivee = FALSE",
+            "lot d'archivage | UPDATE reservations SET archivee = TRUE WHERE archivee = FALSE AND id IN (" +
+                    "SELECT id FROM reservations_courantes WHERE statut IN ('TERMINEE', 'ANNULEE') " +
+                    "AND date_fin < DATE '2026-03-01' ORDER BY date_fin LIMIT 1000 FOR UPDATE SKIP LOCKED)"
+    })
+    void testElagageDesArchives(String nom, String requete) throws SQLException {
+        String plan = plan(requete);
+        assertTrue(plan.contains("reservations_courantes"), () -> "Partition courante absente pour « " + nom + " » :\n" + plan);
+        assertFalse(plan.contains("reservations_archives"), () -> "Archives parcourues pour « " + nom + " » :\n" + plan);
+    }
+
+    private static String plan(String requete) throws SQLException {
+        try (Connection connection = connexion(); Statement statement = connection.createStatement()) {
+            statement.execute("SET enable_seqscan = off");
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet resultat = statement.executeQuery("EXPLAIN " + requete)) {
+                while (resultat.next()) {
+                    plan.append(resultat.getString(1)).append('\n');
+                }
+            }
+            return plan.toString();
+        }
+    }
+
+    private static Connection connexion() throws SQLException {
+        return DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+    }
+}
@@ -0,0 +1,163 @@
+package com.locme.integration;
+
+import com.locme.config.replica.EtatReplica;
+import com.locme.voiture.VoitureRepository;
+import com.locme.voiture.VoitureService;
+import com.locme.voiture.dto.VoitureDto;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Routage base principale / réplique sur deux PostgreSQL indépendants : la « réplique » ne reçoit
+ * pas la réplication, chaque base a sa propre voiture et la marque lue indique la base interrogée.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@ActiveProfiles("test")
+class ReplicaRoutingIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> primaire = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("locme")
+            .withUsername("test")
+            .withPassword("test");
+
+    @Container
+    static PostgreSQLContainer<?> replica = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("locme")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", primaire::getJdbcUrl);
+        registry.add("spring.datasource.username", primaire::getUsername);
+        registry.add("spring.datasource.password", primaire::getPassword);
+        registry.add("spring.flyway.enabled", () -> "true");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "validate");
+        registry.add("locme.datasource.replica.enabled", () -> "true");
+        registry.add("locme.datasource.replica.url", replica::getJdbcUrl);
+        registry.add("locme.scheduling.enabled", () -> "false");
+    }
+
+    @Autowired
+    private VoitureService voitureService;
+
+    @Autowired
+    private VoitureRepository voitureRepository;
+
+    @Autowired
+    private EtatReplica etatReplica;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeAll
+    static void preparerReplique() throws SQLException {
+        Flyway.configure()
+                .dataSource(replica.getJdbcUrl(), replica.getUsername(), replica.getPassword())
+                .load()
+                .migrate();
+        inserer(replica, "Réplique");
+    }
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        // La principale est migrée au démarrage du contexte
+        try (Connection connection = DriverManager.getConnection(primaire.getJdbcUrl(), primaire.getUsername(), primaire.getPassword());
+             Statement statement = connection.createStatement()) {
+            statement.execute("DELETE FROM voitures");
+            statement.execute("DELETE FROM societes");
+            statement.execute("DELETE FROM users");
+        }
+        inserer(primaire, "Principale");
+        etatReplica.verifier();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        ReflectionTestUtils.setField(etatReplica, "retardMaxMs", 2000L);
+    }
+
+    @Test
+    @DisplayName("Les méthodes en lecture seule lisent la réplique, les autres la principale")
+    void testRoutageLectureSeule() {
+        assertTrue(etatReplica.isDisponible());
+        assertEquals(0L, etatReplica.getRetardMs());
+
+        assertEquals(List.of("Réplique"), marques(voitureService.getAllVoitures()));
+        List<String> lectureEnEcriture = new TransactionTemplate(transactionManager)
+                .execute(status -> voitureRepository.findAll().stream().map(v -> v.getMarque()).toList());
+        assertEquals(List.of("Principale"), lectureEnEcriture);
+    }
+
+    @Test
+    @DisplayName("Une réplique trop en retard est écartée jusqu'à la mesure suivante")
+    void testRepliqueEnRetard() {
+        ReflectionTestUtils.setField(etatReplica, "retardMaxMs", -1L);
+        etatReplica.verifier();
+
+        assertFalse(etatReplica.isDisponible());
+        assertEquals(List.of("Principale"), marques(voitureService.getAllVoitures()));
+    }
+
+    @Test
+    @DisplayName("Après une écriture, l'utilisateur relit la principale ; les autres restent sur la réplique")
+    void testLectureDeSesEcritures() {
+        authentifier("societe@locme.com");
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                voitureRepository.findAll().forEach(v -> v.setModele("Modifiée")));
+
+        assertEquals(List.of("Principale"), marques(voitureService.getAllVoitures()));
+
+        authentifier("client@locme.com");
+        assertEquals(List.of("Réplique"), marques(voitureService.getAllVoitures()));
+    }
+
+    private static void inserer(PostgreSQLContainer<?> base, String marque) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(base.getJdbcUrl(), base.getUsername(), base.getPassword());
+             Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO users (id, nom, email, mot_de_passe, role) "
+                    + "VALUES (1, 'Société', 'societe@locme.com', 'x', 'SOCIETE')");
+            statement.execute("INSERT INTO societes (id, nom, adresse, email, user_id) "
+                    + "VALUES (1, 'Société', 'Adresse', 'societe@locme.com', 1)");
+            statement.execute("INSERT INTO voitures (id, marque, modele, prix_par_jour, disponible, societe_id) "
+                    + "VALUES (1, '" + marque + "', 'Modèle', 50, true, 1)");
+        }
+    }
+
+    private static void authentifier(String email) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(email, null, List.of()));
+    }
+
+    private static List<String> marques(List<VoitureDto> voitures) {
+        return voitures.stream().map(VoitureDto::getMarque).toList();
+    }
+}
@@ -0,0 +1,104 @@
+package com.locme.outbox;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxRepository outboxRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private OutboxRelay outboxRelay;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    private List<OutboxEvent> lot(int taille, long premierId) {
+        List<OutboxEvent> events = new ArrayList<>();
+        for (int i = 0; i < taille; i++) {
+            OutboxEvent event = new OutboxEvent(TypeEvenement.RESERVATION_CREEE, premierId + i, "{}");
+            event.setId(premierId + i);
+            events.add(event);
+        }
+        return events;
+    }
+
+    @Test
+    @DisplayName("Test publication d'un lot")
+    void testPublierLot() {
+        List<OutboxEvent> events = lot(3, 1L);
+        when(outboxRepository.findEvenementsAPublier(any(Pageable.class))).thenReturn(events);
+
+        int publies = outboxRelay.publierLot();
+
+        assertEquals(3, publies);
+        ArgumentCaptor<DomainEvent> captor = ArgumentCaptor.forClass(DomainEvent.class);
+        verify(eventPublisher, times(3)).publishEvent(captor.capture());
+        assertEquals(List.of(1L, 2L, 3L), captor.getAllValues().stream().map(DomainEvent::getId).toList());
+        assertTrue(events.stream().allMatch(event -> event.getPublishedAt() != null));
+    }
+
+    @Test
+    @DisplayName("Test relais jusqu'à épuisement de la file")
+    void testRelayerPlusieursLots() {
+        when(outboxRepository.findEvenementsAPublier(any(Pageable.class)))
+                .thenReturn(lot(100, 1L), lot(100, 101L), lot(10, 201L));
+
+        outboxRelay.relayer();
+
+        verify(outboxRepository, times(3)).findEvenementsAPublier(any(Pageable.class));
+        verify(eventPublisher, times(210)).publishEvent(any(DomainEvent.class));
+    }
+
+    @Test
+    @DisplayName("Test échec d'un écouteur : le lot n'est pas marqué publié")
+    void testRelayerEchecEcouteur() {
+        List<OutboxEvent> events = lot(2, 1L);
+        when(outboxRepository.findEvenementsAPublier(any(Pageable.class))).thenReturn(events);
+        doThrow(new IllegalStateException("écouteur en échec")).when(eventPublisher).publishEvent(any(DomainEvent.class));
+
+        outboxRelay.relayer();
+
+        verify(outboxRepository, times(1)).findEvenementsAPublier(any(Pageable.class));
+        assertNull(events.get(0).getPublishedAt());
+    }
+
+    @Test
+    @DisplayName("Test file vide")
+    void testRelayerFileVide() {
+        when(outboxRepository.findEvenementsAPublier(any(Pageable.class))).thenReturn(Collections.emptyList());
+
+        outboxRelay.relayer();
+
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+}
@@ -0,0 +1,74 @@
+package com.locme.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.locme.paiement.StatutPaiement;
+import com.locme.paiement.dto.PaiementEvenement;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxServiceTest {
+
+    @Mock
+    private OutboxRepository outboxRepository;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @InjectMocks
+    private OutboxService outboxService;
+
+    private PaiementEvenement paiementEvenement;
+
+    @BeforeEach
+    void setUp() {
+        paiementEvenement = new PaiementEvenement(5L, 3L, 1L, StatutPaiement.PAYE, StatutPaiement.EN_ATTENTE,
+                new BigDecimal("150.00"), LocalDateTime.of(2025, 6, 1, 10, 30));
+    }
+
+    @Test
+    @DisplayName("Test enregistrement d'un événement")
+    void testEnregistrer() {
+        when(outboxRepository.save(any(OutboxEvent.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        outboxService.enregistrer(TypeEvenement.PAIEMENT_PAYE, 5L, paiementEvenement);
+
+        ArgumentCaptor<OutboxEvent> captor = ArgumentCaptor.forClass(OutboxEvent.class);
+        verify(outboxRepository).save(captor.capture());
+        OutboxEvent event = captor.getValue();
+        assertEquals(TypeEvenement.PAIEMENT, event.getAgregat());
+        assertEquals(5L, event.getAgregatId());
+        assertEquals(TypeEvenement.PAIEMENT_PAYE, event.getType());
+        assertNull(event.getPublishedAt());
+        assertTrue(event.getPayload().contains("\"statut\":\"PAYE\""));
+    }
+
+    @Test
+    @DisplayName("Test lecture du payload d'un événement relayé")
+    void testLirePayload() throws Exception {
+        String payload = objectMapper.writeValueAsString(paiementEvenement);
+        DomainEvent event = new DomainEvent(1L, TypeEvenement.PAIEMENT_PAYE, TypeEvenement.PAIEMENT, 5L,
+                payload, LocalDateTime.now());
+
+        PaiementEvenement result = outboxService.lirePayload(event, PaiementEvenement.class);
+
+        assertEquals(5L, result.getPaiementId());
+        assertEquals(StatutPaiement.EN_ATTENTE, result.getAncienStatut());
+        assertEquals(new BigDecimal("150.00"), result.getMontant());
+        assertEquals(paiementEvenement.getDatePaiement(), result.getDatePaiement());
+    }
+}
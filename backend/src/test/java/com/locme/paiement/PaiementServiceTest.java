@@ -4,11 +4,19 @@ import com.locme.auth.User;
 import com.locme.auth.Role;
 import com.locme.common.exceptions.BusinessException;
 import com.locme.common.exceptions.ResourceNotFoundException;
+import com.locme.outbox.OutboxService;
+import com.locme.outbox.TypeEvenement;
+import com.locme.paiement.gateway.IntentionPaiement;
+import com.locme.paiement.gateway.PaymentGateway;
+import com.locme.paiement.gateway.PaymentGatewayException;
+import com.locme.paiement.gateway.RefusPrestataireException;
+import com.locme.paiement.gateway.RemboursementPrestataire;
 import com.locme.reservation.Reservation;
 import com.locme.reservation.ReservationRepository;
 import com.locme.reservation.StatutReservation;
 import com.locme.societe.Societe;
 import com.locme.voiture.Voiture;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -16,11 +24,15 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -37,6 +49,21 @@ class PaiementServiceTest {
     @Mock
     private ReservationRepository reservationRepository;
 
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private PaymentGateway paymentGateway;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private RemboursementRepository remboursementRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
     @InjectMocks
     private PaiementService paiementService;
 
@@ -83,6 +110,9 @@ class PaiementServiceTest {
         testPaiement.setMethodePaiement(MethodePaiement.CARTE_CREDIT);
         testPaiement.setStripePaymentIntentId("pi_test_123");
         testPaiement.setTransactionId("txn_123");
+
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
     }
 
     @Test
@@ -146,6 +176,8 @@ class PaiementServiceTest {
         // Given
         when(paiementRepository.findById(1L)).thenReturn(Optional.of(testPaiement));
         when(paiementRepository.save(any(Paiement.class))).thenReturn(testPaiement);
+        when(paymentGateway.recupererIntention("pi_success_123")).thenReturn(CompletableFuture.completedFuture(
+                new IntentionPaiement("pi_success_123", IntentionPaiement.STATUT_REUSSI, 15000L, "eur", null)));
 
         // When
         Paiement result = paiementService.processPayment(1L, "pi_success_123", "txn_success_123");
@@ -160,6 +192,82 @@ class PaiementServiceTest {
         verify(paiementRepository).save(any(Paiement.class));
     }
 
+    @Test
+    @DisplayName("Test process payment with unconfirmed intent")
+    void testProcessPaymentIntentNonConfirmee() {
+        // Given
+        when(paiementRepository.findById(1L)).thenReturn(Optional.of(testPaiement));
+        when(paymentGateway.recupererIntention("pi_pending_123")).thenReturn(CompletableFuture.completedFuture(
+                new IntentionPaiement("pi_pending_123", "requires_payment_method", 15000L, "eur", null)));
+
+        // When & Then
+        assertThrows(BusinessException.class, () -> paiementService.processPayment(1L, "pi_pending_123", "txn_123"));
+        assertEquals(StatutPaiement.EN_ATTENTE, testPaiement.getStatut());
+        verify(paiementRepository, never()).save(any(Paiement.class));
+    }
+
+    @Test
+    @DisplayName("Test process payment with mismatched amount")
+    void testProcessPaymentMontantDifferent() {
+        // Given
+        when(paiementRepository.findById(1L)).thenReturn(Optional.of(testPaiement));
+        when(paymentGateway.recupererIntention("pi_low_123")).thenReturn(CompletableFuture.completedFuture(
+                new IntentionPaiement("pi_low_123", IntentionPaiement.STATUT_REUSSI, 100L, "eur", null)));
+
+        // When & Then
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> paiementService.processPayment(1L, "pi_low_123", "txn_123"));
+        assertEquals("Le montant payé ne correspond pas au montant du paiement", exception.getMessage());
+        verify(paiementRepository, never()).save(any(Paiement.class));
+    }
+
+    @Test
+    @DisplayName("Test process payment when gateway is unavailable")
+    void testProcessPaymentPasserelleIndisponible() {
+        // Given
+        when(paiementRepository.findById(1L)).thenReturn(Optional.of(testPaiement));
+        when(paymentGateway.recupererIntention("pi_test_123")).thenReturn(CompletableFuture.failedFuture(
+                new PaymentGatewayException("Service de paiement temporairement indisponible")));
+
+        // When & Then
+        assertThrows(PaymentGatewayException.class, () -> paiementService.processPayment(1L, "pi_test_123", "txn_123"));
+        verify(transactionTemplate, never()).execute(any());
+    }
+
+    @Test
+    @DisplayName("Test process payment already paid with the same intent")
+    void testProcessPaymentDejaPaye() {
+        // Given
+        testPaiement.setStatut(StatutPaiement.PAYE);
+        testPaiement.setStripePaymentIntentId("pi_success_123");
+        when(paiementRepository.findById(1L)).thenReturn(Optional.of(testPaiement));
+
+        // When
+        Paiement result = paiementService.processPayment(1L, "pi_success_123", "txn_success_123");
+
+        // Then
+        assertSame(testPaiement, result);
+        verify(paymentGateway, never()).recupererIntention(any());
+        verify(paiementRepository, never()).save(any(Paiement.class));
+        verify(outboxService, never()).enregistrer(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Test process payment refused for refunded payments")
+    void testProcessPaymentRembourse() {
+        // Given
+        testPaiement.setStatut(StatutPaiement.REMBOURSE);
+        testPaiement.setStripePaymentIntentId("pi_success_123");
+        when(paiementRepository.findById(1L)).thenReturn(Optional.of(testPaiement));
+
+        // When & Then
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> paiementService.processPayment(1L, "pi_success_123", "txn_success_123"));
+        assertEquals("Paiement déjà REMBOURSE", exception.getMessage());
+        verify(paymentGateway, never()).recupererIntention(any());
+        verify(paiementRepository, never()).save(any(Paiement.class));
+    }
+
     @Test
     @DisplayName("Test process payment failure")
     void testProcessPaymentFailure() {
@@ -262,7 +370,16 @@ class PaiementServiceTest {
         // Given
         testPaiement.setStatut(StatutPaiement.PAYE);
         when(paiementRepository.findById(1L)).thenReturn(Optional.of(testPaiement));
+        when(paiementRepository.saveAndFlush(any(Paiement.class))).thenReturn(testPaiement);
         when(paiementRepository.save(any(Paiement.class))).thenReturn(testPaiement);
+        when(remboursementRepository.save(any(Remboursement.class))).thenAnswer(invocation -> {
+            Remboursement remboursement = invocation.getArgument(0);
+            remboursement.setId(10L);
+            return remboursement;
+        });
+        when(paymentGateway.rembourser("pi_test_123", 15000L, "remboursement-10"))
+                .thenReturn(CompletableFuture.completedFuture(new RemboursementPrestataire("re_1", "succeeded", 15000L)));
+        when(remboursementRepository.terminer(10L, StatutRemboursement.EFFECTUE, "re_1", null)).thenReturn(1);
 
         // When
         Paiement result = paiementService.refundPaiement(1L, new BigDecimal("150.00"));
@@ -270,8 +387,132 @@ class PaiementServiceTest {
         // Then
         assertNotNull(result);
         assertEquals(StatutPaiement.REMBOURSE, result.getStatut());
-        verify(paiementRepository).findById(1L);
+        assertEquals(0, new BigDecimal("150.00").compareTo(result.getMontantRembourse()));
+        verify(paiementRepository, times(2)).findById(1L);
+        verify(paiementRepository).saveAndFlush(any(Paiement.class));
         verify(paiementRepository).save(any(Paiement.class));
+        verify(outboxService).enregistrer(eq(TypeEvenement.PAIEMENT_REMBOURSE), eq(1L), any());
+    }
+
+    @Test
+    @DisplayName("Test partial refunds")
+    void testRefundPaiementPartiel() {
+        // Given
+        testPaiement.setStatut(StatutPaiement.PAYE);
+        testPaiement.setStripePaymentIntentId(null);
+        when(paiementRepository.findById(1L)).thenReturn(Optional.of(testPaiement));
+        when(paiementRepository.save(any(Paiement.class))).thenReturn(testPaiement);
+        when(remboursementRepository.terminer(any(), eq(StatutRemboursement.EFFECTUE), any(), any())).thenReturn(1);
+
+        // When
+        paiementService.refundPaiement(1L, new BigDecimal("50.00"));
+        Paiement result = paiementService.refundPaiement(1L, new BigDecimal("40.00"));
+
+        // Then
+        assertEquals(StatutPaiement.PARTIELLEMENT_REMBOURSE, result.getStatut());
+        assertEquals(0, new BigDecimal("60.00").compareTo(result.getMontantRemboursable()));
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> paiementService.refundPaiement(1L, new BigDecimal("60.01")));
+        assertEquals("Le montant dépasse le solde remboursable (60.00)", exception.getMessage());
+        verify(remboursementRepository, times(2)).save(any(Remboursement.class));
+        verify(outboxService, times(2)).enregistrer(eq(TypeEvenement.PAIEMENT_REMBOURSE), eq(1L), any());
+        verify(paymentGateway, never()).rembourser(any(), anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("Test refund rolled back when the gateway refuses it")
+    void testRefundPaiementRefuseParLePrestataire() {
+        // Given
+        testPaiement.setStatut(StatutPaiement.PAYE);
+        when(paiementRepository.findById(1L)).thenReturn(Optional.of(testPaiement));
+        when(paymentGateway.rembourser(eq("pi_test_123"), eq(5000L), any())).thenReturn(
+                CompletableFuture.completedFuture(new RemboursementPrestataire("re_1", "failed", 5000L)));
+        when(remboursementRepository.terminer(any(), eq(StatutRemboursement.ECHEC), any(), any())).thenReturn(1);
+
+        // When & Then
+        assertThrows(RefusPrestataireException.class, () -> paiementService.refundPaiement(1L, new BigDecimal("50.00")));
+        verify(paiementRepository).annulerMontantRembourse(1L, new BigDecimal("50.00"));
+        verify(paiementRepository, never()).save(any(Paiement.class));
+        verify(outboxService, never()).enregistrer(eq(TypeEvenement.PAIEMENT_REMBOURSE), any(), any());
+    }
+
+    @Test
+    @DisplayName("Test refund kept pending when the gateway outcome is unknown")
+    void testRefundPaiementPasserelleIndisponible() {
+        // Given
+        testPaiement.setStatut(StatutPaiement.PAYE);
+        when(paiementRepository.findById(1L)).thenReturn(Optional.of(testPaiement));
+        when(paymentGateway.rembourser(eq("pi_test_123"), eq(5000L), any())).thenReturn(
+                CompletableFuture.failedFuture(new PaymentGatewayException("Le service de paiement n'a pas répondu à temps")));
+
+        // When & Then
+        assertThrows(RemboursementEnAttenteException.class,
+                () -> paiementService.refundPaiement(1L, new BigDecimal("50.00")));
+        // Le prestataire a pu rembourser : le montant reste réservé et la ligne EN_COURS
+        assertEquals(0, new BigDecimal("50.00").compareTo(testPaiement.getMontantRembourse()));
+        verify(paiementRepository, never()).annulerMontantRembourse(any(), any());
+        verify(remboursementRepository, never()).terminer(any(), any(), any(), any());
+        verify(outboxService, never()).enregistrer(eq(TypeEvenement.PAIEMENT_REMBOURSE), any(), any());
+    }
+
+    @Test
+    @DisplayName("Test refund refused while another one awaits confirmation")
+    void testRefundPaiementDejaEnCours() {
+        // Given
+        testPaiement.setStatut(StatutPaiement.PAYE);
+        when(paiementRepository.findById(1L)).thenReturn(Optional.of(testPaiement));
+        when(remboursementRepository.existsByPaiementIdAndStatut(1L, StatutRemboursement.EN_COURS)).thenReturn(true);
+
+        // When & Then
+        assertThrows(BusinessException.class, () -> paiementService.refundPaiement(1L, new BigDecimal("50.00")));
+        verify(paiementRepository, never()).saveAndFlush(any(Paiement.class));
+        verify(paymentGateway, never()).rembourser(any(), anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("Test pending refunds replayed with the same idempotency key")
+    void testReprendreRemboursements() {
+        // Given
+        testPaiement.setStatut(StatutPaiement.PAYE);
+        testPaiement.setMontantRembourse(new BigDecimal("50.00"));
+        Remboursement enCours = new Remboursement(testPaiement, new BigDecimal("50.00"));
+        enCours.setId(10L);
+        LocalDateTime maintenant = LocalDateTime.of(2026, 3, 15, 10, 0);
+        when(remboursementRepository.findEnCoursCreesEntre(eq(maintenant.minusHours(20)), eq(maintenant.minusMinutes(2)), any()))
+                .thenReturn(List.of(enCours));
+        when(paymentGateway.rembourser("pi_test_123", 5000L, "remboursement-10"))
+                .thenReturn(CompletableFuture.completedFuture(new RemboursementPrestataire("re_1", "succeeded", 5000L)));
+        when(paiementRepository.findById(1L)).thenReturn(Optional.of(testPaiement));
+        when(remboursementRepository.terminer(10L, StatutRemboursement.EFFECTUE, "re_1", null)).thenReturn(1);
+        when(paiementRepository.save(any(Paiement.class))).thenReturn(testPaiement);
+
+        // When
+        int termines = paiementService.reprendreRemboursements(maintenant);
+
+        // Then
+        assertEquals(1, termines);
+        assertEquals(StatutPaiement.PARTIELLEMENT_REMBOURSE, testPaiement.getStatut());
+        verify(outboxService).enregistrer(eq(TypeEvenement.PAIEMENT_REMBOURSE), eq(1L), any());
+    }
+
+    @Test
+    @DisplayName("Test pending refund already finalized elsewhere publishes nothing")
+    void testReprendreRemboursementsDejaFinalise() {
+        // Given
+        testPaiement.setStatut(StatutPaiement.PAYE);
+        Remboursement enCours = new Remboursement(testPaiement, new BigDecimal("50.00"));
+        enCours.setId(10L);
+        when(remboursementRepository.findEnCoursCreesEntre(any(), any(), any())).thenReturn(List.of(enCours));
+        when(paymentGateway.rembourser("pi_test_123", 5000L, "remboursement-10"))
+                .thenReturn(CompletableFuture.completedFuture(new RemboursementPrestataire("re_1", "succeeded", 5000L)));
+        when(paiementRepository.findById(1L)).thenReturn(Optional.of(testPaiement));
+
+        // When
+        paiementService.reprendreRemboursements(LocalDateTime.of(2026, 3, 15, 10, 0));
+
+        // Then
+        verify(paiementRepository, never()).save(any(Paiement.class));
+        verify(outboxService, never()).enregistrer(any(), any(), any());
     }
 
     @Test
@@ -0,0 +1,75 @@
+package com.locme.paiement;
+
+import com.locme.auth.JwtService;
+import com.locme.config.NoSecurityTestConfig;
+import com.locme.paiement.gateway.EvenementPaiement;
+import com.locme.paiement.gateway.PaymentGateway;
+import com.locme.paiement.gateway.PaymentGatewayException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Instant;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(WebhookController.class)
+@AutoConfigureMockMvc
+@Import(NoSecurityTestConfig.class)
+class WebhookControllerTest {
+
+    private static final String PAYLOAD = "{\"id\":\"evt_1\",\"type\":\"payment_intent.succeeded\"}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private PaymentGateway paymentGateway;
+
+    @MockBean
+    private WebhookService webhookService;
+
+    @MockBean
+    private JwtService jwtService;
+
+    @Test
+    @DisplayName("Test réception d'un webhook signé")
+    void testRecevoirEvenement() throws Exception {
+        EvenementPaiement evenement = new EvenementPaiement("evt_1", EvenementPaiement.INTENTION_REUSSIE, "pi_1",
+                null, 15000L, "ch_1", null, Instant.now());
+        when(paymentGateway.lireEvenement(PAYLOAD, "t=1,v1=abc")).thenReturn(evenement);
+
+        mockMvc.perform(post("/api/payments/webhook")
+                .header("Stripe-Signature", "t=1,v1=abc")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(PAYLOAD))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true));
+
+        verify(webhookService).enregistrer(evenement);
+    }
+
+    @Test
+    @DisplayName("Test webhook avec signature invalide")
+    void testSignatureInvalide() throws Exception {
+        when(paymentGateway.lireEvenement(any(), any())).thenThrow(new PaymentGatewayException("Signature du webhook invalide"));
+
+        mockMvc.perform(post("/api/payments/webhook")
+                .header("Stripe-Signature", "t=1,v1=faux")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(PAYLOAD))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Signature du webhook invalide"));
+
+        verify(webhookService, never()).enregistrer(any());
+    }
+}
@@ -0,0 +1,231 @@
+package com.locme.paiement;
+
+import com.locme.paiement.gateway.EvenementPaiement;
+import com.locme.reservation.Reservation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WebhookServiceTest {
+
+    @Mock
+    private WebhookEventRepository webhookEventRepository;
+
+    @Mock
+    private PaiementRepository paiementRepository;
+
+    @Mock
+    private PaiementService paiementService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private WebhookService webhookService;
+
+    private Paiement paiement;
+
+    @BeforeEach
+    void setUp() {
+        Reservation reservation = new Reservation();
+        reservation.setId(1L);
+
+        paiement = new Paiement();
+        paiement.setId(1L);
+        paiement.setReservation(reservation);
+        paiement.setMontant(new BigDecimal("150.00"));
+        paiement.setStatut(StatutPaiement.EN_ATTENTE);
+        paiement.setStripePaymentIntentId("pi_1");
+
+        ReflectionTestUtils.setField(webhookService, "transactionParEvenement", transactionTemplate);
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        lenient().when(paiementRepository.findById(1L)).thenReturn(Optional.of(paiement));
+    }
+
+    private void aTraiter(WebhookEvent... evenements) {
+        when(webhookEventRepository.findATraiter(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(evenements));
+        for (WebhookEvent evenement : evenements) {
+            lenient().when(webhookEventRepository.verrouillerATraiter(evenement.getId()))
+                    .thenAnswer(invocation -> evenement.getStatut() == StatutWebhook.A_TRAITER
+                            ? Optional.of(evenement) : Optional.empty());
+        }
+    }
+
+    private EvenementPaiement evenement(String eventId, String type, String intentId, long montant, long seconde) {
+        return new EvenementPaiement(eventId, type, intentId, null, montant, "ch_" + eventId, null,
+                Instant.ofEpochSecond(1_700_000_000L + seconde));
+    }
+
+    private WebhookEvent stocke(String eventId, String type, String intentId, long montant, long seconde) {
+        WebhookEvent event = new WebhookEvent(evenement(eventId, type, intentId, montant, seconde));
+        event.setId(seconde);
+        return event;
+    }
+
+    @Test
+    @DisplayName("Test enregistrement d'un événement reçu")
+    void testEnregistrer() {
+        EvenementPaiement evenement = evenement("evt_1", EvenementPaiement.INTENTION_REUSSIE, "pi_1", 15000L, 0);
+        when(webhookEventRepository.existsByEventId("evt_1")).thenReturn(false);
+
+        assertTrue(webhookService.enregistrer(evenement));
+        verify(webhookEventRepository).save(any(WebhookEvent.class));
+    }
+
+    @Test
+    @DisplayName("Test événements dupliqués ou non gérés ignorés")
+    void testEnregistrerDoublons() {
+        when(webhookEventRepository.existsByEventId("evt_1")).thenReturn(true);
+        assertFalse(webhookService.enregistrer(evenement("evt_1", EvenementPaiement.INTENTION_REUSSIE, "pi_1", 15000L, 0)));
+
+        assertFalse(webhookService.enregistrer(evenement("evt_2", "customer.created", "pi_1", 0L, 0)));
+
+        when(webhookEventRepository.existsByEventId("evt_3")).thenReturn(false);
+        when(webhookEventRepository.save(any(WebhookEvent.class))).thenThrow(new DataIntegrityViolationException("doublon"));
+        assertFalse(webhookService.enregistrer(evenement("evt_3", EvenementPaiement.INTENTION_REUSSIE, "pi_1", 15000L, 0)));
+    }
+
+    @Test
+    @DisplayName("Test application ordonnée des événements d'une intention")
+    void testTraiterLotOrdonne() {
+        WebhookEvent echec = stocke("evt_1", EvenementPaiement.INTENTION_ECHOUEE, "pi_1", 15000L, 1);
+        WebhookEvent reussite = stocke("evt_2", EvenementPaiement.INTENTION_REUSSIE, "pi_1", 15000L, 2);
+        aTraiter(echec, reussite);
+        when(paiementRepository.findByStripePaymentIntentIdIn(anyCollection())).thenReturn(List.of(paiement));
+        when(paiementService.marquerEchec(paiement, "pi_1")).thenAnswer(invocation -> {
+            paiement.setStatut(StatutPaiement.ECHEC);
+            return paiement;
+        });
+
+        assertEquals(2, webhookService.traiterLot());
+
+        InOrder ordre = inOrder(paiementService);
+        ordre.verify(paiementService).marquerEchec(paiement, "pi_1");
+        ordre.verify(paiementService).marquerPaye(paiement, "pi_1", "ch_evt_2");
+        assertEquals(StatutWebhook.TRAITE, echec.getStatut());
+        assertEquals(StatutWebhook.TRAITE, reussite.getStatut());
+        verify(paiementRepository, times(1)).findByStripePaymentIntentIdIn(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Test échec ignoré sur un paiement déjà payé")
+    void testEchecApresPaiement() {
+        paiement.setStatut(StatutPaiement.PAYE);
+        WebhookEvent echec = stocke("evt_1", EvenementPaiement.INTENTION_ECHOUEE, "pi_1", 15000L, 1);
+        aTraiter(echec);
+        when(paiementRepository.findByStripePaymentIntentIdIn(anyCollection())).thenReturn(List.of(paiement));
+
+        webhookService.traiterLot();
+
+        verify(paiementService, never()).marquerEchec(any(), any());
+        assertEquals(StatutWebhook.TRAITE, echec.getStatut());
+    }
+
+    @Test
+    @DisplayName("Test montant différent non appliqué")
+    void testMontantDifferent() {
+        WebhookEvent reussite = stocke("evt_1", EvenementPaiement.INTENTION_REUSSIE, "pi_1", 100L, 1);
+        aTraiter(reussite);
+        when(paiementRepository.findByStripePaymentIntentIdIn(anyCollection())).thenReturn(List.of(paiement));
+
+        webhookService.traiterLot();
+
+        verify(paiementService, never()).marquerPaye(any(), any(), any());
+        assertEquals(StatutWebhook.IGNORE, reussite.getStatut());
+    }
+
+    @Test
+    @DisplayName("Test intention inconnue reportée puis rattachée par métadonnées")
+    void testIntentionInconnue() {
+        WebhookEvent orphelin = stocke("evt_1", EvenementPaiement.INTENTION_REUSSIE, "pi_inconnu", 15000L, 1);
+        aTraiter(orphelin);
+        when(paiementRepository.findByStripePaymentIntentIdIn(anyCollection())).thenReturn(List.of());
+
+        webhookService.traiterLot();
+
+        assertEquals(StatutWebhook.A_TRAITER, orphelin.getStatut());
+        assertEquals(1, orphelin.getTentatives());
+        assertTrue(orphelin.getProchainEssai().isAfter(orphelin.getRecuLe()));
+
+        orphelin.setPaiementId(1L);
+
+        webhookService.traiterLot();
+
+        verify(paiementService).marquerPaye(eq(paiement), eq("pi_inconnu"), eq("ch_evt_1"));
+        assertEquals(StatutWebhook.TRAITE, orphelin.getStatut());
+    }
+
+    @Test
+    @DisplayName("Test événement en erreur reporté sans bloquer le lot, puis mis en échec")
+    void testErreurIsolee() {
+        WebhookEvent enErreur = stocke("evt_1", EvenementPaiement.INTENTION_REUSSIE, "pi_1", 15000L, 1);
+        WebhookEvent autre = stocke("evt_2", EvenementPaiement.INTENTION_REUSSIE, "pi_2", 15000L, 2);
+        Paiement autrePaiement = new Paiement();
+        autrePaiement.setId(2L);
+        autrePaiement.setMontant(new BigDecimal("150.00"));
+        autrePaiement.setStatut(StatutPaiement.EN_ATTENTE);
+        autrePaiement.setStripePaymentIntentId("pi_2");
+        aTraiter(enErreur, autre);
+        when(paiementRepository.findByStripePaymentIntentIdIn(anyCollection())).thenReturn(List.of(paiement, autrePaiement));
+        when(paiementRepository.findById(2L)).thenReturn(Optional.of(autrePaiement));
+        when(paiementService.marquerPaye(paiement, "pi_1", "ch_evt_1")).thenThrow(new IllegalStateException("panne"));
+        ReflectionTestUtils.setField(webhookService, "maxTentatives", 2);
+
+        webhookService.traiterLot();
+
+        assertEquals(StatutWebhook.A_TRAITER, enErreur.getStatut());
+        assertEquals(1, enErreur.getTentatives());
+        verify(paiementService).marquerPaye(autrePaiement, "pi_2", "ch_evt_2");
+        assertEquals(StatutWebhook.TRAITE, autre.getStatut());
+
+        webhookService.traiterLot();
+
+        assertEquals(StatutWebhook.EN_ECHEC, enErreur.getStatut());
+        assertEquals(2, enErreur.getTentatives());
+        assertEquals("IllegalStateException : panne", enErreur.getResultat());
+    }
+
+    @Test
+    @DisplayName("Test événement retenu tant qu'un événement antérieur de l'intention est à traiter")
+    void testOrdreApresReport() {
+        WebhookEvent reporte = stocke("evt_1", EvenementPaiement.INTENTION_ECHOUEE, "pi_1", 15000L, 1);
+        reporte.setProchainEssai(LocalDateTime.now().plusMinutes(5));
+        WebhookEvent suivant = stocke("evt_2", EvenementPaiement.INTENTION_REUSSIE, "pi_1", 15000L, 2);
+        aTraiter(suivant);
+        when(paiementRepository.findByStripePaymentIntentIdIn(anyCollection())).thenReturn(List.of(paiement));
+        when(webhookEventRepository.findFirstByPaymentIntentIdAndStatutOrderByCreeLeAscIdAsc("pi_1", StatutWebhook.A_TRAITER))
+                .thenReturn(reporte);
+
+        webhookService.traiterLot();
+
+        verify(paiementService, never()).marquerPaye(any(), any(), any());
+        assertEquals(StatutWebhook.A_TRAITER, suivant.getStatut());
+        assertEquals(0, suivant.getTentatives());
+        assertEquals(reporte.getProchainEssai(), suivant.getProchainEssai());
+    }
+}
@@ -0,0 +1,54 @@
+package com.locme.paiement.gateway;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FakePaymentGatewayTest {
+
+    private final FakePaymentGateway gateway = new FakePaymentGateway();
+
+    @Test
+    @DisplayName("Test lecture d'un événement au format Stripe")
+    void testLireEvenement() {
+        String payload = """
+                {"id":"evt_1","object":"event","type":"payment_intent.succeeded","created":1700000000,
+                 "data":{"object":{"id":"pi_1","object":"payment_intent","amount":15000,"currency":"eur",
+                 "status":"succeeded","latest_charge":"ch_1","metadata":{"paiement_id":"42"}}}}
+                """;
+
+        EvenementPaiement evenement = gateway.lireEvenement(payload, FakePaymentGateway.signer(payload));
+
+        assertEquals("evt_1", evenement.getEventId());
+        assertEquals(EvenementPaiement.INTENTION_REUSSIE, evenement.getType());
+        assertEquals("pi_1", evenement.getPaymentIntentId());
+        assertEquals(42L, evenement.getPaiementId());
+        assertEquals(15000L, evenement.getMontantCentimes());
+        assertEquals("ch_1", evenement.getChargeId());
+        assertEquals(1700000000L, evenement.getCreeLe().getEpochSecond());
+    }
+
+    @Test
+    @DisplayName("Test signature absente, falsifiée ou périmée refusée")
+    void testSignatureInvalide() {
+        String payload = """
+                {"id":"evt_1","object":"event","type":"payment_intent.succeeded","created":1700000000,
+                 "data":{"object":{"id":"pi_1","object":"payment_intent","amount":15000,"currency":"eur"}}}
+                """;
+        String signature = FakePaymentGateway.signer(payload);
+
+        assertEquals("Signature du webhook manquante",
+                assertThrows(PaymentGatewayException.class, () -> gateway.lireEvenement(payload, null)).getMessage());
+        assertEquals("Signature du webhook invalide", assertThrows(PaymentGatewayException.class,
+                () -> gateway.lireEvenement(payload.replace("15000", "1"), signature)).getMessage());
+        assertEquals("Signature du webhook invalide", assertThrows(PaymentGatewayException.class,
+                () -> gateway.lireEvenement(payload, FakePaymentGateway.signer(payload, 1_700_000_000L))).getMessage());
+    }
+
+    @Test
+    @DisplayName("Test intention inconnue")
+    void testIntentionInconnue() {
+        assertThrows(Exception.class, () -> gateway.recupererIntention("pi_inconnu").join());
+    }
+}
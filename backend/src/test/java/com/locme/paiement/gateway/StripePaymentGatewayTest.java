@@ -0,0 +1,181 @@
+package com.locme.paiement.gateway;
+
+import com.stripe.exception.ApiConnectionException;
+import com.stripe.exception.InvalidRequestException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StripePaymentGatewayTest {
+
+    private ThreadPoolExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private StripePaymentGateway gateway(int taillePool, int capaciteFile, int seuilEchecs, long timeoutMs) {
+        executor = StripePaymentGateway.creerExecutor(taillePool, capaciteFile);
+        CircuitBreaker circuitBreaker = new CircuitBreaker(seuilEchecs, Duration.ofMinutes(1), Clock.systemUTC());
+        return new StripePaymentGateway(null, executor, circuitBreaker, 3, 1, timeoutMs);
+    }
+
+    private static void attendre(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static PaymentGatewayException echec(CompletableFuture<?> future) {
+        CompletionException exception = assertThrows(CompletionException.class, future::join);
+        return assertInstanceOf(PaymentGatewayException.class, exception.getCause());
+    }
+
+    @Test
+    @DisplayName("Test nouvelles tentatives sur erreur réseau")
+    void testNouvellesTentatives() {
+        StripePaymentGateway gateway = gateway(2, 10, 5, 5000);
+        AtomicInteger appels = new AtomicInteger();
+
+        String resultat = gateway.executer("test", client -> {
+            if (appels.incrementAndGet() < 3) {
+                throw new ApiConnectionException("connexion refusée");
+            }
+            return "ok";
+        }).join();
+
+        assertEquals("ok", resultat);
+        assertEquals(3, appels.get());
+        assertEquals(CircuitBreaker.Etat.FERME, gateway.getCircuitBreaker().getEtat());
+    }
+
+    @Test
+    @DisplayName("Test pas de nouvelle tentative sur requête invalide")
+    void testRequeteInvalideNonRejouee() {
+        StripePaymentGateway gateway = gateway(2, 10, 1, 5000);
+        AtomicInteger appels = new AtomicInteger();
+
+        echec(gateway.executer("test", client -> {
+            appels.incrementAndGet();
+            throw new InvalidRequestException("No such payment_intent", null, null, null, 404, null);
+        }));
+
+        assertEquals(1, appels.get());
+        assertEquals(CircuitBreaker.Etat.FERME, gateway.getCircuitBreaker().getEtat());
+    }
+
+    @Test
+    @DisplayName("Test ouverture du disjoncteur après échecs répétés")
+    void testDisjoncteur() {
+        StripePaymentGateway gateway = gateway(2, 10, 2, 5000);
+        AtomicInteger appels = new AtomicInteger();
+        StripePaymentGateway.AppelStripe<String> enPanne = client -> {
+            appels.incrementAndGet();
+            throw new ApiConnectionException("timeout");
+        };
+
+        echec(gateway.executer("test", enPanne));
+        echec(gateway.executer("test", enPanne));
+        int appelsAvantOuverture = appels.get();
+
+        PaymentGatewayException exception = echec(gateway.executer("test", enPanne));
+        assertEquals("Service de paiement temporairement indisponible", exception.getMessage());
+        assertEquals(appelsAvantOuverture, appels.get());
+        assertEquals(CircuitBreaker.Etat.OUVERT, gateway.getCircuitBreaker().getEtat());
+    }
+
+    @Test
+    @DisplayName("Test délai global dépassé")
+    void testDelaiDepasse() {
+        StripePaymentGateway gateway = gateway(1, 10, 5, 50);
+        CountDownLatch bloque = new CountDownLatch(1);
+
+        PaymentGatewayException exception = echec(gateway.executer("test", client -> {
+            attendre(bloque);
+            return "trop tard";
+        }));
+
+        assertEquals("Le service de paiement n'a pas répondu à temps", exception.getMessage());
+        bloque.countDown();
+    }
+
+    @Test
+    @DisplayName("Test rejet immédiat quand le pool est saturé, sans ouvrir le disjoncteur")
+    void testPoolSature() {
+        StripePaymentGateway gateway = gateway(1, 1, 1, 5000);
+        CountDownLatch bloque = new CountDownLatch(1);
+        StripePaymentGateway.AppelStripe<String> lent = client -> {
+            attendre(bloque);
+            return "ok";
+        };
+
+        CompletableFuture<String> enCours = gateway.executer("test", lent);
+        CompletableFuture<String> enFile = gateway.executer("test", lent);
+        PaymentGatewayException exception = echec(gateway.executer("test", lent));
+        echec(gateway.executer("test", lent));
+
+        assertInstanceOf(ServicePaiementSatureException.class, exception);
+        assertEquals("Service de paiement saturé", exception.getMessage());
+        assertFalse(StripePaymentGateway.estTransitoire(exception));
+        // Seuil à 1 : un seul rejet compté comme échec aurait ouvert le disjoncteur
+        assertEquals(CircuitBreaker.Etat.FERME, gateway.getCircuitBreaker().getEtat());
+        bloque.countDown();
+        assertEquals("ok", enCours.join());
+        assertEquals("ok", enFile.join());
+    }
+
+    @Test
+    @DisplayName("Test disjoncteur semi-ouvert après la durée d'ouverture")
+    void testDisjoncteurSemiOuvert() {
+        AtomicReference<Instant> maintenant = new AtomicReference<>(Instant.parse("2026-01-01T00:00:00Z"));
+        Clock horloge = new Clock() {
+            @Override
+            public ZoneId getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return maintenant.get();
+            }
+        };
+        CircuitBreaker circuitBreaker = new CircuitBreaker(1, Duration.ofSeconds(30), horloge);
+
+        circuitBreaker.enregistrerEchec();
+        assertFalse(circuitBreaker.autoriser());
+
+        maintenant.set(maintenant.get().plusSeconds(31));
+        assertTrue(circuitBreaker.autoriser());
+        // Un seul appel d'essai à la fois
+        assertFalse(circuitBreaker.autoriser());
+
+        circuitBreaker.enregistrerSucces();
+        assertEquals(CircuitBreaker.Etat.FERME, circuitBreaker.getEtat());
+        assertTrue(circuitBreaker.autoriser());
+    }
+}
@@ -0,0 +1,213 @@
+package com.locme.paiement.reconciliation;
+
+import com.locme.paiement.Paiement;
+import com.locme.paiement.PaiementRepository;
+import com.locme.paiement.StatutPaiement;
+import com.locme.paiement.gateway.FakePaymentGateway;
+import com.locme.paiement.gateway.IntentionPaiement;
+import com.locme.paiement.gateway.PaymentGateway;
+import com.locme.paiement.gateway.PaymentGatewayException;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReconciliationServiceTest {
+
+    private static final LocalDateTime DEBUT = LocalDateTime.of(2026, 3, 1, 0, 0);
+    private static final LocalDateTime FIN = LocalDateTime.of(2026, 3, 2, 0, 0);
+
+    @Mock
+    private PaiementRepository paiementRepository;
+
+    @Mock
+    private RapportReconciliationRepository rapportRepository;
+
+    @Mock
+    private EcartReconciliationRepository ecartRepository;
+
+    @Spy
+    private PaymentGateway paymentGateway = new FakePaymentGateway();
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @InjectMocks
+    private ReconciliationService reconciliationService;
+
+    private final List<EcartReconciliation> ecarts = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(reconciliationService, "appelsParSeconde", 0);
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        lenient().when(rapportRepository.save(any(RapportReconciliation.class))).thenAnswer(invocation -> {
+            RapportReconciliation rapport = invocation.getArgument(0);
+            rapport.setId(7L);
+            return rapport;
+        });
+        lenient().when(ecartRepository.saveAll(anyCollection())).thenAnswer(invocation -> {
+            ecarts.addAll(invocation.<Collection<EcartReconciliation>>getArgument(0));
+            return List.of();
+        });
+    }
+
+    private void intention(String id, String statut, long centimes, LocalDateTime creeLe) {
+        ((FakePaymentGateway) paymentGateway).enregistrerIntention(new IntentionPaiement(id, statut, centimes, "eur",
+                null, creeLe.atZone(ZoneId.systemDefault()).toInstant()));
+    }
+
+    private Paiement paiement(long id, String intentId, StatutPaiement statut, String montant) {
+        Paiement paiement = new Paiement();
+        paiement.setId(id);
+        paiement.setStripePaymentIntentId(intentId);
+        paiement.setStatut(statut);
+        paiement.setMontant(new BigDecimal(montant));
+        paiement.setDatePaiement(DEBUT.plusHours(id));
+        return paiement;
+    }
+
+    private List<TypeEcart> typesEcarts() {
+        return ecarts.stream().map(EcartReconciliation::getType).sorted().toList();
+    }
+
+    @Test
+    @DisplayName("Test réconciliation avec écarts de montant, de statut et paiements absents")
+    void testReconcilier() {
+        intention("pi_ok", IntentionPaiement.STATUT_REUSSI, 15000L, DEBUT.plusHours(1));
+        intention("pi_montant", IntentionPaiement.STATUT_REUSSI, 9000L, DEBUT.plusHours(2));
+        intention("pi_orphelin", IntentionPaiement.STATUT_REUSSI, 5000L, DEBUT.plusHours(3));
+        intention("pi_annule", "canceled", 7000L, DEBUT.plusHours(4));
+
+        Paiement ok = paiement(1L, "pi_ok", StatutPaiement.PAYE, "150.00");
+        Paiement montant = paiement(2L, "pi_montant", StatutPaiement.PAYE, "100.00");
+        Paiement annule = paiement(4L, "pi_annule", StatutPaiement.PAYE, "70.00");
+        Paiement inconnu = paiement(5L, "pi_inconnu", StatutPaiement.PAYE, "30.00");
+        when(paiementRepository.findByStripePaymentIntentIdIn(anyCollection())).thenReturn(List.of(ok, montant, annule));
+        when(paiementRepository.findNonRapprochesApres(any(), eq(FIN), any(), eq(DEBUT), eq(0L), any()))
+                .thenReturn(List.of(inconnu));
+
+        RapportReconciliation rapport = reconciliationService.reconcilier(DEBUT, FIN);
+
+        assertEquals(StatutRapport.TERMINE, rapport.getStatut());
+        assertEquals(4, rapport.getIntentionsPrestataire());
+        assertEquals(1, rapport.getPaiementsVerifies());
+        assertEquals(4, rapport.getEcarts());
+        assertEquals(List.of(TypeEcart.ABSENT_LOCALEMENT, TypeEcart.ABSENT_CHEZ_PRESTATAIRE,
+                TypeEcart.STATUT_DIVERGENT, TypeEcart.MONTANT_DIVERGENT), typesEcarts());
+        verify(paiementRepository).marquerRapproches(eq(List.of(1L)), any(LocalDateTime.class));
+    }
+
+    @Test
+    @DisplayName("Test pagination des intentions du prestataire")
+    void testPagination() {
+        ReflectionTestUtils.setField(reconciliationService, "taillePage", 2);
+        for (int i = 0; i < 5; i++) {
+            intention("pi_" + i, IntentionPaiement.STATUT_REUSSI, 1000L, DEBUT.plusHours(i));
+        }
+        List<Paiement> locaux = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            locaux.add(paiement(i + 1, "pi_" + i, StatutPaiement.PAYE, "10.00"));
+        }
+        when(paiementRepository.findByStripePaymentIntentIdIn(anyCollection())).thenAnswer(invocation -> {
+            Collection<String> ids = invocation.getArgument(0);
+            return locaux.stream().filter(p -> ids.contains(p.getStripePaymentIntentId())).toList();
+        });
+        when(paiementRepository.findNonRapprochesApres(any(), any(), any(), any(), any(), any())).thenReturn(List.of());
+
+        RapportReconciliation rapport = reconciliationService.reconcilier(DEBUT, FIN);
+
+        assertEquals(5, rapport.getIntentionsPrestataire());
+        assertEquals(0, rapport.getEcarts());
+        verify(paiementRepository, times(3)).findByStripePaymentIntentIdIn(anyCollection());
+        ArgumentCaptor<List<Long>> ids = ArgumentCaptor.forClass(List.class);
+        verify(paiementRepository, times(3)).marquerRapproches(ids.capture(), any(LocalDateTime.class));
+        assertEquals(5, ids.getAllValues().stream().mapToInt(List::size).sum());
+    }
+
+    @Test
+    @DisplayName("Test rapport en échec si le prestataire est indisponible")
+    void testPrestataireIndisponible() {
+        when(paymentGateway.listerIntentions(any(), any(), any(), anyInt())).thenReturn(
+                CompletableFuture.failedFuture(new PaymentGatewayException("Service de paiement temporairement indisponible")));
+
+        RapportReconciliation rapport = reconciliationService.reconcilier(DEBUT, FIN);
+
+        assertEquals(StatutRapport.ECHEC, rapport.getStatut());
+        assertEquals("Service de paiement temporairement indisponible", rapport.getMessage());
+        verify(paiementRepository, never()).findNonRapprochesApres(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Test vérification des paiements locaux page par page, chaque page validée à part")
+    void testPaiementsLocauxParPages() {
+        ReflectionTestUtils.setField(reconciliationService, "tailleLot", 2);
+        intention("pi_1", IntentionPaiement.STATUT_REUSSI, 1000L, DEBUT.minusDays(2));
+        intention("pi_2", IntentionPaiement.STATUT_REUSSI, 1000L, DEBUT.minusDays(2));
+        Paiement premier = paiement(1L, "pi_1", StatutPaiement.PAYE, "10.00");
+        Paiement second = paiement(2L, "pi_2", StatutPaiement.PAYE, "10.00");
+        Paiement troisieme = paiement(3L, "pi_3", StatutPaiement.PAYE, "10.00");
+        when(paiementRepository.findNonRapprochesApres(any(), eq(FIN), any(), eq(DEBUT), eq(0L), any()))
+                .thenReturn(List.of(premier, second));
+        when(paiementRepository.findNonRapprochesApres(any(), eq(FIN), any(), eq(second.getDatePaiement()), eq(2L), any()))
+                .thenReturn(List.of(troisieme));
+
+        RapportReconciliation rapport = reconciliationService.reconcilier(DEBUT, FIN);
+
+        assertEquals(StatutRapport.TERMINE, rapport.getStatut());
+        assertEquals(3, rapport.getPaiementsVerifies());
+        assertEquals(List.of(TypeEcart.ABSENT_CHEZ_PRESTATAIRE), typesEcarts());
+        verify(paiementRepository).marquerRapproches(eq(List.of(1L, 2L)), any(LocalDateTime.class));
+        // Page d'intentions vide puis deux pages locales : une transaction courte chacune
+        verify(transactionTemplate, times(3)).execute(any());
+        verify(paiementRepository, times(2)).findNonRapprochesApres(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Test appels au prestataire cadencés")
+    void testCadence() {
+        ReflectionTestUtils.setField(reconciliationService, "appelsParSeconde", 20);
+        List<Paiement> locaux = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            intention("pi_" + i, IntentionPaiement.STATUT_REUSSI, 1000L, DEBUT.minusDays(2));
+            locaux.add(paiement(i + 1, "pi_" + i, StatutPaiement.PAYE, "10.00"));
+        }
+        when(paiementRepository.findNonRapprochesApres(any(), any(), any(), any(), any(), any())).thenReturn(locaux);
+
+        long debut = System.nanoTime();
+        RapportReconciliation rapport = reconciliationService.reconcilier(DEBUT, FIN);
+
+        // Une page d'intentions et quatre vérifications, espacées de 50 ms
+        assertEquals(4, rapport.getPaiementsVerifies());
+        assertTrue(System.nanoTime() - debut >= 200_000_000L);
+    }
+}
@@ -0,0 +1,94 @@
+package com.locme.reservation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ArchivageReservationServiceTest {
+
+    private static final LocalDate AUJOURDHUI = LocalDate.of(2026, 3, 15);
+    private static final LocalDate LIMITE = LocalDate.of(2025, 3, 15);
+
+    @Mock
+    private ReservationRepository reservationRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private ArchivageReservationService archivageService;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        ReflectionTestUtils.setField(archivageService, "tailleLot", 100);
+        ReflectionTestUtils.setField(archivageService, "maxLots", 5);
+    }
+
+    @Test
+    @DisplayName("Crée la partition de chaque année concernée puis archive par lots jusqu'au dernier lot incomplet")
+    void testArchiverParLots() {
+        when(reservationRepository.findPlusAncienneFinArchivable(LIMITE)).thenReturn(LocalDate.of(2023, 6, 2));
+        when(reservationRepository.archiverLot(LIMITE, 100)).thenReturn(100, 100, 42);
+
+        int archivees = archivageService.archiver(AUJOURDHUI);
+
+        assertEquals(242, archivees);
+        InOrder ordre = inOrder(reservationRepository);
+        ordre.verify(reservationRepository).creerPartitionArchive(2023);
+        ordre.verify(reservationRepository).creerPartitionArchive(2024);
+        ordre.verify(reservationRepository).creerPartitionArchive(2025);
+        ordre.verify(reservationRepository, times(3)).archiverLot(LIMITE, 100);
+        verify(reservationRepository, never()).creerPartitionArchive(2026);
+    }
+
+    @Test
+    @DisplayName("Le nombre de lots par passage est borné")
+    void testNombreDeLotsBorne() {
+        when(reservationRepository.findPlusAncienneFinArchivable(LIMITE)).thenReturn(LocalDate.of(2025, 1, 10));
+        when(reservationRepository.archiverLot(LIMITE, 100)).thenReturn(100);
+
+        assertEquals(500, archivageService.archiver(AUJOURDHUI));
+        verify(reservationRepository, times(5)).archiverLot(LIMITE, 100);
+    }
+
+    @Test
+    @DisplayName("Rien à archiver : ni partition ni lot")
+    void testRienAArchiver() {
+        when(reservationRepository.findPlusAncienneFinArchivable(LIMITE)).thenReturn(null);
+
+        assertEquals(0, archivageService.archiver(AUJOURDHUI));
+        verify(reservationRepository, never()).creerPartitionArchive(anyInt());
+        verify(reservationRepository, never()).archiverLot(any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Une partition impossible à créer n'empêche pas l'archivage")
+    void testPartitionNonCreee() {
+        when(reservationRepository.findPlusAncienneFinArchivable(LIMITE)).thenReturn(LocalDate.of(2024, 12, 30));
+        when(reservationRepository.creerPartitionArchive(2024))
+                .thenThrow(new DataAccessResourceFailureException("partition par défaut non vide"));
+        when(reservationRepository.archiverLot(LIMITE, 100)).thenReturn(7);
+
+        assertEquals(7, archivageService.archiver(AUJOURDHUI));
+        verify(reservationRepository).creerPartitionArchive(2025);
+    }
+}
@@ -20,6 +20,7 @@ import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -44,6 +45,9 @@ class ReservationControllerTest {
     @MockBean
     private ReservationService reservationService;
 
+    @MockBean
+    private ReservationStreamService reservationStreamService;
+
     @MockBean
     private AuthService authService;
 
@@ -110,6 +114,22 @@ class ReservationControllerTest {
                 .andExpect(status().isForbidden());
     }
 
+    @Test
+    @DisplayName("Test stream reservations")
+    @WithMockUser(username = "client@example.com", roles = {"CLIENT"})
+    void testStreamReservations() throws Exception {
+        // Given
+        when(authService.getCurrentUser()).thenReturn(testUser);
+        when(reservationStreamService.abonner(testUser)).thenReturn(new SseEmitter());
+
+        // When & Then
+        mockMvc.perform(get("/api/reservations/stream").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isOk())
+                .andExpect(request().asyncStarted());
+
+        verify(reservationStreamService).abonner(testUser);
+    }
+
     @Test
     @DisplayName("Test get my reservations")
     @WithMockUser(username = "client@example.com", roles = {"CLIENT"})
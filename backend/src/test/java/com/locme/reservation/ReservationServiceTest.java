@@ -4,10 +4,15 @@ import com.locme.auth.User;
 import com.locme.auth.Role;
 import com.locme.common.exceptions.BusinessException;
 import com.locme.common.exceptions.ResourceNotFoundException;
+import com.locme.outbox.OutboxService;
+import com.locme.outbox.TypeEvenement;
 import com.locme.reservation.dto.ReservationDto;
+import com.locme.reservation.dto.ReservationEvenement;
+import com.locme.reservation.dto.ReservationExportDto;
 import com.locme.societe.Societe;
 import com.locme.voiture.Voiture;
 import com.locme.voiture.VoitureRepository;
+import com.locme.voiture.popularite.PopulariteService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -16,11 +21,16 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -37,6 +47,15 @@ class ReservationServiceTest {
     @Mock
     private VoitureRepository voitureRepository;
 
+    @Mock
+    private TarificationService tarificationService;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private PopulariteService populariteService;
+
     @InjectMocks
     private ReservationService reservationService;
 
@@ -189,6 +208,8 @@ class ReservationServiceTest {
         newReservationDto.setMontant(new BigDecimal("150.00"));
 
         when(voitureRepository.findById(1L)).thenReturn(Optional.of(testVoiture));
+        when(tarificationService.calculerMontant(testVoiture, newReservationDto.getDateDebut(), newReservationDto.getDateFin()))
+                .thenReturn(new BigDecimal("100.00"));
         when(reservationRepository.save(any(Reservation.class))).thenReturn(testReservation);
 
         // When
@@ -197,7 +218,38 @@ class ReservationServiceTest {
         // Then
         assertNotNull(result);
         verify(voitureRepository).findById(1L);
+        verify(tarificationService).calculerMontant(testVoiture, newReservationDto.getDateDebut(), newReservationDto.getDateFin());
         verify(reservationRepository).save(any(Reservation.class));
+        verify(outboxService).enregistrer(eq(TypeEvenement.RESERVATION_CREEE), eq(1L), any(ReservationEvenement.class));
+        verify(populariteService).enregistrerReservation(1L);
+    }
+
+    @Test
+    @DisplayName("Test create reservation on a voiture deleted meanwhile")
+    void testCreateReservationVoitureSupprimeeEntreTemps() {
+        // Given
+        ReservationDto newReservationDto = new ReservationDto();
+        newReservationDto.setVoitureId(1L);
+        newReservationDto.setDateDebut(LocalDate.now().plusDays(1));
+        newReservationDto.setDateFin(LocalDate.now().plusDays(3));
+
+        when(voitureRepository.findById(1L)).thenReturn(Optional.of(testVoiture));
+        when(tarificationService.calculerMontant(testVoiture, newReservationDto.getDateDebut(), newReservationDto.getDateFin()))
+                .thenReturn(new BigDecimal("100.00"));
+        when(reservationRepository.save(any(Reservation.class))).thenReturn(testReservation);
+        when(voitureRepository.estSupprimee(1L)).thenReturn(true);
+
+        // When & Then
+        ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class, () -> {
+            reservationService.createReservation(newReservationDto, testUser);
+        });
+
+        assertEquals("Voiture non trouvée", exception.getMessage());
+        // La vérification suit l'écriture de la réservation, qui attend une suppression concurrente
+        var ordre = inOrder(reservationRepository, voitureRepository);
+        ordre.verify(reservationRepository).flush();
+        ordre.verify(voitureRepository).estSupprimee(1L);
+        verifyNoInteractions(outboxService, populariteService);
     }
 
     @Test
@@ -297,6 +349,7 @@ class ReservationServiceTest {
     void testUpdateReservationStatus() {
         // Given
         when(reservationRepository.findById(1L)).thenReturn(Optional.of(testReservation));
+        when(voitureRepository.existsByIdAndSocieteUserId(1L, 2L)).thenReturn(true);
         when(reservationRepository.save(any(Reservation.class))).thenReturn(testReservation);
 
         // When
@@ -305,6 +358,7 @@ class ReservationServiceTest {
         // Then
         assertNotNull(result);
         verify(reservationRepository).findById(1L);
+        verify(voitureRepository).existsByIdAndSocieteUserId(1L, 2L);
         verify(reservationRepository).save(any(Reservation.class));
     }
 
@@ -333,6 +387,7 @@ class ReservationServiceTest {
         unauthorizedUser.setRole(Role.CLIENT);
 
         when(reservationRepository.findById(1L)).thenReturn(Optional.of(testReservation));
+        when(voitureRepository.existsByIdAndSocieteUserId(1L, 3L)).thenReturn(false);
 
         // When & Then
         BusinessException exception = assertThrows(BusinessException.class, () -> {
@@ -393,4 +448,44 @@ class ReservationServiceTest {
         verify(reservationRepository).findById(1L);
         verify(reservationRepository, never()).delete(any(Reservation.class));
     }
+
+    @Test
+    @DisplayName("Test export CSV des réservations d'une société")
+    void testExporterCsv() throws IOException {
+        // Given
+        ReservationExportDto ligne = new ReservationExportDto(1L, LocalDateTime.of(2025, 1, 10, 9, 30),
+                LocalDate.of(2025, 2, 1), LocalDate.of(2025, 2, 3), StatutReservation.CONFIRMEE,
+                new BigDecimal("150.00"), 1L, "Peugeot", "308", 1L, "Test Societe", 1L, "Test, Client",
+                "client@example.com");
+        when(reservationRepository.streamExport(2L, LocalDate.of(2025, 1, 1), null)).thenReturn(Stream.of(ligne));
+        ByteArrayOutputStream sortie = new ByteArrayOutputStream();
+
+        // When
+        reservationService.exporterCsv(societeUser, LocalDate.of(2025, 1, 1), null, sortie);
+
+        // Then
+        String[] lignes = sortie.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(2, lignes.length);
+        assertTrue(lignes[0].startsWith("\uFEFFid,cree_le,date_debut"));
+        assertEquals("1,2025-01-10T09:30,2025-02-01,2025-02-03,CONFIRMEE,150.00,1,Peugeot,308,1,Test Societe,1,"
+                + "\"Test, Client\",client@example.com", lignes[1]);
+    }
+
+    @Test
+    @DisplayName("Test export CSV admin sans filtre de société et période invalide")
+    void testExporterCsvAdmin() throws IOException {
+        // Given
+        User admin = new User();
+        admin.setId(9L);
+        admin.setRole(Role.ADMIN);
+        when(reservationRepository.streamExport(null, null, null)).thenReturn(Stream.empty());
+
+        // When
+        reservationService.exporterCsv(admin, null, null, new ByteArrayOutputStream());
+
+        // Then
+        verify(reservationRepository).streamExport(null, null, null);
+        assertThrows(BusinessException.class, () -> reservationService.exporterCsv(admin,
+                LocalDate.of(2025, 2, 1), LocalDate.of(2025, 1, 1), new ByteArrayOutputStream()));
+    }
 }
@@ -0,0 +1,186 @@
+package com.locme.reservation;
+
+import com.locme.auth.Role;
+import com.locme.auth.User;
+import com.locme.outbox.DomainEvent;
+import com.locme.outbox.OutboxService;
+import com.locme.outbox.TypeEvenement;
+import com.locme.reservation.dto.ReservationDto;
+import com.locme.reservation.dto.ReservationEvenement;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReservationStreamServiceTest {
+
+    @Mock
+    private OutboxService outboxService;
+
+    @InjectMocks
+    private ReservationStreamService reservationStreamService;
+
+    private User client;
+    private User autreClient;
+    private User societeUser;
+    private User admin;
+    private ReservationEvenement evenement;
+
+    private static User user(long id, Role role) {
+        User user = new User();
+        user.setId(id);
+        user.setRole(role);
+        return user;
+    }
+
+    @BeforeEach
+    void setUp() {
+        client = user(1L, Role.CLIENT);
+        autreClient = user(4L, Role.CLIENT);
+        societeUser = user(2L, Role.SOCIETE);
+        admin = user(3L, Role.ADMIN);
+
+        ReservationDto reservation = new ReservationDto();
+        reservation.setId(10L);
+        reservation.setUserId(1L);
+        reservation.setStatut(StatutReservation.CONFIRMEE);
+        evenement = new ReservationEvenement(reservation, StatutReservation.EN_ATTENTE, 1L, 2L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        reservationStreamService.fermer();
+    }
+
+    @Test
+    @DisplayName("Test destinataires : client concerné, société propriétaire et administrateurs")
+    void testGetDestinataires() {
+        SseEmitter clientEmitter = reservationStreamService.abonner(client);
+        SseEmitter autreClientEmitter = reservationStreamService.abonner(autreClient);
+        SseEmitter societeEmitter = reservationStreamService.abonner(societeUser);
+        SseEmitter adminEmitter = reservationStreamService.abonner(admin);
+
+        List<SseEmitter> destinataires = reservationStreamService.getDestinataires(evenement);
+
+        assertEquals(4, reservationStreamService.nombreAbonnes());
+        assertEquals(3, destinataires.size());
+        assertTrue(destinataires.containsAll(List.of(clientEmitter, societeEmitter, adminEmitter)));
+        assertFalse(destinataires.contains(autreClientEmitter));
+    }
+
+    @Test
+    @DisplayName("Test événement de réservation diffusé")
+    void testSurEvenement() {
+        reservationStreamService.abonner(client);
+        DomainEvent event = new DomainEvent(1L, TypeEvenement.RESERVATION_STATUT_MODIFIE, TypeEvenement.RESERVATION,
+                10L, "{}", LocalDateTime.now());
+        when(outboxService.lirePayload(event, ReservationEvenement.class)).thenReturn(evenement);
+
+        reservationStreamService.surEvenement(event);
+
+        verify(outboxService).lirePayload(event, ReservationEvenement.class);
+    }
+
+    @Test
+    @DisplayName("Test événement ignoré sans abonné ou hors réservation")
+    void testSurEvenementIgnore() {
+        DomainEvent reservationEvent = new DomainEvent(1L, TypeEvenement.RESERVATION_CREEE, TypeEvenement.RESERVATION,
+                10L, "{}", LocalDateTime.now());
+        reservationStreamService.surEvenement(reservationEvent);
+
+        reservationStreamService.abonner(admin);
+        DomainEvent paiementEvent = new DomainEvent(2L, TypeEvenement.PAIEMENT_PAYE, TypeEvenement.PAIEMENT,
+                5L, "{}", LocalDateTime.now());
+        reservationStreamService.surEvenement(paiementEvent);
+
+        verify(outboxService, never()).lirePayload(any(), any());
+    }
+
+    @Test
+    @DisplayName("Test événements envoyés à un abonné dans l'ordre de publication")
+    void testOrdreEnvois() throws Exception {
+        SseEmitter emitter = reservationStreamService.abonner(client);
+        when(outboxService.lirePayload(any(DomainEvent.class), eq(ReservationEvenement.class))).thenReturn(evenement);
+
+        for (long id = 1; id <= 50; id++) {
+            reservationStreamService.surEvenement(new DomainEvent(id, TypeEvenement.RESERVATION_STATUT_MODIFIE,
+                    TypeEvenement.RESERVATION, 10L, "{}", LocalDateTime.now()));
+        }
+
+        // Avant l'initialisation de la réponse, SseEmitter conserve les envois dans l'ordre reçu
+        List<Long> ids = List.of();
+        for (int essai = 0; essai < 200 && ids.size() < 50; essai++) {
+            Thread.sleep(10);
+            ids = idsEnvoyes(emitter);
+        }
+        assertEquals(LongStream.rangeClosed(1, 50).boxed().toList(), ids);
+    }
+
+    private static List<Long> idsEnvoyes(SseEmitter emitter) {
+        Collection<?> envois;
+        synchronized (emitter) {
+            envois = new ArrayList<>((Collection<?>) ReflectionTestUtils.getField(emitter, "earlySendAttempts"));
+        }
+        List<Long> ids = new ArrayList<>();
+        for (Object envoi : envois) {
+            Object donnee = ReflectionTestUtils.invokeMethod(envoi, "getData");
+            if (donnee instanceof String texte && texte.startsWith("id:")) {
+                ids.add(Long.valueOf(texte.substring(3, texte.indexOf('\n'))));
+            }
+        }
+        return ids;
+    }
+
+    @Test
+    @DisplayName("Test abonnement concurrent au retrait du dernier abonné du même utilisateur")
+    void testAbonnementPendantRetrait() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < 500; i++) {
+                SseEmitter ancien = reservationStreamService.abonner(client);
+                CountDownLatch depart = new CountDownLatch(1);
+                Future<SseEmitter> abonnement = pool.submit(() -> {
+                    depart.await();
+                    return reservationStreamService.abonner(client);
+                });
+                Future<?> retrait = pool.submit(() -> {
+                    depart.await();
+                    reservationStreamService.retirer(client, ancien);
+                    return null;
+                });
+                depart.countDown();
+                SseEmitter nouveau = abonnement.get();
+                retrait.get();
+
+                // Le nouvel abonné reste joignable, quel que soit l'ordre des deux opérations
+                assertEquals(List.of(nouveau), reservationStreamService.getDestinataires(evenement));
+                reservationStreamService.retirer(client, nouveau);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(0, reservationStreamService.nombreAbonnes());
+    }
+}
@@ -0,0 +1,306 @@
+package com.locme.reservation;
+
+import com.locme.auth.Role;
+import com.locme.auth.User;
+import com.locme.common.exceptions.BusinessException;
+import com.locme.common.exceptions.ResourceNotFoundException;
+import com.locme.reservation.dto.DevisDto;
+import com.locme.reservation.dto.RegleTarifaireDto;
+import com.locme.societe.Societe;
+import com.locme.societe.SocieteRepository;
+import com.locme.voiture.Voiture;
+import com.locme.voiture.VoitureRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TarificationServiceTest {
+
+    @Mock
+    private VoitureRepository voitureRepository;
+
+    @Mock
+    private RegleTarifaireRepository regleTarifaireRepository;
+
+    @Mock
+    private SocieteRepository societeRepository;
+
+    @InjectMocks
+    private TarificationService tarificationService;
+
+    private Societe testSociete;
+    private Voiture testVoiture;
+    private User societeUser;
+    private LocalDate lundi;
+
+    @BeforeEach
+    void setUp() {
+        societeUser = new User();
+        societeUser.setId(2L);
+        societeUser.setRole(Role.SOCIETE);
+
+        testSociete = new Societe();
+        testSociete.setId(1L);
+        testSociete.setNom("Test Societe");
+        testSociete.setUser(societeUser);
+
+        testVoiture = new Voiture();
+        testVoiture.setId(1L);
+        testVoiture.setPrixParJour(new BigDecimal("50.00"));
+        testVoiture.setSociete(testSociete);
+
+        lundi = LocalDate.now().plusWeeks(1).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+
+    private RegleTarifaire regle(TypeRegleTarifaire type, String pourcentage) {
+        return new RegleTarifaire(testSociete, type, new BigDecimal(pourcentage));
+    }
+
+    @Test
+    @DisplayName("Test montant sans règle")
+    void testCalculerMontantSansRegle() {
+        when(regleTarifaireRepository.findBySocieteId(1L)).thenReturn(Collections.emptyList());
+
+        BigDecimal montant = tarificationService.calculerMontant(testVoiture, lundi, lundi.plusDays(3));
+
+        assertEquals(new BigDecimal("150.00"), montant);
+    }
+
+    @Test
+    @DisplayName("Test majoration week-end")
+    void testCalculerMontantWeekend() {
+        when(regleTarifaireRepository.findBySocieteId(1L))
+                .thenReturn(List.of(regle(TypeRegleTarifaire.WEEKEND, "20")));
+
+        // Du lundi au lundi suivant : 5 jours de semaine et 2 jours de week-end
+        BigDecimal montant = tarificationService.calculerMontant(testVoiture, lundi, lundi.plusDays(7));
+
+        assertEquals(new BigDecimal("370.00"), montant);
+    }
+
+    @Test
+    @DisplayName("Test saison et remise de durée")
+    void testCalculerMontantSaisonEtDuree() {
+        RegleTarifaire saison = regle(TypeRegleTarifaire.SAISON, "10");
+        saison.setDateDebut(lundi);
+        saison.setDateFin(lundi.plusDays(1));
+        RegleTarifaire duree = regle(TypeRegleTarifaire.DUREE, "-10");
+        duree.setDureeMinimum(3);
+        RegleTarifaire dureeLongue = regle(TypeRegleTarifaire.DUREE, "-20");
+        dureeLongue.setDureeMinimum(30);
+        when(regleTarifaireRepository.findBySocieteId(1L)).thenReturn(List.of(dureeLongue, saison, duree));
+
+        // 2 jours à 55 + 1 jour à 50 = 160, remise de 10 % à partir de 3 jours
+        BigDecimal montant = tarificationService.calculerMontant(testVoiture, lundi, lundi.plusDays(3));
+
+        assertEquals(new BigDecimal("144.00"), montant);
+    }
+
+    @Test
+    @DisplayName("Test période au-delà de l'horizon de la grille")
+    void testCalculerMontantHorsHorizon() {
+        when(regleTarifaireRepository.findBySocieteId(1L)).thenReturn(Collections.emptyList());
+        LocalDate debut = LocalDate.now().plusYears(3);
+
+        BigDecimal montant = tarificationService.calculerMontant(testVoiture, debut, debut.plusDays(2));
+
+        assertEquals(new BigDecimal("100.00"), montant);
+    }
+
+    @Test
+    @DisplayName("Test devis avec grille en cache")
+    void testGetDevisCache() {
+        when(voitureRepository.findById(1L)).thenReturn(Optional.of(testVoiture));
+        when(regleTarifaireRepository.findBySocieteId(1L)).thenReturn(Collections.emptyList());
+
+        DevisDto premier = tarificationService.getDevis(1L, lundi, lundi.plusDays(2));
+        DevisDto second = tarificationService.getDevis(1L, lundi, lundi.plusDays(4));
+
+        assertEquals(new BigDecimal("100.00"), premier.getMontant());
+        assertEquals(new BigDecimal("200.00"), second.getMontant());
+        assertEquals(4, second.getNombreJours());
+        assertEquals(new BigDecimal("50.00"), second.getPrixParJour());
+        verify(voitureRepository, times(1)).findById(1L);
+        verify(regleTarifaireRepository, times(1)).findBySocieteId(1L);
+    }
+
+    @Test
+    @DisplayName("Test invalidation de la grille")
+    void testInvaliderVoiture() {
+        when(voitureRepository.findById(1L)).thenReturn(Optional.of(testVoiture));
+        when(regleTarifaireRepository.findBySocieteId(1L)).thenReturn(Collections.emptyList());
+
+        tarificationService.getDevis(1L, lundi, lundi.plusDays(2));
+        testVoiture.setPrixParJour(new BigDecimal("60.00"));
+        tarificationService.invaliderVoiture(1L);
+        DevisDto devis = tarificationService.getDevis(1L, lundi, lundi.plusDays(2));
+
+        assertEquals(new BigDecimal("120.00"), devis.getMontant());
+        verify(voitureRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    @DisplayName("Test invalidation appliquée à la validation de la transaction")
+    void testInvaliderApresValidation() {
+        when(voitureRepository.findById(1L)).thenReturn(Optional.of(testVoiture));
+        when(regleTarifaireRepository.findBySocieteId(1L)).thenReturn(Collections.emptyList());
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            testVoiture.setPrixParJour(new BigDecimal("60.00"));
+            tarificationService.invaliderVoiture(1L);
+            // Devis concurrent avant la validation : la grille lue ne survit pas à l'invalidation
+            testVoiture.setPrixParJour(new BigDecimal("50.00"));
+            assertEquals(new BigDecimal("100.00"), tarificationService.getDevis(1L, lundi, lundi.plusDays(2)).getMontant());
+            testVoiture.setPrixParJour(new BigDecimal("60.00"));
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(new BigDecimal("120.00"), tarificationService.getDevis(1L, lundi, lundi.plusDays(2)).getMontant());
+        verify(voitureRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    @DisplayName("Test grille lue avant une invalidation non conservée")
+    void testGrilleLueAvantInvalidation() {
+        when(voitureRepository.findById(1L)).thenAnswer(invocation -> {
+            // L'invalidation est validée pendant la lecture de la voiture
+            tarificationService.invaliderVoiture(1L);
+            return Optional.of(testVoiture);
+        });
+        when(regleTarifaireRepository.findBySocieteId(1L)).thenReturn(Collections.emptyList());
+
+        tarificationService.getDevis(1L, lundi, lundi.plusDays(2));
+        tarificationService.getDevis(1L, lundi, lundi.plusDays(2));
+
+        verify(voitureRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    @DisplayName("Test devis voiture non trouvée")
+    void testGetDevisVoitureNotFound() {
+        when(voitureRepository.findById(999L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () ->
+                tarificationService.getDevis(999L, lundi, lundi.plusDays(2)));
+    }
+
+    @Test
+    @DisplayName("Test devis avec dates invalides")
+    void testGetDevisDatesInvalides() {
+        BusinessException exception = assertThrows(BusinessException.class, () ->
+                tarificationService.getDevis(1L, lundi.plusDays(2), lundi));
+
+        assertEquals("La date de fin doit être après la date de début", exception.getMessage());
+        verify(voitureRepository, never()).findById(any());
+    }
+
+    @Test
+    @DisplayName("Test devis refusé au-delà de la durée maximale de location")
+    void testGetDevisDureeMaximale() {
+        BusinessException exception = assertThrows(BusinessException.class, () ->
+                tarificationService.getDevis(1L, lundi, LocalDate.of(9999, 12, 31)));
+
+        assertEquals("La durée de location ne peut pas dépasser 90 jours", exception.getMessage());
+        assertThrows(BusinessException.class, () ->
+                tarificationService.calculerMontant(testVoiture, lundi, lundi.plusDays(91)));
+        verify(voitureRepository, never()).findById(any());
+        verify(regleTarifaireRepository, never()).findBySocieteId(any());
+    }
+
+    @Test
+    @DisplayName("Test création d'une règle saisonnière incomplète")
+    void testCreateRegleSaisonIncomplete() {
+        RegleTarifaireDto regleDto = new RegleTarifaireDto();
+        regleDto.setType(TypeRegleTarifaire.SAISON);
+        regleDto.setPourcentage(new BigDecimal("15"));
+        when(societeRepository.findByUser(societeUser)).thenReturn(Optional.of(testSociete));
+
+        assertThrows(BusinessException.class, () -> tarificationService.createRegle(regleDto, societeUser));
+        verify(regleTarifaireRepository, never()).save(any(RegleTarifaire.class));
+    }
+
+    @Test
+    @DisplayName("Test création d'une règle invalide les grilles de la société")
+    void testCreateRegleInvalideGrilles() {
+        when(voitureRepository.findById(1L)).thenReturn(Optional.of(testVoiture));
+        when(regleTarifaireRepository.findBySocieteId(1L)).thenReturn(Collections.emptyList());
+        when(societeRepository.findByUser(societeUser)).thenReturn(Optional.of(testSociete));
+        when(regleTarifaireRepository.save(any(RegleTarifaire.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        tarificationService.getDevis(1L, lundi, lundi.plusDays(2));
+
+        RegleTarifaireDto regleDto = new RegleTarifaireDto();
+        regleDto.setType(TypeRegleTarifaire.WEEKEND);
+        regleDto.setPourcentage(new BigDecimal("15"));
+        RegleTarifaireDto result = tarificationService.createRegle(regleDto, societeUser);
+        tarificationService.getDevis(1L, lundi, lundi.plusDays(2));
+
+        assertEquals(1L, result.getSocieteId());
+        verify(voitureRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    @DisplayName("Test devis groupés sans requête par voiture")
+    void testGetDevisGroupes() {
+        Voiture autreVoiture = new Voiture();
+        autreVoiture.setId(2L);
+        autreVoiture.setPrixParJour(new BigDecimal("80.00"));
+        autreVoiture.setSociete(testSociete);
+        RegleTarifaire weekend = regle(TypeRegleTarifaire.WEEKEND, "50");
+        weekend.setId(10L);
+
+        when(voitureRepository.findById(1L)).thenReturn(Optional.of(testVoiture));
+        when(regleTarifaireRepository.findBySocieteId(1L)).thenReturn(List.of(weekend));
+        when(voitureRepository.findAllById(List.of(2L, 999L))).thenReturn(List.of(autreVoiture));
+        when(regleTarifaireRepository.findBySocieteIdIn(Set.of(1L))).thenReturn(List.of(weekend));
+
+        // La voiture 1 est déjà en cache, la voiture 999 n'existe pas
+        tarificationService.getDevis(1L, lundi, lundi.plusDays(1));
+        List<DevisDto> devis = tarificationService.getDevis(List.of(2L, 1L, 999L, 2L), lundi, lundi.plusDays(2));
+
+        assertEquals(2, devis.size());
+        assertEquals(2L, devis.get(0).getVoitureId());
+        assertEquals(new BigDecimal("160.00"), devis.get(0).getMontant());
+        assertEquals(new BigDecimal("100.00"), devis.get(1).getMontant());
+        verify(voitureRepository, times(1)).findAllById(any());
+        verify(regleTarifaireRepository, times(1)).findBySocieteIdIn(any());
+    }
+
+    @Test
+    @DisplayName("Test devis groupés bornés en nombre total de jours")
+    void testGetDevisGroupesJoursTotal() {
+        List<Long> ids = LongStream.rangeClosed(1, 500).boxed().toList();
+
+        // 500 voitures × 11 jours dépassent les 5000 jours par requête, même sous la durée maximale
+        BusinessException exception = assertThrows(BusinessException.class, () ->
+                tarificationService.getDevis(ids, lundi, lundi.plusDays(11)));
+        assertTrue(exception.getMessage().startsWith("Trop de jours à calculer pour un devis groupé"));
+        assertThrows(BusinessException.class, () ->
+                tarificationService.getDevis(List.of(1L), lundi, lundi.plusDays(91)));
+        verify(voitureRepository, never()).findAllById(any());
+    }
+}
@@ -0,0 +1,257 @@
+package com.locme.statistiques;
+
+import com.locme.auth.User;
+import com.locme.common.exceptions.BusinessException;
+import com.locme.outbox.DomainEvent;
+import com.locme.outbox.OutboxService;
+import com.locme.outbox.TypeEvenement;
+import com.locme.paiement.StatutPaiement;
+import com.locme.paiement.dto.PaiementEvenement;
+import com.locme.reservation.StatutReservation;
+import com.locme.reservation.dto.ReservationDto;
+import com.locme.reservation.dto.ReservationEvenement;
+import com.locme.societe.Societe;
+import com.locme.societe.SocieteRepository;
+import com.locme.statistiques.dto.StatistiqueJourDto;
+import com.locme.statistiques.dto.TableauDeBordDto;
+import com.locme.voiture.VoitureRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StatistiqueServiceTest {
+
+    private static final LocalDateTime MAINTENANT = LocalDateTime.of(2026, 3, 10, 14, 0);
+    private static final LocalDate JOUR = MAINTENANT.toLocalDate();
+    private static final BigDecimal ZERO = BigDecimal.ZERO;
+
+    @Mock
+    private StatistiqueJournaliereRepository statistiqueRepository;
+
+    @Mock
+    private SocieteRepository societeRepository;
+
+    @Mock
+    private VoitureRepository voitureRepository;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private EvenementStatistiqueRepository evenementRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private StatistiqueService statistiqueService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(statistiqueService, "transactionStatistiques", transactionTemplate);
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    private DomainEvent evenement(TypeEvenement type, Object payload) {
+        DomainEvent event = new DomainEvent(1L, type, type.getAgregat(), 10L, "{}", MAINTENANT);
+        when(outboxService.lirePayload(eq(event), any())).thenReturn(payload);
+        return event;
+    }
+
+    private ReservationEvenement reservation(StatutReservation statut, StatutReservation ancienStatut) {
+        ReservationDto dto = new ReservationDto(10L, 1L, "Toyota", "Camry", 2L, "Client",
+                LocalDate.of(2026, 3, 20), LocalDate.of(2026, 3, 23), statut, new BigDecimal("150.00"));
+        return new ReservationEvenement(dto, ancienStatut, 5L, 7L);
+    }
+
+    @Test
+    @DisplayName("Une création de réservation incrémente le jour de l'événement")
+    void testReservationCreee() {
+        when(statistiqueRepository.incrementer(eq(5L), eq(JOUR), anyLong(), anyLong(), anyLong(), anyLong(), any(), any()))
+                .thenReturn(1);
+
+        statistiqueService.surEvenement(evenement(TypeEvenement.RESERVATION_CREEE,
+                reservation(StatutReservation.EN_ATTENTE, null)));
+
+        verify(statistiqueRepository).incrementer(5L, JOUR, 1L, 0L, 0L, 0L, ZERO, ZERO);
+        verify(statistiqueRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Une confirmation occupe chaque jour de la location en une seule mise à jour")
+    void testReservationConfirmee() {
+        when(statistiqueRepository.incrementer(eq(5L), any(LocalDate.class), anyLong(), anyLong(), anyLong(), anyLong(), any(), any()))
+                .thenReturn(1);
+        when(statistiqueRepository.findJoursExistants(5L, LocalDate.of(2026, 3, 20), LocalDate.of(2026, 3, 23)))
+                .thenReturn(List.of(LocalDate.of(2026, 3, 20)));
+
+        statistiqueService.surEvenement(evenement(TypeEvenement.RESERVATION_STATUT_MODIFIE,
+                reservation(StatutReservation.CONFIRMEE, StatutReservation.EN_ATTENTE)));
+
+        verify(statistiqueRepository).incrementer(5L, JOUR, 0L, 1L, 0L, 0L, ZERO, ZERO);
+        verify(statistiqueRepository).incrementerJoursLoues(5L, LocalDate.of(2026, 3, 20), LocalDate.of(2026, 3, 23), 1L);
+        // Seuls les jours sans ligne sont insérés
+        ArgumentCaptor<List<StatistiqueJournaliere>> captor = ArgumentCaptor.forClass(List.class);
+        verify(statistiqueRepository).saveAll(captor.capture());
+        assertEquals(List.of(LocalDate.of(2026, 3, 21), LocalDate.of(2026, 3, 22)),
+                captor.getValue().stream().map(StatistiqueJournaliere::getJour).toList());
+        assertTrue(captor.getValue().stream().allMatch(statistique -> statistique.getJoursLoues() == 1L));
+        verify(evenementRepository).save(any(EvenementStatistique.class));
+    }
+
+    @Test
+    @DisplayName("L'annulation d'une réservation confirmée libère les jours occupés")
+    void testReservationAnnulee() {
+        when(statistiqueRepository.incrementer(eq(5L), any(LocalDate.class), anyLong(), anyLong(), anyLong(), anyLong(), any(), any()))
+                .thenReturn(1);
+        when(statistiqueRepository.findJoursExistants(eq(5L), any(), any())).thenReturn(List.of(
+                LocalDate.of(2026, 3, 20), LocalDate.of(2026, 3, 21), LocalDate.of(2026, 3, 22)));
+
+        statistiqueService.surEvenement(evenement(TypeEvenement.RESERVATION_STATUT_MODIFIE,
+                reservation(StatutReservation.ANNULEE, StatutReservation.CONFIRMEE)));
+
+        verify(statistiqueRepository).incrementer(5L, JOUR, 0L, 0L, 1L, 0L, ZERO, ZERO);
+        verify(statistiqueRepository).incrementerJoursLoues(5L, LocalDate.of(2026, 3, 20), LocalDate.of(2026, 3, 23), -1L);
+        verify(statistiqueRepository, never()).saveAll(any());
+    }
+
+    @Test
+    @DisplayName("Une location très longue n'occupe que le nombre maximal de jours")
+    void testLocationPlafonnee() {
+        ReservationDto dto = new ReservationDto(10L, 1L, "Toyota", "Camry", 2L, "Client",
+                LocalDate.of(2026, 1, 1), LocalDate.of(2036, 1, 1), StatutReservation.CONFIRMEE, new BigDecimal("150.00"));
+        when(statistiqueRepository.incrementer(eq(5L), any(LocalDate.class), anyLong(), anyLong(), anyLong(), anyLong(), any(), any()))
+                .thenReturn(1);
+        when(statistiqueRepository.findJoursExistants(eq(5L), any(), any())).thenReturn(List.of());
+
+        statistiqueService.surEvenement(evenement(TypeEvenement.RESERVATION_STATUT_MODIFIE,
+                new ReservationEvenement(dto, StatutReservation.EN_ATTENTE, 5L, 7L)));
+
+        LocalDate finPlafonnee = LocalDate.of(2026, 1, 1).plusDays(731);
+        verify(statistiqueRepository).incrementerJoursLoues(5L, LocalDate.of(2026, 1, 1), finPlafonnee, 1L);
+        ArgumentCaptor<List<StatistiqueJournaliere>> captor = ArgumentCaptor.forClass(List.class);
+        verify(statistiqueRepository).saveAll(captor.capture());
+        assertEquals(731, captor.getValue().size());
+    }
+
+    @Test
+    @DisplayName("Un événement déjà compté n'est pas recompté s'il est republié")
+    void testEvenementDejaCompte() {
+        DomainEvent event = new DomainEvent(1L, TypeEvenement.RESERVATION_CREEE, TypeEvenement.RESERVATION_CREEE.getAgregat(),
+                10L, "{}", MAINTENANT);
+        when(evenementRepository.existsById(1L)).thenReturn(true);
+
+        statistiqueService.surEvenement(event);
+
+        verifyNoInteractions(statistiqueRepository);
+        verify(outboxService, never()).lirePayload(any(), any());
+    }
+
+    @Test
+    @DisplayName("Une insertion concurrente est rejouée, une autre erreur est journalisée sans bloquer le relais")
+    void testErreurs() {
+        DomainEvent event = evenement(TypeEvenement.RESERVATION_CREEE, reservation(StatutReservation.EN_ATTENTE, null));
+        when(statistiqueRepository.incrementer(anyLong(), any(), anyLong(), anyLong(), anyLong(), anyLong(), any(), any()))
+                .thenReturn(0);
+        when(statistiqueRepository.save(any(StatistiqueJournaliere.class)))
+                .thenThrow(new DataIntegrityViolationException("doublon"))
+                .thenReturn(null);
+
+        statistiqueService.surEvenement(event);
+
+        verify(statistiqueRepository, times(2)).save(any(StatistiqueJournaliere.class));
+        verify(evenementRepository).save(any(EvenementStatistique.class));
+
+        when(evenementRepository.existsById(1L)).thenThrow(new IllegalStateException("base indisponible"));
+        assertDoesNotThrow(() -> statistiqueService.surEvenement(event));
+    }
+
+    @Test
+    @DisplayName("Un paiement crée la ligne du jour de paiement si elle n'existe pas")
+    void testPaiementPaye() {
+        PaiementEvenement paiement = new PaiementEvenement(3L, 10L, 5L, StatutPaiement.PAYE,
+                StatutPaiement.EN_ATTENTE, new BigDecimal("150.00"), LocalDateTime.of(2026, 3, 9, 23, 50));
+        when(statistiqueRepository.incrementer(anyLong(), any(), anyLong(), anyLong(), anyLong(), anyLong(), any(), any()))
+                .thenReturn(0);
+
+        statistiqueService.surEvenement(evenement(TypeEvenement.PAIEMENT_PAYE, paiement));
+
+        ArgumentCaptor<StatistiqueJournaliere> captor = ArgumentCaptor.forClass(StatistiqueJournaliere.class);
+        verify(statistiqueRepository).save(captor.capture());
+        assertEquals(5L, captor.getValue().getSocieteId());
+        assertEquals(LocalDate.of(2026, 3, 9), captor.getValue().getJour());
+        assertEquals(new BigDecimal("150.00"), captor.getValue().getChiffreAffaires());
+    }
+
+    @Test
+    @DisplayName("Un payload illisible est ignoré sans bloquer le relais")
+    void testPayloadIllisible() {
+        DomainEvent event = new DomainEvent(1L, TypeEvenement.PAIEMENT_REMBOURSE, TypeEvenement.PAIEMENT, 10L,
+                "?", MAINTENANT);
+        when(outboxService.lirePayload(eq(event), any())).thenThrow(new IllegalStateException("Payload invalide"));
+
+        assertDoesNotThrow(() -> statistiqueService.surEvenement(event));
+        verifyNoInteractions(statistiqueRepository);
+    }
+
+    @Test
+    @DisplayName("Le tableau de bord totalise les jours et calcule l'occupation")
+    void testTableauDeBordSociete() {
+        User user = new User();
+        user.setId(7L);
+        Societe societe = new Societe();
+        societe.setId(5L);
+        when(societeRepository.findByUser(user)).thenReturn(Optional.of(societe));
+        when(voitureRepository.countBySocieteId(5L)).thenReturn(2L);
+        LocalDate debut = LocalDate.of(2026, 3, 1);
+        LocalDate fin = LocalDate.of(2026, 3, 10);
+        when(statistiqueRepository.findJoursSociete(5L, debut, fin)).thenReturn(Arrays.asList(
+                new StatistiqueJourDto(debut, 2L, 1L, 0L, 4L, new BigDecimal("100.00"), ZERO),
+                new StatistiqueJourDto(fin, 1L, 1L, 1L, 1L, new BigDecimal("50.00"), new BigDecimal("20.00"))));
+
+        TableauDeBordDto tableau = statistiqueService.getTableauDeBordSociete(user, debut, fin);
+
+        assertEquals(3, tableau.getReservationsCreees());
+        assertEquals(2, tableau.getReservationsConfirmees());
+        assertEquals(1, tableau.getReservationsAnnulees());
+        assertEquals(new BigDecimal("150.00"), tableau.getChiffreAffaires());
+        assertEquals(new BigDecimal("20.00"), tableau.getMontantRembourse());
+        // 5 jours loués sur 2 voitures x 10 jours
+        assertEquals(0.25, tableau.getTauxOccupation(), 1e-9);
+        assertEquals(2, tableau.getJours().size());
+    }
+
+    @Test
+    @DisplayName("Une période trop longue est refusée")
+    void testPeriodeTropLongue() {
+        BusinessException exception = assertThrows(BusinessException.class, () ->
+                statistiqueService.getTableauDeBordGlobal(LocalDate.of(2024, 1, 1), LocalDate.of(2026, 1, 1)));
+
+        assertEquals("La période ne peut pas dépasser 366 jours", exception.getMessage());
+        verifyNoInteractions(statistiqueRepository);
+    }
+}
@@ -0,0 +1,160 @@
+package com.locme.voiture;
+
+import com.locme.auth.Role;
+import com.locme.auth.User;
+import com.locme.auth.UserRepository;
+import com.locme.favorite.Favorite;
+import com.locme.favorite.FavoriteRepository;
+import com.locme.reservation.Reservation;
+import com.locme.reservation.ReservationRepository;
+import com.locme.reservation.StatutReservation;
+import com.locme.societe.Societe;
+import com.locme.societe.SocieteRepository;
+import com.locme.voiture.popularite.StatistiquePopularite;
+import com.locme.voiture.popularite.StatistiquePopulariteRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Suppression logique et purge contre H2, hors transaction de test : la purge valide un lot par
+ * transaction, comme la tâche planifiée.
+ */
+@DataJpaTest(properties = {
+        "spring.sql.init.mode=never",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(PurgeVoituresService.class)
+class PurgeVoituresServiceTest {
+
+    private static final LocalDateTime MAINTENANT = LocalDateTime.of(2026, 3, 15, 4, 30);
+
+    @Autowired
+    private PurgeVoituresService purgeService;
+
+    @Autowired
+    private VoitureRepository voitureRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private FavoriteRepository favoriteRepository;
+
+    @Autowired
+    private StatistiquePopulariteRepository statistiqueRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SocieteRepository societeRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User client;
+    private Voiture active;
+    private Voiture supprimeeAncienne;
+    private Voiture supprimeeReservee;
+    private Voiture supprimeeRecente;
+
+    @BeforeEach
+    void setUp() {
+        reservationRepository.deleteAll();
+        favoriteRepository.deleteAll();
+        statistiqueRepository.deleteAll();
+        voitureRepository.deleteAll();
+        societeRepository.deleteAll();
+        userRepository.deleteAll();
+
+        User societeUser = userRepository.save(new User("Société", "societe@locme.com", "x", Role.SOCIETE));
+        client = userRepository.save(new User("Client", "client@locme.com", "x", Role.CLIENT));
+        Societe societe = societeRepository.save(new Societe("Société", "Adresse", "societe@locme.com", societeUser));
+
+        active = voiture(societe, null);
+        supprimeeAncienne = voiture(societe, MAINTENANT.minusDays(40));
+        supprimeeReservee = voiture(societe, MAINTENANT.minusDays(40));
+        supprimeeRecente = voiture(societe, MAINTENANT.minusDays(5));
+
+        Reservation reservation = new Reservation(supprimeeReservee, client, LocalDate.of(2025, 6, 1),
+                LocalDate.of(2025, 6, 3), new BigDecimal("90.00"));
+        reservation.setStatut(StatutReservation.TERMINEE);
+        reservationRepository.save(reservation);
+        favoriteRepository.save(new Favorite(client, supprimeeAncienne));
+        statistiqueRepository.save(new StatistiquePopularite(supprimeeAncienne.getId(), LocalDate.of(2026, 1, 10), 3, 1, 0));
+    }
+
+    private Voiture voiture(Societe societe, LocalDateTime supprimeeLe) {
+        Voiture voiture = new Voiture("Renault", "Clio", new BigDecimal("45.00"), societe);
+        voiture.setDeletedAt(supprimeeLe);
+        return voitureRepository.save(voiture);
+    }
+
+    @Test
+    @DisplayName("Les voitures supprimées sont absentes des recherches, pas de l'historique des réservations")
+    void testRecherchesEtHistorique() {
+        assertEquals(List.of(active.getId()), voitureRepository.findAll().stream().map(Voiture::getId).toList());
+        assertEquals(List.of(active.getId()),
+                voitureRepository.findAll(Sort.by("id")).stream().map(Voiture::getId).toList());
+        Page<Voiture> page = voitureRepository.findAll(PageRequest.of(0, 10, Sort.by("id")));
+        assertEquals(List.of(active.getId()), page.getContent().stream().map(Voiture::getId).toList());
+        assertEquals(1, page.getTotalElements());
+        assertEquals(1, voitureRepository.count());
+        assertTrue(voitureRepository.findById(supprimeeReservee.getId()).isEmpty());
+        assertEquals(List.of(active.getId()),
+                voitureRepository.findIdsExistants(List.of(active.getId(), supprimeeAncienne.getId())));
+
+        Long voitureReservee = transactionTemplate.execute(statut ->
+                reservationRepository.findAll().get(0).getVoiture().getId());
+        assertEquals(supprimeeReservee.getId(), voitureReservee);
+        // Le favori de la voiture supprimée reste en base jusqu'à la purge, mais n'est plus listé
+        assertEquals(1, favoriteRepository.count());
+        assertTrue(favoriteRepository.findPremierePage(client.getId(), PageRequest.of(0, 10)).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Seules les voitures supprimées depuis plus du délai et sans réservation sont purgées, avec favoris et statistiques")
+    void testPurge() {
+        assertEquals(1, purgeService.purger(MAINTENANT));
+
+        assertEquals(List.of(active.getId(), supprimeeReservee.getId(), supprimeeRecente.getId()),
+                jdbcTemplate.queryForList("SELECT id FROM voitures ORDER BY id", Long.class));
+        assertEquals(0, favoriteRepository.count());
+        assertEquals(0, statistiqueRepository.count());
+        // Second passage : plus rien à purger
+        assertEquals(0, purgeService.purger(MAINTENANT));
+    }
+
+    @Test
+    @DisplayName("La purge s'arrête au dernier lot incomplet")
+    void testPurgeParLots() {
+        ReflectionTestUtils.setField(purgeService, "tailleLot", 1);
+
+        assertEquals(2, purgeService.purger(MAINTENANT.plusDays(30)));
+    }
+}
@@ -8,6 +8,7 @@ import com.locme.auth.Role;
 import com.locme.common.exceptions.ResourceNotFoundException;
 import com.locme.config.NoSecurityTestConfig;
 import com.locme.voiture.dto.VoitureDto;
+import com.locme.voiture.importation.VoitureImportService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -38,6 +39,9 @@ class VoitureControllerSimpleTest {
     @MockBean
     private VoitureService voitureService;
 
+    @MockBean
+    private VoitureImportService voitureImportService;
+
     @MockBean
     private AuthService authService;
 
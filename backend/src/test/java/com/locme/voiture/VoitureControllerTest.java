@@ -9,7 +9,11 @@ import com.locme.common.ApiResponse;
 import com.locme.common.exceptions.ResourceNotFoundException;
 import com.locme.config.NoSecurityTestConfig;
 import com.locme.societe.Societe;
+import com.locme.voiture.dto.ErreurImportDto;
+import com.locme.voiture.dto.RapportImportDto;
 import com.locme.voiture.dto.VoitureDto;
+import com.locme.voiture.importation.FormatImport;
+import com.locme.voiture.importation.VoitureImportService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -45,6 +49,9 @@ class VoitureControllerTest {
     @MockBean
     private VoitureService voitureService;
 
+    @MockBean
+    private VoitureImportService voitureImportService;
+
     @MockBean
     private AuthService authService;
 
@@ -165,6 +172,19 @@ class VoitureControllerTest {
                 .andExpect(jsonPath("$.data.marque").value("Toyota"));
     }
 
+    @Test
+    @DisplayName("Test get trending voitures")
+    void testGetTrendingVoitures() throws Exception {
+        // Given
+        when(voitureService.getTrendingVoitures(5)).thenReturn(Arrays.asList(testVoitureDto));
+
+        // When & Then
+        mockMvc.perform(get("/api/voitures/trending").param("limite", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.data[0].id").value(1));
+    }
+
     @Test
     @DisplayName("Test get voiture by ID not found")
     void testGetVoitureByIdNotFound() throws Exception {
@@ -193,6 +213,30 @@ class VoitureControllerTest {
                 .andExpect(jsonPath("$.data").isArray());
     }
 
+    @Test
+    @DisplayName("Test import de flotte CSV")
+    @WithMockUser(username = "test@example.com", roles = {"SOCIETE"})
+    void testImporterVoitures() throws Exception {
+        // Given
+        RapportImportDto rapport = new RapportImportDto();
+        rapport.setLignesLues(2);
+        rapport.setVoituresImportees(1);
+        rapport.setLignesRejetees(1);
+        rapport.getErreurs().add(new ErreurImportDto(3, "Valeur invalide pour prixParJour : abc"));
+        when(authService.getCurrentUser()).thenReturn(testUser);
+        when(voitureImportService.importer(any(), eq(FormatImport.CSV), eq(';'), eq(testUser))).thenReturn(rapport);
+
+        // When & Then
+        mockMvc.perform(post("/api/voitures/import")
+                .param("separateur", ";")
+                .contentType("text/csv")
+                .content("marque;modele;prixParJour\nHonda;Civic;45\nFiat;Panda;abc\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.data.voituresImportees").value(1))
+                .andExpect(jsonPath("$.data.erreurs[0].ligne").value(3));
+    }
+
     @Test
     @DisplayName("Test create voiture")
     @WithMockUser(username = "test@example.com", roles = {"SOCIETE"})
@@ -0,0 +1,179 @@
+package com.locme.voiture;
+
+import com.locme.auth.Role;
+import com.locme.auth.User;
+import com.locme.favorite.FavoriteCache;
+import com.locme.reservation.TarificationService;
+import com.locme.societe.Societe;
+import com.locme.voiture.dto.VoitureDto;
+import com.locme.voiture.popularite.PopulariteService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compte, au niveau JDBC, les instructions envoyées par l'import en masse : les INSERT de voitures
+ * doivent partir par lots (executeBatch) et jamais ligne à ligne (executeUpdate).
+ */
+@DataJpaTest(properties = {
+        "spring.sql.init.mode=never",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "spring.jpa.properties.hibernate.order_inserts=true"
+})
+@ActiveProfiles("test")
+@Import({VoitureService.class, VoitureImportBatchTest.CompteurJdbcConfig.class})
+class VoitureImportBatchTest {
+
+    private static final AtomicInteger ajoutsAuLot = new AtomicInteger();
+    private static final AtomicInteger lotsExecutes = new AtomicInteger();
+    private static final AtomicInteger executionsUnitaires = new AtomicInteger();
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private VoitureService voitureService;
+
+    @Autowired
+    private VoitureRepository voitureRepository;
+
+    @MockBean
+    private TarificationService tarificationService;
+
+    @MockBean
+    private PopulariteService populariteService;
+
+    @MockBean
+    private FavoriteCache favoriteCache;
+
+    private Societe societe;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setNom("Société Import");
+        user.setEmail("import@locme.com");
+        user.setMotDePasse("password");
+        user.setRole(Role.SOCIETE);
+        user = entityManager.persist(user);
+
+        societe = new Societe();
+        societe.setNom("Import Auto");
+        societe.setAdresse("1 Rue du Lot");
+        societe.setEmail("contact@import.com");
+        societe.setUser(user);
+        societe = entityManager.persistAndFlush(societe);
+
+        ajoutsAuLot.set(0);
+        lotsExecutes.set(0);
+        executionsUnitaires.set(0);
+    }
+
+    @Test
+    @DisplayName("L'import en masse insère les voitures par lots JDBC")
+    void testImportParLots() {
+        List<VoitureDto> voitures = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            VoitureDto dto = new VoitureDto();
+            dto.setMarque("Marque " + i);
+            dto.setModele("Modèle");
+            dto.setPrixParJour(new BigDecimal("40.00"));
+            dto.setDisponible(true);
+            voitures.add(dto);
+        }
+
+        List<Long> ids = voitureService.importerVoitures(societe.getId(), voitures);
+
+        assertEquals(120, ids.size());
+        assertEquals(120, new HashSet<>(ids).size());
+        // 120 lignes avec batch_size=50 : trois lots de 50, 50 et 20
+        assertEquals(120, ajoutsAuLot.get());
+        assertEquals(3, lotsExecutes.get());
+        assertEquals(0, executionsUnitaires.get());
+        assertEquals(120, voitureRepository.countBySocieteId(societe.getId()));
+    }
+
+    @TestConfiguration
+    static class CompteurJdbcConfig {
+
+        @Bean
+        static BeanPostProcessor compteurJdbc() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource
+                            ? proxy(DataSource.class, dataSource, compteurDataSource(dataSource)) : bean;
+                }
+            };
+        }
+
+        private static InvocationHandler compteurDataSource(DataSource dataSource) {
+            return (proxy, method, args) -> {
+                Object resultat = invoquer(dataSource, method, args);
+                return resultat instanceof Connection connection
+                        ? proxy(Connection.class, connection, compteurConnexion(connection)) : resultat;
+            };
+        }
+
+        private static InvocationHandler compteurConnexion(Connection connection) {
+            return (proxy, method, args) -> {
+                Object resultat = invoquer(connection, method, args);
+                if (resultat instanceof PreparedStatement statement && method.getName().equals("prepareStatement")
+                        && ((String) args[0]).toLowerCase().startsWith("insert into voitures")) {
+                    return proxy(PreparedStatement.class, statement, compteurInsert(statement));
+                }
+                return resultat;
+            };
+        }
+
+        private static InvocationHandler compteurInsert(PreparedStatement statement) {
+            return (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "addBatch" -> ajoutsAuLot.incrementAndGet();
+                    case "executeBatch" -> lotsExecutes.incrementAndGet();
+                    case "executeUpdate", "execute" -> executionsUnitaires.incrementAndGet();
+                    default -> {
+                    }
+                }
+                return invoquer(statement, method, args);
+            };
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T proxy(Class<T> type, T cible, InvocationHandler handler) {
+            return (T) Proxy.newProxyInstance(VoitureImportBatchTest.class.getClassLoader(), new Class<?>[]{type}, handler);
+        }
+
+        private static Object invoquer(Object cible, java.lang.reflect.Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(cible, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
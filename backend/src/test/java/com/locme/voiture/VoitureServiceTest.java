@@ -4,9 +4,13 @@ import com.locme.auth.User;
 import com.locme.auth.Role;
 import com.locme.common.exceptions.BusinessException;
 import com.locme.common.exceptions.ResourceNotFoundException;
+import com.locme.favorite.FavoriteCache;
+import com.locme.reservation.ReservationRepository;
+import com.locme.reservation.TarificationService;
 import com.locme.societe.Societe;
 import com.locme.societe.SocieteRepository;
 import com.locme.voiture.dto.VoitureDto;
+import com.locme.voiture.popularite.PopulariteService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -36,6 +40,18 @@ class VoitureServiceTest {
     @Mock
     private SocieteRepository societeRepository;
 
+    @Mock
+    private TarificationService tarificationService;
+
+    @Mock
+    private PopulariteService populariteService;
+
+    @Mock
+    private ReservationRepository reservationRepository;
+
+    @Mock
+    private FavoriteCache favoriteCache;
+
     @InjectMocks
     private VoitureService voitureService;
 
@@ -163,6 +179,27 @@ class VoitureServiceTest {
         assertEquals("Toyota", result.getMarque());
         assertEquals("Camry", result.getModele());
         verify(voitureRepository).findById(1L);
+        verify(populariteService).enregistrerVue(1L);
+    }
+
+    @Test
+    @DisplayName("Les voitures tendance suivent le classement et ignorent les voitures supprimées")
+    void testGetTrendingVoitures() {
+        Voiture autre = new Voiture();
+        autre.setId(3L);
+        autre.setMarque("Renault");
+        autre.setModele("Clio");
+        autre.setPrixParJour(new BigDecimal("30.00"));
+        autre.setDisponible(true);
+        autre.setSociete(testSociete);
+        when(populariteService.tendances(10)).thenReturn(Arrays.asList(3L, 2L, 1L));
+        when(voitureRepository.findWithSocieteByIdIn(Arrays.asList(3L, 2L, 1L))).thenReturn(Arrays.asList(testVoiture, autre));
+
+        List<VoitureDto> result = voitureService.getTrendingVoitures(null);
+
+        assertEquals(2, result.size());
+        assertEquals(3L, result.get(0).getId());
+        assertEquals(1L, result.get(1).getId());
     }
 
     @Test
@@ -248,7 +285,7 @@ class VoitureServiceTest {
         updatedVoitureDto.setModele("Camry Updated");
         updatedVoitureDto.setPrixParJour(new BigDecimal("60.00"));
 
-        when(voitureRepository.findById(1L)).thenReturn(Optional.of(testVoiture));
+        when(voitureRepository.findByIdAndSocieteUserId(1L, 1L)).thenReturn(Optional.of(testVoiture));
         when(voitureRepository.save(any(Voiture.class))).thenReturn(testVoiture);
 
         // When
@@ -256,8 +293,10 @@ class VoitureServiceTest {
 
         // Then
         assertNotNull(result);
-        verify(voitureRepository).findById(1L);
+        assertEquals("Toyota Updated", testVoiture.getMarque());
+        verify(voitureRepository).findByIdAndSocieteUserId(1L, 1L);
         verify(voitureRepository).save(any(Voiture.class));
+        verify(societeRepository, never()).findByUser(any(User.class));
     }
 
     @Test
@@ -267,7 +306,8 @@ class VoitureServiceTest {
         VoitureDto updatedVoitureDto = new VoitureDto();
         updatedVoitureDto.setMarque("Toyota Updated");
 
-        when(voitureRepository.findById(999L)).thenReturn(Optional.empty());
+        when(voitureRepository.findByIdAndSocieteUserId(999L, 1L)).thenReturn(Optional.empty());
+        when(voitureRepository.existsById(999L)).thenReturn(false);
 
         // When & Then
         ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class, () -> {
@@ -275,7 +315,7 @@ class VoitureServiceTest {
         });
 
         assertEquals("Voiture non trouvée", exception.getMessage());
-        verify(voitureRepository).findById(999L);
+        verify(voitureRepository).existsById(999L);
         verify(voitureRepository, never()).save(any(Voiture.class));
     }
 
@@ -290,7 +330,8 @@ class VoitureServiceTest {
         VoitureDto updatedVoitureDto = new VoitureDto();
         updatedVoitureDto.setMarque("Toyota Updated");
 
-        when(voitureRepository.findById(1L)).thenReturn(Optional.of(testVoiture));
+        when(voitureRepository.findByIdAndSocieteUserId(1L, 2L)).thenReturn(Optional.empty());
+        when(voitureRepository.existsById(1L)).thenReturn(true);
 
         // When & Then
         BusinessException exception = assertThrows(BusinessException.class, () -> {
@@ -298,7 +339,7 @@ class VoitureServiceTest {
         });
 
         assertEquals("Vous n'êtes pas autorisé à modifier cette voiture", exception.getMessage());
-        verify(voitureRepository).findById(1L);
+        verify(voitureRepository).findByIdAndSocieteUserId(1L, 2L);
         verify(voitureRepository, never()).save(any(Voiture.class));
     }
 
@@ -306,21 +347,48 @@ class VoitureServiceTest {
     @DisplayName("Test delete voiture")
     void testDeleteVoiture() {
         // Given
-        when(voitureRepository.findById(1L)).thenReturn(Optional.of(testVoiture));
+        when(voitureRepository.findByIdAndSocieteUserId(1L, 1L)).thenReturn(Optional.of(testVoiture));
 
         // When
         voitureService.deleteVoiture(1L, testUser);
 
-        // Then
-        verify(voitureRepository).findById(1L);
-        verify(voitureRepository).delete(testVoiture);
+        // Then : suppression logique, la ligne reste pour l'historique des réservations
+        assertNotNull(testVoiture.getDeletedAt());
+        assertTrue(testVoiture.isSupprimee());
+        verify(voitureRepository, never()).delete(any(Voiture.class));
+        verify(voitureRepository, never()).findById(anyLong());
+        verify(tarificationService).invaliderVoiture(1L);
+        // Vérification des réservations sous verrou, puis retrait des favoris en cache
+        var ordre = inOrder(voitureRepository, reservationRepository);
+        ordre.verify(voitureRepository).verrouiller(1L);
+        ordre.verify(reservationRepository).existsActivesByVoitureId(1L);
+        verify(favoriteCache).retirerVoiture(1L);
+    }
+
+    @Test
+    @DisplayName("Test delete voiture with reservations still to honour")
+    void testDeleteVoitureReservationsActives() {
+        // Given
+        when(voitureRepository.findByIdAndSocieteUserId(1L, 1L)).thenReturn(Optional.of(testVoiture));
+        when(reservationRepository.existsActivesByVoitureId(1L)).thenReturn(true);
+
+        // When & Then
+        BusinessException exception = assertThrows(BusinessException.class, () -> {
+            voitureService.deleteVoiture(1L, testUser);
+        });
+
+        assertEquals("Cette voiture a des réservations en attente, confirmées ou en cours", exception.getMessage());
+        assertNull(testVoiture.getDeletedAt());
+        verify(tarificationService, never()).invaliderVoiture(anyLong());
+        verifyNoInteractions(favoriteCache);
     }
 
     @Test
     @DisplayName("Test delete voiture not found")
     void testDeleteVoitureNotFound() {
         // Given
-        when(voitureRepository.findById(999L)).thenReturn(Optional.empty());
+        when(voitureRepository.findByIdAndSocieteUserId(999L, 1L)).thenReturn(Optional.empty());
+        when(voitureRepository.existsById(999L)).thenReturn(false);
 
         // When & Then
         ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class, () -> {
@@ -328,8 +396,8 @@ class VoitureServiceTest {
         });
 
         assertEquals("Voiture non trouvée", exception.getMessage());
-        verify(voitureRepository).findById(999L);
-        verify(voitureRepository, never()).delete(any(Voiture.class));
+        verify(voitureRepository).existsById(999L);
+        verify(tarificationService, never()).invaliderVoiture(anyLong());
     }
 
     @Test
@@ -340,7 +408,8 @@ class VoitureServiceTest {
         otherUser.setId(2L);
         otherUser.setRole(Role.SOCIETE);
 
-        when(voitureRepository.findById(1L)).thenReturn(Optional.of(testVoiture));
+        when(voitureRepository.findByIdAndSocieteUserId(1L, 2L)).thenReturn(Optional.empty());
+        when(voitureRepository.existsById(1L)).thenReturn(true);
 
         // When & Then
         BusinessException exception = assertThrows(BusinessException.class, () -> {
@@ -348,7 +417,8 @@ class VoitureServiceTest {
         });
 
         assertEquals("Vous n'êtes pas autorisé à supprimer cette voiture", exception.getMessage());
-        verify(voitureRepository).findById(1L);
-        verify(voitureRepository, never()).delete(any(Voiture.class));
+        verify(voitureRepository).findByIdAndSocieteUserId(1L, 2L);
+        assertNull(testVoiture.getDeletedAt());
+        verify(tarificationService, never()).invaliderVoiture(anyLong());
     }
 }
@@ -0,0 +1,180 @@
+package com.locme.voiture.importation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.locme.auth.User;
+import com.locme.common.exceptions.BusinessException;
+import com.locme.societe.Societe;
+import com.locme.societe.SocieteRepository;
+import com.locme.voiture.TypeCarburant;
+import com.locme.voiture.VoitureService;
+import com.locme.voiture.dto.RapportImportDto;
+import com.locme.voiture.dto.VoitureDto;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VoitureImportServiceTest {
+
+    @Mock
+    private VoitureService voitureService;
+
+    @Mock
+    private SocieteRepository societeRepository;
+
+    @InjectMocks
+    private VoitureImportService voitureImportService;
+
+    private User user;
+    // Copie de chaque lot au moment de l'appel : le service réutilise la même liste
+    private final List<List<VoitureDto>> lots = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(voitureImportService, "validator",
+                Validation.buildDefaultValidatorFactory().getValidator());
+        ReflectionTestUtils.setField(voitureImportService, "objectMapper", new ObjectMapper());
+
+        user = new User();
+        user.setId(7L);
+        Societe societe = new Societe();
+        societe.setId(5L);
+        lenient().when(societeRepository.findByUser(user)).thenReturn(Optional.of(societe));
+        lenient().when(voitureService.importerVoitures(eq(5L), anyList())).thenAnswer(invocation -> {
+            lots.add(new ArrayList<>(invocation.<List<VoitureDto>>getArgument(1)));
+            return List.of();
+        });
+    }
+
+    private RapportImportDto importerCsv(String csv) throws IOException {
+        return voitureImportService.importer(new StringReader(csv), FormatImport.CSV, ',', user);
+    }
+
+    @Test
+    @DisplayName("Les lignes CSV valides sont importées, les autres rapportées avec leur numéro de ligne")
+    void testImportCsv() throws IOException {
+        RapportImportDto rapport = importerCsv("""
+                Marque,Modèle,prix_par_jour,carburant,disponible
+                Peugeot,308,"40,50",diesel,non
+                Fiat,Panda,abc,essence,
+                Renault,,35,essence,oui
+                Tesla,Model 3,120,electrique
+                """);
+
+        assertEquals(4, rapport.getLignesLues());
+        assertEquals(1, rapport.getVoituresImportees());
+        assertEquals(3, rapport.getLignesRejetees());
+        assertEquals(List.of(3L, 4L, 5L), rapport.getErreurs().stream().map(e -> e.getLigne()).toList());
+        assertEquals("Valeur invalide pour prixParJour : abc", rapport.getErreurs().get(0).getMessage());
+        assertTrue(rapport.getErreurs().get(1).getMessage().startsWith("modele"));
+        assertEquals("5 colonnes attendues, 4 trouvées", rapport.getErreurs().get(2).getMessage());
+
+        assertEquals(1, lots.size());
+        VoitureDto peugeot = lots.get(0).get(0);
+        assertEquals(new BigDecimal("40.50"), peugeot.getPrixParJour());
+        assertEquals(TypeCarburant.DIESEL, peugeot.getCarburant());
+        assertFalse(peugeot.getDisponible());
+        verify(societeRepository, times(1)).findByUser(user);
+    }
+
+    @Test
+    @DisplayName("Les voitures sont insérées par lots de taille bornée")
+    void testImportParLots() throws IOException {
+        ReflectionTestUtils.setField(voitureImportService, "tailleLot", 2);
+        StringBuilder csv = new StringBuilder("marque,modele,prixParJour\n");
+        for (int i = 0; i < 5; i++) {
+            csv.append("Marque ").append(i).append(",Modèle,30\n");
+        }
+
+        RapportImportDto rapport = importerCsv(csv.toString());
+
+        assertEquals(5, rapport.getVoituresImportees());
+        assertEquals(List.of(2, 2, 1), lots.stream().map(List::size).toList());
+    }
+
+    @Test
+    @DisplayName("Un lot refusé par la base rejette chacune de ses lignes sans arrêter l'import")
+    void testLotRejete() throws IOException {
+        ReflectionTestUtils.setField(voitureImportService, "tailleLot", 2);
+        when(voitureService.importerVoitures(eq(5L), anyList()))
+                .thenThrow(new DataIntegrityViolationException("valeur trop longue"))
+                .thenReturn(List.of());
+
+        RapportImportDto rapport = importerCsv("marque,modele,prixParJour\nA,B,10\nC,D,20\nE,F,30\n");
+
+        assertEquals(1, rapport.getVoituresImportees());
+        assertEquals(2, rapport.getLignesRejetees());
+        assertEquals(List.of(2L, 3L), rapport.getErreurs().stream().map(e -> e.getLigne()).toList());
+    }
+
+    @Test
+    @DisplayName("L'import NDJSON rapporte le JSON invalide et les voitures invalides")
+    void testImportNdjson() throws IOException {
+        String ndjson = """
+                {"marque":"Audi","modele":"A4","prixParJour":80,"transmission":"AUTOMATIQUE"}
+
+                {"marque":"BMW",
+                {"marque":"BMW","modele":"X3","prixParJour":-5}
+                """;
+
+        RapportImportDto rapport = voitureImportService.importer(new StringReader(ndjson), FormatImport.NDJSON, ',', user);
+
+        assertEquals(3, rapport.getLignesLues());
+        assertEquals(1, rapport.getVoituresImportees());
+        assertEquals(List.of(3L, 4L), rapport.getErreurs().stream().map(e -> e.getLigne()).toList());
+        assertTrue(rapport.getErreurs().get(0).getMessage().startsWith("JSON invalide"));
+        assertTrue(rapport.getErreurs().get(1).getMessage().startsWith("prixParJour"));
+        assertEquals("A4", lots.get(0).get(0).getModele());
+    }
+
+    @Test
+    @DisplayName("Un en-tête inconnu refuse le fichier avant toute insertion")
+    void testColonneInconnue() {
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> importerCsv("marque,modele,prixParJour,couleur\nA,B,10,rouge\n"));
+
+        assertEquals("Colonne inconnue : couleur", exception.getMessage());
+        verifyNoInteractions(voitureService);
+    }
+
+    @Test
+    @DisplayName("Au-delà du maximum, les erreurs sont comptées sans être conservées")
+    void testErreursTronquees() throws IOException {
+        ReflectionTestUtils.setField(voitureImportService, "erreursMax", 2);
+
+        RapportImportDto rapport = importerCsv("marque,modele,prixParJour\nA,B,x\nA,B,y\nA,B,z\n");
+
+        assertEquals(3, rapport.getLignesRejetees());
+        assertEquals(2, rapport.getErreurs().size());
+        assertTrue(rapport.isErreursTronquees());
+    }
+
+    @Test
+    @DisplayName("Un flux mal formé interrompt l'import en gardant les lignes déjà lues")
+    void testFluxMalForme() throws IOException {
+        RapportImportDto rapport = importerCsv("marque,modele,prixParJour\nA,B,10\n\"C,D,20\n");
+
+        assertTrue(rapport.isInterrompu());
+        assertEquals(1, rapport.getVoituresImportees());
+        assertEquals(3, rapport.getErreurs().get(0).getLigne());
+    }
+}
@@ -0,0 +1,116 @@
+package com.locme.voiture.popularite;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PopulariteServiceTest {
+
+    @Mock
+    private StatistiquePopulariteRepository statistiqueRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private PopulariteService populariteService;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    @DisplayName("Les interactions sont cumulées puis ajoutées aux statistiques du jour")
+    void testEcritureIncrement() {
+        when(statistiqueRepository.incrementer(eq(1L), any(LocalDate.class), anyLong(), anyLong(), anyLong()))
+                .thenReturn(1);
+
+        populariteService.enregistrerVue(1L);
+        populariteService.enregistrerVue(1L);
+        populariteService.enregistrerFavori(1L);
+        populariteService.enregistrerReservation(1L);
+        populariteService.ecrire();
+
+        verify(statistiqueRepository).incrementer(1L, LocalDate.now(), 2L, 1L, 1L);
+        verify(statistiqueRepository, never()).save(any());
+
+        // Les compteurs sont remis à zéro : rien à écrire au cycle suivant
+        populariteService.ecrire();
+        verify(statistiqueRepository, times(1)).incrementer(anyLong(), any(), anyLong(), anyLong(), anyLong());
+    }
+
+    @Test
+    @DisplayName("La première écriture du jour crée la ligne de statistiques")
+    void testEcritureCreation() {
+        when(statistiqueRepository.incrementer(eq(2L), any(LocalDate.class), anyLong(), anyLong(), anyLong()))
+                .thenReturn(0);
+
+        populariteService.enregistrerVue(2L);
+        populariteService.ecrire();
+
+        ArgumentCaptor<StatistiquePopularite> captor = ArgumentCaptor.forClass(StatistiquePopularite.class);
+        verify(statistiqueRepository).save(captor.capture());
+        assertEquals(2L, captor.getValue().getVoitureId());
+        assertEquals(LocalDate.now(), captor.getValue().getJour());
+        assertEquals(1L, captor.getValue().getVues());
+    }
+
+    @Test
+    @DisplayName("Les compteurs d'un lot en échec sont conservés pour le cycle suivant")
+    void testEchecEcriture() {
+        doThrow(new IllegalStateException("base indisponible")).when(transactionTemplate).execute(any());
+        populariteService.enregistrerReservation(3L);
+        populariteService.ecrire();
+
+        doAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null))
+                .when(transactionTemplate).execute(any());
+        when(statistiqueRepository.incrementer(eq(3L), any(LocalDate.class), anyLong(), anyLong(), anyLong()))
+                .thenReturn(1);
+        populariteService.enregistrerReservation(3L);
+        populariteService.ecrire();
+
+        verify(statistiqueRepository).incrementer(3L, LocalDate.now(), 0L, 0L, 2L);
+    }
+
+    @Test
+    @DisplayName("Le classement favorise l'activité récente")
+    void testClassementAvecDecroissance() {
+        LocalDate aujourdhui = LocalDate.now();
+        when(statistiqueRepository.findByJourGreaterThanEqual(any(LocalDate.class))).thenReturn(Arrays.asList(
+                // Voiture 1 : très consultée il y a dix jours
+                new StatistiquePopularite(1L, aujourdhui.minusDays(10), 150, 0, 0),
+                // Voiture 2 : quelques réservations aujourd'hui
+                new StatistiquePopularite(2L, aujourdhui, 10, 1, 2),
+                // Voiture 3 : activité moyenne sur deux jours
+                new StatistiquePopularite(3L, aujourdhui.minusDays(1), 20, 0, 0),
+                new StatistiquePopularite(3L, aujourdhui, 5, 0, 0),
+                new StatistiquePopularite(4L, aujourdhui, 0, 0, 0)));
+
+        List<Long> tendances = populariteService.tendances(10);
+
+        assertEquals(Arrays.asList(2L, 3L, 1L), tendances);
+        assertEquals(List.of(2L), populariteService.tendances(1));
+        // Le classement est conservé jusqu'au prochain rafraîchissement
+        verify(statistiqueRepository, times(1)).findByJourGreaterThanEqual(any(LocalDate.class));
+    }
+}